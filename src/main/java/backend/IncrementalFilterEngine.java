@@ -0,0 +1,359 @@
+package backend;
+
+import backend.resource.MultiModel;
+import backend.resource.TurboIssue;
+import filter.CompiledFilter;
+import filter.SortKeyComparator;
+import filter.expression.FilterExpression;
+import filter.expression.Qualifier;
+import filter.expression.QualifierType;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the filtered and sorted issues of each filter expression between refreshes, so that later
+ * refreshes only need to re-evaluate the issues which changed since the previous one.
+ * <p>
+ * Changed issues are obtained from the change log of the MultiModel. All issues are evaluated again when
+ * <ul>
+ * <li>the filter expression was not seen before or its milestone aliases resolve differently</li>
+ * <li>the model underwent a structural change, e.g. a repo was opened or its labels changed</li>
+ * <li>the filter depends on the current time or on read state, which the change log does not track</li>
+ * </ul>
+ * <p>
+ * Thread-safe. Different filter expressions may be processed concurrently, and large issue sets are
+ * split across the fork/join pool the caller runs in.
+ */
+public class IncrementalFilterEngine {
+
+    private static final int MAX_CACHED_FILTERS = 64;
+    private static final int MAX_CACHED_SORT_ORDERS = 16;
+
+    // Issue sets smaller than this are not worth splitting across threads
+    private static final int PARALLEL_THRESHOLD = 2048;
+
+    // Least recently used entries are evicted first, so that filters of closed panels are eventually dropped
+    private final Map<FilterExpression, CachedResult> cache =
+            new LinkedHashMap<FilterExpression, CachedResult>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<FilterExpression, CachedResult> eldest) {
+                    return size() > MAX_CACHED_FILTERS;
+                }
+            };
+
+    private final AtomicLong fullEvaluationCount = new AtomicLong();
+    private final AtomicLong incrementalEvaluationCount = new AtomicLong();
+
+    // Sort keys by comparator signature, so that keys of unchanged issues are extracted only once
+    private final Map<String, SortKeyCache> sortKeyCaches =
+            new LinkedHashMap<String, SortKeyCache>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, SortKeyCache> eldest) {
+                    return size() > MAX_CACHED_SORT_ORDERS;
+                }
+            };
+
+    /**
+     * Filters, sorts and counts the issues in {@code allModelIssues} according to {@code filterExprNoAlias},
+     * reusing the result of the previous call for {@code filterExpr} where possible.
+     *
+     * @param models            The model which the issues belong to
+     * @param modelVersion      Version of {@code models}, obtained before {@code allModelIssues}
+     * @param allModelIssues    All issues in {@code models}
+     * @param filterExpr        The filter expression of the panel, used to identify the cached result
+     * @param filterExprNoAlias {@code filterExpr} with its milestone aliases replaced
+     * @param comparator        The comparator used to sort the matching issues
+     * @return The processed issues and the warnings produced by the filter
+     */
+    public FilterResult process(MultiModel models, long modelVersion, List<TurboIssue> allModelIssues,
+                                FilterExpression filterExpr, FilterExpression filterExprNoAlias,
+                                SortKeyComparator comparator) {
+        CachedResult cached;
+        synchronized (cache) {
+            cached = cache.get(filterExpr);
+        }
+        Optional<Map<String, BitSet>> changes = Optional.empty();
+        if (cached != null && cached.filterExprNoAlias.equals(filterExprNoAlias)
+                && isIncrementallyEvaluable(filterExprNoAlias)) {
+            changes = models.getChangedIssuesSince(cached.modelVersion);
+        }
+
+        CachedResult result;
+        if (!changes.isPresent()) {
+            fullEvaluationCount.incrementAndGet();
+            result = evaluateFully(models, modelVersion, allModelIssues, filterExprNoAlias, comparator);
+        } else if (changes.get().isEmpty()) {
+            result = cached.withVersion(modelVersion);
+        } else {
+            incrementalEvaluationCount.incrementAndGet();
+            result = evaluateChanges(models, modelVersion, allModelIssues, cached, changes.get(), comparator);
+        }
+
+        synchronized (cache) {
+            // Concurrent refreshes of the same filter may finish out of order, keep the most recent result
+            CachedResult current = cache.get(filterExpr);
+            if (current == null || current.modelVersion <= result.modelVersion) {
+                cache.put(filterExpr, result);
+            }
+        }
+        return new FilterResult(result.processedIssues, collectWarnings(allModelIssues, result.warnings));
+    }
+
+    public long getFullEvaluationCount() {
+        return fullEvaluationCount.get();
+    }
+
+    public long getIncrementalEvaluationCount() {
+        return incrementalEvaluationCount.get();
+    }
+
+    private CachedResult evaluateFully(MultiModel models, long modelVersion, List<TurboIssue> allModelIssues,
+                                       FilterExpression filterExprNoAlias, SortKeyComparator comparator) {
+        CompiledFilter filter = CompiledFilter.compile(models, filterExprNoAlias);
+        List<TurboIssue> matchingIssues = streamOf(allModelIssues)
+                .filter(filter)
+                .collect(Collectors.toList());
+        Map<String, BitSet> matched = new HashMap<>();
+        matchingIssues.forEach(issue -> markMatched(matched, issue));
+
+        List<List<String>> warningsOfIssues = streamOf(allModelIssues)
+                .map(issue -> filterExprNoAlias.getWarnings(models, issue))
+                .collect(Collectors.toList());
+        Map<String, Map<Integer, List<String>>> warnings = new HashMap<>();
+        for (int i = 0; i < allModelIssues.size(); i++) {
+            putWarnings(warnings, allModelIssues.get(i), warningsOfIssues.get(i));
+        }
+
+        return new CachedResult(filterExprNoAlias, modelVersion, matched,
+                                sortAndCount(models, modelVersion, allModelIssues, matchingIssues, filterExprNoAlias,
+                                             comparator),
+                                warnings);
+    }
+
+    /**
+     * Only evaluates the issues in {@code changes}, the remaining issues keep the outcome they had
+     * in {@code cached}. Issues are still iterated in model order so that ties in the sort order are
+     * resolved exactly as in a full evaluation.
+     */
+    private CachedResult evaluateChanges(MultiModel models, long modelVersion, List<TurboIssue> allModelIssues,
+                                         CachedResult cached, Map<String, BitSet> changes,
+                                         SortKeyComparator comparator) {
+        FilterExpression filterExprNoAlias = cached.filterExprNoAlias;
+        CompiledFilter filter = CompiledFilter.compile(models, filterExprNoAlias);
+        Map<String, BitSet> matched = new HashMap<>();
+        List<TurboIssue> matchingIssues = new ArrayList<>();
+        Map<String, Map<Integer, List<String>>> warnings = new HashMap<>();
+        cached.warnings.forEach((repoId, warningsOfRepo) -> warnings.put(repoId, new HashMap<>(warningsOfRepo)));
+
+        for (TurboIssue issue : allModelIssues) {
+            BitSet changedIds = changes.get(issue.getRepoId());
+            boolean isMatching;
+            if (changedIds != null && changedIds.get(issue.getId())) {
+                isMatching = filter.test(issue);
+                putWarnings(warnings, issue, filterExprNoAlias.getWarnings(models, issue));
+            } else {
+                isMatching = cached.isMatched(issue);
+            }
+
+            if (isMatching) {
+                markMatched(matched, issue);
+                matchingIssues.add(issue);
+            }
+        }
+
+        return new CachedResult(filterExprNoAlias, modelVersion, matched,
+                                sortAndCount(models, modelVersion, allModelIssues, matchingIssues, filterExprNoAlias,
+                                             comparator),
+                                warnings);
+    }
+
+    /**
+     * Records the warnings an issue produces, replacing those it produced before. Warnings are kept by issue
+     * so that they go away with the issues which caused them.
+     */
+    private static void putWarnings(Map<String, Map<Integer, List<String>>> warnings, TurboIssue issue,
+                                    List<String> warningsOfIssue) {
+        if (warningsOfIssue.isEmpty()) {
+            Map<Integer, List<String>> warningsOfRepo = warnings.get(issue.getRepoId());
+            if (warningsOfRepo != null) {
+                warningsOfRepo.remove(issue.getId());
+            }
+        } else {
+            warnings.computeIfAbsent(issue.getRepoId(), repoId -> new HashMap<>())
+                    .put(issue.getId(), warningsOfIssue);
+        }
+    }
+
+    /**
+     * @return the distinct warnings of the issues still in the model, in model order
+     */
+    private static List<String> collectWarnings(List<TurboIssue> allModelIssues,
+                                                Map<String, Map<Integer, List<String>>> warnings) {
+        if (warnings.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Set<String> result = new LinkedHashSet<>();
+        for (TurboIssue issue : allModelIssues) {
+            Map<Integer, List<String>> warningsOfRepo = warnings.get(issue.getRepoId());
+            if (warningsOfRepo != null && warningsOfRepo.containsKey(issue.getId())) {
+                result.addAll(warningsOfRepo.get(issue.getId()));
+            }
+        }
+        return new ArrayList<>(result);
+    }
+
+    /**
+     * Sorts the matching issues by their cached sort keys and keeps the number given by the count qualifier,
+     * if any. When that number is smaller than the number of matching issues, only that many are selected
+     * and sorted.
+     */
+    private List<TurboIssue> sortAndCount(MultiModel models, long modelVersion,
+                                          List<TurboIssue> allModelIssues, List<TurboIssue> matchingIssues,
+                                          FilterExpression filterExprNoAlias, SortKeyComparator comparator) {
+        int count = Qualifier.determineCount(allModelIssues, filterExprNoAlias);
+        return sortByKeys(models, modelVersion, matchingIssues, comparator, count);
+    }
+
+    /**
+     * Decorates each issue with its sort key, sorts by the keys and undecorates, so that comparisons never
+     * resolve anything through the model.
+     */
+    private List<TurboIssue> sortByKeys(MultiModel models, long modelVersion, List<TurboIssue> issues,
+                                        SortKeyComparator comparator, int count) {
+        SortKeyCache keyCache = getSortKeyCache(comparator.getSignature());
+        keyCache.update(models, modelVersion);
+
+        List<KeyedIssue> keyedIssues = streamOf(issues)
+                .map(issue -> new KeyedIssue(issue, keyCache.getKey(issue, comparator)))
+                .collect(Collectors.toList());
+        Comparator<KeyedIssue> byKey = (a, b) -> comparator.compareKeys(a.key, b.key);
+
+        List<KeyedIssue> sorted = count < keyedIssues.size()
+                ? selectSmallest(keyedIssues, byKey, count)
+                : streamOf(keyedIssues).sorted(byKey).collect(Collectors.toList());
+        return sorted.stream().map(keyedIssue -> keyedIssue.issue).collect(Collectors.toList());
+    }
+
+    private SortKeyCache getSortKeyCache(String signature) {
+        synchronized (sortKeyCaches) {
+            return sortKeyCaches.computeIfAbsent(signature, s -> new SortKeyCache());
+        }
+    }
+
+    /**
+     * Selects the {@code k} smallest elements in sorted order using a bounded heap, in O(n log k) time.
+     * Ties are resolved by position, so the result is the same as the first {@code k} elements of a stable sort.
+     */
+    private static <T> List<T> selectSmallest(List<T> elements, Comparator<T> comparator, int k) {
+        if (k <= 0) {
+            return new ArrayList<>();
+        }
+        Comparator<Integer> byElement = (i, j) -> {
+            int result = comparator.compare(elements.get(i), elements.get(j));
+            return result != 0 ? result : Integer.compare(i, j);
+        };
+
+        // The largest of the k smallest elements seen so far is at the head
+        PriorityQueue<Integer> heap = new PriorityQueue<>(k, byElement.reversed());
+        for (int i = 0; i < elements.size(); i++) {
+            if (heap.size() < k) {
+                heap.add(i);
+            } else if (byElement.compare(i, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(i);
+            }
+        }
+
+        List<Integer> selected = new ArrayList<>(heap);
+        selected.sort(byElement);
+        return selected.stream().map(elements::get).collect(Collectors.toList());
+    }
+
+    private static class KeyedIssue {
+        private final TurboIssue issue;
+        private final SortKeyComparator.Key key;
+
+        KeyedIssue(TurboIssue issue, SortKeyComparator.Key key) {
+            this.issue = issue;
+            this.key = key;
+        }
+    }
+
+    /**
+     * Splits large lists across threads. Encounter order is preserved, so results are the same either way.
+     */
+    private static <T> Stream<T> streamOf(List<T> list) {
+        return list.size() >= PARALLEL_THRESHOLD ? list.parallelStream() : list.stream();
+    }
+
+    private static void markMatched(Map<String, BitSet> matched, TurboIssue issue) {
+        matched.computeIfAbsent(issue.getRepoId(), repoId -> new BitSet()).set(issue.getId());
+    }
+
+    /**
+     * The outcome of a filter containing these qualifiers may change without the issue changing.
+     */
+    private static boolean isIncrementallyEvaluable(FilterExpression filterExpr) {
+        return !Qualifier.hasUpdatedQualifier(filterExpr)
+                && filterExpr.find(IncrementalFilterEngine::isReadStateQualifier).isEmpty();
+    }
+
+    private static boolean isReadStateQualifier(Qualifier qualifier) {
+        if (qualifier.getType() != QualifierType.IS || !qualifier.getContent().isPresent()) {
+            return false;
+        }
+        String content = Qualifier.expandKeywordAliases(qualifier.getContent().get());
+        return "read".equals(content) || "unread".equals(content);
+    }
+
+    /**
+     * Issues of a filter expression after filtering, sorting and counting, together with its warnings.
+     */
+    public static class FilterResult {
+        private final List<TurboIssue> processedIssues;
+        private final List<String> warnings;
+
+        public FilterResult(List<TurboIssue> processedIssues, List<String> warnings) {
+            this.processedIssues = processedIssues;
+            this.warnings = warnings;
+        }
+
+        public List<TurboIssue> getProcessedIssues() {
+            return new ArrayList<>(processedIssues);
+        }
+
+        public List<String> getWarnings() {
+            return new ArrayList<>(warnings);
+        }
+    }
+
+    private static class CachedResult {
+        private final FilterExpression filterExprNoAlias;
+        private final long modelVersion;
+        private final Map<String, BitSet> matched;
+        private final List<TurboIssue> processedIssues;
+        // Warnings by repo and issue, only for issues which produce any
+        private final Map<String, Map<Integer, List<String>>> warnings;
+
+        CachedResult(FilterExpression filterExprNoAlias, long modelVersion, Map<String, BitSet> matched,
+                     List<TurboIssue> processedIssues, Map<String, Map<Integer, List<String>>> warnings) {
+            this.filterExprNoAlias = filterExprNoAlias;
+            this.modelVersion = modelVersion;
+            this.matched = matched;
+            this.processedIssues = processedIssues;
+            this.warnings = warnings;
+        }
+
+        CachedResult withVersion(long modelVersion) {
+            return new CachedResult(filterExprNoAlias, modelVersion, matched, processedIssues, warnings);
+        }
+
+        boolean isMatched(TurboIssue issue) {
+            BitSet matchedIds = matched.get(issue.getRepoId());
+            return matchedIds != null && matchedIds.get(issue.getId());
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package backend;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A set of changes to the fields of an issue, to be written to the repository source in one request.
+ * Fields absent from the edit are left unchanged.
+ * <p>
+ * Immutable.
+ */
+public final class IssueEdit {
+
+    private final Optional<List<String>> labels;
+    private final Optional<Optional<Integer>> milestone;
+    private final Optional<Optional<String>> assignee;
+    private final Optional<Boolean> isOpen;
+
+    private IssueEdit(Optional<List<String>> labels, Optional<Optional<Integer>> milestone,
+                      Optional<Optional<String>> assignee, Optional<Boolean> isOpen) {
+        this.labels = labels.map(ArrayList::new);
+        this.milestone = milestone;
+        this.assignee = assignee;
+        this.isOpen = isOpen;
+    }
+
+    public static IssueEdit labels(List<String> labels) {
+        return new IssueEdit(Optional.of(labels), Optional.empty(), Optional.empty(), Optional.empty());
+    }
+
+    /**
+     * @param milestone The new milestone, or an empty Optional to remove the milestone
+     */
+    public static IssueEdit milestone(Optional<Integer> milestone) {
+        return new IssueEdit(Optional.empty(), Optional.of(milestone), Optional.empty(), Optional.empty());
+    }
+
+    /**
+     * @param assignee The login of the new assignee, or an empty Optional to remove the assignee
+     */
+    public static IssueEdit assignee(Optional<String> assignee) {
+        return new IssueEdit(Optional.empty(), Optional.empty(), Optional.of(assignee), Optional.empty());
+    }
+
+    public static IssueEdit state(boolean isOpen) {
+        return new IssueEdit(Optional.empty(), Optional.empty(), Optional.empty(), Optional.of(isOpen));
+    }
+
+    /**
+     * Merges an edit made after this one, whose fields take precedence.
+     *
+     * @param later The edit made after this one
+     * @return an edit with the changes of both
+     */
+    public IssueEdit mergeWith(IssueEdit later) {
+        return new IssueEdit(later.labels.isPresent() ? later.labels : labels,
+                             later.milestone.isPresent() ? later.milestone : milestone,
+                             later.assignee.isPresent() ? later.assignee : assignee,
+                             later.isOpen.isPresent() ? later.isOpen : isOpen);
+    }
+
+    public Optional<List<String>> getLabels() {
+        return labels.map(ArrayList::new);
+    }
+
+    public Optional<Optional<Integer>> getMilestone() {
+        return milestone;
+    }
+
+    public Optional<Optional<String>> getAssignee() {
+        return assignee;
+    }
+
+    public Optional<Boolean> isOpen() {
+        return isOpen;
+    }
+
+    /**
+     * @return the number of fields changed by the edit
+     */
+    public int getFieldCount() {
+        return (labels.isPresent() ? 1 : 0) + (milestone.isPresent() ? 1 : 0)
+                + (assignee.isPresent() ? 1 : 0) + (isOpen.isPresent() ? 1 : 0);
+    }
+
+    @Override
+    public String toString() {
+        List<String> fields = new ArrayList<>();
+        labels.ifPresent(value -> fields.add("labels=" + value));
+        milestone.ifPresent(value -> fields.add("milestone=" + value.map(String::valueOf).orElse("none")));
+        assignee.ifPresent(value -> fields.add("assignee=" + value.orElse("none")));
+        isOpen.ifPresent(value -> fields.add("state=" + (value ? "open" : "closed")));
+        return "IssueEdit" + fields;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        IssueEdit issueEdit = (IssueEdit) o;
+        return labels.equals(issueEdit.labels) && milestone.equals(issueEdit.milestone)
+                && assignee.equals(issueEdit.assignee) && isOpen.equals(issueEdit.isOpen);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = labels.hashCode();
+        result = 31 * result + milestone.hashCode();
+        result = 31 * result + assignee.hashCode();
+        result = 31 * result + isOpen.hashCode();
+        return result;
+    }
+}
@@ -8,11 +8,13 @@ import util.Utility;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 
 public final class IssueMetadata {
 
+    // Unmodifiable, so that they can be shared by the instances derived from one another
     private final List<TurboIssueEvent> events;
     private final List<Comment> comments;
 
@@ -32,12 +34,16 @@ public final class IssueMetadata {
     private final String eventsETag; // Only modified in the DownloadMetadataTask constructor
     private final String commentsETag;
 
+    // Shared by all issues without metadata, as instances are immutable
+    private static final IssueMetadata EMPTY =
+            new IssueMetadata(Collections.emptyList(), Collections.emptyList(), false, "", "");
+
     /**
      * Factory method for the empty metadata instance. This is used as the default for
      * new issues.
      */
     public static IssueMetadata empty() {
-        return new IssueMetadata(new ArrayList<>(), new ArrayList<>(), false, "", "");
+        return EMPTY;
     }
 
     /**
@@ -56,7 +62,7 @@ public final class IssueMetadata {
      */
     public static IssueMetadata intermediate(List<TurboIssueEvent> events, List<Comment> comments,
                                              String eventsETag, String commentsETag) {
-        return new IssueMetadata(events, comments, false, eventsETag, commentsETag);
+        return new IssueMetadata(immutableCopy(events), immutableCopy(comments), false, eventsETag, commentsETag);
     }
 
     /**
@@ -76,20 +82,42 @@ public final class IssueMetadata {
                                    List<TurboIssueEvent> existingEvents, String existingETag) {
         List<TurboIssueEvent> newEvents;
         if (existingETag.equals(eventsETag)) {
-            newEvents = new ArrayList<>(existingEvents);
+            newEvents = immutableCopy(existingEvents);
         } else {
-            newEvents = new ArrayList<>(events);
+            newEvents = events;
         }
         return new IssueMetadata(newEvents, comments, isLatest, eventsETag, commentsETag, nonSelfUpdatedAt, user);
     }
 
+    /**
+     * Reconciles newly-downloaded metadata against the existing metadata of the same issue. Events and comments
+     * which were not downloaded again, as their ETags are unchanged, are taken from the existing metadata.
+     * Comments are only taken if their ETag is known, as comments spanning several pages have none.
+     *
+     * @return an intermediate metadata instance with the reconciled events and comments
+     */
+    public IssueMetadata reconcile(IssueMetadata existing) {
+        List<TurboIssueEvent> newEvents = existing.eventsETag.equals(eventsETag) ? existing.events : events;
+        List<Comment> newComments = !commentsETag.isEmpty() && existing.commentsETag.equals(commentsETag)
+                ? existing.comments
+                : comments;
+        return new IssueMetadata(newEvents, newComments, false, eventsETag, commentsETag);
+    }
+
+    /**
+     * Replaces the time of the last non-self update of a full metadata instance.
+     */
+    public IssueMetadata withNonSelfUpdatedAt(LocalDateTime nonSelfUpdatedAt) {
+        return new IssueMetadata(events, comments, isLatest, eventsETag, commentsETag, nonSelfUpdatedAt, user);
+    }
+
     /**
      * Intermediate metadata constructor (no user provided, empty computed properties)
      */
     private IssueMetadata(List<TurboIssueEvent> events, List<Comment> comments,
                           boolean isLatest, String eventsETag, String commentsETag) {
-        this.events = new ArrayList<>(events);
-        this.comments = new ArrayList<>(comments);
+        this.events = events;
+        this.comments = comments;
         this.isLatest = isLatest;
         this.eventsETag = eventsETag;
         this.commentsETag = commentsETag;
@@ -115,8 +143,8 @@ public final class IssueMetadata {
     private IssueMetadata(List<TurboIssueEvent> events, List<Comment> comments,
                           boolean isLatest, String eventsETag, String commentsETag,
                           LocalDateTime nonSelfUpdatedAt, String user) {
-        this.events = new ArrayList<>(events);
-        this.comments = new ArrayList<>(comments);
+        this.events = events;
+        this.comments = comments;
         this.isLatest = isLatest;
         this.eventsETag = eventsETag;
         this.commentsETag = commentsETag;
@@ -126,6 +154,10 @@ public final class IssueMetadata {
         this.nonSelfCommentCount = countCommentsByOthers(comments, user);
     }
 
+    private static <T> List<T> immutableCopy(List<T> list) {
+        return Collections.unmodifiableList(new ArrayList<>(list));
+    }
+
     private static LocalDateTime computeNonSelfUpdatedAt(List<TurboIssueEvent> events, List<Comment> comments,
                                                          String user) {
         Date result = new Date(0);
@@ -1,6 +1,7 @@
 package backend;
 
 import backend.control.RepoOpControl;
+import backend.control.WriteBackQueue;
 import backend.resource.Model;
 import backend.resource.MultiModel;
 import backend.resource.TurboIssue;
@@ -39,6 +40,9 @@ public class Logic {
     private final RepoIO repoIO;
 
     private final RepoOpControl repoOpControl;
+    private final WriteBackQueue writeBackQueue;
+    private final RefreshScheduler refreshScheduler;
+    private final SyncScheduler syncScheduler;
     public LoginController loginController;
     public UpdateController updateController;
 
@@ -50,8 +54,13 @@ public class Logic {
 
         repoOpControl = new RepoOpControl(this.repoIO, this.models);
         this.repoIO.setRepoOpControl(repoOpControl);
+        writeBackQueue = new WriteBackQueue(repoOpControl);
         loginController = new LoginController(this);
         updateController = new UpdateController(this);
+        refreshScheduler = new RefreshScheduler(this::getAllPanels,
+                                                panels -> updateController.processAndRefresh(panels),
+                                                panels -> updateController.refilter(panels));
+        syncScheduler = new SyncScheduler(this::getOpenRepos, this::getVisibleRepos, this::syncRepository);
 
         // Only relevant to testing, need a different event type to avoid race condition
         UI.events.registerEvent((ClearLogicModelEventHandler) this::onLogicModelClear);
@@ -92,11 +101,66 @@ public class Logic {
                                  .map((model) -> repoIO.updateModel(model, true))
                                  .collect(Collectors.toList()))
                 .thenRun(this::refreshUI)
+                .thenRun(syncScheduler::onAllPolled)
                 .thenCompose(n -> getRateLimitResetTime())
                 .thenApply(this::updateRemainingRate)
                 .exceptionally(Futures::log);
     }
 
+    /**
+     * Synchronises a single repository with its source, refreshing the UI only if anything changed.
+     *
+     * @param repoId The repository to synchronise
+     * @return true if the repository changed
+     */
+    private CompletableFuture<Boolean> syncRepository(String repoId) {
+        Model model = models.get(repoId);
+        if (model == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return repoIO.updateModel(model, true)
+                .thenApply(newModel -> {
+                    boolean isChanged = !model.equals(newModel);
+                    if (isChanged) {
+                        refreshUI(repoId);
+                    }
+                    return isChanged;
+                })
+                .thenCompose(isChanged -> getRateLimitResetTime()
+                        .thenApply(this::updateRemainingRate)
+                        .thenApply(rateLimits -> isChanged));
+    }
+
+    private Set<String> getOpenRepos() {
+        return models.toModels().stream()
+                .map(Model::getRepoId)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * @return the repositories shown in panels, i.e. those in their repo qualifiers, or the default repository
+     * for panels without any
+     */
+    private Set<String> getVisibleRepos() {
+        Set<String> visibleRepos = new HashSet<>();
+        for (FilterPanel panel : getAllPanels()) {
+            visibleRepos.addAll(getReposOf(panel));
+        }
+        return visibleRepos;
+    }
+
+    /**
+     * @return the repositories in the repo qualifiers of {@code panel}, or the default repository if it has none
+     */
+    private Set<String> getReposOf(FilterPanel panel) {
+        Set<String> repoIds = Qualifier.getMetaQualifierContent(panel.getCurrentFilterExpression(),
+                                                                QualifierType.REPO);
+        if (repoIds.isEmpty()) {
+            Optional.ofNullable(getDefaultRepo()).ifPresent(repoIds::add);
+        }
+        return repoIds;
+    }
+
     /**
      * Opens repoId if it isn't already open, else simply refreshes the UI
      * After opening the repo, it will trigger a PrimaryRepoOpenedEvent
@@ -233,6 +297,7 @@ public class Logic {
 
     public ImmutablePair<Integer, Long> updateRemainingRate(ImmutablePair<Integer, Long> rateLimits) {
         uiManager.updateRateLimits(rateLimits);
+        syncScheduler.updateRateLimits(rateLimits);
         return rateLimits;
     }
 
@@ -262,7 +327,7 @@ public class Logic {
         logger.info("Changing labels for " + issue + " on UI");
         CompletableFuture<Optional<TurboIssue>> localLabelsReplaceFuture =
                 repoOpControl.replaceIssueLabelsLocally(issue, newLabels);
-        localLabelsReplaceFuture.thenRun(this::refreshUI);
+        localLabelsReplaceFuture.thenRun(() -> refreshUI(issue.getRepoId()));
 
         return updateIssueLabelsOnServer(issue, newLabels)
                 .thenCombine(localLabelsReplaceFuture, (isUpdateSuccessful, locallyModifiedIssue) ->
@@ -282,7 +347,7 @@ public class Logic {
         Optional<Integer> oldMilestone = issue.getMilestone();
         CompletableFuture<Optional<TurboIssue>> localMilestoneReplaceFuture =
                 repoOpControl.replaceIssueMilestoneLocally(issue, newMilestone);
-        localMilestoneReplaceFuture.thenRun(this::refreshUI);
+        localMilestoneReplaceFuture.thenRun(() -> refreshUI(issue.getRepoId()));
 
         return updateIssueMilestonesOnServer(issue, newMilestone)
                 .thenCombine(localMilestoneReplaceFuture, (isUpdateSuccessful, locallyModifiedIssue) ->
@@ -302,7 +367,7 @@ public class Logic {
         logger.info("Changing assignee for " + issue + " on UI");
         CompletableFuture<Optional<TurboIssue>> localAssigneeReplaceFuture =
                 repoOpControl.replaceIssueAssigneeLocally(issue, newAssigneeLoginName);
-        localAssigneeReplaceFuture.thenRun(this::refreshUI);
+        localAssigneeReplaceFuture.thenRun(() -> refreshUI(issue.getRepoId()));
 
         return updateIssueAssigneesOnServer(issue, newAssigneeLoginName)
                 .thenCombine(localAssigneeReplaceFuture, this::handleIssueAssigneeUpdateResult);
@@ -325,18 +390,18 @@ public class Logic {
 
     private CompletableFuture<Boolean> updateIssueLabelsOnServer(TurboIssue issue, List<String> newLabels) {
         logger.info("Changing labels for " + issue + " on GitHub");
-        return repoOpControl.replaceIssueLabelsOnServer(issue, newLabels);
+        return writeBackQueue.submit(issue, IssueEdit.labels(newLabels));
     }
 
     private CompletableFuture<Boolean> updateIssueMilestonesOnServer(TurboIssue issue, Optional<Integer> milestone) {
         logger.info("Changing milestone for " + issue + " on GitHub");
-        return repoOpControl.replaceIssueMilestoneOnServer(issue, milestone);
+        return writeBackQueue.submit(issue, IssueEdit.milestone(milestone));
     }
 
     private CompletableFuture<Boolean> updateIssueAssigneesOnServer(TurboIssue issue,
                                                                     Optional<String> newAssigneeLoginName) {
         logger.info("Changing assignee for " + issue + " on GitHub");
-        return repoOpControl.replaceIssueAssigneeOnServer(issue, newAssigneeLoginName);
+        return writeBackQueue.submit(issue, IssueEdit.assignee(newAssigneeLoginName));
     }
 
     /**
@@ -422,8 +487,9 @@ public class Logic {
 
         if (isCurrentLabelsModifiedFromOriginalLabels) {
             logger.info("Reverting labels for issue " + currentIssue);
-            models.replaceIssueLabels(currentIssue.getRepoId(), currentIssue.getId(), originalLabels);
-            refreshUI();
+            models.replaceIssueLabels(currentIssue.getRepoId(), currentIssue.getId(), originalLabels)
+                    .ifPresent(repoIO::saveIssueChange);
+            refreshUI(currentIssue.getRepoId());
         }
     }
 
@@ -445,8 +511,9 @@ public class Logic {
         }
 
         logger.info("Reverting assignee for issue " + currentIssue);
-        models.replaceIssueAssignee(currentIssue.getRepoId(), currentIssue.getId(), originalIssue.getAssignee());
-        refreshUI();
+        models.replaceIssueAssignee(currentIssue.getRepoId(), currentIssue.getId(), originalIssue.getAssignee())
+                .ifPresent(repoIO::saveIssueChange);
+        refreshUI(currentIssue.getRepoId());
     }
 
     /**
@@ -465,8 +532,9 @@ public class Logic {
         if (!isCurrentMilestoneModifiedFromOriginalMilestone) return;
 
         logger.info("Reverting milestone for issue " + currentIssue);
-        models.replaceIssueMilestone(currentIssue.getRepoId(), currentIssue.getId(), oldMilestone);
-        refreshUI();
+        models.replaceIssueMilestone(currentIssue.getRepoId(), currentIssue.getId(), oldMilestone)
+                .ifPresent(repoIO::saveIssueChange);
+        refreshUI(currentIssue.getRepoId());
     }
 
     /**
@@ -513,8 +581,9 @@ public class Logic {
         }
 
         logger.info("Reverting state for issue " + currentIssue);
-        models.editIssueState(currentIssue.getRepoId(), currentIssue.getId(), isOpenOriginally);
-        refreshUI();
+        models.editIssueState(currentIssue.getRepoId(), currentIssue.getId(), isOpenOriginally)
+                .ifPresent(repoIO::saveIssueChange);
+        refreshUI(currentIssue.getRepoId());
     }
 
     /**
@@ -533,9 +602,9 @@ public class Logic {
 
         CompletableFuture<Optional<TurboIssue>> localStateEditFuture =
                 repoOpControl.editIssueStateLocally(issue, isOpen);
-        localStateEditFuture.thenRun(this::refreshUI);
+        localStateEditFuture.thenRun(() -> refreshUI(issue.getRepoId()));
 
-        return repoOpControl.editIssueStateOnServer(issue, isOpen)
+        return writeBackQueue.submit(issue, IssueEdit.state(isOpen))
                 .thenCombine(localStateEditFuture, (isUpdateSuccessful, locallyModifiedIssue) -> {
                     return handleIssueStateUpdateResult(
                             isUpdateSuccessful, locallyModifiedIssue, isOpenOriginally);
@@ -545,9 +614,34 @@ public class Logic {
     /**
      * Determines data to be sent to the GUI to refresh the entire GUI with the current model in Logic,
      * and then sends the data to the GUI.
+     * <p>
+     * The refresh happens asynchronously, coalesced with other requests made in the meantime.
      */
     private void refreshUI() {
-        updateController.processAndRefresh(getAllPanels());
+        refreshScheduler.requestRefresh();
+    }
+
+    /**
+     * As {@link #refreshUI()}, but only refreshes the panels showing {@code repoId}, for changes which cannot
+     * affect any other panel.
+     */
+    private void refreshUI(String repoId) {
+        refreshScheduler.requestRefresh(getAllPanels().stream()
+                                                .filter(panel -> getReposOf(panel).stream()
+                                                        .anyMatch(repoId::equalsIgnoreCase))
+                                                .collect(Collectors.toList()));
+    }
+
+    public RefreshScheduler getRefreshScheduler() {
+        return refreshScheduler;
+    }
+
+    public SyncScheduler getSyncScheduler() {
+        return syncScheduler;
+    }
+
+    public WriteBackQueue getWriteBackQueue() {
+        return writeBackQueue;
     }
 
     /**
@@ -579,34 +673,33 @@ public class Logic {
      * @return True if metadata retrieval was a success, false otherwise.
      */
     public CompletableFuture<Boolean> getIssueMetadata(String repoId, List<TurboIssue> issues) {
+        return getIssueMetadata(repoId, issues, () -> {});
+    }
+
+    /**
+     * Retrieves metadata for given issues from the repository source, inserting it into the models batch by batch
+     * as it arrives. Non-self update timings are computed on insertion.
+     *
+     * @param repoId          The repository containing issues to retrieve metadata for.
+     * @param issues          Issues sharing the same repository requiring a metadata update.
+     * @param onBatchInserted Called after each batch of metadata is inserted into the models.
+     * @return True if metadata retrieval was a success, false otherwise.
+     */
+    public CompletableFuture<Boolean> getIssueMetadata(String repoId, List<TurboIssue> issues,
+                                                       Runnable onBatchInserted) {
         String message = "Getting metadata for " + repoId + "...";
         logger.info("Getting metadata for issues " + issues);
         UI.status.displayMessage(message);
 
-        return repoIO.getIssueMetadata(repoId, issues).thenApply(this::processUpdates)
-                .thenApply(metadata -> insertMetadata(metadata, repoId, prefs.getLastLoginUsername()))
-                .exceptionally(withResult(false));
-    }
-
-    private boolean insertMetadata(Map<Integer, IssueMetadata> metadata, String repoId, String currentUser) {
-        String updatedMessage = "Received metadata from " + repoId + "!";
-        UI.status.displayMessage(updatedMessage);
-        models.insertMetadata(repoId, metadata, currentUser);
-        return true;
-    }
-
-    // Adds update times to the metadata map
-    private Map<Integer, IssueMetadata> processUpdates(Map<Integer, IssueMetadata> metadata) {
         String currentUser = prefs.getLastLoginUsername();
-
-        // Iterates through each entry in the metadata set, and looks for the comment/event with
-        // the latest time created.
-        for (Map.Entry<Integer, IssueMetadata> entry : metadata.entrySet()) {
-            IssueMetadata currentMetadata = entry.getValue();
-
-            entry.setValue(currentMetadata.full(currentUser));
-        }
-        return metadata;
+        return repoIO.getIssueMetadata(repoId, issues, batch -> {
+            models.insertMetadata(repoId, batch, currentUser);
+            onBatchInserted.run();
+        }).thenApply(metadata -> {
+            String updatedMessage = "Received metadata from " + repoId + "!";
+            UI.status.displayMessage(updatedMessage);
+            return true;
+        }).exceptionally(withResult(false));
     }
 
     /**
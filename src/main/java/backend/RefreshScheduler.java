@@ -0,0 +1,188 @@
+package backend;
+
+import org.apache.logging.log4j.Logger;
+import ui.issuepanel.FilterPanel;
+import util.HTLog;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces requests to refresh panels, so that bursts of requests (e.g. from bulk edits) result in
+ * as few refreshes as possible.
+ * <p>
+ * At most one refresh is in flight at any time. Requests made while a refresh is in flight only mark
+ * their panels as dirty, and all dirty panels are then refreshed together by a single pending refresh
+ * once the in-flight one completes.
+ * <p>
+ * Panels may also be requested to be only refiltered, i.e. shown again from the data already in the model
+ * without retrieving anything (e.g. as batches of metadata arrive). These requests are coalesced the same way,
+ * and are served by a refresh of the same panels if one is also pending.
+ * <p>
+ * Thread-safe.
+ */
+public class RefreshScheduler {
+
+    private static final Logger logger = HTLog.get(RefreshScheduler.class);
+
+    private final Supplier<List<FilterPanel>> allPanels;
+    private final Consumer<List<FilterPanel>> refresher;
+    private final Consumer<List<FilterPanel>> refilterer;
+    private final Executor executor;
+
+    // Guarded by this
+    private boolean isRefreshInFlight = false;
+    private boolean areAllPanelsDirty = false;
+    private final Set<FilterPanel> dirtyPanels = new LinkedHashSet<>();
+    private final Set<FilterPanel> unfilteredPanels = new LinkedHashSet<>();
+
+    private final AtomicLong requestedCount = new AtomicLong();
+    private final AtomicLong executedCount = new AtomicLong();
+
+    /**
+     * @param allPanels Supplies the panels currently shown, resolved when a refresh of all panels executes
+     * @param refresher Refreshes the given panels
+     * @param refilterer Refilters the given panels
+     */
+    public RefreshScheduler(Supplier<List<FilterPanel>> allPanels, Consumer<List<FilterPanel>> refresher,
+                            Consumer<List<FilterPanel>> refilterer) {
+        this(allPanels, refresher, refilterer, Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "RefreshScheduler");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    public RefreshScheduler(Supplier<List<FilterPanel>> allPanels, Consumer<List<FilterPanel>> refresher,
+                            Consumer<List<FilterPanel>> refilterer, Executor executor) {
+        this.allPanels = allPanels;
+        this.refresher = refresher;
+        this.refilterer = refilterer;
+        this.executor = executor;
+    }
+
+    /**
+     * Requests a refresh of all panels.
+     */
+    public void requestRefresh() {
+        requestedCount.incrementAndGet();
+        synchronized (this) {
+            areAllPanelsDirty = true;
+            dirtyPanels.clear();
+            unfilteredPanels.clear();
+            scheduleIfIdle();
+        }
+    }
+
+    /**
+     * Requests a refresh of the given panels only.
+     *
+     * @param panels
+     */
+    public void requestRefresh(Collection<FilterPanel> panels) {
+        requestedCount.incrementAndGet();
+        synchronized (this) {
+            if (!areAllPanelsDirty) {
+                dirtyPanels.addAll(panels);
+            }
+            scheduleIfIdle();
+        }
+    }
+
+    /**
+     * Requests that the given panels be refiltered, without retrieving anything. Unlike refreshes, these
+     * requests are not counted.
+     *
+     * @param panels
+     */
+    public void requestRefilter(Collection<FilterPanel> panels) {
+        synchronized (this) {
+            if (!areAllPanelsDirty) {
+                unfilteredPanels.addAll(panels);
+            }
+            scheduleIfIdle();
+        }
+    }
+
+    /**
+     * @return The number of refreshes requested so far
+     */
+    public long getRequestedCount() {
+        return requestedCount.get();
+    }
+
+    /**
+     * @return The number of refreshes executed so far, at most {@link #getRequestedCount()}
+     */
+    public long getExecutedCount() {
+        return executedCount.get();
+    }
+
+    /**
+     * @return true if no refresh is executing or waiting to be executed
+     */
+    public synchronized boolean isIdle() {
+        return !isRefreshInFlight && !hasDirtyPanels();
+    }
+
+    private synchronized boolean hasDirtyPanels() {
+        return areAllPanelsDirty || !dirtyPanels.isEmpty() || !unfilteredPanels.isEmpty();
+    }
+
+    private synchronized void scheduleIfIdle() {
+        if (isRefreshInFlight || !hasDirtyPanels()) {
+            return;
+        }
+        isRefreshInFlight = true;
+        executor.execute(this::runRefreshes);
+    }
+
+    /**
+     * Refreshes and refilters dirty panels until none are left. Panels dirtied during a refresh are picked
+     * up by the next iteration.
+     */
+    private void runRefreshes() {
+        while (true) {
+            boolean shouldRefreshAll;
+            List<FilterPanel> panels;
+            List<FilterPanel> panelsToRefilter;
+            synchronized (this) {
+                if (!hasDirtyPanels()) {
+                    isRefreshInFlight = false;
+                    return;
+                }
+                shouldRefreshAll = areAllPanelsDirty;
+                panels = new ArrayList<>(dirtyPanels);
+                unfilteredPanels.removeAll(dirtyPanels);
+                panelsToRefilter = new ArrayList<>(unfilteredPanels);
+                areAllPanelsDirty = false;
+                dirtyPanels.clear();
+                unfilteredPanels.clear();
+            }
+
+            if (shouldRefreshAll || !panels.isEmpty()) {
+                executedCount.incrementAndGet();
+                run(refresher, shouldRefreshAll ? allPanels.get() : panels);
+            }
+            if (!panelsToRefilter.isEmpty()) {
+                run(refilterer, panelsToRefilter);
+            }
+        }
+    }
+
+    private static void run(Consumer<List<FilterPanel>> action, List<FilterPanel> panels) {
+        try {
+            action.accept(panels);
+        } catch (RuntimeException e) {
+            logger.error("Unable to refresh panels", e);
+        }
+    }
+}
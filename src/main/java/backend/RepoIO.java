@@ -1,12 +1,14 @@
 package backend;
 
+import backend.binary.JournaledStore;
 import backend.control.RepoOpControl;
 import backend.github.GitHubModelUpdatesData;
 import backend.github.GitHubSource;
 import backend.interfaces.RepoSource;
 import backend.interfaces.RepoStore;
-import backend.json.JSONStore;
+import backend.resource.HeapFootprint;
 import backend.resource.Model;
+import backend.resource.ModelDelta;
 import backend.resource.TurboIssue;
 import backend.resource.TurboMilestone;
 import backend.resource.serialization.SerializableModel;
@@ -19,11 +21,13 @@ import util.events.ShowErrorDialogEvent;
 import util.events.UpdateProgressEvent;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
 
 import static util.Futures.withResult;
 
@@ -32,7 +36,7 @@ public class RepoIO {
     private static final Logger logger = HTLog.get(RepoIO.class);
 
     private final RepoSource repoSource;
-    private final JSONStore jsonStore;
+    private final RepoStore repoStore;
     private RepoOpControl repoOpControl;
 
     private final List<String> storedRepos;
@@ -44,15 +48,15 @@ public class RepoIO {
      * parameters for repos source and storage which are useful for testing purposes.
      *
      * @param repoSource     optional source of repos. Default to GitHubSource if not present
-     * @param jsonStore      optional storage for repos. Default to a new JSONStore if not present
+     * @param repoStore      optional storage for repos. Default to a new JournaledStore if not present
      * @param storeDirectory optional directory for storing repos. Default value is in RepoStore.
      */
-    public RepoIO(Optional<RepoSource> repoSource, Optional<JSONStore> jsonStore,
+    public RepoIO(Optional<RepoSource> repoSource, Optional<RepoStore> repoStore,
                   Optional<String> storeDirectory) {
         this.repoSource = repoSource.orElseGet(() -> new GitHubSource());
         storeDirectory.ifPresent((dir) -> RepoStore.changeDirectory(dir));
-        this.jsonStore = jsonStore.orElseGet(() -> new JSONStore());
-        storedRepos = new ArrayList<>(this.jsonStore.getStoredRepos());
+        this.repoStore = repoStore.orElseGet(() -> new JournaledStore());
+        storedRepos = new ArrayList<>(this.repoStore.getStoredRepos());
     }
 
     /**
@@ -84,6 +88,13 @@ public class RepoIO {
     }
 
     public CompletableFuture<Model> openRepository(String repoId) {
+        return loadRepository(repoId).thenApply(model -> {
+            logger.info(HTLog.format(model.getRepoId(), "Heap footprint: " + HeapFootprint.of(model).summarise()));
+            return model;
+        });
+    }
+
+    private CompletableFuture<Model> loadRepository(String repoId) {
         // The ignoreCase logic is necessary when we are opening a repo from the login dialog window
         // i.e. when the isAlreadyOpen check in Logic fails.
         Optional<String> matchingRepoName = storedRepos.stream().filter(repoName ->
@@ -91,12 +102,12 @@ public class RepoIO {
                 .findFirst();
         if (matchingRepoName.isPresent()) {
             // TODO avoid CI deadlock in the .exceptionally call. Explanation:
-            /* loadRepoFromStoreAsync will execute in jsonStore's single thread pool, and if
+            /* loadRepoFromStoreAsync will execute in repoStore's single thread pool, and if
              it has an exception then downloadRepoFromSourceBlocking will also run there. Eventually,
-             this results in jsonStore.saveRepository in updateModel being placed as another Task on the
+             this results in repoStore.saveRepository in updateModel being placed as another Task on the
              same thread pool. However, since the current task is still carrying out and waiting for the second
              task to complete, the program gets deadlocked on the CI.
-             One example of how this can happen is when storedRepos contains the repo name but the json was
+             One example of how this can happen is when storedRepos contains the repo name but the stored file was
              deleted while the program is still running. */
             String repoToLoad = matchingRepoName.get();
             return loadRepoFromStoreAsync(repoToLoad)
@@ -108,11 +119,11 @@ public class RepoIO {
 
     public CompletableFuture<Boolean> removeRepository(String repoId) {
         storedRepos.remove(repoId);
-        return jsonStore.removeStoredRepo(repoId);
+        return repoStore.removeStoredRepo(repoId);
     }
 
     private CompletableFuture<Model> loadRepoFromStoreAsync(String repoId) {
-        return jsonStore.loadRepository(repoId)
+        return repoStore.loadRepository(repoId)
                 .thenCompose((model) -> this.updateModel(model, false));
     }
 
@@ -123,7 +134,7 @@ public class RepoIO {
     private CompletableFuture<Model> downloadRepoFromSourceAsync(String repoId, int remainingTries) {
         UI.status.displayMessage("Downloading " + repoId);
         return repoSource.downloadRepository(repoId)
-                .thenCompose(newModel -> updateModel(newModel, false, remainingTries))
+                .thenCompose(newModel -> updateModel(newModel, false, remainingTries, false))
                 .thenApply(model -> {
                     storedRepos.add(repoId);
                     return model;
@@ -167,24 +178,21 @@ public class RepoIO {
     }
 
     public CompletableFuture<Model> updateModel(Model model, boolean syncOperation, int remainingTries) {
+        return updateModel(model, syncOperation, remainingTries, true);
+    }
+
+    /**
+     * @param isModelStored true if {@code model} is the stored state of its repository, so that only the
+     *                      changes to it have to be saved
+     */
+    private CompletableFuture<Model> updateModel(Model model, boolean syncOperation, int remainingTries,
+                                                 boolean isModelStored) {
         return downloadModelUpdates(model)
                 .thenCompose((updates) -> getRepoOpControl().updateLocalModel(updates, syncOperation))
-                .thenApply(newModel -> {
-                    boolean corruptedJson = false;
-                    if (!model.equals(newModel)) {
-                        try {
-                            corruptedJson =
-                                    jsonStore.saveRepository(newModel.getRepoId(), new SerializableModel(newModel))
-                                            .get();
-                        } catch (InterruptedException | ExecutionException ex) {
-                            corruptedJson = true;
-                        }
-                    } else {
-                        logger.info(HTLog.format(model.getRepoId(),
-                                                 "Nothing changed; not writing to store"));
-                    }
+                // Continued without blocking, as the local model update may complete on a thread of RepoOpControl
+                .thenCompose(newModel -> storeModel(model, newModel, isModelStored).thenCompose(corruptedJson -> {
                     if (corruptedJson && remainingTries > 0) {
-                        return downloadRepoFromSourceAsync(model.getRepoId(), remainingTries - 1).join();
+                        return downloadRepoFromSourceAsync(model.getRepoId(), remainingTries - 1);
                     } else {
                         if (corruptedJson && remainingTries == 0) {
                             UI.events.triggerEvent(new ShowErrorDialogEvent("Could not sync " + model.getRepoId(),
@@ -197,15 +205,53 @@ public class RepoIO {
                             UI.status.displayMessage(model.getRepoId() + " is up to date!");
                         }
                         UI.events.triggerEvent(new UpdateProgressEvent(model.getRepoId()));
-                        return newModel;
+                        return CompletableFuture.completedFuture(newModel);
                     }
-                }).exceptionally(withResult(new Model(model.getRepoId())));
+                })).exceptionally(withResult(new Model(model.getRepoId())));
+    }
+
+    /**
+     * Writes {@code newModel} to the store if it differs from {@code model}.
+     *
+     * @return whether the stored data is corrupted and has to be downloaded again
+     */
+    private CompletableFuture<Boolean> storeModel(Model model, Model newModel, boolean isModelStored) {
+        if (model.equals(newModel)) {
+            logger.info(HTLog.format(model.getRepoId(), "Nothing changed; not writing to store"));
+            return CompletableFuture.completedFuture(false);
+        }
+        return (isModelStored
+                ? repoStore.updateRepository(model, newModel)
+                : repoStore.saveRepository(newModel.getRepoId(), new SerializableModel(newModel)))
+                .exceptionally(e -> true);
+    }
+
+    /**
+     * Saves an issue modified locally to the store, so that the modification survives until the next
+     * update of its repository.
+     *
+     * @param issue
+     */
+    public CompletableFuture<Boolean> saveIssueChange(TurboIssue issue) {
+        return repoStore.saveRepositoryChanges(ModelDelta.ofIssues(issue.getRepoId(), Arrays.asList(issue)));
     }
 
     public CompletableFuture<Map<Integer, IssueMetadata>> getIssueMetadata(String repoId, List<TurboIssue> issues) {
         return repoSource.downloadMetadata(repoId, issues);
     }
 
+    /**
+     * Downloads the metadata of issues, handing it over in batches as it arrives.
+     *
+     * @param repoId
+     * @param issues
+     * @param batchHandler Called with the metadata of each batch of issues, before the returned future completes
+     */
+    public CompletableFuture<Map<Integer, IssueMetadata>> getIssueMetadata(
+            String repoId, List<TurboIssue> issues, Consumer<Map<Integer, IssueMetadata>> batchHandler) {
+        return repoSource.downloadMetadata(repoId, issues, batchHandler);
+    }
+
     public CompletableFuture<Boolean> replaceIssueLabels(TurboIssue issue, List<String> labels) {
         return repoSource.replaceIssueLabels(issue, labels);
     }
@@ -222,6 +268,10 @@ public class RepoIO {
         return repoSource.editIssueState(issue, isOpen);
     }
 
+    public CompletableFuture<Boolean> editIssue(TurboIssue issue, IssueEdit edit) {
+        return repoSource.editIssue(issue, edit);
+    }
+
     public CompletableFuture<ImmutablePair<Integer, Long>> getRateLimitResetTime() {
         return repoSource.getRateLimitResetTime();
     }
@@ -0,0 +1,81 @@
+package backend;
+
+import backend.resource.MultiModel;
+import backend.resource.TurboIssue;
+import filter.SortKeyComparator;
+
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Sort keys extracted by comparators of one signature, kept across refreshes.
+ * <p>
+ * Keys are held per issue instance and are dropped once the change log of the MultiModel reports their issue as
+ * changed, or reports a structural change, which may affect the milestones and labels that keys depend on.
+ * <p>
+ * Thread-safe.
+ */
+class SortKeyCache {
+
+    private final Map<TurboIssue, SortKeyComparator.Key> keys = new IdentityHashMap<>();
+    private long modelVersion = -1;
+
+    private long hitCount = 0;
+    private long missCount = 0;
+
+    /**
+     * Drops the keys of issues changed between the version of the previous update and {@code modelVersion}.
+     *
+     * @param models
+     * @param modelVersion Version of {@code models} whose issues are about to be sorted
+     */
+    public synchronized void update(MultiModel models, long modelVersion) {
+        if (modelVersion <= this.modelVersion) {
+            return;
+        }
+        Optional<Map<String, BitSet>> changes = this.modelVersion < 0
+                ? Optional.empty()
+                : models.getChangedIssuesSince(this.modelVersion);
+        if (!changes.isPresent()) {
+            keys.clear();
+        } else {
+            keys.keySet().removeIf(issue -> {
+                BitSet changedIds = changes.get().get(issue.getRepoId());
+                return changedIds != null && changedIds.get(issue.getId());
+            });
+        }
+        this.modelVersion = modelVersion;
+    }
+
+    public SortKeyComparator.Key getKey(TurboIssue issue, SortKeyComparator comparator) {
+        long versionBeforeExtraction;
+        synchronized (this) {
+            SortKeyComparator.Key key = keys.get(issue);
+            if (key != null) {
+                hitCount++;
+                return key;
+            }
+            missCount++;
+            versionBeforeExtraction = modelVersion;
+        }
+        // Extraction may resolve labels and milestones, so it is done without holding the lock
+        SortKeyComparator.Key key = comparator.extractKey(issue);
+        synchronized (this) {
+            // The issue may have changed during extraction if an update happened meanwhile
+            if (modelVersion == versionBeforeExtraction) {
+                keys.put(issue, key);
+            }
+        }
+        return key;
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+}
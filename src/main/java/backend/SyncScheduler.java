@@ -0,0 +1,290 @@
+package backend;
+
+import backend.github.DownloadMetadataTask;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.logging.log4j.Logger;
+import util.HTLog;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Decides when each open repository is next synchronised with its source, in place of a fixed refresh period.
+ * <p>
+ * Every repository has its own poll interval, which starts at {@link #BASE_INTERVAL} seconds for repositories
+ * visible in panels and {@link #HIDDEN_FACTOR} times that for the others. The interval grows by
+ * {@link #QUIET_BACKOFF} with each consecutive poll which finds no changes, up to {@link #MAX_INTERVAL}, and
+ * returns to the base once a poll finds changes. Intervals are stretched further when the remaining API quota
+ * does not cover the polls planned until the quota resets.
+ * <p>
+ * The scheduler ticks every second and starts at most one poll per tick, visible repositories first, so that
+ * repositories falling due together are polled one after another rather than in a burst.
+ * <p>
+ * Thread-safe.
+ */
+public class SyncScheduler {
+
+    private static final Logger logger = HTLog.get(SyncScheduler.class);
+
+    public static final int TICK_PERIOD = 1;
+    // In seconds, the fixed refresh period previously used for all repositories
+    public static final int BASE_INTERVAL = 60;
+    public static final int MAX_INTERVAL = 15 * 60;
+    public static final int HIDDEN_FACTOR = 4;
+    public static final double QUIET_BACKOFF = 1.5;
+    // An estimate, as polls of unchanged resources are answered with 304 and cost nothing: one request each for
+    // issues, pull requests, labels, milestones and collaborators
+    public static final int REQUESTS_PER_POLL = 5;
+
+    private final Supplier<Set<String>> openRepos;
+    private final Supplier<Set<String>> visibleRepos;
+    private final Function<String, CompletableFuture<Boolean>> poller;
+    private final LongSupplier clock;
+
+    // Guarded by this
+    private final Map<String, RepoSchedule> schedules = new HashMap<>();
+    private Optional<ImmutablePair<Integer, Long>> rateLimits = Optional.empty();
+    private long pollCount = 0;
+    private long changedPollCount = 0;
+
+    private ScheduledExecutorService executor;
+
+    /**
+     * The schedule of one repository.
+     */
+    private static final class RepoSchedule {
+        private final String repoId;
+        private long nextPollTime;
+        private int quietPollCount = 0;
+        private boolean isPolling = false;
+        private boolean isVisible = false;
+
+        private RepoSchedule(String repoId, long nextPollTime) {
+            this.repoId = repoId;
+            this.nextPollTime = nextPollTime;
+        }
+    }
+
+    /**
+     * @param openRepos    Supplies the ids of the repositories to poll
+     * @param visibleRepos Supplies the ids of the repositories visible in panels
+     * @param poller       Polls a repository, completing with whether anything changed
+     */
+    public SyncScheduler(Supplier<Set<String>> openRepos, Supplier<Set<String>> visibleRepos,
+                         Function<String, CompletableFuture<Boolean>> poller) {
+        this(openRepos, visibleRepos, poller, System::currentTimeMillis);
+    }
+
+    public SyncScheduler(Supplier<Set<String>> openRepos, Supplier<Set<String>> visibleRepos,
+                         Function<String, CompletableFuture<Boolean>> poller, LongSupplier clock) {
+        this.openRepos = openRepos;
+        this.visibleRepos = visibleRepos;
+        this.poller = poller;
+        this.clock = clock;
+    }
+
+    /**
+     * Starts ticking. Must be called in pairs with {@link #stop() stop}.
+     *
+     * @param onTick Called on every tick with the number of seconds until the next poll is due
+     */
+    public synchronized void start(Consumer<Integer> onTick) {
+        assert executor == null : "Attempt to start SyncScheduler that has already been started";
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "SyncScheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                onTick.accept(tick());
+            } catch (RuntimeException e) {
+                HTLog.error(logger, e);
+            }
+        }, 0, TICK_PERIOD, TimeUnit.SECONDS);
+        logger.info("Started SyncScheduler");
+    }
+
+    public synchronized void stop() {
+        assert executor != null : "Attempt to stop SyncScheduler that is not running";
+        executor.shutdownNow();
+        executor = null;
+    }
+
+    /**
+     * Starts the poll of the repository most overdue, if any, visible repositories first.
+     *
+     * @return the number of seconds until the next poll is due
+     */
+    public int tick() {
+        // Repository ids are compared case-insensitively, but polled as given
+        Map<String, String> open = openRepos.get().stream()
+                .collect(Collectors.toMap(String::toLowerCase, repoId -> repoId, (first, second) -> first));
+        Set<String> visible = visibleRepos.get().stream()
+                .map(String::toLowerCase)
+                .collect(Collectors.toSet());
+        Optional<RepoSchedule> due;
+        synchronized (this) {
+            long now = clock.getAsLong();
+            schedules.keySet().retainAll(open.keySet());
+            for (Map.Entry<String, String> repo : open.entrySet()) {
+                RepoSchedule schedule = schedules.get(repo.getKey());
+                boolean isVisible = visible.contains(repo.getKey());
+                if (schedule == null) {
+                    // Repositories are up to date when opened
+                    schedule = new RepoSchedule(repo.getValue(), 0);
+                    schedule.isVisible = isVisible;
+                    schedule.nextPollTime = now + getInterval(schedule, now);
+                    schedules.put(repo.getKey(), schedule);
+                } else if (schedule.isVisible != isVisible) {
+                    schedule.isVisible = !schedule.isVisible;
+                    // Repositories brought into view are polled sooner, and those hidden later
+                    long previousInterval = getInterval(schedule.quietPollCount, !schedule.isVisible, now);
+                    schedule.nextPollTime += getInterval(schedule, now) - previousInterval;
+                }
+            }
+            due = schedules.values().stream()
+                    .filter(schedule -> !schedule.isPolling && schedule.nextPollTime <= now)
+                    .min(Comparator.comparing((RepoSchedule schedule) -> !schedule.isVisible)
+                                 .thenComparingLong(schedule -> schedule.nextPollTime));
+            due.ifPresent(schedule -> schedule.isPolling = true);
+        }
+        due.ifPresent(this::poll);
+        return getSecondsToNextPoll();
+    }
+
+    private void poll(RepoSchedule schedule) {
+        logger.info(HTLog.format(schedule.repoId, "Polling"));
+        CompletableFuture<Boolean> result;
+        try {
+            result = poller.apply(schedule.repoId);
+        } catch (RuntimeException e) {
+            result = new CompletableFuture<>();
+            result.completeExceptionally(e);
+        }
+        result.whenComplete((isChanged, e) -> {
+            if (e != null) {
+                logger.error(HTLog.format(schedule.repoId, "Poll failed: " + e.getLocalizedMessage()), e);
+            }
+            onPolled(schedule, e == null && isChanged);
+        });
+    }
+
+    private synchronized void onPolled(RepoSchedule schedule, boolean isChanged) {
+        long now = clock.getAsLong();
+        schedule.isPolling = false;
+        schedule.quietPollCount = isChanged ? 0 : schedule.quietPollCount + 1;
+        pollCount++;
+        if (isChanged) {
+            changedPollCount++;
+        }
+        long interval = getInterval(schedule, now);
+        schedule.nextPollTime = now + interval;
+        logger.info(HTLog.format(schedule.repoId, String.format(
+                "%s; next poll in %ds (%s, %d quiet poll(s), quota factor %.2f)",
+                isChanged ? "Changed" : "Unchanged", interval / 1000, schedule.isVisible ? "visible" : "hidden",
+                schedule.quietPollCount, getQuotaFactor(now))));
+    }
+
+    /**
+     * Reschedules every repository after all of them were polled outside the scheduler, e.g. on a manual refresh.
+     */
+    public synchronized void onAllPolled() {
+        long now = clock.getAsLong();
+        schedules.values().stream()
+                .filter(schedule -> !schedule.isPolling)
+                .forEach(schedule -> schedule.nextPollTime = now + getInterval(schedule, now));
+    }
+
+    /**
+     * Records the remaining API quota, which stretches poll intervals when it runs low.
+     *
+     * @param rateLimits The number of requests remaining and the time the quota resets, in milliseconds
+     */
+    public synchronized void updateRateLimits(ImmutablePair<Integer, Long> rateLimits) {
+        this.rateLimits = Optional.of(rateLimits);
+    }
+
+    /**
+     * @return the current poll interval of a repository in milliseconds, if it is scheduled
+     */
+    public synchronized Optional<Long> getInterval(String repoId) {
+        long now = clock.getAsLong();
+        return Optional.ofNullable(schedules.get(repoId.toLowerCase()))
+                .map(schedule -> getInterval(schedule, now));
+    }
+
+    public synchronized long getPollCount() {
+        return pollCount;
+    }
+
+    /**
+     * @return the number of polls which found changes
+     */
+    public synchronized long getChangedPollCount() {
+        return changedPollCount;
+    }
+
+    private synchronized int getSecondsToNextPoll() {
+        long now = clock.getAsLong();
+        return schedules.values().stream()
+                .filter(schedule -> !schedule.isPolling)
+                .mapToLong(schedule -> Math.max(0, (schedule.nextPollTime - now + 999) / 1000))
+                .mapToInt(seconds -> (int) seconds)
+                .min()
+                .orElse(BASE_INTERVAL);
+    }
+
+    private long getInterval(RepoSchedule schedule, long now) {
+        return getInterval(schedule.quietPollCount, schedule.isVisible, now);
+    }
+
+    /**
+     * @return the poll interval in milliseconds of a repository with the given activity and visibility
+     */
+    private long getInterval(int quietPollCount, boolean isVisible, long now) {
+        double interval = Math.min(getActivityInterval(quietPollCount, isVisible), MAX_INTERVAL)
+                * getQuotaFactor(now);
+        return (long) (interval * 1000);
+    }
+
+    /**
+     * @return the poll interval in seconds of a repository with the given activity and visibility, regardless
+     * of the remaining quota
+     */
+    private static double getActivityInterval(int quietPollCount, boolean isVisible) {
+        return BASE_INTERVAL * (isVisible ? 1 : HIDDEN_FACTOR) * Math.pow(QUIET_BACKOFF, quietPollCount);
+    }
+
+    /**
+     * @return the factor by which intervals are stretched so that the polls planned until the quota resets fit
+     * in the remaining quota, or the factor postponing every poll until the reset if the quota is used up
+     */
+    private double getQuotaFactor(long now) {
+        if (!rateLimits.isPresent() || schedules.isEmpty()) {
+            return 1;
+        }
+        double secondsToReset = Math.max(TICK_PERIOD, (rateLimits.get().getRight() - now) / 1000.0);
+        double plannedRequests = schedules.values().stream()
+                .mapToDouble(schedule -> secondsToReset / Math.min(
+                        getActivityInterval(schedule.quietPollCount, schedule.isVisible), MAX_INTERVAL))
+                .sum() * REQUESTS_PER_POLL;
+        int availableRequests = rateLimits.get().getLeft() - DownloadMetadataTask.RATE_LIMIT_RESERVE;
+        if (availableRequests <= 0) {
+            return Math.max(1, secondsToReset / BASE_INTERVAL);
+        }
+        return Math.max(1, plannedRequests / availableRequests);
+    }
+}
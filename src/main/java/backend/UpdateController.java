@@ -3,10 +3,13 @@ package backend;
 import backend.resource.Model;
 import backend.resource.MultiModel;
 import backend.resource.TurboIssue;
+import filter.CompiledFilter;
 import filter.FilterException;
+import filter.SortKeyComparator;
 import filter.expression.FilterExpression;
 import filter.expression.Qualifier;
 import javafx.application.Platform;
+import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.logging.log4j.Logger;
 import filter.expression.QualifierType;
 import ui.GuiElement;
@@ -19,7 +22,12 @@ import util.events.FilterWarningEvent;
 
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Manages the flow of logic during a data retrieval cycle from the repository source.
@@ -31,6 +39,16 @@ public class UpdateController {
     private static final Logger logger = HTLog.get(UpdateController.class);
 
     private final Logic logic;
+    private final IncrementalFilterEngine filterEngine = new IncrementalFilterEngine();
+
+    // Distinct filter expressions are processed in parallel, and the filter engine splits large issue sets
+    // within this pool as well
+    private final ForkJoinPool filterPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    // The latest request to process each filter expression which is still in progress. Earlier requests
+    // for the same expression are superseded and drop their results.
+    private final AtomicLong filterRequestCount = new AtomicLong();
+    private final Map<FilterExpression, Long> latestFilterRequests = new ConcurrentHashMap<>();
 
     public UpdateController(Logic logic) {
         this.logic = logic;
@@ -60,14 +78,16 @@ public class UpdateController {
 
                     if (toUpdate.isEmpty()) {
                         // If no issues requiring metadata update, just run the filter and sort.
-                        logic.updateUI(processFilters(filterExprs));
+                        logic.getRefreshScheduler().requestRefilter(filterPanels);
                         return;
                     }
 
-                    // If there are issues requiring metadata update, we dispatch the metadata requests...
+                    // If there are issues requiring metadata update, we dispatch the metadata requests,
+                    // filtering again as batches of metadata arrive...
+                    Runnable onBatchInserted = () -> logic.getRefreshScheduler().requestRefilter(filterPanels);
                     ArrayList<CompletableFuture<Boolean>> metadataRetrievalTasks = new ArrayList<>();
                     toUpdate.forEach((repoId, issues) ->
-                            metadataRetrievalTasks.add(logic.getIssueMetadata(repoId, issues)));
+                            metadataRetrievalTasks.add(logic.getIssueMetadata(repoId, issues, onBatchInserted)));
                     // ...and then wait for all of them to complete.
                     Futures.sequence(metadataRetrievalTasks)
                             .thenAccept(results -> logger.info("Metadata retrieval successful for "
@@ -75,10 +95,20 @@ public class UpdateController {
                                     + "/" + results.size() + " repos"))
                             .thenCompose(n -> logic.getRateLimitResetTime())
                             .thenApply(logic::updateRemainingRate)
-                            .thenRun(() -> logic.updateUI(processFilters(filterExprs))); // Then filter the second time.
+                            .thenRun(onBatchInserted); // Then filter the second time.
                 });
     }
 
+    /**
+     * Filters and sorts the issues of the given panels again from the data already in the model, without
+     * opening repositories or retrieving metadata.
+     *
+     * @param filterPanels Filter panels to process
+     */
+    public void refilter(List<FilterPanel> filterPanels) {
+        logic.updateUI(processFilters(getFilterExpressions(filterPanels)));
+    }
+
     private List<FilterExpression> getFilterExpressions(List<FilterPanel> panels) {
         return panels.stream()
                 .map(panel -> panel.getCurrentFilterExpression())
@@ -111,69 +141,124 @@ public class UpdateController {
 
         return filterExprs.stream()
                 .filter(Qualifier::hasUpdatedQualifier)
-                .flatMap(filterExpr -> allModelIssues.stream()
-                        .filter(issue -> {
-                            try {
-                                return Qualifier.process(models, filterExpr,
-                                                         issue);
-                            } catch (FilterException e) {
-                                Platform.runLater(() -> UI.events.triggerEvent(
-                                        new FilterExceptionEvent(filterExpr, e
-                                                .getMessage())));
-                                return false;
-                            }
-                        }))
+                .flatMap(filterExpr -> {
+                    try {
+                        CompiledFilter filter = CompiledFilter.compile(models, filterExpr);
+                        return allModelIssues.stream()
+                                .filter(issue -> {
+                                    try {
+                                        return filter.test(issue);
+                                    } catch (FilterException e) {
+                                        notifyFilterException(filterExpr, e);
+                                        return false;
+                                    }
+                                });
+                    } catch (FilterException e) {
+                        notifyFilterException(filterExpr, e);
+                        return Stream.empty();
+                    }
+                })
                 .distinct()
                 .collect(Collectors.groupingBy(TurboIssue::getRepoId));
     }
 
+    private static void notifyFilterException(FilterExpression filterExpr, FilterException e) {
+        Platform.runLater(() -> UI.events.triggerEvent(new FilterExceptionEvent(filterExpr, e.getMessage())));
+    }
+
     /**
      * Filters, sorts and counts issues within the model according to the given filter expressions
      * In here, "processed" is equivalent to "filtered, sorted and counted".
+     * <p>
+     * Results of previous calls are reused by the filter engine, so that only issues which changed
+     * since then are filtered again.
+     * <p>
+     * Filter expressions are processed in parallel. Those which are requested again by a later call before
+     * this one gets to them are left out of the result, as the later call will produce a newer one.
      *
      * @param filterExprs Filter expressions
      * @return Filter expressions and their corresponding issues after filtering, sorting and counting.
      */
     private Map<FilterExpression, List<GuiElement>> processFilters(List<FilterExpression> filterExprs) {
         MultiModel models = logic.getModels();
+        // The version must be obtained before the issues, so that no change goes unnoticed
+        long modelVersion = models.getVersion();
         List<TurboIssue> allModelIssues = models.getIssues();
 
-        Map<FilterExpression, List<GuiElement>> processed = new HashMap<>();
+        long request = filterRequestCount.incrementAndGet();
+        List<FilterExpression> distinctFilterExprs = filterExprs.stream().distinct().collect(Collectors.toList());
+        distinctFilterExprs.forEach(filterExpr -> latestFilterRequests.merge(filterExpr, request, Math::max));
 
-        filterExprs.stream().distinct().forEach(filterExpr -> {
-            boolean hasUpdatedQualifier = Qualifier.hasUpdatedQualifier(filterExpr);
+        try {
+            return filterPool.submit(() -> distinctFilterExprs.parallelStream()
+                    .map(filterExpr -> processFilter(models, modelVersion, allModelIssues, filterExpr, request))
+                    .filter(Optional::isPresent).map(Optional::get)
+                    .collect(Collectors.toMap(ImmutablePair::getLeft, ImmutablePair::getRight))
+            ).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.error("Interrupted while processing filters " + distinctFilterExprs, e);
+            return new HashMap<>();
+        } catch (ExecutionException e) {
+            // Invalid filters are dealt with by processFilter, anything else is propagated to the caller
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("Unable to process filters " + distinctFilterExprs, cause);
+        } finally {
+            distinctFilterExprs.forEach(filterExpr -> latestFilterRequests.remove(filterExpr, request));
+        }
+    }
 
-            try {
-                FilterExpression filterExprNoAlias = Qualifier.replaceMilestoneAliases(models, filterExpr);
+    /**
+     * Processes a single filter expression as part of the request numbered {@code request}.
+     *
+     * @return The filter expression and its GUI elements, or empty if the filter is invalid or a later
+     * request for the same filter expression was made in the meantime
+     */
+    private Optional<ImmutablePair<FilterExpression, List<GuiElement>>> processFilter(
+            MultiModel models, long modelVersion, List<TurboIssue> allModelIssues,
+            FilterExpression filterExpr, long request) {
 
-                List<TurboIssue> processedIssues = allModelIssues.stream()
-                        .filter(issue -> Qualifier.process(models,
-                                                           filterExprNoAlias, issue))
-                        .sorted(determineComparator(filterExprNoAlias,
-                                                    hasUpdatedQualifier))
-                        .limit(Qualifier.determineCount(allModelIssues,
-                                                        filterExprNoAlias))
-                        .collect(Collectors.toList());
+        if (isSuperseded(filterExpr, request)) {
+            logger.info("Skipping superseded processing of " + filterExpr);
+            return Optional.empty();
+        }
 
-                List<GuiElement> processedElements = produceGuiElements(models, processedIssues);
+        boolean hasUpdatedQualifier = Qualifier.hasUpdatedQualifier(filterExpr);
 
-                List<String> warnings = allModelIssues.stream()
-                        .map(issue -> filterExprNoAlias.getWarnings(models, issue))
-                        .flatMap(List::stream)
-                        .distinct()
-                        .collect(Collectors.toList());
+        try {
+            FilterExpression filterExprNoAlias = Qualifier.replaceMilestoneAliases(models, filterExpr);
 
-                if (!warnings.isEmpty()) {
-                    Platform.runLater(() -> UI.events.triggerEvent(new FilterWarningEvent(filterExpr, warnings)));
-                }
+            IncrementalFilterEngine.FilterResult result = filterEngine.process(
+                    models, modelVersion, allModelIssues, filterExpr, filterExprNoAlias,
+                    determineComparator(filterExprNoAlias, hasUpdatedQualifier));
 
-                processed.put(filterExpr, processedElements);
-            } catch (FilterException e) {
-                Platform.runLater(() -> UI.events.triggerEvent(new FilterExceptionEvent(filterExpr, e.getMessage())));
+            if (isSuperseded(filterExpr, request)) {
+                logger.info("Dropping superseded result of " + filterExpr);
+                return Optional.empty();
             }
-        });
 
-        return processed;
+            List<GuiElement> processedElements = produceGuiElements(models, result.getProcessedIssues());
+
+            List<String> warnings = result.getWarnings();
+
+            if (!warnings.isEmpty()) {
+                Platform.runLater(() -> UI.events.triggerEvent(new FilterWarningEvent(filterExpr, warnings)));
+            }
+
+            return Optional.of(new ImmutablePair<>(filterExpr, processedElements));
+        } catch (FilterException e) {
+            notifyFilterException(filterExpr, e);
+            return Optional.empty();
+        }
+    }
+
+    private boolean isSuperseded(FilterExpression filterExpr, long request) {
+        return latestFilterRequests.getOrDefault(filterExpr, request) > request;
     }
 
     /**
@@ -183,8 +268,7 @@ public class UpdateController {
      * @param hasUpdatedQualifier Determines the behaviour of the sort key "nonSelfUpdate".
      * @return The comparator to use.
      */
-    private Comparator<TurboIssue> determineComparator(FilterExpression filterExpr,
-                                                       boolean hasUpdatedQualifier) {
+    private SortKeyComparator determineComparator(FilterExpression filterExpr, boolean hasUpdatedQualifier) {
         MultiModel models = logic.getModels();
         for (Qualifier metaQualifier : filterExpr.find(Qualifier::isMetaQualifier)) {
             // Only take into account the first sort qualifier found
@@ -0,0 +1,83 @@
+package backend.binary;
+
+import backend.interfaces.StoreTask;
+import backend.resource.Model;
+import backend.resource.ModelDelta;
+import backend.resource.serialization.SerializableModel;
+import org.apache.logging.log4j.Logger;
+import util.HTLog;
+import util.exceptions.RepoStoreException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+class AppendTask extends StoreTask {
+
+    private static final Logger logger = HTLog.get(AppendTask.class);
+
+    public final ModelDelta changes;
+    // Written as a snapshot instead if the repository has none yet
+    public final Optional<Model> model;
+    public final CompletableFuture<Boolean> response;
+    private final long compactionThreshold;
+
+    public AppendTask(String repoId, ModelDelta changes, Optional<Model> model,
+                      CompletableFuture<Boolean> response, long compactionThreshold) {
+        super(repoId);
+        this.changes = changes;
+        this.model = model;
+        this.response = response;
+        this.compactionThreshold = compactionThreshold;
+    }
+
+    @Override
+    public void run() {
+        boolean isFailed = append();
+        response.complete(isFailed);
+
+        // A failed append may leave an unreadable record behind, after which appended records would be ignored
+        if (isFailed || ReplayTask.exceedsThreshold(repoId, compactionThreshold)) {
+            compact();
+        }
+    }
+
+    /**
+     * @return true on failure to save the changes
+     */
+    private boolean append() {
+        Optional<Path> snapshot = BinaryStore.getRepoPath(repoId);
+        Optional<Path> journal = JournaledStore.getJournalPath(repoId);
+        if (!snapshot.isPresent() || !journal.isPresent()) {
+            return true;
+        }
+        if (!Files.isRegularFile(snapshot.get())) {
+            if (model.isPresent()) {
+                return SnapshotTask.save(repoId, new SerializableModel(model.get()));
+            }
+            logger.info(HTLog.format(repoId, "No snapshot yet; not journalling " + changes));
+            return false;
+        }
+        if (changes.isEmpty()) {
+            return false;
+        }
+        try {
+            Journal.append(journal.get(), changes);
+            logger.info(HTLog.format(repoId, "Journalled " + changes));
+            return false;
+        } catch (IOException e) {
+            logger.error(HTLog.format(repoId, "Unable to append to journal"), e);
+            return true;
+        }
+    }
+
+    private void compact() {
+        try {
+            SnapshotTask.save(repoId, new SerializableModel(ReplayTask.load(repoId)));
+        } catch (RepoStoreException e) {
+            logger.error(HTLog.format(repoId, "Unable to compact journal"), e);
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package backend.binary;
+
+import backend.UpdateSignature;
+import backend.resource.Model;
+import backend.resource.TurboIssue;
+import backend.resource.TurboLabel;
+import backend.resource.TurboMilestone;
+import backend.resource.TurboUser;
+import backend.resource.serialization.SerializableIssue;
+import backend.resource.serialization.SerializableLabel;
+import backend.resource.serialization.SerializableMilestone;
+import backend.resource.serialization.SerializableModel;
+import backend.resource.serialization.SerializableUser;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The binary format of stored repositories.
+ * <p>
+ * A stored repository is a header (magic number, format version and repository id) followed by the update
+ * signature, then issues, labels, milestones and users, each preceded by its count. Entities are written and
+ * read one at a time, so neither direction holds more than one entity in an intermediate form.
+ * <p>
+ * Strings are written as their UTF-8 length (-1 for null) followed by their bytes, date-times as epoch seconds
+ * in UTC and nanoseconds, and dates as epoch days. Files with another format version are rejected, and are
+ * then downloaded again.
+ */
+final class BinaryModelFormat {
+
+    // "HTRS"
+    static final int MAGIC = 0x48545253;
+    static final int FORMAT_VERSION = 1;
+
+    private static final int NULL_LENGTH = -1;
+    // Far above the longest issue description, so that corrupted lengths fail fast
+    private static final int MAX_STRING_LENGTH = 1 << 24;
+
+    private BinaryModelFormat() {}
+
+    public static void write(DataOutputStream out, SerializableModel model) throws IOException {
+        writeHeader(out, MAGIC, model.repoId);
+        writeUpdateSignature(out, model.updateSignature);
+
+        out.writeInt(model.issues.size());
+        for (SerializableIssue issue : model.issues) {
+            writeIssue(out, issue);
+        }
+        out.writeInt(model.labels.size());
+        for (SerializableLabel label : model.labels) {
+            writeLabel(out, label);
+        }
+        out.writeInt(model.milestones.size());
+        for (SerializableMilestone milestone : model.milestones) {
+            writeMilestone(out, milestone);
+        }
+        out.writeInt(model.users.size());
+        for (SerializableUser user : model.users) {
+            writeUser(out, user);
+        }
+    }
+
+    public static Model read(DataInputStream in) throws IOException {
+        String repoId = readHeader(in);
+        Reader reader = new Reader(in);
+        UpdateSignature updateSignature = reader.readUpdateSignature();
+
+        int issueCount = reader.readCount();
+        List<TurboIssue> issues = new ArrayList<>(issueCount);
+        for (int i = 0; i < issueCount; i++) {
+            issues.add(reader.readIssue(repoId));
+        }
+        int labelCount = reader.readCount();
+        List<TurboLabel> labels = new ArrayList<>(labelCount);
+        for (int i = 0; i < labelCount; i++) {
+            labels.add(reader.readLabel(repoId));
+        }
+        int milestoneCount = reader.readCount();
+        List<TurboMilestone> milestones = new ArrayList<>(milestoneCount);
+        for (int i = 0; i < milestoneCount; i++) {
+            milestones.add(reader.readMilestone(repoId));
+        }
+        int userCount = reader.readCount();
+        List<TurboUser> users = new ArrayList<>(userCount);
+        for (int i = 0; i < userCount; i++) {
+            users.add(reader.readUser(repoId));
+        }
+
+        return new Model(repoId, issues, labels, milestones, users, updateSignature);
+    }
+
+    /**
+     * Reads only the header of a stored repository.
+     *
+     * @return the id of the stored repository
+     * @throws IOException if the header is not of this format and version
+     */
+    public static String readHeader(DataInputStream in) throws IOException {
+        return readHeader(in, MAGIC);
+    }
+
+    static String readHeader(DataInputStream in, int magic) throws IOException {
+        if (in.readInt() != magic) {
+            throw new IOException("Not a stored repository");
+        }
+        int version = in.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported format version " + version);
+        }
+        return new Reader(in).readString();
+    }
+
+    static void writeHeader(DataOutputStream out, int magic, String repoId) throws IOException {
+        out.writeInt(magic);
+        out.writeInt(FORMAT_VERSION);
+        writeString(out, repoId);
+    }
+
+    static void writeUpdateSignature(DataOutputStream out, UpdateSignature signature) throws IOException {
+        boolean isEmpty = signature == null || signature.isEmpty();
+        out.writeBoolean(isEmpty);
+        if (isEmpty) {
+            return;
+        }
+        writeString(out, signature.issuesETag);
+        writeString(out, signature.labelsETag);
+        writeString(out, signature.milestonesETag);
+        writeString(out, signature.collaboratorsETag);
+        out.writeLong(signature.lastCheckTime.getTime());
+    }
+
+    static void writeIssue(DataOutputStream out, SerializableIssue issue) throws IOException {
+        out.writeInt(issue.getId());
+        writeString(out, issue.getTitle());
+        writeString(out, issue.getCreator());
+        writeDateTime(out, issue.getCreatedAt());
+        out.writeBoolean(issue.isPullRequest());
+        writeString(out, issue.getDescription());
+        writeDateTime(out, issue.getUpdatedAt());
+        out.writeInt(issue.getCommentCount());
+        out.writeBoolean(issue.isOpen());
+        writeString(out, issue.getAssignee().orElse(null));
+        out.writeInt(issue.getLabels().size());
+        for (String label : issue.getLabels()) {
+            writeString(out, label);
+        }
+        out.writeBoolean(issue.getMilestone().isPresent());
+        if (issue.getMilestone().isPresent()) {
+            out.writeInt(issue.getMilestone().get());
+        }
+    }
+
+    static void writeLabel(DataOutputStream out, SerializableLabel label) throws IOException {
+        writeString(out, label.getFullName());
+        writeString(out, label.getColour());
+    }
+
+    static void writeMilestone(DataOutputStream out, SerializableMilestone milestone) throws IOException {
+        out.writeInt(milestone.getId());
+        writeString(out, milestone.getTitle());
+        out.writeBoolean(milestone.getDueDate().isPresent());
+        if (milestone.getDueDate().isPresent()) {
+            out.writeLong(milestone.getDueDate().get().toEpochDay());
+        }
+        writeString(out, milestone.getDescription());
+        out.writeBoolean(milestone.isOpen());
+        out.writeInt(milestone.getOpenIssues());
+        out.writeInt(milestone.getClosedIssues());
+    }
+
+    static void writeUser(DataOutputStream out, SerializableUser user) throws IOException {
+        writeString(out, user.getLoginName());
+        writeString(out, user.getRealName());
+        writeString(out, user.getAvatarURL());
+    }
+
+    private static void writeDateTime(DataOutputStream out, LocalDateTime dateTime) throws IOException {
+        out.writeBoolean(dateTime != null);
+        if (dateTime != null) {
+            out.writeLong(dateTime.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(dateTime.getNano());
+        }
+    }
+
+    static void writeString(DataOutputStream out, String string) throws IOException {
+        if (string == null) {
+            out.writeInt(NULL_LENGTH);
+            return;
+        }
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads the entities of one stored repository. Strings which recur across issues, such as creators, assignees
+     * and label names, are shared between the entities read.
+     */
+    static final class Reader {
+        private final DataInputStream in;
+        private final Map<String, String> sharedStrings = new HashMap<>();
+        private byte[] buffer = new byte[256];
+
+        Reader(DataInputStream in) {
+            this.in = in;
+        }
+
+        int readCount() throws IOException {
+            int count = in.readInt();
+            if (count < 0) {
+                throw new IOException("Negative count " + count);
+            }
+            return count;
+        }
+
+        UpdateSignature readUpdateSignature() throws IOException {
+            if (in.readBoolean()) {
+                return UpdateSignature.EMPTY;
+            }
+            String issuesETag = readString();
+            String labelsETag = readString();
+            String milestonesETag = readString();
+            String collaboratorsETag = readString();
+            return new UpdateSignature(issuesETag, labelsETag, milestonesETag, collaboratorsETag,
+                                       new Date(in.readLong()));
+        }
+
+        TurboIssue readIssue(String repoId) throws IOException {
+            int id = in.readInt();
+            String title = readString();
+            String creator = readSharedString();
+            LocalDateTime createdAt = readDateTime();
+            boolean isPullRequest = in.readBoolean();
+            String description = readString();
+            LocalDateTime updatedAt = readDateTime();
+            int commentCount = in.readInt();
+            boolean isOpen = in.readBoolean();
+            Optional<String> assignee = Optional.ofNullable(readSharedString());
+            int labelCount = readCount();
+            List<String> labels = new ArrayList<>(labelCount);
+            for (int i = 0; i < labelCount; i++) {
+                labels.add(readSharedString());
+            }
+            Optional<Integer> milestone = in.readBoolean() ? Optional.of(in.readInt()) : Optional.empty();
+
+            return new TurboIssue(repoId, id, title, creator, createdAt, isPullRequest, description, updatedAt,
+                                  commentCount, isOpen, assignee, labels, milestone);
+        }
+
+        TurboLabel readLabel(String repoId) throws IOException {
+            String name = readSharedString();
+            return new TurboLabel(repoId, readString(), name);
+        }
+
+        TurboMilestone readMilestone(String repoId) throws IOException {
+            TurboMilestone milestone = new TurboMilestone(repoId, in.readInt(), readString());
+            milestone.setDueDate(in.readBoolean()
+                                         ? Optional.of(LocalDate.ofEpochDay(in.readLong()))
+                                         : Optional.empty());
+            milestone.setDescription(readString());
+            milestone.setOpen(in.readBoolean());
+            milestone.setOpenIssues(in.readInt());
+            milestone.setClosedIssues(in.readInt());
+            return milestone;
+        }
+
+        TurboUser readUser(String repoId) throws IOException {
+            return new TurboUser(repoId, readSharedString(), readString(), readString());
+        }
+
+        private LocalDateTime readDateTime() throws IOException {
+            if (!in.readBoolean()) {
+                return null;
+            }
+            long epochSecond = in.readLong();
+            return LocalDateTime.ofEpochSecond(epochSecond, in.readInt(), ZoneOffset.UTC);
+        }
+
+        String readString() throws IOException {
+            int length = in.readInt();
+            if (length == NULL_LENGTH) {
+                return null;
+            } else if (length < 0 || length > MAX_STRING_LENGTH) {
+                throw new IOException("Invalid string length " + length);
+            }
+            if (buffer.length < length) {
+                buffer = new byte[Math.max(length, buffer.length * 2)];
+            }
+            in.readFully(buffer, 0, length);
+            return new String(buffer, 0, length, StandardCharsets.UTF_8);
+        }
+
+        String readSharedString() throws IOException {
+            String string = readString();
+            if (string == null) {
+                return null;
+            }
+            String shared = sharedStrings.putIfAbsent(string, string);
+            return shared == null ? string : shared;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package backend.binary;
+
+import backend.interfaces.RepoStore;
+import backend.json.JSONStore;
+import backend.resource.Model;
+import backend.resource.serialization.SerializableModel;
+import org.apache.logging.log4j.Logger;
+import util.HTLog;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.google.common.io.Files.getFileExtension;
+import static com.google.common.io.Files.getNameWithoutExtension;
+
+/**
+ * Stores repositories in the compact binary format of {@link BinaryModelFormat}, streaming them from and to disk.
+ * <p>
+ * Repositories stored only in JSON by {@link JSONStore} are imported on first load, after which their binary
+ * file takes precedence. Stored repositories can be exported to JSON again through
+ * {@link #exportRepository(String)}.
+ */
+public class BinaryStore extends RepoStore {
+
+    private static final Logger logger = HTLog.get(BinaryStore.class);
+
+    public static final String FILE_EXTENSION = "bin";
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    @Override
+    public CompletableFuture<Model> loadRepository(String repoId) {
+        CompletableFuture<Model> response = new CompletableFuture<>();
+        addTask(new ReadTask(repoId, response));
+        return response;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> saveRepository(String repoId, SerializableModel model) {
+        CompletableFuture<Boolean> response = new CompletableFuture<>();
+        addTask(new WriteTask(repoId, model, response));
+        return response;
+    }
+
+    /**
+     * Writes a stored repository to its JSON file, in the format of {@link JSONStore}.
+     *
+     * @param repoId
+     * @return true on corruption of the written file
+     */
+    public CompletableFuture<Boolean> exportRepository(String repoId) {
+        return loadRepository(repoId)
+                .thenApply(model -> JSONStore.exportRepository(repoId, new SerializableModel(model)));
+    }
+
+    /**
+     * Lists repositories stored in binary files, whose headers are read, followed by repositories stored only
+     * in JSON files.
+     */
+    @Override
+    public List<String> getStoredRepos() {
+        ensureDirectoryExists();
+        List<String> repoIds;
+        try (Stream<Path> files = Files.walk(Paths.get(RepoStore.directory), 1)) {
+            repoIds = files
+                    .filter(Files::isRegularFile)
+                    .filter(p -> getFileExtension(String.valueOf(p.getFileName())).equalsIgnoreCase(FILE_EXTENSION))
+                    .map(BinaryStore::getRepositoryIdFromHeader)
+                    .filter(Optional::isPresent)
+                    .map(Optional::get)
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            logger.error("Unable to open stored repository directory. ");
+            repoIds = new ArrayList<>();
+        }
+        repoIds.addAll(JSONStore.getStoredRepos(p -> !Files.isRegularFile(getBinaryPathOf(p))));
+        return repoIds;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> removeStoredRepo(String repoId) {
+        CompletableFuture<Boolean> response = new CompletableFuture<>();
+        addTask(new DeleteTask(repoId, response));
+        return response;
+    }
+
+    static Optional<Path> getRepoPath(String repoId) {
+        return getRepoPath(repoId, FILE_EXTENSION).map(Paths::get);
+    }
+
+    static Optional<Path> getJsonRepoPath(String repoId) {
+        return getRepoPath(repoId, JSON_EXTENSION).map(Paths::get);
+    }
+
+    private static Path getBinaryPathOf(Path jsonPath) {
+        return jsonPath.resolveSibling(
+                getNameWithoutExtension(String.valueOf(jsonPath.getFileName())) + "." + FILE_EXTENSION);
+    }
+
+    private static Optional<String> getRepositoryIdFromHeader(Path p) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(p)))) {
+            String repoId = BinaryModelFormat.readHeader(in);
+            if (repoId != null
+                    && String.valueOf(p.getFileName()).equalsIgnoreCase(escapeRepoName(repoId, FILE_EXTENSION))) {
+                logger.info("Adding " + p.getFileName() + " to stored repository list. ");
+                return Optional.of(repoId);
+            }
+        } catch (IOException e) {
+            logger.error("Unable to load repository from " + p.getFileName());
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,49 @@
+package backend.binary;
+
+import backend.interfaces.StoreTask;
+import org.apache.logging.log4j.Logger;
+import util.HTLog;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Deletes the binary file, journal and JSON file of a repository, so that it is not imported again.
+ */
+class DeleteTask extends StoreTask {
+
+    private static final Logger logger = HTLog.get(DeleteTask.class);
+
+    public final CompletableFuture<Boolean> response;
+
+    protected DeleteTask(String repoId, CompletableFuture<Boolean> response) {
+        super(repoId);
+        this.response = response;
+    }
+
+    @Override
+    public void run() {
+        response.complete(delete(BinaryStore.getRepoPath(repoId))
+                                  | delete(JournaledStore.getJournalPath(repoId))
+                                  | delete(BinaryStore.getJsonRepoPath(repoId)));
+    }
+
+    /**
+     * @return true on error in deleting the file
+     */
+    private static boolean delete(Optional<Path> path) {
+        if (!path.isPresent()) {
+            return false;
+        }
+        try {
+            Files.deleteIfExists(path.get());
+            return false;
+        } catch (IOException e) {
+            logger.error(e.getLocalizedMessage(), e);
+            return true;
+        }
+    }
+}
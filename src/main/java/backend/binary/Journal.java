@@ -0,0 +1,212 @@
+package backend.binary;
+
+import backend.resource.ModelDelta;
+import backend.resource.TurboIssue;
+import backend.resource.TurboLabel;
+import backend.resource.TurboMilestone;
+import backend.resource.TurboUser;
+import backend.resource.serialization.SerializableIssue;
+import backend.resource.serialization.SerializableLabel;
+import backend.resource.serialization.SerializableMilestone;
+import backend.resource.serialization.SerializableUser;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * The journal of changes made to a stored repository since its snapshot was written.
+ * <p>
+ * A journal is a header (magic number, format version and repository id) followed by records, each holding
+ * one {@link ModelDelta} as its length, its CRC32 checksum and its entries. A record whose length or checksum
+ * does not match, such as one only partially written before a crash, ends the journal, so each delta is
+ * replayed either fully or not at all.
+ */
+final class Journal {
+
+    // "HTRJ"
+    static final int MAGIC = 0x4854524a;
+
+    private static final byte ISSUE = 1;
+    private static final byte ISSUE_REMOVED = 2;
+    private static final byte LABEL = 3;
+    private static final byte LABEL_REMOVED = 4;
+    private static final byte MILESTONE = 5;
+    private static final byte MILESTONE_REMOVED = 6;
+    private static final byte USER = 7;
+    private static final byte USER_REMOVED = 8;
+    private static final byte UPDATE_SIGNATURE = 9;
+
+    private Journal() {}
+
+    /**
+     * The changes replayed from a journal.
+     */
+    static final class Replay {
+        final ModelDelta changes;
+        final int recordCount;
+        // False if the journal ends with a record which could not be read
+        final boolean isIntact;
+
+        private Replay(ModelDelta changes, int recordCount, boolean isIntact) {
+            this.changes = changes;
+            this.recordCount = recordCount;
+            this.isIntact = isIntact;
+        }
+    }
+
+    /**
+     * Appends a record of {@code changes} to the journal at {@code path}, creating the journal if needed.
+     */
+    public static void append(Path path, ModelDelta changes) throws IOException {
+        ByteArrayOutputStream record = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(record)) {
+            writeEntries(out, changes);
+        }
+        CRC32 checksum = new CRC32();
+        checksum.update(record.toByteArray());
+
+        boolean isNew = !Files.isRegularFile(path) || Files.size(path) == 0;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(path, StandardOpenOption.CREATE, StandardOpenOption.APPEND)))) {
+            if (isNew) {
+                BinaryModelFormat.writeHeader(out, MAGIC, changes.getRepoId());
+            }
+            out.writeInt(record.size());
+            out.writeInt((int) checksum.getValue());
+            record.writeTo(out);
+        }
+    }
+
+    /**
+     * Reads the changes recorded in the journal at {@code path}, later records overriding earlier ones.
+     *
+     * @throws IOException if the journal cannot be read or is not a journal of {@code repoId}
+     */
+    public static Replay replay(Path path, String repoId) throws IOException {
+        ModelDelta changes = new ModelDelta(repoId);
+        int recordCount = 0;
+        long journalSize = Files.size(path);
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(path), BinaryStore.BUFFER_SIZE))) {
+            String journalRepoId = BinaryModelFormat.readHeader(in, MAGIC);
+            if (!repoId.equals(journalRepoId)) {
+                throw new IOException("Journal of " + journalRepoId + " found for " + repoId);
+            }
+            while (true) {
+                int firstByte = in.read();
+                if (firstByte < 0) {
+                    // The journal ends exactly after a record
+                    return new Replay(changes, recordCount, true);
+                }
+                byte[] record;
+                int expectedChecksum;
+                try {
+                    int length = firstByte << 24 | in.readUnsignedByte() << 16
+                            | in.readUnsignedByte() << 8 | in.readUnsignedByte();
+                    expectedChecksum = in.readInt();
+                    if (length < 0 || length > journalSize) {
+                        return new Replay(changes, recordCount, false);
+                    }
+                    record = new byte[length];
+                    in.readFully(record);
+                } catch (EOFException e) {
+                    return new Replay(changes, recordCount, false);
+                }
+                CRC32 checksum = new CRC32();
+                checksum.update(record);
+                if ((int) checksum.getValue() != expectedChecksum) {
+                    return new Replay(changes, recordCount, false);
+                }
+                readEntries(new DataInputStream(new ByteArrayInputStream(record)), repoId, changes);
+                recordCount++;
+            }
+        }
+    }
+
+    private static void writeEntries(DataOutputStream out, ModelDelta changes) throws IOException {
+        for (TurboIssue issue : changes.getIssues()) {
+            out.writeByte(ISSUE);
+            BinaryModelFormat.writeIssue(out, new SerializableIssue(issue));
+        }
+        for (int id : changes.getRemovedIssues()) {
+            out.writeByte(ISSUE_REMOVED);
+            out.writeInt(id);
+        }
+        for (TurboLabel label : changes.getLabels()) {
+            out.writeByte(LABEL);
+            BinaryModelFormat.writeLabel(out, new SerializableLabel(label));
+        }
+        for (String fullName : changes.getRemovedLabels()) {
+            out.writeByte(LABEL_REMOVED);
+            BinaryModelFormat.writeString(out, fullName);
+        }
+        for (TurboMilestone milestone : changes.getMilestones()) {
+            out.writeByte(MILESTONE);
+            BinaryModelFormat.writeMilestone(out, new SerializableMilestone(milestone));
+        }
+        for (int id : changes.getRemovedMilestones()) {
+            out.writeByte(MILESTONE_REMOVED);
+            out.writeInt(id);
+        }
+        for (TurboUser user : changes.getUsers()) {
+            out.writeByte(USER);
+            BinaryModelFormat.writeUser(out, new SerializableUser(user));
+        }
+        for (String loginName : changes.getRemovedUsers()) {
+            out.writeByte(USER_REMOVED);
+            BinaryModelFormat.writeString(out, loginName);
+        }
+        if (changes.getUpdateSignature().isPresent()) {
+            out.writeByte(UPDATE_SIGNATURE);
+            BinaryModelFormat.writeUpdateSignature(out, changes.getUpdateSignature().get());
+        }
+    }
+
+    private static void readEntries(DataInputStream in, String repoId, ModelDelta changes) throws IOException {
+        BinaryModelFormat.Reader reader = new BinaryModelFormat.Reader(in);
+        while (in.available() > 0) {
+            byte kind = in.readByte();
+            switch (kind) {
+            case ISSUE:
+                changes.putIssue(reader.readIssue(repoId));
+                break;
+            case ISSUE_REMOVED:
+                changes.removeIssue(in.readInt());
+                break;
+            case LABEL:
+                changes.putLabel(reader.readLabel(repoId));
+                break;
+            case LABEL_REMOVED:
+                changes.removeLabel(reader.readString());
+                break;
+            case MILESTONE:
+                changes.putMilestone(reader.readMilestone(repoId));
+                break;
+            case MILESTONE_REMOVED:
+                changes.removeMilestone(in.readInt());
+                break;
+            case USER:
+                changes.putUser(reader.readUser(repoId));
+                break;
+            case USER_REMOVED:
+                changes.removeUser(reader.readString());
+                break;
+            case UPDATE_SIGNATURE:
+                changes.setUpdateSignature(reader.readUpdateSignature());
+                break;
+            default:
+                throw new IOException("Unknown journal entry " + kind);
+            }
+        }
+    }
+}
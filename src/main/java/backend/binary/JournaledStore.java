@@ -0,0 +1,83 @@
+package backend.binary;
+
+import backend.resource.Model;
+import backend.resource.ModelDelta;
+import backend.resource.serialization.SerializableModel;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A BinaryStore which appends changes to stored repositories to a journal instead of rewriting them, so that
+ * the cost of saving an update scales with what changed rather than with the size of the repository.
+ * <p>
+ * A stored repository is a snapshot in the binary format of {@link BinaryStore} and a {@link Journal} of
+ * changes since the snapshot was written. Loading replays the journal onto the snapshot. Once the journal
+ * grows beyond the compaction threshold, or ends with a record which could not be read, the replayed
+ * repository is written as the new snapshot and the journal is started afresh. This happens on the thread
+ * of the store, after the operation that triggered it has completed.
+ */
+public class JournaledStore extends BinaryStore {
+
+    public static final String JOURNAL_EXTENSION = "journal";
+    public static final long DEFAULT_COMPACTION_THRESHOLD = 4 * 1024 * 1024;
+
+    private final long compactionThreshold;
+
+    public JournaledStore() {
+        this(DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    /**
+     * @param compactionThreshold the size in bytes beyond which journals are compacted into snapshots
+     */
+    public JournaledStore(long compactionThreshold) {
+        this.compactionThreshold = compactionThreshold;
+    }
+
+    @Override
+    public CompletableFuture<Model> loadRepository(String repoId) {
+        CompletableFuture<Model> response = new CompletableFuture<>();
+        addTask(new ReplayTask(repoId, response, compactionThreshold));
+        return response;
+    }
+
+    /**
+     * Writes a new snapshot of the repository, discarding its journal.
+     */
+    @Override
+    public CompletableFuture<Boolean> saveRepository(String repoId, SerializableModel model) {
+        CompletableFuture<Boolean> response = new CompletableFuture<>();
+        addTask(new SnapshotTask(repoId, model, response));
+        return response;
+    }
+
+    /**
+     * Appends the changes between the models to the journal, or writes a snapshot of {@code newModel}
+     * if there is none yet.
+     */
+    @Override
+    public CompletableFuture<Boolean> updateRepository(Model oldModel, Model newModel) {
+        CompletableFuture<Boolean> response = new CompletableFuture<>();
+        addTask(new AppendTask(newModel.getRepoId(), ModelDelta.between(oldModel, newModel),
+                               Optional.of(newModel), response, compactionThreshold));
+        return response;
+    }
+
+    /**
+     * Appends the changes to the journal. Changes to repositories without a snapshot are dropped,
+     * as they will be part of the first snapshot.
+     */
+    @Override
+    public CompletableFuture<Boolean> saveRepositoryChanges(ModelDelta changes) {
+        CompletableFuture<Boolean> response = new CompletableFuture<>();
+        addTask(new AppendTask(changes.getRepoId(), changes, Optional.empty(), response, compactionThreshold));
+        return response;
+    }
+
+    static Optional<Path> getJournalPath(String repoId) {
+        return getRepoPath(repoId, JOURNAL_EXTENSION).map(Paths::get);
+    }
+}
@@ -0,0 +1,80 @@
+package backend.binary;
+
+import backend.interfaces.StoreTask;
+import backend.json.JSONStore;
+import backend.resource.Model;
+import backend.resource.serialization.SerializableModel;
+import org.apache.logging.log4j.Logger;
+import util.HTLog;
+import util.exceptions.BinaryLoadException;
+import util.exceptions.RepoStoreException;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+class ReadTask extends StoreTask {
+
+    private static final Logger logger = HTLog.get(ReadTask.class);
+
+    public final CompletableFuture<Model> response;
+
+    public ReadTask(String repoId, CompletableFuture<Model> response) {
+        super(repoId);
+        this.response = response;
+    }
+
+    @Override
+    public void run() {
+        try {
+            Model model = load(repoId);
+            response.complete(model);
+        } catch (RepoStoreException e) {
+            logger.error(HTLog.format(repoId, "Unable to load from store"));
+            response.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Loads repository data from its binary file into a new Model, importing it from its JSON file
+     * if there is no binary file yet.
+     *
+     * @param repoId the string id of the repository to be loaded
+     * @return a new Model containing data for the requested repository.
+     * @throws RepoStoreException when the repository's data cannot be retrieved from the local store
+     *                            or is corrupted
+     */
+    static Model load(String repoId) throws RepoStoreException {
+        Optional<Path> path = BinaryStore.getRepoPath(repoId);
+        if (!path.isPresent()) {
+            throw new BinaryLoadException();
+        }
+        if (!Files.isRegularFile(path.get())) {
+            return importFromJson(repoId);
+        }
+
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(path.get()), BinaryStore.BUFFER_SIZE))) {
+            Model model = BinaryModelFormat.read(in);
+            logger.info(HTLog.format(repoId, "Data loaded from binary store"));
+            return model;
+        } catch (IOException e) {
+            logger.error(HTLog.format(repoId, "Binary data is corrupted"), e);
+            throw new BinaryLoadException(e);
+        }
+    }
+
+    private static Model importFromJson(String repoId) throws RepoStoreException {
+        Model model = JSONStore.importRepository(repoId);
+        if (WriteTask.save(repoId, new SerializableModel(model))) {
+            logger.warn(HTLog.format(repoId, "Unable to write imported JSON data to binary store"));
+        } else {
+            logger.info(HTLog.format(repoId, "Imported JSON data into binary store"));
+        }
+        return model;
+    }
+}
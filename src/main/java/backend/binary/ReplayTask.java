@@ -0,0 +1,97 @@
+package backend.binary;
+
+import backend.interfaces.StoreTask;
+import backend.resource.Model;
+import backend.resource.serialization.SerializableModel;
+import org.apache.logging.log4j.Logger;
+import util.HTLog;
+import util.exceptions.BinaryLoadException;
+import util.exceptions.RepoStoreException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+class ReplayTask extends StoreTask {
+
+    private static final Logger logger = HTLog.get(ReplayTask.class);
+
+    public final CompletableFuture<Model> response;
+    private final long compactionThreshold;
+
+    public ReplayTask(String repoId, CompletableFuture<Model> response, long compactionThreshold) {
+        super(repoId);
+        this.response = response;
+        this.compactionThreshold = compactionThreshold;
+    }
+
+    @Override
+    public void run() {
+        Model model;
+        Journal.Replay replay;
+        try {
+            model = ReadTask.load(repoId);
+            Optional<Journal.Replay> journalReplay = replay(repoId);
+            if (!journalReplay.isPresent()) {
+                response.complete(model);
+                return;
+            }
+            replay = journalReplay.get();
+            model = replay.changes.applyTo(model);
+        } catch (RepoStoreException e) {
+            logger.error(HTLog.format(repoId, "Unable to load from store"));
+            response.completeExceptionally(e);
+            return;
+        }
+        logger.info(HTLog.format(repoId, "Replayed " + replay.recordCount + " journal record(s) with "
+                + replay.changes));
+        response.complete(model);
+
+        if (!replay.isIntact || exceedsThreshold(repoId, compactionThreshold)) {
+            if (!replay.isIntact) {
+                logger.warn(HTLog.format(repoId, "Journal ends with an unreadable record"));
+            }
+            SnapshotTask.save(repoId, new SerializableModel(model));
+        }
+    }
+
+    /**
+     * Loads a repository from its snapshot and journal.
+     *
+     * @throws RepoStoreException when the snapshot or journal cannot be read
+     */
+    static Model load(String repoId) throws RepoStoreException {
+        Model model = ReadTask.load(repoId);
+        Optional<Journal.Replay> replay = replay(repoId);
+        return replay.isPresent() ? replay.get().changes.applyTo(model) : model;
+    }
+
+    /**
+     * @return the changes recorded in the journal of the repository, if there is one
+     */
+    private static Optional<Journal.Replay> replay(String repoId) throws RepoStoreException {
+        Optional<Path> journal = JournaledStore.getJournalPath(repoId);
+        if (!journal.isPresent() || !Files.isRegularFile(journal.get())) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(Journal.replay(journal.get(), repoId));
+        } catch (IOException e) {
+            logger.error(HTLog.format(repoId, "Journal is corrupted"), e);
+            throw new BinaryLoadException(e);
+        }
+    }
+
+    static boolean exceedsThreshold(String repoId, long compactionThreshold) {
+        Optional<Path> journal = JournaledStore.getJournalPath(repoId);
+        try {
+            return journal.isPresent() && Files.isRegularFile(journal.get())
+                    && Files.size(journal.get()) > compactionThreshold;
+        } catch (IOException e) {
+            logger.error(e.getLocalizedMessage(), e);
+            return false;
+        }
+    }
+}
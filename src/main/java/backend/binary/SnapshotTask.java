@@ -0,0 +1,53 @@
+package backend.binary;
+
+import backend.interfaces.StoreTask;
+import backend.resource.serialization.SerializableModel;
+import org.apache.logging.log4j.Logger;
+import util.HTLog;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+class SnapshotTask extends StoreTask {
+
+    private static final Logger logger = HTLog.get(SnapshotTask.class);
+
+    public final SerializableModel toSave;
+    public final CompletableFuture<Boolean> response;
+
+    public SnapshotTask(String repoId, SerializableModel toSave, CompletableFuture<Boolean> response) {
+        super(repoId);
+        this.toSave = toSave;
+        this.response = response;
+    }
+
+    @Override
+    public void run() {
+        response.complete(save(repoId, toSave));
+    }
+
+    /**
+     * Writes a snapshot of the repository, then deletes its journal, whose changes the snapshot contains.
+     * Should deleting the journal fail, replaying it again onto the snapshot is harmless, as applying
+     * changes is idempotent.
+     *
+     * @return true on failure to write the snapshot
+     */
+    static boolean save(String repoId, SerializableModel model) {
+        if (WriteTask.save(repoId, model)) {
+            return true;
+        }
+        Optional<Path> journal = JournaledStore.getJournalPath(repoId);
+        try {
+            if (journal.isPresent() && Files.deleteIfExists(journal.get())) {
+                logger.info(HTLog.format(repoId, "Compacted journal into snapshot"));
+            }
+        } catch (IOException e) {
+            logger.error(HTLog.format(repoId, "Unable to delete journal"), e);
+        }
+        return false;
+    }
+}
@@ -0,0 +1,76 @@
+package backend.binary;
+
+import backend.interfaces.StoreTask;
+import backend.resource.serialization.SerializableModel;
+import org.apache.logging.log4j.Logger;
+import util.HTLog;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+class WriteTask extends StoreTask {
+
+    private static final Logger logger = HTLog.get(WriteTask.class);
+
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+
+    public final SerializableModel toSave;
+    public final CompletableFuture<Boolean> response;
+
+    public WriteTask(String repoName, SerializableModel toSave, CompletableFuture<Boolean> response) {
+        super(repoName);
+        this.toSave = toSave;
+        this.response = response;
+    }
+
+    @Override
+    public void run() {
+        response.complete(save(repoId, toSave));
+    }
+
+    /**
+     * Streams a repository into a temporary file, then moves it over the repository's binary file,
+     * so that a failed write never leaves a partially written repository behind.
+     *
+     * @return true on failure to write
+     */
+    static boolean save(String repoId, SerializableModel model) {
+        Optional<Path> path = BinaryStore.getRepoPath(repoId);
+        if (!path.isPresent()) {
+            return true;
+        }
+        Path temporary = path.get().resolveSibling(path.get().getFileName() + TEMPORARY_SUFFIX);
+        try {
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temporary), BinaryStore.BUFFER_SIZE))) {
+                BinaryModelFormat.write(out, model);
+            }
+            replace(temporary, path.get());
+            logger.info(HTLog.format(repoId, "Written to binary store"));
+            return false;
+        } catch (IOException e) {
+            logger.error(HTLog.format(repoId, "Unable to write to binary store"), e);
+            try {
+                Files.deleteIfExists(temporary);
+            } catch (IOException deleteException) {
+                logger.error(deleteException.getLocalizedMessage(), deleteException);
+            }
+            return true;
+        }
+    }
+
+    private static void replace(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
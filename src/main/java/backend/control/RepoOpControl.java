@@ -1,5 +1,6 @@
 package backend.control;
 
+import backend.IssueEdit;
 import backend.RepoIO;
 import backend.control.operations.*;
 import backend.github.GitHubModelUpdatesData;
@@ -8,35 +9,55 @@ import backend.resource.MultiModel;
 import backend.resource.TurboIssue;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import util.HTLog;
+import util.InstrumentedExecutor;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.*;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * A means of repo-level synchronisation for select RepoIO operations. Only one instance of this class
  * is available at any time availabel through {@code getRepoOpControl}. A new instance can be created with
  * {@code createRepoOpControl} and will replace any existing instance
+ * <p>
+ * Operations on the same repository are performed one at a time, in the order they were enqueued, while
+ * operations on different repositories may be performed concurrently. Each repository has a mailbox, which
+ * is scheduled onto a shared pool whenever it has operations, so idle repositories hold no thread and no
+ * thread waits for an operation to complete.
  */
 public final class RepoOpControl {
 
     private static final Logger logger = LogManager.getLogger(RepoOpControl.class.getName());
 
+    // Operations only start asynchronous work or update models in memory, and what follows them is chained
+    // rather than waited for (see RepoIO#updateModel), so they hold threads briefly
+    public static final int POOL_SIZE = 2;
+
     private final RepoIO repoIO;
     private final MultiModel models;
 
-    private final ExecutorService pool = Executors.newCachedThreadPool();
-    private final Map<String, BlockingQueue<RepoOp>> queues = new HashMap<>();
+    private final Executor pool;
+    private final ConcurrentHashMap<String, Mailbox> mailboxes = new ConcurrentHashMap<>();
+    private final AtomicLong mergedOpCount = new AtomicLong();
 
     public RepoOpControl(RepoIO repoIO, MultiModel models) {
+        this(repoIO, models, new InstrumentedExecutor("RepoOpControl", POOL_SIZE));
+    }
+
+    public RepoOpControl(RepoIO repoIO, MultiModel models, Executor pool) {
         this.repoIO = repoIO;
         this.models = models;
+        this.pool = pool;
     }
 
     public CompletableFuture<Model> openRepository(String repoId) {
-        init(repoId);
         CompletableFuture<Model> result = new CompletableFuture<>();
         enqueue(new OpenRepoOp(repoId, repoIO, result));
         return result;
@@ -44,7 +65,8 @@ public final class RepoOpControl {
 
     /**
      * Updates repository stored locally with data from a GitHubModelUpdatesData object.
-     * Set syncOperation to queue this operation in the blocking queue for the updating repository
+     * Set syncOperation to queue this operation in the mailbox of the updating repository, where it is merged
+     * with any update queued right before it
      *
      * @param updates
      * @param syncOperation
@@ -52,11 +74,10 @@ public final class RepoOpControl {
      */
     public CompletableFuture<Model> updateLocalModel(GitHubModelUpdatesData updates,
                                                      boolean syncOperation) {
-        init(updates.getRepoId());
         CompletableFuture<Model> result = new CompletableFuture<>();
         UpdateLocalModelOp op = new UpdateLocalModelOp(models, updates, result);
         if (syncOperation) {
-            enqueue(new UpdateLocalModelOp(models, updates, result));
+            enqueue(op);
         } else {
             op.perform();
         }
@@ -64,42 +85,45 @@ public final class RepoOpControl {
     }
 
     public CompletableFuture<Boolean> removeRepository(String repoId) {
-        init(repoId);
         CompletableFuture<Boolean> result = new CompletableFuture<>();
         enqueue(new RemoveRepoOp(repoId, repoIO, result));
         return result;
     }
 
     public CompletableFuture<Boolean> editIssueStateOnServer(TurboIssue issue, boolean isOpen) {
-        init(issue.getRepoId());
         CompletableFuture<Boolean> result = new CompletableFuture<>();
         enqueue(new EditIssueStateOnServerOp(repoIO, result, issue, isOpen));
         return result;
     }
 
+    /**
+     * Changes several fields of an issue on the server in one request.
+     */
+    public CompletableFuture<Boolean> editIssueOnServer(TurboIssue issue, IssueEdit edit) {
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        enqueue(new EditIssueOnServerOp(repoIO, result, issue, edit));
+        return result;
+    }
+
     public CompletableFuture<Optional<TurboIssue>> editIssueStateLocally(TurboIssue issue, boolean isOpen) {
-        init(issue.getRepoId());
         CompletableFuture<Optional<TurboIssue>> result = new CompletableFuture<>();
-        enqueue(new EditIssueStateLocallyOp(models, result, issue, isOpen));
+        enqueue(new EditIssueStateLocallyOp(repoIO, models, result, issue, isOpen));
         return result;
     }
 
     public CompletableFuture<Boolean> replaceIssueLabelsOnServer(TurboIssue issue, List<String> labels) {
-        init(issue.getRepoId());
         CompletableFuture<Boolean> result = new CompletableFuture<>();
         enqueue(new ReplaceIssueLabelsOnServerOp(repoIO, result, issue, labels));
         return result;
     }
 
     public CompletableFuture<Optional<TurboIssue>> replaceIssueLabelsLocally(TurboIssue issue, List<String> labels) {
-        init(issue.getRepoId());
         CompletableFuture<Optional<TurboIssue>> result = new CompletableFuture<>();
-        enqueue(new ReplaceIssueLabelsLocallyOp(models, issue, labels, result));
+        enqueue(new ReplaceIssueLabelsLocallyOp(repoIO, models, issue, labels, result));
         return result;
     }
 
     public CompletableFuture<Boolean> replaceIssueMilestoneOnServer(TurboIssue issue, Optional<Integer> milestone) {
-        init(issue.getRepoId());
         CompletableFuture<Boolean> result = new CompletableFuture<>();
         enqueue(new ReplaceIssueMilestoneOnServerOp(repoIO, result, issue, milestone));
         return result;
@@ -107,15 +131,13 @@ public final class RepoOpControl {
 
     public CompletableFuture<Optional<TurboIssue>> replaceIssueMilestoneLocally(TurboIssue issue,
                                                                                 Optional<Integer> milestone) {
-        init(issue.getRepoId());
         CompletableFuture<Optional<TurboIssue>> result = new CompletableFuture<>();
-        enqueue(new ReplaceIssueMilestoneLocallyOp(models, result, issue, milestone));
+        enqueue(new ReplaceIssueMilestoneLocallyOp(repoIO, models, result, issue, milestone));
         return result;
     }
 
     public CompletableFuture<Boolean> replaceIssueAssigneeOnServer(TurboIssue issue,
                                                                    Optional<String> assigneeLoginName) {
-        init(issue.getRepoId());
         CompletableFuture<Boolean> result = new CompletableFuture<>();
         enqueue(new ReplaceIssueAssigneeOnServerOp(repoIO, result, issue, assigneeLoginName));
         return result;
@@ -123,56 +145,102 @@ public final class RepoOpControl {
 
     public CompletableFuture<Optional<TurboIssue>> replaceIssueAssigneeLocally(TurboIssue issue,
                                                                                Optional<String> assigneeLoginName) {
-        init(issue.getRepoId());
         CompletableFuture<Optional<TurboIssue>> result = new CompletableFuture<>();
-        enqueue(new ReplaceIssueAssigneeLocallyOp(models, issue, assigneeLoginName, result));
+        enqueue(new ReplaceIssueAssigneeLocallyOp(repoIO, models, issue, assigneeLoginName, result));
         return result;
     }
 
     /**
-     * Ensures that repo-specific state is initialised. Should be called
-     * at the start of each operation method.
+     * @return the number of queued operations merged into the ones queued before them
      */
-    private void init(String repoId) {
-        boolean isNewRepo = !queues.containsKey(repoId);
-        if (isNewRepo) {
-            // We want an unbounded deque so enqueueing will never block
-            // and can flexibly add and remove operations.
-            queues.put(repoId, new LinkedBlockingDeque<>());
-            pool.execute(() -> dequeue(repoId));
-        }
+    public long getMergedOpCount() {
+        return mergedOpCount.get();
     }
 
     /**
-     * Enqueues an operation to be handled later. Operations on the same repo
-     * (and in the same queue) are guaranteed to be handled by the same thread.
+     * Enqueues an operation to be handled later, after the operations enqueued before it on the same repo.
      */
     private void enqueue(RepoOp op) {
-        BlockingQueue<RepoOp> q = queues.get(op.repoId());
-
-        // TODO scan queue for patterns
-
-        try {
-            q.put(op);
-        } catch (InterruptedException e) {
-            logger.error(e.getLocalizedMessage(), e);
-        }
+        mailboxes.computeIfAbsent(op.repoId(), Mailbox::new).enqueue(op);
     }
 
     /**
-     * Dequeues an operation to handle it. This method may block in two scenarios:
-     * if the queue is empty (in which case take blocks) or when waiting for a task
-     * (in which case get blocks).
+     * The operations of one repository waiting to be performed.
+     * <p>
+     * Operations are only polled while the mailbox is scheduled, and the mailbox is only scheduled once at
+     * a time, from when an operation is polled until it completes. That makes its queue single-consumer, and
+     * keeps operations from overlapping.
      */
-    private void dequeue(String repoId) {
-        BlockingQueue<RepoOp> q = queues.get(repoId);
+    private final class Mailbox {
+        private final String repoId;
+        private final Queue<RepoOp> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean isScheduled = new AtomicBoolean(false);
 
-        while (true) {
+        private Mailbox(String repoId) {
+            this.repoId = repoId;
+        }
+
+        private void enqueue(RepoOp op) {
+            queue.offer(op);
+            trySchedule();
+        }
+
+        /**
+         * Schedules the next operation unless the mailbox is empty or already scheduled. The queue is checked
+         * again after every release of the mailbox, so operations enqueued meanwhile are never left behind.
+         */
+        private void trySchedule() {
+            if (!queue.isEmpty() && isScheduled.compareAndSet(false, true)) {
+                pool.execute(this::performNext);
+            }
+        }
+
+        private void performNext() {
+            RepoOp op = queue.poll();
+            if (op == null) {
+                release();
+                return;
+            }
+            op = mergeQueued(op);
+
+            CompletableFuture<?> result;
             try {
-                q.take().perform().get();
-            } catch (ExecutionException | InterruptedException e) {
+                result = op.perform();
+            } catch (RuntimeException e) {
                 logger.error(e.getLocalizedMessage(), e);
+                release();
+                return;
+            }
+            result.whenComplete((value, e) -> {
+                if (e != null) {
+                    logger.error(e.getLocalizedMessage(), e);
+                }
+                release();
+            });
+        }
+
+        /**
+         * Merges the operations queued right after {@code op} into it, for as long as they can be merged.
+         */
+        @SuppressWarnings("unchecked")
+        private RepoOp mergeQueued(RepoOp op) {
+            RepoOp next;
+            while ((next = queue.peek()) != null) {
+                Optional<RepoOp<?>> merged = op.mergeWith(next);
+                if (!merged.isPresent()) {
+                    break;
+                }
+                queue.poll();
+                op = merged.get();
+                mergedOpCount.incrementAndGet();
+                logger.info(HTLog.format(repoId, "Merged queued " + next.getClass().getSimpleName()));
             }
+            return op;
+        }
+
+        private void release() {
+            isScheduled.set(false);
+            trySchedule();
         }
     }
 }
@@ -0,0 +1,209 @@
+package backend.control;
+
+import backend.IssueEdit;
+import backend.resource.TurboIssue;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.logging.log4j.Logger;
+import util.Futures;
+import util.HTLog;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static util.Futures.withResult;
+
+/**
+ * Writes local edits of issues back to the server in batches.
+ * <p>
+ * Edits are held for {@link #FLUSH_WINDOW_MILLIS} after the first edit of a batch, and the edits of the same
+ * issue made meanwhile are merged into one, later edits of a field replacing earlier ones. Each merged edit
+ * is then written with a single request: through the request specific to the field if only one field
+ * changed, or as one edit of the whole issue otherwise. Every edit merged completes with the result of the
+ * request, so that callers can revert their local changes if it failed.
+ * <p>
+ * Requests go through {@link RepoOpControl}, so that they are still ordered with the other operations on
+ * their repository.
+ * <p>
+ * Thread-safe.
+ */
+public class WriteBackQueue {
+
+    private static final Logger logger = HTLog.get(WriteBackQueue.class);
+
+    // Short enough not to delay writes noticeably, long enough to catch bursts such as bulk edits and undos
+    public static final long FLUSH_WINDOW_MILLIS = 500;
+
+    private final RepoOpControl repoOpControl;
+    private final long flushWindowMillis;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "WriteBackQueue");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Guarded by this
+    private final Map<ImmutablePair<String, Integer>, PendingEdit> pendingEdits = new LinkedHashMap<>();
+    private boolean isFlushScheduled = false;
+    private long editCount = 0;
+    private long requestCount = 0;
+    private long flushCount = 0;
+    private long totalFlushMillis = 0;
+    private long maxFlushMillis = 0;
+
+    /**
+     * The edits of an issue waiting to be written, merged into one.
+     */
+    private static final class PendingEdit {
+        private TurboIssue issue;
+        private IssueEdit edit;
+        private final List<CompletableFuture<Boolean>> results = new ArrayList<>();
+
+        private PendingEdit(TurboIssue issue, IssueEdit edit) {
+            this.issue = issue;
+            this.edit = edit;
+        }
+    }
+
+    public WriteBackQueue(RepoOpControl repoOpControl) {
+        this(repoOpControl, FLUSH_WINDOW_MILLIS);
+    }
+
+    public WriteBackQueue(RepoOpControl repoOpControl, long flushWindowMillis) {
+        this.repoOpControl = repoOpControl;
+        this.flushWindowMillis = flushWindowMillis;
+    }
+
+    /**
+     * Queues an edit of an issue to be written to the server with the next flush.
+     *
+     * @param issue The issue to edit
+     * @param edit  The changes to its fields
+     * @return true if the request writing the edit was successful, false otherwise
+     */
+    public CompletableFuture<Boolean> submit(TurboIssue issue, IssueEdit edit) {
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        synchronized (this) {
+            PendingEdit pending = pendingEdits.get(new ImmutablePair<>(issue.getRepoId(), issue.getId()));
+            if (pending == null) {
+                pending = new PendingEdit(issue, edit);
+                pendingEdits.put(new ImmutablePair<>(issue.getRepoId(), issue.getId()), pending);
+            } else {
+                pending.issue = issue;
+                pending.edit = pending.edit.mergeWith(edit);
+            }
+            pending.results.add(result);
+            editCount++;
+            if (!isFlushScheduled) {
+                isFlushScheduled = true;
+                executor.schedule(this::flush, flushWindowMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Writes all pending edits to the server.
+     *
+     * @return a future which completes when all requests of the flush have completed
+     */
+    public CompletableFuture<Void> flush() {
+        List<PendingEdit> edits;
+        synchronized (this) {
+            edits = new ArrayList<>(pendingEdits.values());
+            pendingEdits.clear();
+            isFlushScheduled = false;
+            requestCount += edits.size();
+        }
+        if (edits.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        long startTime = System.currentTimeMillis();
+        int mergedCount = edits.stream().mapToInt(pending -> pending.results.size()).sum();
+        return Futures.sequence(edits.stream().map(this::write).collect(Collectors.toList()))
+                .thenAccept(results -> {
+                    long flushMillis = System.currentTimeMillis() - startTime;
+                    recordFlush(flushMillis);
+                    logger.info(String.format("Flushed %d edit(s) as %d request(s) in %dms, %d failed",
+                                              mergedCount, edits.size(), flushMillis,
+                                              results.stream().filter(isSuccessful -> !isSuccessful).count()));
+                });
+    }
+
+    private CompletableFuture<Boolean> write(PendingEdit pending) {
+        return send(pending.issue, pending.edit)
+                .exceptionally(withResult(false))
+                .thenApply(isSuccessful -> {
+                    pending.results.forEach(result -> result.complete(isSuccessful));
+                    return isSuccessful;
+                });
+    }
+
+    /**
+     * Sends an edit with the request specific to the field it changes, if it only changes one.
+     */
+    private CompletableFuture<Boolean> send(TurboIssue issue, IssueEdit edit) {
+        if (edit.getFieldCount() > 1) {
+            return repoOpControl.editIssueOnServer(issue, edit);
+        } else if (edit.getLabels().isPresent()) {
+            return repoOpControl.replaceIssueLabelsOnServer(issue, edit.getLabels().get());
+        } else if (edit.getMilestone().isPresent()) {
+            return repoOpControl.replaceIssueMilestoneOnServer(issue, edit.getMilestone().get());
+        } else if (edit.getAssignee().isPresent()) {
+            return repoOpControl.replaceIssueAssigneeOnServer(issue, edit.getAssignee().get());
+        } else if (edit.isOpen().isPresent()) {
+            return repoOpControl.editIssueStateOnServer(issue, edit.isOpen().get());
+        }
+        return CompletableFuture.completedFuture(true);
+    }
+
+    private synchronized void recordFlush(long flushMillis) {
+        flushCount++;
+        totalFlushMillis += flushMillis;
+        maxFlushMillis = Math.max(maxFlushMillis, flushMillis);
+    }
+
+    /**
+     * @return the number of edits submitted
+     */
+    public synchronized long getEditCount() {
+        return editCount;
+    }
+
+    /**
+     * @return the number of requests the edits were merged into
+     */
+    public synchronized long getRequestCount() {
+        return requestCount;
+    }
+
+    /**
+     * @return the number of flushes completed
+     */
+    public synchronized long getFlushCount() {
+        return flushCount;
+    }
+
+    /**
+     * @return the average time from the start of a flush until all its requests completed, in milliseconds
+     */
+    public synchronized double getAverageFlushMillis() {
+        return flushCount == 0 ? 0 : (double) totalFlushMillis / flushCount;
+    }
+
+    public synchronized long getMaxFlushMillis() {
+        return maxFlushMillis;
+    }
+
+    public synchronized String summarise() {
+        return String.format("%d edit(s) in %d request(s), %d flush(es), avg %.1fms, max %dms",
+                             editCount, requestCount, flushCount, getAverageFlushMillis(), maxFlushMillis);
+    }
+}
@@ -0,0 +1,43 @@
+package backend.control.operations;
+
+import backend.IssueEdit;
+import backend.RepoIO;
+import backend.resource.TurboIssue;
+import org.apache.logging.log4j.Logger;
+import util.HTLog;
+
+import java.util.concurrent.CompletableFuture;
+
+import static util.Futures.chain;
+
+/**
+ * This class represents a repository operation that changes several fields of an issue in one request
+ */
+public class EditIssueOnServerOp implements RepoOp<Boolean> {
+
+    private final RepoIO repoIO;
+    private final TurboIssue issue;
+    private final IssueEdit edit;
+    private final CompletableFuture<Boolean> result;
+
+    private static final Logger logger = HTLog.get(EditIssueOnServerOp.class);
+
+    public EditIssueOnServerOp(RepoIO repoIO, CompletableFuture<Boolean> result, TurboIssue issue, IssueEdit edit) {
+        this.repoIO = repoIO;
+        this.issue = issue;
+        this.edit = edit;
+        this.result = result;
+    }
+
+    @Override
+    public String repoId() {
+        return issue.getRepoId();
+    }
+
+    @Override
+    public CompletableFuture<Boolean> perform() {
+        logger.info("Editing " + issue + " with " + edit + " on GitHub");
+        return repoIO.editIssue(issue, edit)
+                .thenApply(chain(result));
+    }
+}
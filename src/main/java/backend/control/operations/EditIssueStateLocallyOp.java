@@ -1,5 +1,6 @@
 package backend.control.operations;
 
+import backend.RepoIO;
 import backend.resource.MultiModel;
 import backend.resource.TurboIssue;
 import org.apache.logging.log4j.Logger;
@@ -13,6 +14,7 @@ import java.util.concurrent.CompletableFuture;
  */
 public class EditIssueStateLocallyOp implements RepoOp<Optional<TurboIssue>> {
 
+    private final RepoIO repoIO;
     private final MultiModel models;
     private final TurboIssue issue;
     private final boolean isOpen;
@@ -20,8 +22,10 @@ public class EditIssueStateLocallyOp implements RepoOp<Optional<TurboIssue>> {
 
     private static final Logger logger = HTLog.get(EditIssueStateLocallyOp.class);
 
-    public EditIssueStateLocallyOp(MultiModel models, CompletableFuture<Optional<TurboIssue>> result,
+    public EditIssueStateLocallyOp(RepoIO repoIO, MultiModel models,
+                                   CompletableFuture<Optional<TurboIssue>> result,
                                    TurboIssue issue, boolean isOpen) {
+        this.repoIO = repoIO;
         this.models = models;
         this.issue = issue;
         this.isOpen = isOpen;
@@ -39,6 +43,7 @@ public class EditIssueStateLocallyOp implements RepoOp<Optional<TurboIssue>> {
         logger.info("Editing state for issue " + issue + " to " + state + " locally");
         Optional<TurboIssue> localEditResult =
                 models.editIssueState(repoId(), issue.getId(), isOpen);
+        localEditResult.ifPresent(repoIO::saveIssueChange);
         result.complete(localEditResult);
         return result;
     }
@@ -1,5 +1,6 @@
 package backend.control.operations;
 
+import backend.RepoIO;
 import backend.resource.MultiModel;
 import backend.resource.TurboIssue;
 import org.apache.logging.log4j.Logger;
@@ -13,6 +14,7 @@ import java.util.concurrent.CompletableFuture;
  */
 public class ReplaceIssueAssigneeLocallyOp implements RepoOp<Optional<TurboIssue>> {
 
+    private final RepoIO repoIO;
     private final MultiModel models;
     private final TurboIssue issue;
     private final Optional<String> assigneeLoginName;
@@ -20,8 +22,10 @@ public class ReplaceIssueAssigneeLocallyOp implements RepoOp<Optional<TurboIssue
 
     private static final Logger logger = HTLog.get(UpdateLocalModelOp.class);
 
-    public ReplaceIssueAssigneeLocallyOp(MultiModel models, TurboIssue issue, Optional<String> assigneeLoginName,
-                                       CompletableFuture<Optional<TurboIssue>> result) {
+    public ReplaceIssueAssigneeLocallyOp(RepoIO repoIO, MultiModel models, TurboIssue issue,
+                                         Optional<String> assigneeLoginName,
+                                         CompletableFuture<Optional<TurboIssue>> result) {
+        this.repoIO = repoIO;
         this.models = models;
         this.issue = issue;
         this.assigneeLoginName = assigneeLoginName;
@@ -38,6 +42,7 @@ public class ReplaceIssueAssigneeLocallyOp implements RepoOp<Optional<TurboIssue
         logger.info("Replacing assignee for issue " + issue + " locally");
         Optional<TurboIssue> localReplaceResult =
                 models.replaceIssueAssignee(issue.getRepoId(), issue.getId(), assigneeLoginName);
+        localReplaceResult.ifPresent(repoIO::saveIssueChange);
         result.complete(localReplaceResult);
         return result;
     }
@@ -1,5 +1,6 @@
 package backend.control.operations;
 
+import backend.RepoIO;
 import backend.resource.MultiModel;
 import backend.resource.TurboIssue;
 import org.apache.logging.log4j.Logger;
@@ -13,6 +14,7 @@ import java.util.concurrent.CompletableFuture;
  * This class represents a mutually exclusive operation to replace an issue's labels locally
  */
 public class ReplaceIssueLabelsLocallyOp implements RepoOp<Optional<TurboIssue>> {
+    private final RepoIO repoIO;
     private final MultiModel models;
     private final TurboIssue issue;
     private final List<String> newLabels;
@@ -20,8 +22,9 @@ public class ReplaceIssueLabelsLocallyOp implements RepoOp<Optional<TurboIssue>>
 
     private static final Logger logger = HTLog.get(UpdateLocalModelOp.class);
 
-    public ReplaceIssueLabelsLocallyOp(MultiModel models, TurboIssue issue, List<String> newlabels,
+    public ReplaceIssueLabelsLocallyOp(RepoIO repoIO, MultiModel models, TurboIssue issue, List<String> newlabels,
                                        CompletableFuture<Optional<TurboIssue>> result) {
+        this.repoIO = repoIO;
         this.models = models;
         this.issue = issue;
         this.newLabels = newlabels;
@@ -38,6 +41,7 @@ public class ReplaceIssueLabelsLocallyOp implements RepoOp<Optional<TurboIssue>>
         logger.info("Replacing labels for issue " + issue + " locally");
         Optional<TurboIssue> localReplaceResult =
                 models.replaceIssueLabels(issue.getRepoId(), issue.getId(), newLabels);
+        localReplaceResult.ifPresent(repoIO::saveIssueChange);
         result.complete(localReplaceResult);
         return result;
     }
@@ -1,5 +1,6 @@
 package backend.control.operations;
 
+import backend.RepoIO;
 import backend.resource.MultiModel;
 import backend.resource.TurboIssue;
 import org.apache.logging.log4j.Logger;
@@ -10,6 +11,7 @@ import java.util.concurrent.CompletableFuture;
 
 
 public class ReplaceIssueMilestoneLocallyOp implements RepoOp<Optional<TurboIssue>> {
+    private final RepoIO repoIO;
     private final MultiModel models;
     private final TurboIssue issue;
     private final Optional<Integer> milestone;
@@ -17,8 +19,10 @@ public class ReplaceIssueMilestoneLocallyOp implements RepoOp<Optional<TurboIssu
 
     private static final Logger logger = HTLog.get(UpdateLocalModelOp.class);
 
-    public ReplaceIssueMilestoneLocallyOp(MultiModel models, CompletableFuture<Optional<TurboIssue>> result,
+    public ReplaceIssueMilestoneLocallyOp(RepoIO repoIO, MultiModel models,
+                                          CompletableFuture<Optional<TurboIssue>> result,
                                           TurboIssue issue, Optional<Integer> milestone) {
+        this.repoIO = repoIO;
         this.models = models;
         this.result = result;
 
@@ -36,6 +40,7 @@ public class ReplaceIssueMilestoneLocallyOp implements RepoOp<Optional<TurboIssu
         logger.info("Replacing milestone for issue " + issue + " locally");
         Optional<TurboIssue> localReplaceResult =
                 models.replaceIssueMilestone(issue.getRepoId(), issue.getId(), milestone);
+        localReplaceResult.ifPresent(repoIO::saveIssueChange);
         result.complete(localReplaceResult);
         return result;
     }
@@ -1,5 +1,6 @@
 package backend.control.operations;
 
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -17,4 +18,15 @@ public interface RepoOp<T> {
      * The operation's implementation.
      */
     CompletableFuture<T> perform();
+
+    /**
+     * Merges the operation with the one queued right after it on the same repository, so that both are
+     * performed together. Operations which cannot be merged return an empty Optional.
+     *
+     * @param next The operation queued right after this one
+     * @return the merged operation, which completes the results of both
+     */
+    default Optional<RepoOp<?>> mergeWith(RepoOp<?> next) {
+        return Optional.empty();
+    }
 }
@@ -3,59 +3,95 @@ package backend.control.operations;
 import backend.UpdateSignature;
 import backend.github.GitHubModelUpdatesData;
 import backend.resource.*;
+import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.logging.log4j.Logger;
 import org.eclipse.egit.github.core.PullRequest;
 import util.HTLog;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 
 /**
  * This class is a mutually exclusive operation that update a locally stored repository
- * represented by a Model with data downloaded from server
+ * represented by a Model with data downloaded from server.
+ * <p>
+ * Consecutive operations on the same repository are merged into one, which applies their updates in order
+ * and replaces the stored model only once.
  */
 public class UpdateLocalModelOp implements RepoOp<Model> {
     private final MultiModel models;
-    private Model oldModel;
-    private final CompletableFuture<Model> result;
-    private final GitHubModelUpdatesData updates;
+    // The updates to apply in order, with the result of the operation they were given to
+    private final List<ImmutablePair<GitHubModelUpdatesData, CompletableFuture<Model>>> updatesList;
 
     private static final Logger logger = HTLog.get(UpdateLocalModelOp.class);
 
     public UpdateLocalModelOp(MultiModel models, GitHubModelUpdatesData updates,
                               CompletableFuture<Model> result) {
         this.models = models;
-        this.updates = updates;
-        this.result = result;
+        this.updatesList = new ArrayList<>();
+        updatesList.add(new ImmutablePair<>(updates, result));
+    }
+
+    private UpdateLocalModelOp(MultiModel models,
+                               List<ImmutablePair<GitHubModelUpdatesData, CompletableFuture<Model>>> updatesList) {
+        this.models = models;
+        this.updatesList = updatesList;
     }
 
     @Override
     public String repoId() {
-        return updates.getRepoId();
+        return updatesList.get(0).getLeft().getRepoId();
     }
 
     @Override
     public CompletableFuture<Model> perform() {
-        Optional<Model> oldModelOptional = models.getModelById(updates.getRepoId());
-        this.oldModel = oldModelOptional.orElse(updates.getModel());
+        Optional<Model> oldModelOptional = models.getModelById(repoId());
 
-        UpdateSignature newSignature =
-                new UpdateSignature(updates.getIssues().eTag, updates.getLabels().eTag,
-                                    updates.getMilestones().eTag, updates.getUsers().eTag,
-                                    updates.getIssues().lastCheckTime);
-        Model updatedModel = new Model(updates.getRepoId(), getUpdateIssues(), getUpdatedLabels(),
-                                       getUpdatedMilestones(), getUpdatedUsers(), newSignature);
+        List<Model> updatedModels = new ArrayList<>();
+        Model updatedModel = null;
+        for (ImmutablePair<GitHubModelUpdatesData, CompletableFuture<Model>> updates : updatesList) {
+            // Without a stored model, every update applies to the model it was downloaded for
+            Model oldModel = oldModelOptional.isPresent()
+                    ? updatedModel == null ? oldModelOptional.get() : updatedModel
+                    : updates.getLeft().getModel();
+            updatedModel = applyUpdates(oldModel, updates.getLeft());
+            updatedModels.add(updatedModel);
+        }
 
         logger.info(HTLog.format(updatedModel.getRepoId(), "Updated model with " + updatedModel.summarise()));
         if (oldModelOptional.isPresent()) {
             models.replace(updatedModel);
         }
-        result.complete(updatedModel);
-        return result;
+        // Merged operations complete with the model as it was after their own updates
+        for (int i = 0; i < updatesList.size(); i++) {
+            updatesList.get(i).getRight().complete(updatedModels.get(i));
+        }
+        return updatesList.get(updatesList.size() - 1).getRight();
+    }
+
+    @Override
+    public Optional<RepoOp<?>> mergeWith(RepoOp<?> next) {
+        if (!(next instanceof UpdateLocalModelOp) || !repoId().equals(next.repoId())) {
+            return Optional.empty();
+        }
+        List<ImmutablePair<GitHubModelUpdatesData, CompletableFuture<Model>>> merged = new ArrayList<>(updatesList);
+        merged.addAll(((UpdateLocalModelOp) next).updatesList);
+        return Optional.of(new UpdateLocalModelOp(models, merged));
+    }
+
+    private static Model applyUpdates(Model oldModel, GitHubModelUpdatesData updates) {
+        UpdateSignature newSignature =
+                new UpdateSignature(updates.getIssues().eTag, updates.getLabels().eTag,
+                                    updates.getMilestones().eTag, updates.getUsers().eTag,
+                                    updates.getIssues().lastCheckTime);
+        return new Model(oldModel, getUpdatedIssues(oldModel, updates),
+                         getUpdatedLabels(oldModel, updates), getUpdatedMilestones(oldModel, updates),
+                         getUpdatedUsers(oldModel, updates), newSignature);
     }
 
-    private List<TurboIssue> getUpdateIssues() {
+    private static List<TurboIssue> getUpdatedIssues(Model oldModel, GitHubModelUpdatesData updates) {
         List<TurboIssue> existing = oldModel.getIssues();
         List<TurboIssue> updatedIssues = updates.getIssues().items;
         List<PullRequest> updatesPullRequests = updates.getPullRequests();
@@ -64,15 +100,15 @@ public class UpdateLocalModelOp implements RepoOp<Model> {
         return TurboIssue.combineWithPullRequests(updated, updatesPullRequests);
     }
 
-    private List<TurboLabel> getUpdatedLabels() {
+    private static List<TurboLabel> getUpdatedLabels(Model oldModel, GitHubModelUpdatesData updates) {
         return updates.getLabels().items.isEmpty() ? oldModel.getLabels() : updates.getLabels().items;
     }
 
-    private List<TurboMilestone> getUpdatedMilestones() {
+    private static List<TurboMilestone> getUpdatedMilestones(Model oldModel, GitHubModelUpdatesData updates) {
         return updates.getMilestones().items.isEmpty() ? oldModel.getMilestones() : updates.getMilestones().items;
     }
 
-    private List<TurboUser> getUpdatedUsers() {
+    private static List<TurboUser> getUpdatedUsers(Model oldModel, GitHubModelUpdatesData updates) {
         return updates.getUsers().items.isEmpty() ? oldModel.getUsers() : updates.getUsers().items;
     }
 }
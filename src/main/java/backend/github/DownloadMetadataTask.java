@@ -4,56 +4,211 @@ import backend.IssueMetadata;
 import backend.interfaces.Repo;
 import backend.interfaces.TaskRunner;
 import backend.resource.TurboIssue;
+import github.GitHubClientEx;
 import github.TurboIssueEvent;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.logging.log4j.Logger;
 import org.eclipse.egit.github.core.Comment;
 import util.HTLog;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
+/**
+ * This class represents an async task that downloads the events and comments of issues in a repository.
+ * <p>
+ * Issues are fetched by up to {@link GitHubClientEx#MAX_CONCURRENT_REQUESTS} workers at a time, most recently
+ * updated first. Metadata is handed to the batch handler every {@link #BATCH_SIZE} issues, so that it can be used
+ * before all issues are fetched, and the response completes with the metadata of all fetched issues once the
+ * last batch has been handled.
+ * <p>
+ * Issues are only fetched while the remaining API quota, as of the start of the task, covers their requests
+ * with {@link #RATE_LIMIT_RESERVE} requests to spare. Issues left out keep their current metadata.
+ */
 public class DownloadMetadataTask extends GitHubRepoTask<Map<Integer, IssueMetadata>> {
 
     private static final Logger logger = HTLog.get(DownloadMetadataTask.class);
 
+    public static final int BATCH_SIZE = 20;
+    // Requests left for other tasks, such as model updates, when the quota is almost used up
+    public static final int RATE_LIMIT_RESERVE = 100;
+
     private final String repoId;
     private final List<TurboIssue> issuesToUpdate;
+    private final Consumer<Map<Integer, IssueMetadata>> batchHandler;
+
+    private final Map<Integer, IssueMetadata> result = new HashMap<>();
+    private final Map<Integer, IssueMetadata> batch = new HashMap<>();
 
     public DownloadMetadataTask(TaskRunner taskRunner, Repo repo, String repoId,
                                 List<TurboIssue> issuesToUpdate) {
+        this(taskRunner, repo, repoId, issuesToUpdate, metadata -> {});
+    }
+
+    public DownloadMetadataTask(TaskRunner taskRunner, Repo repo, String repoId,
+                                List<TurboIssue> issuesToUpdate,
+                                Consumer<Map<Integer, IssueMetadata>> batchHandler) {
         super(taskRunner, repo);
         this.repoId = repoId;
         this.issuesToUpdate = issuesToUpdate;
+        this.batchHandler = batchHandler;
     }
 
     @Override
     public void run() {
-        Map<Integer, IssueMetadata> result = new HashMap<>();
+        Queue<TurboIssue> queue = new ConcurrentLinkedQueue<>(getAffordableIssues());
+        if (queue.isEmpty()) {
+            response.complete(result);
+            return;
+        }
 
-        issuesToUpdate.forEach(issue -> {
-            String currEventsETag = issue.getMetadata().getEventsETag();
-            String currCommentsETag = issue.getMetadata().getCommentsETag();
-            int id = issue.getId();
+        int workerCount = Math.min(GitHubClientEx.MAX_CONCURRENT_REQUESTS, queue.size());
+        AtomicInteger activeWorkers = new AtomicInteger(workerCount);
+        for (int i = 1; i < workerCount; i++) {
+            taskRunner.execute(() -> runWorker(queue, activeWorkers));
+        }
+        runWorker(queue, activeWorkers);
+    }
 
-            ImmutablePair<List<TurboIssueEvent>, String> changes = repo.getUpdatedEvents(repoId, id, currEventsETag);
+    /**
+     * Fetches issues from the queue until it is empty. The last worker to finish hands over the remaining
+     * batch and completes the response.
+     */
+    private void runWorker(Queue<TurboIssue> queue, AtomicInteger activeWorkers) {
+        try {
+            TurboIssue issue;
+            while ((issue = queue.poll()) != null) {
+                IssueMetadata metadata = downloadMetadata(issue);
+                Map<Integer, IssueMetadata> fullBatch = addToBatch(issue.getId(), metadata);
+                if (!fullBatch.isEmpty()) {
+                    handleBatch(fullBatch);
+                }
+            }
+        } catch (RuntimeException e) {
+            HTLog.error(logger, e);
+            queue.clear();
+        } finally {
+            if (activeWorkers.decrementAndGet() == 0) {
+                complete();
+            }
+        }
+    }
 
-            List<TurboIssueEvent> events = changes.getLeft();
-            String updatedEventsETag = changes.getRight();
+    private IssueMetadata downloadMetadata(TurboIssue issue) {
+        String currEventsETag = issue.getMetadata().getEventsETag();
+        String currCommentsETag = issue.getMetadata().getCommentsETag();
 
-            List<Comment> comments = repo.getAllComments(repoId, issue);
+        ImmutablePair<List<TurboIssueEvent>, String> changes =
+                repo.getUpdatedEvents(repoId, issue.getId(), currEventsETag);
 
-            IssueMetadata metadata = IssueMetadata.intermediate(events, comments, updatedEventsETag, currCommentsETag);
-            result.put(id, metadata);
-        });
+        List<TurboIssueEvent> events = changes.getLeft();
+        String updatedEventsETag = changes.getRight();
+
+        ImmutablePair<List<Comment>, String> commentChanges =
+                repo.getUpdatedComments(repoId, issue, currCommentsETag);
+
+        List<Comment> comments = commentChanges.getLeft();
+        String updatedCommentsETag = commentChanges.getRight();
+
+        return IssueMetadata.intermediate(events, comments, updatedEventsETag, updatedCommentsETag);
+    }
+
+    /**
+     * Adds the metadata of an issue to the current batch.
+     *
+     * @return the batch if it is now full, in which case a new batch is started, or an empty map otherwise
+     */
+    private synchronized Map<Integer, IssueMetadata> addToBatch(int id, IssueMetadata metadata) {
+        result.put(id, metadata);
+        batch.put(id, metadata);
+        if (batch.size() < BATCH_SIZE) {
+            return new HashMap<>();
+        }
+        return takeBatch();
+    }
 
-        logger.info(HTLog.format(repoId, "Downloaded " + result.entrySet().stream()
+    private synchronized Map<Integer, IssueMetadata> takeBatch() {
+        Map<Integer, IssueMetadata> fullBatch = new HashMap<>(batch);
+        batch.clear();
+        return fullBatch;
+    }
+
+    private void handleBatch(Map<Integer, IssueMetadata> fullBatch) {
+        try {
+            batchHandler.accept(fullBatch);
+        } catch (RuntimeException e) {
+            HTLog.error(logger, e);
+        }
+    }
+
+    private void complete() {
+        Map<Integer, IssueMetadata> lastBatch = takeBatch();
+        if (!lastBatch.isEmpty()) {
+            handleBatch(lastBatch);
+        }
+
+        Map<Integer, IssueMetadata> downloaded;
+        synchronized (this) {
+            downloaded = new HashMap<>(result);
+        }
+        logger.info(HTLog.format(repoId, "Downloaded " + downloaded.entrySet().stream()
                 .map(entry -> "(" + entry.getValue().summarise() + ") " +
                         "for #" + entry.getKey())
                 .collect(Collectors.joining(", "))));
 
-        response.complete(result);
+        response.complete(downloaded);
+    }
+
+    /**
+     * Determines the issues whose metadata can be fetched within the remaining API quota, most recently
+     * updated first. All issues are considered affordable if the quota cannot be retrieved.
+     */
+    private List<TurboIssue> getAffordableIssues() {
+        List<TurboIssue> issues = new ArrayList<>(issuesToUpdate);
+        issues.sort(Comparator.comparing(TurboIssue::getUpdatedAt, Comparator.nullsLast(Comparator.reverseOrder())));
+
+        ImmutablePair<Integer, Long> rateLimit;
+        try {
+            rateLimit = repo.getRateLimitResetTime();
+        } catch (IOException e) {
+            HTLog.error(logger, e);
+            return issues;
+        }
+
+        int budget = rateLimit.getLeft() - RATE_LIMIT_RESERVE;
+        List<TurboIssue> affordable = new ArrayList<>();
+        for (TurboIssue issue : issues) {
+            budget -= getRequestCount(issue);
+            if (budget < 0) {
+                break;
+            }
+            affordable.add(issue);
+        }
+
+        if (affordable.size() < issues.size()) {
+            logger.warn(HTLog.format(repoId, String.format(
+                    "Skipping metadata of %d of %d issue(s): %d request(s) remaining until %s",
+                    issues.size() - affordable.size(), issues.size(), rateLimit.getLeft(),
+                    new Date(rateLimit.getRight()))));
+        }
+        return affordable;
+    }
+
+    /**
+     * @return the number of requests needed to fetch the metadata of an issue
+     */
+    private static int getRequestCount(TurboIssue issue) {
+        // Events and comments, and review comments for pull requests
+        return issue.isPullRequest() ? 3 : 2;
     }
 }
@@ -2,13 +2,11 @@ package backend.github;
 
 import backend.interfaces.Repo;
 import backend.interfaces.TaskRunner;
-import backend.resource.*;
+import backend.resource.Model;
 import org.apache.logging.log4j.Logger;
-import org.eclipse.egit.github.core.PullRequest;
 import util.HTLog;
 
-import java.util.List;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * This class represents an async task that downloads updates for a repository represented as a Model
@@ -38,20 +36,23 @@ public class DownloadModelUpdatesTask extends GitHubRepoTask<GitHubModelUpdatesD
         taskRunner.execute(usersTask);
         taskRunner.execute(pullRequestsTask);
 
-        try {
-            Result<TurboIssue> issuesResult = issuesTask.response.get();
-            Result<TurboLabel> labelsResult = labelsTask.response.get();
-            Result<TurboMilestone> milestonesResult = milestonesTask.response.get();
-            Result<TurboUser> usersResult = usersTask.response.get();
-            List<PullRequest> pullRequestsResult = pullRequestsTask.response.get();
-
-            GitHubModelUpdatesData updates = new GitHubModelUpdatesData(model,
-                                                                        issuesResult, pullRequestsResult,
-                                                                        labelsResult, milestonesResult, usersResult);
-            logger.info(HTLog.format(model.getRepoId(), "Updates download completed"));
-            response.complete(updates);
-        } catch (InterruptedException | ExecutionException e) {
-            HTLog.error(logger, e);
-        }
+        // Composed rather than waited for, so that no thread of the bounded pool is held up by the subtasks
+        CompletableFuture.allOf(issuesTask.response, labelsTask.response, milestonesTask.response,
+                                usersTask.response, pullRequestsTask.response)
+                .thenApply(n -> new GitHubModelUpdatesData(model,
+                                                           issuesTask.response.join(),
+                                                           pullRequestsTask.response.join(),
+                                                           labelsTask.response.join(),
+                                                           milestonesTask.response.join(),
+                                                           usersTask.response.join()))
+                .whenComplete((updates, e) -> {
+                    if (e != null) {
+                        logger.error(HTLog.format(model.getRepoId(), "Updates download failed"), e);
+                        response.completeExceptionally(e);
+                        return;
+                    }
+                    logger.info(HTLog.format(model.getRepoId(), "Updates download completed"));
+                    response.complete(updates);
+                });
     }
 }
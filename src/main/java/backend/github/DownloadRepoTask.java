@@ -22,7 +22,7 @@ public class DownloadRepoTask extends GitHubRepoTask<Model> {
 
     @Override
     public void run() {
-        List<TurboIssue> issues = repo.getIssues(repoId);
+        List<TurboIssue> issues = repo.getIssues(repoId, taskRunner::execute);
         List<TurboLabel> labels = repo.getLabels(repoId);
         List<TurboMilestone> milestones = repo.getMilestones(repoId);
         List<TurboUser> users = repo.getCollaborators(repoId);
@@ -0,0 +1,36 @@
+package backend.github;
+
+import backend.IssueEdit;
+import backend.interfaces.Repo;
+import backend.interfaces.TaskRunner;
+
+import java.io.IOException;
+
+/**
+ * This class represents an async task that changes several fields of an issue on GitHub in one request.
+ */
+public class EditIssueTask extends GitHubRepoTask<Boolean> {
+
+    private final String repoId;
+    private final int issueId;
+    private final String issueTitle;
+    private final IssueEdit edit;
+
+    public EditIssueTask(TaskRunner taskRunner, Repo repo, String repoId, int issueId, String issueTitle,
+                         IssueEdit edit) {
+        super(taskRunner, repo);
+        this.repoId = repoId;
+        this.issueId = issueId;
+        this.issueTitle = issueTitle;
+        this.edit = edit;
+    }
+
+    @Override
+    public void run() {
+        try {
+            response.complete(repo.editIssue(repoId, issueId, issueTitle, edit));
+        } catch (IOException e) {
+            response.complete(false);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package backend.github;
 
+import backend.IssueEdit;
 import backend.UserCredentials;
 import backend.interfaces.Repo;
 import backend.resource.TurboIssue;
@@ -25,6 +26,7 @@ import util.events.UpdateProgressEvent;
 import java.io.IOException;
 import java.net.HttpURLConnection;
 import java.util.*;
+import java.util.concurrent.Executor;
 import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 
@@ -34,12 +36,39 @@ public class GitHubRepo implements Repo {
 
     private static final Logger logger = HTLog.get(GitHubRepo.class);
 
-    private final GitHubClientEx client = new GitHubClientEx();
-    private final IssueServiceEx issueService = new IssueServiceEx(client);
-    private final PullRequestServiceEx pullRequestService = new PullRequestServiceEx(client);
-    private final CollaboratorServiceEx collaboratorService = new CollaboratorServiceEx(client);
-    private final LabelServiceEx labelService = new LabelServiceEx(client);
-    private final MilestoneService milestoneService = new MilestoneService(client);
+    // Separates the ETags of comments and review comments of pull requests, as spaces cannot occur in ETags
+    private static final String COMMENTS_ETAG_SEPARATOR = " ";
+
+    private final GitHubClientEx client;
+    private final IssueServiceEx issueService;
+    private final PullRequestServiceEx pullRequestService;
+    private final CollaboratorServiceEx collaboratorService;
+    private final LabelServiceEx labelService;
+    private final MilestoneService milestoneService;
+
+    public GitHubRepo() {
+        this(new GitHubClientEx());
+    }
+
+    /**
+     * @param responseCache Answers requests whose responses are unchanged
+     */
+    public GitHubRepo(DiskResponseCache responseCache) {
+        this();
+        client.setResponseCache(responseCache);
+    }
+
+    /**
+     * @param client The client through which all requests are made
+     */
+    public GitHubRepo(GitHubClientEx client) {
+        this.client = client;
+        issueService = new IssueServiceEx(client);
+        pullRequestService = new PullRequestServiceEx(client);
+        collaboratorService = new CollaboratorServiceEx(client);
+        labelService = new LabelServiceEx(client);
+        milestoneService = new MilestoneService(client);
+    }
 
     @Override
     public boolean login(UserCredentials credentials) {
@@ -149,51 +178,29 @@ public class GitHubRepo implements Repo {
 
     @Override
     public List<TurboIssue> getIssues(String repoId) {
+        // Pages are downloaded one at a time on the calling thread
+        return getIssues(repoId, Runnable::run);
+    }
+
+    @Override
+    public List<TurboIssue> getIssues(String repoId, Executor executor) {
         Map<String, String> filters = new HashMap<>();
         filters.put(IssueService.FIELD_FILTER, "all");
         filters.put(IssueService.FILTER_STATE, "all");
-        return getAll(issueService.pageIssues(RepositoryId.createFromId(repoId), filters), repoId).stream()
-                .map(i -> new TurboIssue(repoId, i))
-                .collect(Collectors.toList());
-    }
-
-    private List<Issue> getAll(PageIterator<Issue> iterator, String repoId) {
-        List<Issue> elements = new ArrayList<>();
-
-        // Assume there is at least one page
-        int knownLastPage = 1;
-
-        try {
-            while (iterator.hasNext()) {
-                Collection<Issue> additions = iterator.next();
-                elements.addAll(additions);
-
-                // Compute progress
-
-                // iterator.getLastPage() only has a value after iterator.next() is called,
-                // so it's used directly in this loop. It returns the 1-based index of the last
-                // page, except when we are actually on the last page, in which case it returns -1.
-                // This portion deals with all these quirks.
+        PagedRequest<Issue> request = issueService.createIssuesRequest(RepositoryId.createFromId(repoId), filters);
 
-                knownLastPage = Math.max(knownLastPage, iterator.getLastPage());
-                int totalIssueCount = knownLastPage * PagedRequest.PAGE_SIZE;
-                // Total is approximate: always >= the actual amount
-                assert totalIssueCount >= elements.size();
-
-                float progress = (float) elements.size() / (float) totalIssueCount;
+        // Issues are converted as each page is read, so that the whole repository is never held as EGit issues
+        ParallelPageDownloader<Issue, TurboIssue> downloader = new ParallelPageDownloader<>(
+                client, executor, Issue.class, issue -> new TurboIssue(repoId, issue));
+        List<TurboIssue> issues = downloader.getAll(request, progress -> {
+            if (progress < 1) {
                 UI.events.triggerEvent(new UpdateProgressEvent(repoId, progress));
-                logger.info(HTLog.format(repoId, "Loaded %d issues (%.0f%% done)",
-                                         elements.size(), progress * 100));
-            }
-            UI.events.triggerEvent(new UpdateProgressEvent(repoId));
-        } catch (NoSuchPageException pageException) {
-            try {
-                throw pageException.getCause();
-            } catch (IOException e) {
-                HTLog.error(logger, e);
+                logger.info(HTLog.format(repoId, "Loaded %.0f%% of issues", progress * 100));
             }
-        }
-        return elements;
+        });
+        UI.events.triggerEvent(new UpdateProgressEvent(repoId));
+        logger.info(HTLog.format(repoId, "Loaded %d issues", issues.size()));
+        return issues;
     }
 
     @Override
@@ -251,6 +258,76 @@ public class GitHubRepo implements Repo {
         return result;
     }
 
+    /**
+     * Gets all types of comments for an issue, using conditional requests so that unchanged comments cost no
+     * API quota. For pull requests, the ETags of comments and review comments are combined into one, and
+     * whichever kind is unchanged is taken from the comments already held by the issue. The combined ETag is
+     * empty if either kind has none, e.g. as it spans several pages.
+     *
+     * @param repoId
+     * @param issue
+     * @param currentETag
+     * @return the comments together with their new ETag, or an empty list together with {@code currentETag}
+     * if they are unchanged
+     */
+    @Override
+    public ImmutablePair<List<Comment>, String> getUpdatedComments(String repoId, TurboIssue issue,
+                                                                   String currentETag) {
+        String[] eTags = currentETag.split(COMMENTS_ETAG_SEPARATOR, 2);
+        String commentsETag = eTags[0];
+        String reviewCommentsETag = eTags.length > 1 ? eTags[1] : "";
+        RepositoryId repository = RepositoryId.createFromId(repoId);
+
+        try {
+            ImmutablePair<List<Comment>, String> comments =
+                    issueService.getComments(repository, issue.getId(), commentsETag);
+            if (!issue.isPullRequest()) {
+                return comments;
+            }
+
+            ImmutablePair<List<ReviewComment>, String> reviewComments = client.getAllIfModified(
+                    pullRequestService.createReviewCommentsRequest(repository, issue.getId()), reviewCommentsETag);
+            boolean areCommentsModified = isModified(commentsETag, comments.getRight());
+            boolean areReviewCommentsModified = isModified(reviewCommentsETag, reviewComments.getRight());
+            if (!areCommentsModified && !areReviewCommentsModified) {
+                return new ImmutablePair<>(new ArrayList<>(), currentETag);
+            }
+
+            List<Comment> cachedComments = issue.getMetadata().getComments();
+            List<Comment> result = new ArrayList<>();
+            if (areCommentsModified) {
+                result.addAll(comments.getLeft());
+            } else {
+                cachedComments.stream().filter(c -> !(c instanceof ReviewComment)).forEach(result::add);
+            }
+            if (areReviewCommentsModified) {
+                result.addAll(reviewComments.getLeft());
+            } else {
+                cachedComments.stream().filter(c -> c instanceof ReviewComment).forEach(result::add);
+            }
+            return new ImmutablePair<>(result, combineETags(comments.getRight(), reviewComments.getRight()));
+        } catch (IOException e) {
+            HTLog.error(logger, e);
+            // Keep the comments already held by the issue
+            return new ImmutablePair<>(issue.getMetadata().getComments(), currentETag);
+        }
+    }
+
+    /**
+     * @return the ETag identifying both comments and review comments, which is empty if either of theirs is,
+     * so that the comments of the pull request are not taken to be unchanged next time
+     */
+    private static String combineETags(String commentsETag, String reviewCommentsETag) {
+        if (commentsETag.isEmpty() || reviewCommentsETag.isEmpty()) {
+            return "";
+        }
+        return commentsETag + COMMENTS_ETAG_SEPARATOR + reviewCommentsETag;
+    }
+
+    private static boolean isModified(String currentETag, String updatedETag) {
+        return currentETag.isEmpty() || !currentETag.equals(updatedETag);
+    }
+
     @Override
     public List<Label> setLabels(String repoId, int issueId, List<String> labels) throws IOException {
         return labelService.setLabels(
@@ -301,6 +378,40 @@ public class GitHubRepo implements Repo {
         return updatedIssue.getState().equals(isOpen ? IssueService.STATE_OPEN : IssueService.STATE_CLOSED);
     }
 
+    @Override
+    public boolean editIssue(String repoId, int issueId, String issueTitle, IssueEdit edit) throws IOException {
+        Map<String, Object> fields = new HashMap<>();
+        // Removals are sent as empty strings, as IssueService does for milestones
+        edit.getLabels().ifPresent(labels -> fields.put(IssueService.FILTER_LABELS, labels));
+        edit.getMilestone().ifPresent(milestone -> fields.put(IssueService.FILTER_MILESTONE,
+                                                              milestone.map(String::valueOf).orElse("")));
+        edit.getAssignee().ifPresent(assignee -> fields.put(IssueService.FILTER_ASSIGNEE, assignee.orElse("")));
+        edit.isOpen().ifPresent(isOpen -> fields.put(IssueService.FILTER_STATE,
+                                                     isOpen ? IssueService.STATE_OPEN : IssueService.STATE_CLOSED));
+
+        Issue returnedIssue = issueService.editIssueFields(RepositoryId.createFromId(repoId), issueId, fields);
+
+        boolean isLabelsEdited = edit.getLabels()
+                .map(labels -> returnedIssue.getLabels() != null && returnedIssue.getLabels().stream()
+                        .map(Label::getName)
+                        .collect(Collectors.toList())
+                        .containsAll(labels))
+                .orElse(true);
+        boolean isMilestoneEdited = edit.getMilestone()
+                .map(milestone -> milestone.equals(Optional.ofNullable(returnedIssue.getMilestone())
+                                                           .map(Milestone::getNumber)))
+                .orElse(true);
+        boolean isAssigneeEdited = edit.getAssignee()
+                .map(assignee -> assignee.equals(Optional.ofNullable(returnedIssue.getAssignee())
+                                                         .map(User::getLogin)))
+                .orElse(true);
+        boolean isStateEdited = edit.isOpen()
+                .map(isOpen -> returnedIssue.getState()
+                        .equals(isOpen ? IssueService.STATE_OPEN : IssueService.STATE_CLOSED))
+                .orElse(true);
+        return isLabelsEdited && isMilestoneEdited && isAssigneeEdited && isStateEdited;
+    }
+
     @Override
     public Optional<String> setAssignee(String repoId, int issueId, String issueTitle,
                                         Optional<String> issueAssigneeLoginName) throws IOException {
@@ -1,5 +1,6 @@
 package backend.github;
 
+import backend.IssueEdit;
 import backend.IssueMetadata;
 import backend.UserCredentials;
 import backend.interfaces.Repo;
@@ -7,21 +8,26 @@ import backend.interfaces.RepoSource;
 import backend.resource.Model;
 import backend.resource.TurboIssue;
 import backend.resource.TurboMilestone;
+import github.DiskResponseCache;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.logging.log4j.Logger;
 import org.eclipse.egit.github.core.Issue;
 import util.HTLog;
 
+import java.nio.file.Paths;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 public class GitHubSource extends RepoSource {
 
     private static final Logger logger = HTLog.get(GitHubSource.class);
 
-    private final Repo gitHub = new GitHubRepo();
+    private final DiskResponseCache responseCache =
+            new DiskResponseCache(Paths.get(DiskResponseCache.DEFAULT_DIRECTORY));
+    private final Repo gitHub = new GitHubRepo(responseCache);
 
     @Override
     public String getName() {
@@ -49,12 +55,17 @@ public class GitHubSource extends RepoSource {
 
     @Override
     public CompletableFuture<GitHubModelUpdatesData> downloadModelUpdates(Model model) {
-        return addTask(new DownloadModelUpdatesTask(this, gitHub, model)).response;
+        return addTask(new DownloadModelUpdatesTask(this, gitHub, model)).response
+                .whenComplete((updates, e) -> {
+                    logger.info(HTLog.format(model.getRepoId(), "Response cache: " + responseCache.summarise()));
+                    logger.info(HTLog.format(model.getRepoId(), "Tasks: " + summariseTasks()));
+                });
     }
 
     @Override
-    public CompletableFuture<Map<Integer, IssueMetadata>> downloadMetadata(String repoId, List<TurboIssue> issues) {
-        return addTask(new DownloadMetadataTask(this, gitHub, repoId, issues)).response;
+    public CompletableFuture<Map<Integer, IssueMetadata>> downloadMetadata(
+            String repoId, List<TurboIssue> issues, Consumer<Map<Integer, IssueMetadata>> batchHandler) {
+        return addTask(new DownloadMetadataTask(this, gitHub, repoId, issues, batchHandler)).response;
     }
 
     @Override
@@ -84,6 +95,12 @@ public class GitHubSource extends RepoSource {
         return addTask(new EditIssueStateTask(this, gitHub, issue.getRepoId(), issue.getId(), isOpen)).response;
     }
 
+    @Override
+    public CompletableFuture<Boolean> editIssue(TurboIssue issue, IssueEdit edit) {
+        return addTask(new EditIssueTask(this, gitHub, issue.getRepoId(), issue.getId(), issue.getTitle(),
+                                         edit)).response;
+    }
+
     @Override
     public CompletableFuture<ImmutablePair<Integer, Long>> getRateLimitResetTime() {
         return addTask(new CheckRateLimitTask(this, gitHub)).response;
@@ -1,5 +1,6 @@
 package backend.interfaces;
 
+import backend.IssueEdit;
 import backend.UserCredentials;
 import backend.resource.TurboIssue;
 import backend.resource.TurboLabel;
@@ -19,6 +20,7 @@ import java.io.IOException;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Executor;
 
 public interface Repo {
 
@@ -26,6 +28,15 @@ public interface Repo {
 
     List<TurboIssue> getIssues(String repoId);
 
+    /**
+     * Gets all issues of a repository, downloading several pages at a time.
+     *
+     * @param repoId
+     * @param executor Runs the downloads of pages concurrently with the calling thread
+     * @return
+     */
+    List<TurboIssue> getIssues(String repoId, Executor executor);
+
     List<TurboLabel> getLabels(String repoId);
 
     List<TurboMilestone> getMilestones(String repoId);
@@ -51,6 +62,14 @@ public interface Repo {
 
     List<Comment> getAllComments(String repoId, TurboIssue issue);
 
+    /**
+     * Gets all types of comments for an issue if they changed since they were last retrieved with {@code eTag}.
+     *
+     * @return the comments together with their new ETag, or an empty list together with {@code eTag}
+     * if they are unchanged
+     */
+    ImmutablePair<List<Comment>, String> getUpdatedComments(String repoId, TurboIssue issue, String eTag);
+
     boolean isRepositoryValid(String repoId);
 
     List<Label> setLabels(String repoId, int issueId, List<String> labels) throws IOException;
@@ -63,6 +82,13 @@ public interface Repo {
 
     boolean editIssueState(String repoId, int issueId, boolean isOpen) throws IOException;
 
+    /**
+     * Changes several fields of an issue in one request.
+     *
+     * @return true if every field of the edit was changed as requested
+     */
+    boolean editIssue(String repoId, int issueId, String issueTitle, IssueEdit edit) throws IOException;
+
     ImmutablePair<Integer, Long> getRateLimitResetTime() throws IOException;
 
 }
@@ -1,5 +1,6 @@
 package backend.interfaces;
 
+import backend.IssueEdit;
 import backend.IssueMetadata;
 import backend.UserCredentials;
 import backend.github.GitHubModelUpdatesData;
@@ -8,17 +9,20 @@ import backend.resource.TurboIssue;
 import backend.resource.TurboMilestone;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.eclipse.egit.github.core.Issue;
+import util.InstrumentedExecutor;
 
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.function.Consumer;
 
 public abstract class RepoSource implements TaskRunner {
 
-    private final ExecutorService pool = Executors.newCachedThreadPool();
+    // Enough for the updates of a repository to be downloaded together with its metadata. Tasks beyond it queue
+    public static final int POOL_SIZE = 8;
+
+    private final InstrumentedExecutor pool = new InstrumentedExecutor("RepoSource", POOL_SIZE);
 
     @Override
     public <R> RepoTask<R> addTask(RepoTask<R> task) {
@@ -31,6 +35,13 @@ public abstract class RepoSource implements TaskRunner {
         pool.execute(r);
     }
 
+    /**
+     * @return the statistics of the tasks run so far, by task type
+     */
+    public String summariseTasks() {
+        return pool.summarise();
+    }
+
     public abstract String getName();
 
     public abstract CompletableFuture<Boolean> login(UserCredentials credentials);
@@ -39,8 +50,20 @@ public abstract class RepoSource implements TaskRunner {
 
     public abstract CompletableFuture<GitHubModelUpdatesData> downloadModelUpdates(Model model);
 
-    public abstract CompletableFuture<Map<Integer, IssueMetadata>> downloadMetadata(String repoId,
-                                                                                    List<TurboIssue> issues);
+    public CompletableFuture<Map<Integer, IssueMetadata>> downloadMetadata(String repoId, List<TurboIssue> issues) {
+        return downloadMetadata(repoId, issues, metadata -> {});
+    }
+
+    /**
+     * Downloads the metadata of issues, handing it over in batches as it arrives.
+     *
+     * @param repoId
+     * @param issues
+     * @param batchHandler Called with the metadata of each batch of issues, before the returned future completes
+     * @return the metadata of all issues downloaded
+     */
+    public abstract CompletableFuture<Map<Integer, IssueMetadata>> downloadMetadata(
+            String repoId, List<TurboIssue> issues, Consumer<Map<Integer, IssueMetadata>> batchHandler);
 
     public abstract CompletableFuture<Boolean> isRepositoryValid(String repoId);
 
@@ -52,6 +75,8 @@ public abstract class RepoSource implements TaskRunner {
 
     public abstract CompletableFuture<Boolean> editIssueState(TurboIssue issue, boolean isOpen);
 
+    public abstract CompletableFuture<Boolean> editIssue(TurboIssue issue, IssueEdit edit);
+
     public abstract CompletableFuture<ImmutablePair<Integer, Long>> getRateLimitResetTime();
 
 }
@@ -1,10 +1,12 @@
 package backend.interfaces;
 
 import backend.resource.Model;
+import backend.resource.ModelDelta;
 import backend.resource.serialization.SerializableModel;
 import util.Utility;
 
 import java.io.File;
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
@@ -15,8 +17,14 @@ public abstract class RepoStore {
     public static final String TEST_DIRECTORY = "store/test";
     private final ExecutorService pool = Executors.newSingleThreadExecutor();
 
+    public static final String JSON_EXTENSION = "json";
+
     public static String escapeRepoName(String repoName) {
-        return repoName.replace("/", "-") + ".json";
+        return escapeRepoName(repoName, JSON_EXTENSION);
+    }
+
+    public static String escapeRepoName(String repoName, String extension) {
+        return repoName.replace("/", "-") + "." + extension;
     }
 
     protected void addTask(StoreTask task) {
@@ -27,9 +35,40 @@ public abstract class RepoStore {
 
     public abstract CompletableFuture<Boolean> saveRepository(String repoId, SerializableModel model);
 
+    /**
+     * Saves an update of a stored repository from {@code oldModel} to {@code newModel}.
+     * By default the whole of {@code newModel} is saved.
+     *
+     * @return true on corruption of the stored repository
+     */
+    public CompletableFuture<Boolean> updateRepository(Model oldModel, Model newModel) {
+        return saveRepository(newModel.getRepoId(), new SerializableModel(newModel));
+    }
+
+    /**
+     * Saves changes made locally to a stored repository. By default changes are not saved on their own,
+     * and are only saved as part of the next update of the repository.
+     *
+     * @return true on failure to save the changes
+     */
+    public CompletableFuture<Boolean> saveRepositoryChanges(ModelDelta changes) {
+        return CompletableFuture.completedFuture(false);
+    }
+
+    /**
+     * @return the ids of repositories which can be loaded from this store
+     */
+    public abstract List<String> getStoredRepos();
+
+    public abstract CompletableFuture<Boolean> removeStoredRepo(String repoId);
+
     private static Optional<String> getRepoPath(String repoId) {
+        return getRepoPath(repoId, JSON_EXTENSION);
+    }
+
+    protected static Optional<String> getRepoPath(String repoId, String extension) {
         if (ensureDirectoryExists()) {
-            String newRepoName = RepoStore.escapeRepoName(repoId);
+            String newRepoName = RepoStore.escapeRepoName(repoId, extension);
             return Optional.of(new File(RepoStore.directory, newRepoName).getAbsolutePath());
         }
         return Optional.empty();
@@ -9,6 +9,7 @@ import com.google.gson.reflect.TypeToken;
 import org.apache.logging.log4j.Logger;
 import util.HTLog;
 import util.Utility;
+import util.exceptions.JSONLoadException;
 
 import java.io.IOException;
 import java.nio.file.Files;
@@ -19,6 +20,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import static com.google.common.io.Files.getFileExtension;
@@ -41,12 +43,48 @@ public class JSONStore extends RepoStore {
         return response;
     }
 
+    /**
+     * Loads a repository from its JSON file, blocking until done. Used by other stores to import
+     * repositories stored in JSON.
+     *
+     * @param repoId
+     * @return
+     * @throws JSONLoadException when the JSON file cannot be read or is corrupted
+     */
+    public static Model importRepository(String repoId) throws JSONLoadException {
+        return ReadTask.load(repoId);
+    }
+
+    /**
+     * Writes a repository to its JSON file, blocking until done. Used by other stores to export
+     * repositories to JSON.
+     *
+     * @param repoId
+     * @param model
+     * @return true on corruption of the written file
+     */
+    public static boolean exportRepository(String repoId, SerializableModel model) {
+        return WriteTask.save(repoId, model);
+    }
+
+    @Override
     public List<String> getStoredRepos() {
+        return getStoredRepos(p -> true);
+    }
+
+    /**
+     * Lists repositories stored in JSON files, without parsing files rejected by {@code isIncluded}.
+     *
+     * @param isIncluded
+     * @return
+     */
+    public static List<String> getStoredRepos(Predicate<Path> isIncluded) {
         ensureDirectoryExists();
         try {
             return Files.walk(Paths.get(RepoStore.directory), 1)
                     .filter(Files::isRegularFile)
-                    .filter(p -> getFileExtension(String.valueOf(p.getFileName())).equalsIgnoreCase("json"))
+                    .filter(p -> getFileExtension(String.valueOf(p.getFileName())).equalsIgnoreCase(JSON_EXTENSION))
+                    .filter(isIncluded)
                     .map(JSONStore::getRepositoryIdFromJson)
                     .filter(Optional::isPresent)
                     .map(Optional::get)
@@ -57,6 +95,7 @@ public class JSONStore extends RepoStore {
         }
     }
 
+    @Override
     public CompletableFuture<Boolean> removeStoredRepo(String repoId) {
         CompletableFuture<Boolean> response = new CompletableFuture<>();
         addTask(new DeleteTask(repoId, response));
@@ -45,7 +45,7 @@ class ReadTask extends StoreTask {
      * @throws JSONLoadException when the repository's JSON data cannot be
      *                           retrieved from the local store or is corrupted
      */
-    private Model load(String repoId) throws RepoStoreException {
+    static Model load(String repoId) throws JSONLoadException {
         Optional<String> input = RepoStore.read(repoId);
 
         if (!input.isPresent()) {
@@ -28,7 +28,7 @@ class WriteTask extends StoreTask {
         response.complete(save(repoId, toSave));
     }
 
-    private boolean save(String repoId, SerializableModel model) {
+    static boolean save(String repoId, SerializableModel model) {
         String output = new Gson().toJson(model);
         boolean corruptedJson = RepoStore.write(repoId, output, model.issues.size());
         logger.info(HTLog.format(repoId, "Written to JSON store"));
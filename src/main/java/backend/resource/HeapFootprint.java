@@ -0,0 +1,130 @@
+package backend.resource;
+
+import backend.IssueMetadata;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * An estimate of the heap space taken up by the issues of a model. Objects shared between issues, such as
+ * interned strings, label arrays and metadata, are counted once.
+ * <p>
+ * Sizes assume a 64-bit JVM with compressed references and strings of two-byte characters. The events and
+ * comments of metadata are only counted, not sized.
+ */
+public final class HeapFootprint {
+
+    private static final int HEADER_BYTES = 12;
+    private static final int ARRAY_HEADER_BYTES = 16;
+    private static final int REFERENCE_BYTES = 4;
+    // The fields of TurboIssue: 7 longs, 3 ints, 2 booleans and 7 references
+    private static final int ISSUE_BYTES = align(HEADER_BYTES + 7 * 8 + 3 * 4 + 2 + 7 * REFERENCE_BYTES);
+    // A LabelList: its array reference and the modification count of AbstractList
+    private static final int LABEL_LIST_BYTES = align(HEADER_BYTES + REFERENCE_BYTES + 4);
+    // An IssueMetadata with its lists, leaving their elements out
+    private static final int METADATA_BYTES = align(HEADER_BYTES + 7 * REFERENCE_BYTES + 4 + 1 + 8);
+
+    private final int issueCount;
+    private final long issueBytes;
+    private final long textBytes;
+    private final long sharedStringBytes;
+    private final int sharedStringCount;
+    private final long labelBytes;
+    private final int labelArrayCount;
+    private final long metadataBytes;
+    private final int metadataCount;
+    private final long eventCount;
+    private final long commentCount;
+
+    private HeapFootprint(Model model) {
+        List<TurboIssue> issues = model.getIssues();
+        Set<String> sharedStrings = identitySet();
+        Set<String[]> labelArrays = identitySet();
+        Set<IssueMetadata> metadata = identitySet();
+        long textBytes = 0;
+        long sharedStringBytes = 0;
+        long labelBytes = 0;
+        long metadataBytes = 0;
+        long eventCount = 0;
+        long commentCount = 0;
+
+        for (TurboIssue issue : issues) {
+            textBytes += stringBytes(issue.getTitle()) + stringBytes(issue.getDescription());
+            for (String shared : new String[] {issue.getRepoId(), issue.getCreator(),
+                                               issue.getAssignee().orElse(null)}) {
+                if (shared != null && sharedStrings.add(shared)) {
+                    sharedStringBytes += stringBytes(shared);
+                }
+            }
+
+            labelBytes += LABEL_LIST_BYTES;
+            String[] labelNames = issue.getLabelNames();
+            if (labelArrays.add(labelNames)) {
+                labelBytes += align(ARRAY_HEADER_BYTES + labelNames.length * REFERENCE_BYTES);
+                for (String name : labelNames) {
+                    if (sharedStrings.add(name)) {
+                        sharedStringBytes += stringBytes(name);
+                    }
+                }
+            }
+
+            if (metadata.add(issue.getMetadata())) {
+                metadataBytes += METADATA_BYTES;
+                eventCount += issue.getMetadata().getEvents().size();
+                commentCount += issue.getMetadata().getComments().size();
+            }
+        }
+
+        this.issueCount = issues.size();
+        this.issueBytes = (long) issueCount * ISSUE_BYTES;
+        this.textBytes = textBytes;
+        this.sharedStringBytes = sharedStringBytes;
+        this.sharedStringCount = sharedStrings.size();
+        this.labelBytes = labelBytes;
+        this.labelArrayCount = labelArrays.size();
+        this.metadataBytes = metadataBytes;
+        this.metadataCount = metadata.size();
+        this.eventCount = eventCount;
+        this.commentCount = commentCount;
+    }
+
+    public static HeapFootprint of(Model model) {
+        return new HeapFootprint(model);
+    }
+
+    private static <T> Set<T> identitySet() {
+        return Collections.newSetFromMap(new IdentityHashMap<>());
+    }
+
+    private static int align(int bytes) {
+        return (bytes + 7) / 8 * 8;
+    }
+
+    private static long stringBytes(String string) {
+        if (string == null) return 0;
+        return align(HEADER_BYTES + REFERENCE_BYTES + 4) + align(ARRAY_HEADER_BYTES + string.length() * 2);
+    }
+
+    public int getIssueCount() {
+        return issueCount;
+    }
+
+    /**
+     * @return the estimated number of bytes taken up by the issues, leaving out the events and comments
+     * of their metadata
+     */
+    public long getEstimatedBytes() {
+        return issueBytes + textBytes + sharedStringBytes + labelBytes + metadataBytes;
+    }
+
+    public String summarise() {
+        return String.format("%d issue(s) in ~%dKiB: issues %dKiB, titles and descriptions %dKiB, "
+                                     + "%d shared string(s) %dKiB, %d label set(s) %dKiB, "
+                                     + "%d metadata %dKiB with %d event(s) and %d comment(s)",
+                             issueCount, getEstimatedBytes() / 1024, issueBytes / 1024, textBytes / 1024,
+                             sharedStringCount, sharedStringBytes / 1024, labelArrayCount, labelBytes / 1024,
+                             metadataCount, metadataBytes / 1024, eventCount, commentCount);
+    }
+}
@@ -0,0 +1,115 @@
+package backend.resource;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Assigns the labels of a repo dense ids, so that sets of labels, such as those of an issue or those matching
+ * a filter, can be represented as bitsets and compared without looking label names up.
+ * <p>
+ * Ids follow the order of label names, so that iterating over a set of labels yields their names sorted.
+ * Each label is also kept with its name case-folded and split into group and short name beforehand, so that
+ * case-insensitive matching does not need to parse names again.
+ * <p>
+ * The labels of issues are resolved once for each distinct set of labels, which issues share (see
+ * {@link TurboIssue#getLabelNames()}), and cached until no issue has them any more. Bitsets returned must not
+ * be modified.
+ * <p>
+ * Thread-safe.
+ */
+public class LabelDictionary {
+
+    private final List<TurboLabel> labels;
+    private final List<TurboLabel> foldedLabels;
+    private final Map<String, Integer> idsByName;
+
+    // Keyed by the identity of the arrays of label names of issues, which are replaced rather than modified
+    // whenever the labels of an issue change
+    private final Map<String[], BitSet> labelSets = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * When several labels share a name, the first one is kept, as Model does.
+     */
+    public LabelDictionary(List<TurboLabel> labels) {
+        Map<String, TurboLabel> labelsByName = new HashMap<>();
+        for (TurboLabel label : labels) {
+            labelsByName.putIfAbsent(label.getFullName(), label);
+        }
+        List<TurboLabel> sorted = new ArrayList<>(labelsByName.values());
+        Collections.sort(sorted);
+
+        this.labels = Collections.unmodifiableList(sorted);
+        this.foldedLabels = new ArrayList<>(sorted.size());
+        this.idsByName = new HashMap<>();
+        for (int id = 0; id < sorted.size(); id++) {
+            foldedLabels.add(new TurboLabel("", sorted.get(id).getFullName().toLowerCase()));
+            idsByName.put(sorted.get(id).getFullName(), id);
+        }
+    }
+
+    public int size() {
+        return labels.size();
+    }
+
+    /**
+     * @return the labels satisfying {@code predicate}
+     */
+    public BitSet select(Predicate<TurboLabel> predicate) {
+        return select(labels, predicate);
+    }
+
+    /**
+     * @return the labels whose lower-cased form, with a blank repo id, satisfies {@code predicate}
+     */
+    public BitSet selectFolded(Predicate<TurboLabel> predicate) {
+        return select(foldedLabels, predicate);
+    }
+
+    private static BitSet select(List<TurboLabel> labels, Predicate<TurboLabel> predicate) {
+        BitSet result = new BitSet(labels.size());
+        for (int id = 0; id < labels.size(); id++) {
+            if (predicate.test(labels.get(id))) {
+                result.set(id);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the labels of {@code issue} which belong to the repo
+     */
+    public BitSet getLabelsOf(TurboIssue issue) {
+        String[] names = issue.getLabelNames();
+        BitSet cached = labelSets.get(names);
+        if (cached != null) {
+            return cached;
+        }
+
+        BitSet ids = new BitSet(labels.size());
+        for (String name : names) {
+            Integer id = idsByName.get(name);
+            if (id != null) {
+                ids.set(id);
+            }
+        }
+        labelSets.put(names, ids);
+        return ids;
+    }
+
+    /**
+     * @return the names of the labels in {@code ids}, sorted
+     */
+    public List<String> getNames(BitSet ids) {
+        List<String> result = new ArrayList<>(ids.cardinality());
+        for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+            result.add(labels.get(id).getFullName());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,115 @@
+package backend.resource;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+/**
+ * The labels of an issue. Backed by an immutable array of interned label names, which is shared by all
+ * issues with the same labels, so that an issue only holds a reference to it.
+ * <p>
+ * The list may still be modified, as the list of labels of an issue always could be: modifications replace
+ * the array with another rather than changing it in place, so the identity of the array (see
+ * {@link #getNames()}) can be used to tell whether the labels changed.
+ */
+final class LabelList extends AbstractList<String> implements RandomAccess {
+
+    private static final Interner<Names> ARRAYS = Interners.newWeakInterner();
+
+    /**
+     * Wraps an array to give it value semantics for interning.
+     */
+    private static final class Names {
+        private final String[] names;
+
+        private Names(String[] names) {
+            this.names = names;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o || o instanceof Names && Arrays.equals(names, ((Names) o).names);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(names);
+        }
+    }
+
+    private Names names;
+
+    private LabelList(String[] names) {
+        setNames(names);
+    }
+
+    /**
+     * @param labels The names of the labels, or null for none
+     */
+    static LabelList of(Collection<String> labels) {
+        return new LabelList(labels == null ? new String[0] : labels.toArray(new String[labels.size()]));
+    }
+
+    private void setNames(String[] names) {
+        for (int i = 0; i < names.length; i++) {
+            names[i] = TurboIssue.intern(names[i]);
+        }
+        this.names = ARRAYS.intern(new Names(names));
+    }
+
+    /**
+     * @return the shared array of label names, which must not be modified
+     */
+    String[] getNames() {
+        return names.names;
+    }
+
+    @Override
+    public String get(int index) {
+        return names.names[index];
+    }
+
+    @Override
+    public int size() {
+        return names.names.length;
+    }
+
+    @Override
+    public String set(int index, String label) {
+        String[] updated = names.names.clone();
+        String previous = updated[index];
+        updated[index] = label;
+        setNames(updated);
+        return previous;
+    }
+
+    @Override
+    public void add(int index, String label) {
+        String[] current = names.names;
+        if (index < 0 || index > current.length) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + current.length);
+        }
+        String[] updated = new String[current.length + 1];
+        System.arraycopy(current, 0, updated, 0, index);
+        updated[index] = label;
+        System.arraycopy(current, index, updated, index + 1, current.length - index);
+        setNames(updated);
+        modCount++;
+    }
+
+    @Override
+    public String remove(int index) {
+        String[] current = names.names;
+        String previous = current[index];
+        String[] updated = new String[current.length - 1];
+        System.arraycopy(current, 0, updated, 0, index);
+        System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+        setNames(updated);
+        modCount++;
+        return previous;
+    }
+}
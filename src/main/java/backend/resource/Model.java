@@ -8,8 +8,12 @@ import org.apache.logging.log4j.Logger;
 import util.Utility;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @SuppressWarnings("unused")
@@ -22,6 +26,16 @@ public class Model implements IBaseModel {
     private final List<TurboMilestone> milestones;
     private final List<TurboUser> users;
 
+    // Lookup indexes over the lists above. Local edits mutate issues in place without changing their ids,
+    // so the indexes stay valid for the lifetime of the model.
+    private final Map<Integer, TurboIssue> issuesById;
+    private final Map<String, TurboLabel> labelsByName;
+    private final Map<Integer, TurboMilestone> milestonesById;
+    private final Map<String, TurboMilestone> milestonesByTitle;
+    private final Map<String, TurboUser> usersByLogin;
+    private final LabelDictionary labelDictionary;
+    private final TextIndex textIndex;
+
     private static final Logger logger = LogManager.getLogger(Model.class);
 
     /**
@@ -31,12 +45,39 @@ public class Model implements IBaseModel {
                  List<TurboLabel> labels, List<TurboMilestone> milestones, List<TurboUser> users,
                  UpdateSignature updateSignature) {
 
+        this(repoId, issues, labels, milestones, users, updateSignature, new TextIndex());
+    }
+
+    /**
+     * Constructor for a later version of {@code previous}, which takes over its text index so that
+     * only the issues whose text changed are indexed again.
+     */
+    public Model(Model previous, List<TurboIssue> issues,
+                 List<TurboLabel> labels, List<TurboMilestone> milestones, List<TurboUser> users,
+                 UpdateSignature updateSignature) {
+
+        this(previous.getRepoId(), issues, labels, milestones, users, updateSignature, previous.textIndex);
+    }
+
+    private Model(String repoId, List<TurboIssue> issues,
+                  List<TurboLabel> labels, List<TurboMilestone> milestones, List<TurboUser> users,
+                  UpdateSignature updateSignature, TextIndex textIndex) {
+
         this.updateSignature = updateSignature;
         this.repoId = repoId;
         this.issues = issues;
         this.labels = labels;
         this.milestones = milestones;
         this.users = users;
+
+        this.issuesById = index(issues, TurboIssue::getId);
+        this.labelsByName = index(labels, TurboLabel::getFullName);
+        this.milestonesById = index(milestones, TurboMilestone::getId);
+        this.milestonesByTitle = index(milestones, TurboMilestone::getTitle);
+        this.usersByLogin = index(users, TurboUser::getLoginName);
+        this.labelDictionary = new LabelDictionary(labels);
+        this.textIndex = textIndex;
+        textIndex.update(issues);
     }
 
     /**
@@ -46,53 +87,55 @@ public class Model implements IBaseModel {
     public Model(String repoId, List<TurboIssue> issues,
                  List<TurboLabel> labels, List<TurboMilestone> milestones, List<TurboUser> users) {
 
-        this.updateSignature = UpdateSignature.EMPTY;
-        this.repoId = repoId;
-        this.issues = issues;
-        this.labels = labels;
-        this.milestones = milestones;
-        this.users = users;
+        this(repoId, issues, labels, milestones, users, UpdateSignature.EMPTY);
     }
 
     /**
      * Constructor for the empty model.
      */
     public Model(String repoId) {
-        this.updateSignature = UpdateSignature.EMPTY;
-        this.repoId = repoId;
-        this.issues = new ArrayList<>();
-        this.labels = new ArrayList<>();
-        this.milestones = new ArrayList<>();
-        this.users = new ArrayList<>();
+        this(repoId, new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
     }
 
     /**
      * Copy constructor.
      */
     public Model(Model model) {
-        this.updateSignature = model.updateSignature;
-        this.repoId = model.getRepoId();
-        this.issues = new ArrayList<>(model.getIssues());
-        this.labels = new ArrayList<>(model.getLabels());
-        this.milestones = new ArrayList<>(model.getMilestones());
-        this.users = new ArrayList<>(model.getUsers());
+        this(model.getRepoId(),
+             new ArrayList<>(model.issues),
+             new ArrayList<>(model.labels),
+             new ArrayList<>(model.milestones),
+             new ArrayList<>(model.users),
+             model.updateSignature);
     }
 
     public Model(SerializableModel model) {
-        this.updateSignature = model.updateSignature;
-        this.repoId = model.repoId;
-        this.issues = model.issues.stream()
-                .map(i -> new TurboIssue(model.repoId, i))
-                .collect(Collectors.toList());
-        this.labels = model.labels.stream()
-                .map(l -> new TurboLabel(model.repoId, l))
-                .collect(Collectors.toList());
-        this.milestones = model.milestones.stream()
-                .map(m -> new TurboMilestone(model.repoId, m))
-                .collect(Collectors.toList());
-        this.users = model.users.stream()
-                .map(u -> new TurboUser(model.repoId, u))
-                .collect(Collectors.toList());
+        this(model.repoId,
+             model.issues.stream()
+                     .map(i -> new TurboIssue(model.repoId, i))
+                     .collect(Collectors.toList()),
+             model.labels.stream()
+                     .map(l -> new TurboLabel(model.repoId, l))
+                     .collect(Collectors.toList()),
+             model.milestones.stream()
+                     .map(m -> new TurboMilestone(model.repoId, m))
+                     .collect(Collectors.toList()),
+             model.users.stream()
+                     .map(u -> new TurboUser(model.repoId, u))
+                     .collect(Collectors.toList()),
+             model.updateSignature);
+    }
+
+    /**
+     * Maps each element of {@code elements} by {@code key}. When several elements share a key,
+     * the first one is kept, as a linear search through {@code elements} would find it.
+     */
+    private static <K, V> Map<K, V> index(List<V> elements, Function<V, K> key) {
+        Map<K, V> result = new HashMap<>();
+        for (V element : elements) {
+            result.putIfAbsent(key.apply(element), element);
+        }
+        return Collections.unmodifiableMap(result);
     }
 
     public String getRepoId() {
@@ -123,57 +166,44 @@ public class Model implements IBaseModel {
         return new ArrayList<>(users);
     }
 
+    public LabelDictionary getLabelDictionary() {
+        return labelDictionary;
+    }
+
+    /**
+     * @return the index of the titles and descriptions of the issues, which may be shared with later
+     * versions of the model
+     */
+    public TextIndex getTextIndex() {
+        return textIndex;
+    }
+
     @SuppressWarnings("unused")
     private void ______OPERATIONS_____() {}
 
     public Optional<TurboIssue> getIssueById(int issueId) {
         assert issueId >= 1 : "Invalid issue id " + issueId;
-        for (TurboIssue issue : getIssues()) {
-            if (issue.getId() == issueId) {
-                return Optional.of(issue);
-            }
-        }
-        return Optional.empty();
+        return Optional.ofNullable(issuesById.get(issueId));
     }
 
     public Optional<TurboLabel> getLabelByActualName(String labelName) {
         assert labelName != null && !labelName.isEmpty() : "Invalid label name " + labelName;
-        for (TurboLabel label : getLabels()) {
-            if (label.getFullName().equals(labelName)) {
-                return Optional.of(label);
-            }
-        }
-        return Optional.empty();
+        return Optional.ofNullable(labelsByName.get(labelName));
     }
 
     public Optional<TurboUser> getUserByLogin(String login) {
         assert login != null && !login.isEmpty() : "Invalid user name " + login;
-        for (TurboUser user : getUsers()) {
-            if (user.getLoginName().equals(login)) {
-                return Optional.of(user);
-            }
-        }
-        return Optional.empty();
+        return Optional.ofNullable(usersByLogin.get(login));
     }
 
     public Optional<TurboMilestone> getMilestoneByTitle(String title) {
         assert title != null && !title.isEmpty() : "Invalid milestone title " + title;
-        for (TurboMilestone milestone : getMilestones()) {
-            if (milestone.getTitle().equals(title)) {
-                return Optional.of(milestone);
-            }
-        }
-        return Optional.empty();
+        return Optional.ofNullable(milestonesByTitle.get(title));
     }
 
     public Optional<TurboMilestone> getMilestoneById(int id) {
         assert id >= 1 : "Invalid milestone id " + id;
-        for (TurboMilestone milestone : getMilestones()) {
-            if (milestone.getId() == id) {
-                return Optional.of(milestone);
-            }
-        }
-        return Optional.empty();
+        return Optional.ofNullable(milestonesById.get(id));
     }
 
     public Optional<TurboMilestone> getMilestoneOfIssue(TurboIssue issue) {
@@ -189,10 +219,14 @@ public class Model implements IBaseModel {
     }
 
     public List<TurboLabel> getLabelsOfIssue(TurboIssue issue) {
-        return issue.getLabels().stream()
-                .map(this::getLabelByActualName)
-                .filter(Optional::isPresent).map(Optional::get)
-                .collect(Collectors.toList());
+        List<TurboLabel> result = new ArrayList<>();
+        for (String labelName : issue.getLabels()) {
+            TurboLabel label = labelsByName.get(labelName);
+            if (label != null) {
+                result.add(label);
+            }
+        }
+        return result;
     }
 
     /**
@@ -0,0 +1,95 @@
+package backend.resource;
+
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Records the issues that changed between successive versions of a MultiModel, so that results derived
+ * from an older version can be brought up to date by looking only at the issues that changed.
+ * <p>
+ * Changes that cannot be expressed as a set of changed issues (repositories being opened or closed,
+ * labels, milestones or users being replaced, the default repository being switched) are recorded as
+ * structural changes. Consumers must recompute from scratch after a structural change.
+ * <p>
+ * Thread-safe.
+ */
+public class ModelChangeLog {
+
+    // Only the most recent entries are kept, consumers lagging further behind must recompute everything
+    private static final int MAX_RETAINED_ENTRIES = 256;
+
+    private final Deque<Entry> entries = new ArrayDeque<>();
+    private long version = 0;
+    private long lastStructuralChange = 0;
+
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    public synchronized void recordIssueChange(String repoId, int issueId) {
+        BitSet issueIds = new BitSet();
+        issueIds.set(issueId);
+        recordIssueChanges(repoId, issueIds);
+    }
+
+    /**
+     * Records a new version in which the issues with ids {@code issueIds} in {@code repoId} changed.
+     * Nothing is recorded if {@code issueIds} is empty.
+     */
+    public synchronized void recordIssueChanges(String repoId, BitSet issueIds) {
+        if (issueIds.isEmpty()) {
+            return;
+        }
+        version++;
+        entries.addLast(new Entry(version, repoId, (BitSet) issueIds.clone()));
+        if (entries.size() > MAX_RETAINED_ENTRIES) {
+            entries.removeFirst();
+        }
+    }
+
+    public synchronized void recordStructuralChange() {
+        version++;
+        lastStructuralChange = version;
+        entries.clear();
+    }
+
+    /**
+     * @param sinceVersion a version previously obtained from {@link #getVersion()}
+     * @return ids of the issues changed after {@code sinceVersion}, grouped by repo id, or empty if a
+     * structural change happened since then or the changes are no longer retained
+     */
+    public synchronized Optional<Map<String, BitSet>> getChangedIssuesSince(long sinceVersion) {
+        if (sinceVersion < lastStructuralChange || sinceVersion > version) {
+            return Optional.empty();
+        }
+        Map<String, BitSet> changes = new HashMap<>();
+        if (sinceVersion == version) {
+            return Optional.of(changes);
+        }
+        if (entries.isEmpty() || entries.peekFirst().version > sinceVersion + 1) {
+            return Optional.empty();
+        }
+        for (Entry entry : entries) {
+            if (entry.version > sinceVersion) {
+                changes.computeIfAbsent(entry.repoId, repoId -> new BitSet()).or(entry.issueIds);
+            }
+        }
+        return Optional.of(changes);
+    }
+
+    private static final class Entry {
+        private final long version;
+        private final String repoId;
+        private final BitSet issueIds;
+
+        private Entry(long version, String repoId, BitSet issueIds) {
+            this.version = version;
+            this.repoId = repoId;
+            this.issueIds = issueIds;
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package backend.resource;
+
+import backend.UpdateSignature;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * The changes between two states of a Model: issues, labels, milestones and users which were added, modified
+ * or removed, each identified by its key, and the new update signature if any.
+ * <p>
+ * Applying a delta is idempotent, so a delta may be applied again to a state which already contains it.
+ * Later changes to an entity override earlier ones, so deltas can be accumulated into one by applying
+ * changes in order.
+ */
+public final class ModelDelta {
+
+    private final String repoId;
+
+    private final Changes<Integer, TurboIssue> issues = new Changes<>(TurboIssue::getId);
+    private final Changes<String, TurboLabel> labels = new Changes<>(TurboLabel::getFullName);
+    private final Changes<Integer, TurboMilestone> milestones = new Changes<>(TurboMilestone::getId);
+    private final Changes<String, TurboUser> users = new Changes<>(TurboUser::getLoginName);
+    private Optional<UpdateSignature> updateSignature = Optional.empty();
+
+    public ModelDelta(String repoId) {
+        this.repoId = repoId;
+    }
+
+    /**
+     * Computes the changes from {@code oldModel} to {@code newModel}. Changed issues and milestones are copied,
+     * as they may be modified in place afterwards.
+     *
+     * @param oldModel
+     * @param newModel
+     * @return
+     */
+    public static ModelDelta between(Model oldModel, Model newModel) {
+        assert oldModel.getRepoId().equals(newModel.getRepoId());
+
+        ModelDelta delta = new ModelDelta(newModel.getRepoId());
+        delta.issues.diff(oldModel.getIssues(), newModel.getIssues(), TurboIssue::new);
+        delta.labels.diff(oldModel.getLabels(), newModel.getLabels(), Function.identity());
+        delta.milestones.diff(oldModel.getMilestones(), newModel.getMilestones(), TurboMilestone::new);
+        delta.users.diff(oldModel.getUsers(), newModel.getUsers(), Function.identity());
+        if (!oldModel.getUpdateSignature().equals(newModel.getUpdateSignature())
+                || !oldModel.getUpdateSignature().lastCheckTime.equals(newModel.getUpdateSignature().lastCheckTime)) {
+            delta.setUpdateSignature(newModel.getUpdateSignature());
+        }
+        return delta;
+    }
+
+    /**
+     * Creates a delta of issues modified locally. Issues are copied.
+     *
+     * @param repoId
+     * @param issues
+     * @return
+     */
+    public static ModelDelta ofIssues(String repoId, Collection<TurboIssue> issues) {
+        ModelDelta delta = new ModelDelta(repoId);
+        issues.forEach(issue -> delta.putIssue(new TurboIssue(issue)));
+        return delta;
+    }
+
+    public String getRepoId() {
+        return repoId;
+    }
+
+    public void putIssue(TurboIssue issue) {
+        issues.put(issue);
+    }
+
+    public void removeIssue(int id) {
+        issues.remove(id);
+    }
+
+    public void putLabel(TurboLabel label) {
+        labels.put(label);
+    }
+
+    public void removeLabel(String fullName) {
+        labels.remove(fullName);
+    }
+
+    public void putMilestone(TurboMilestone milestone) {
+        milestones.put(milestone);
+    }
+
+    public void removeMilestone(int id) {
+        milestones.remove(id);
+    }
+
+    public void putUser(TurboUser user) {
+        users.put(user);
+    }
+
+    public void removeUser(String loginName) {
+        users.remove(loginName);
+    }
+
+    public void setUpdateSignature(UpdateSignature updateSignature) {
+        this.updateSignature = Optional.of(updateSignature);
+    }
+
+    public Collection<TurboIssue> getIssues() {
+        return issues.getPut();
+    }
+
+    public Set<Integer> getRemovedIssues() {
+        return issues.getRemoved();
+    }
+
+    public Collection<TurboLabel> getLabels() {
+        return labels.getPut();
+    }
+
+    public Set<String> getRemovedLabels() {
+        return labels.getRemoved();
+    }
+
+    public Collection<TurboMilestone> getMilestones() {
+        return milestones.getPut();
+    }
+
+    public Set<Integer> getRemovedMilestones() {
+        return milestones.getRemoved();
+    }
+
+    public Collection<TurboUser> getUsers() {
+        return users.getPut();
+    }
+
+    public Set<String> getRemovedUsers() {
+        return users.getRemoved();
+    }
+
+    public Optional<UpdateSignature> getUpdateSignature() {
+        return updateSignature;
+    }
+
+    /**
+     * @return the number of entities changed
+     */
+    public int size() {
+        return issues.size() + labels.size() + milestones.size() + users.size();
+    }
+
+    public boolean isEmpty() {
+        return size() == 0 && !updateSignature.isPresent();
+    }
+
+    /**
+     * Applies the changes to a model. Modified entities keep their position, and added ones are appended.
+     *
+     * @param model
+     * @return a new model with the changes applied
+     */
+    public Model applyTo(Model model) {
+        assert model.getRepoId().equals(repoId);
+
+        return new Model(model, issues.applyTo(model.getIssues()), labels.applyTo(model.getLabels()),
+                         milestones.applyTo(model.getMilestones()), users.applyTo(model.getUsers()),
+                         updateSignature.orElse(model.getUpdateSignature()));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d issue(s), %d label(s), %d milestone(s), %d user(s) changed",
+                             issues.size(), labels.size(), milestones.size(), users.size());
+    }
+
+    /**
+     * Changes to entities of one kind, identified by their keys.
+     */
+    private static final class Changes<K, V> {
+        private final Function<V, K> key;
+        private final Map<K, V> put = new LinkedHashMap<>();
+        private final Set<K> removed = new LinkedHashSet<>();
+
+        private Changes(Function<V, K> key) {
+            this.key = key;
+        }
+
+        private void put(V value) {
+            K k = key.apply(value);
+            removed.remove(k);
+            put.put(k, value);
+        }
+
+        private void remove(K k) {
+            put.remove(k);
+            removed.add(k);
+        }
+
+        private Collection<V> getPut() {
+            return Collections.unmodifiableCollection(put.values());
+        }
+
+        private Set<K> getRemoved() {
+            return Collections.unmodifiableSet(removed);
+        }
+
+        private int size() {
+            return put.size() + removed.size();
+        }
+
+        private void diff(List<V> oldValues, List<V> newValues, Function<V, V> copy) {
+            Map<K, V> oldByKey = new LinkedHashMap<>();
+            oldValues.forEach(value -> oldByKey.putIfAbsent(key.apply(value), value));
+            Set<K> newKeys = new LinkedHashSet<>();
+            for (V value : newValues) {
+                K k = key.apply(value);
+                newKeys.add(k);
+                if (!value.equals(oldByKey.get(k))) {
+                    put(copy.apply(value));
+                }
+            }
+            oldByKey.keySet().stream()
+                    .filter(k -> !newKeys.contains(k))
+                    .forEach(this::remove);
+        }
+
+        private List<V> applyTo(List<V> values) {
+            if (put.isEmpty() && removed.isEmpty()) {
+                return values;
+            }
+            List<V> result = new ArrayList<>(values.size() + put.size());
+            Set<K> replaced = new LinkedHashSet<>();
+            for (V value : values) {
+                K k = key.apply(value);
+                if (removed.contains(k)) {
+                    continue;
+                }
+                V replacement = put.get(k);
+                if (replacement == null) {
+                    result.add(value);
+                } else if (replaced.add(k)) {
+                    result.add(replacement);
+                }
+            }
+            put.forEach((k, value) -> {
+                if (!replaced.contains(k)) {
+                    result.add(value);
+                }
+            });
+            return result;
+        }
+    }
+}
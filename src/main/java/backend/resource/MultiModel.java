@@ -17,6 +17,9 @@ import java.util.stream.Collectors;
  * of local repositories data but do not go through the methods in this class i.e. operating on
  * dangling references its sub-components are considered unsafe
  * Thread-safe. The only top-level state in the application.
+ * <p>
+ * Changes are serialised by synchronizing on this object. After each change an immutable snapshot
+ * of the contents is published, which read-only accessors use without locking.
  */
 @SuppressWarnings("unused")
 public class MultiModel implements IModel {
@@ -29,9 +32,15 @@ public class MultiModel implements IModel {
     // requests for the same repository to load it multiple times.
     private final HashSet<String> pendingRepositories;
 
+    // Records which issues changed in each version of this model, for consumers which process it incrementally
+    private final ModelChangeLog changeLog = new ModelChangeLog();
+
     // Guaranteed to have a value throughout
     private String defaultRepo = null;
 
+    // Contents as of the latest change, replaced as a whole by the writers
+    private volatile MultiModelSnapshot snapshot = MultiModelSnapshot.EMPTY;
+
     private static final Logger logger = LogManager.getLogger(MultiModel.class.getName());
 
     public MultiModel(Preferences prefs) {
@@ -50,6 +59,8 @@ public class MultiModel implements IModel {
         pendingRepositories.remove(matchingRepoId.get());
         add(model);
         preprocessNewIssues(model);
+        changeLog.recordStructuralChange();
+        publishSnapshot();
         return this;
     }
 
@@ -68,31 +79,110 @@ public class MultiModel implements IModel {
         Optional<Model> repoModelToBeDeleted = getModelById(repoIdCorrectCase.get());
         if (repoModelToBeDeleted.isPresent()) {
             this.models.remove(repoModelToBeDeleted.get().getRepoId());
+            changeLog.recordStructuralChange();
+            publishSnapshot();
         } else {
             logger.error("RepoModel to be deleted does not exist.");
         }
         return this;
     }
 
-    public synchronized Model get(String repoId) {
-        return models.get(repoId);
+    public Model get(String repoId) {
+        return snapshot.getModelById(repoId).orElse(null);
     }
 
-    public synchronized List<Model> toModels() {
-        return new ArrayList<>(models.values());
+    public List<Model> toModels() {
+        return new ArrayList<>(snapshot.getModels());
     }
 
     public synchronized MultiModel replace(List<Model> newModels) {
         this.models.clear();
         newModels.forEach(this::add);
+        changeLog.recordStructuralChange();
+        publishSnapshot();
         return this;
     }
 
     public synchronized MultiModel replace(Model newModel) {
+        recordChanges(getModelById(newModel.getRepoId()), newModel);
         this.add(newModel);
+        publishSnapshot();
         return this;
     }
 
+    /**
+     * @return the contents of this model as of the latest change. Successive reads of the returned
+     * snapshot are consistent with each other and with its version.
+     */
+    public MultiModelSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Publishes the current contents after models were added, removed or replaced.
+     * Must be called while holding the lock on this object.
+     */
+    private void publishSnapshot() {
+        snapshot = MultiModelSnapshot.of(changeLog.getVersion(), models, defaultRepo);
+    }
+
+    /**
+     * Publishes a new version after changes which mutated issues in place or switched the default repo.
+     * Must be called while holding the lock on this object.
+     */
+    private void publishVersion() {
+        snapshot = snapshot.withVersion(changeLog.getVersion(), defaultRepo);
+    }
+
+    /**
+     * Records the changes between a model and the one replacing it. Issues which are not the same
+     * instance in both models are considered changed, as TurboIssue.reconcile only creates new
+     * instances for issues which have been updated.
+     *
+     * @param oldModel the model being replaced, if any
+     * @param newModel
+     */
+    private void recordChanges(Optional<Model> oldModel, Model newModel) {
+        if (!oldModel.isPresent()
+                || !oldModel.get().getLabels().equals(newModel.getLabels())
+                || !oldModel.get().getMilestones().equals(newModel.getMilestones())
+                || !oldModel.get().getUsers().equals(newModel.getUsers())) {
+            changeLog.recordStructuralChange();
+            return;
+        }
+
+        Map<Integer, TurboIssue> oldIssues = new HashMap<>();
+        oldModel.get().getIssues().forEach(issue -> oldIssues.put(issue.getId(), issue));
+
+        BitSet changedIssues = new BitSet();
+        for (TurboIssue issue : newModel.getIssues()) {
+            if (oldIssues.remove(issue.getId()) != issue) {
+                changedIssues.set(issue.getId());
+            }
+        }
+        oldIssues.keySet().forEach(changedIssues::set);
+        changeLog.recordIssueChanges(newModel.getRepoId(), changedIssues);
+    }
+
+    /**
+     * @return the current version of this model, to be used with {@link #getChangedIssuesSince(long)}
+     */
+    public long getVersion() {
+        return snapshot.getVersion();
+    }
+
+    /**
+     * See {@link ModelChangeLog#getChangedIssuesSince(long)}
+     *
+     * @param version
+     * @return ids of issues changed since {@code version} grouped by repo id, or empty if everything
+     * should be considered changed
+     */
+    public Optional<Map<String, BitSet>> getChangedIssuesSince(long version) {
+        return changeLog.getChangedIssuesSince(version);
+    }
+
+
     /**
      * Replaces labels of an issue specified by {@code issueId} in {@code repoId} with {@code labels}
      *
@@ -103,9 +193,12 @@ public class MultiModel implements IModel {
      */
     public synchronized Optional<TurboIssue> replaceIssueLabels(String repoId, int issueId, List<String> labels) {
         Optional<Model> modelLookUpResult = getModelById(repoId);
-        return Utility.safeFlatMapOptional(modelLookUpResult, (model) -> {
+        Optional<TurboIssue> result = Utility.safeFlatMapOptional(modelLookUpResult, (model) -> {
+            changeLog.recordIssueChange(model.getRepoId(), issueId);
             return model.replaceIssueLabels(issueId, labels);
         }, () -> logger.error("Model " + repoId + " not found in models"));
+        publishVersion();
+        return result;
     }
 
     /**
@@ -119,9 +212,12 @@ public class MultiModel implements IModel {
     public synchronized Optional<TurboIssue> replaceIssueMilestone(String repoId, int issueId,
                                                                    Optional<Integer> milestone) {
         Optional<Model> modelLookUpResult = getModelById(repoId);
-        return Utility.safeFlatMapOptional(modelLookUpResult, (model) -> {
+        Optional<TurboIssue> result = Utility.safeFlatMapOptional(modelLookUpResult, (model) -> {
+            changeLog.recordIssueChange(model.getRepoId(), issueId);
             return model.replaceIssueMilestone(issueId, milestone);
         }, () -> logger.error("Model " + repoId + " not found in models"));
+        publishVersion();
+        return result;
     }
 
     /**
@@ -134,9 +230,12 @@ public class MultiModel implements IModel {
      */
     public synchronized Optional<TurboIssue> editIssueState(String repoId, int issueId, boolean isOpen) {
         Optional<Model> modelLookUpResult = getModelById(repoId);
-        return Utility.safeFlatMapOptional(modelLookUpResult,
-            (model) -> model.editIssueState(issueId, isOpen),
-            () -> logger.error("Model " + repoId + " not found in models"));
+        Optional<TurboIssue> result = Utility.safeFlatMapOptional(modelLookUpResult, (model) -> {
+            changeLog.recordIssueChange(model.getRepoId(), issueId);
+            return model.editIssueState(issueId, isOpen);
+        }, () -> logger.error("Model " + repoId + " not found in models"));
+        publishVersion();
+        return result;
     }
 
     /**
@@ -149,27 +248,33 @@ public class MultiModel implements IModel {
     public synchronized Optional<TurboIssue> replaceIssueAssignee(String repoId, int issueId,
                                                                   Optional<String> assigneeLoginName) {
         Optional<Model> modelLookUpResult = getModelById(repoId);
-        return Utility.safeFlatMapOptional(modelLookUpResult,
-            (model) -> model.replaceIssueAssignee(issueId, assigneeLoginName),
-            () -> logger.error("Model " + repoId + " not found in models"));
+        Optional<TurboIssue> result = Utility.safeFlatMapOptional(modelLookUpResult, (model) -> {
+            changeLog.recordIssueChange(model.getRepoId(), issueId);
+            return model.replaceIssueAssignee(issueId, assigneeLoginName);
+        }, () -> logger.error("Model " + repoId + " not found in models"));
+        publishVersion();
+        return result;
     }
 
     public synchronized void insertMetadata(String repoId, Map<Integer, IssueMetadata> metadata, String currentUser) {
+        BitSet updatedIssues = new BitSet();
         models.get(repoId).getIssues().forEach(issue -> {
             if (metadata.containsKey(issue.getId())) {
-                IssueMetadata toBeInserted = metadata.get(issue.getId());
+                updatedIssues.set(issue.getId());
+                // Events and comments which were not downloaded again as their ETags are unchanged are taken
+                // from the existing metadata before computing properties, so that they are taken into account.
+                IssueMetadata toBeInserted = metadata.get(issue.getId())
+                        .reconcile(issue.getMetadata())
+                        .full(currentUser);
 
-                // ETag comparison is based on IssueMetadata constructor for more granularity, so that we can choose
-                // to not replace events while still replacing comments in the case of same ETag.
-                // TODO move ETag comparison here when comments ETag implementation is complete.
                 LocalDateTime nonSelfUpdatedAt = reconcileCreationDate(toBeInserted.getNonSelfUpdatedAt(),
                                                                        issue.getCreatedAt(), currentUser, issue
                                                                                .getCreator());
-                issue.setMetadata(toBeInserted.reconcile(nonSelfUpdatedAt,
-                                                         issue.getMetadata().getEvents(), issue.getMetadata()
-                                                                 .getEventsETag()));
+                issue.setMetadata(toBeInserted.withNonSelfUpdatedAt(nonSelfUpdatedAt));
             }
         });
+        changeLog.recordIssueChanges(repoId, updatedIssues);
+        publishVersion();
     }
 
     private static LocalDateTime reconcileCreationDate(LocalDateTime lastNonSelfUpdate,
@@ -193,13 +298,18 @@ public class MultiModel implements IModel {
     }
 
     @Override
-    public synchronized String getDefaultRepo() {
-        return defaultRepo;
+    public String getDefaultRepo() {
+        return snapshot.getDefaultRepo();
     }
 
     @Override
     public synchronized void setDefaultRepo(String repoId) {
+        if (!Objects.equals(repoId, defaultRepo)) {
+            // Filters without repo qualifiers are evaluated against the default repo
+            changeLog.recordStructuralChange();
+        }
         this.defaultRepo = repoId;
+        publishVersion();
     }
 
     @Override
@@ -212,39 +322,41 @@ public class MultiModel implements IModel {
                 .isPresent();
     }
 
+    /**
+     * @return all issues as of the latest change, in an unmodifiable list
+     */
     @Override
-    public synchronized List<TurboIssue> getIssues() {
-        List<TurboIssue> result = new ArrayList<>();
-        models.values().forEach(m -> result.addAll(m.getIssues()));
-        return result;
+    public List<TurboIssue> getIssues() {
+        return snapshot.getIssues();
     }
 
+    /**
+     * @return all labels as of the latest change, in an unmodifiable list
+     */
     @Override
-    public synchronized List<TurboLabel> getLabels() {
-        List<TurboLabel> result = new ArrayList<>();
-        models.values().forEach(m -> result.addAll(m.getLabels()));
-        return result;
+    public List<TurboLabel> getLabels() {
+        return snapshot.getLabels();
     }
 
+    /**
+     * @return all milestones as of the latest change, in an unmodifiable list
+     */
     @Override
-    public synchronized List<TurboMilestone> getMilestones() {
-        List<TurboMilestone> result = new ArrayList<>();
-        models.values().forEach(m -> result.addAll(m.getMilestones()));
-        return result;
+    public List<TurboMilestone> getMilestones() {
+        return snapshot.getMilestones();
     }
 
+    /**
+     * @return all users as of the latest change, in an unmodifiable list
+     */
     @Override
-    public synchronized List<TurboUser> getUsers() {
-        List<TurboUser> result = new ArrayList<>();
-        models.values().forEach(m -> result.addAll(m.getUsers()));
-        return result;
+    public List<TurboUser> getUsers() {
+        return snapshot.getUsers();
     }
 
     @Override
-    public synchronized Optional<Model> getModelById(String repoId) {
-        return models.containsKey(repoId)
-                ? Optional.of(models.get(repoId))
-                : Optional.empty();
+    public Optional<Model> getModelById(String repoId) {
+        return snapshot.getModelById(repoId);
     }
 
     @Override
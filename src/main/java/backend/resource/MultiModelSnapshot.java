@@ -0,0 +1,107 @@
+package backend.resource;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * An immutable view of the contents of a MultiModel at one of its versions.
+ * <p>
+ * A MultiModel publishes a new snapshot after each change, so that readers can take the current
+ * snapshot without locking and then read its issues, labels, milestones and users as often as needed
+ * without further copying. The lists of a snapshot are unmodifiable.
+ * <p>
+ * Issues themselves remain mutable: local edits such as replacing the labels of an issue mutate the
+ * issue in place and publish a snapshot with a new version that shares the lists of the previous one.
+ */
+public final class MultiModelSnapshot {
+
+    public static final MultiModelSnapshot EMPTY =
+            new MultiModelSnapshot(0, Collections.emptyMap(), null, Collections.emptyList(),
+                                   Collections.emptyList(), Collections.emptyList(), Collections.emptyList());
+
+    private final long version;
+    private final Map<String, Model> models;
+    private final String defaultRepo;
+    private final List<TurboIssue> issues;
+    private final List<TurboLabel> labels;
+    private final List<TurboMilestone> milestones;
+    private final List<TurboUser> users;
+
+    private MultiModelSnapshot(long version, Map<String, Model> models, String defaultRepo,
+                               List<TurboIssue> issues, List<TurboLabel> labels,
+                               List<TurboMilestone> milestones, List<TurboUser> users) {
+        this.version = version;
+        this.models = models;
+        this.defaultRepo = defaultRepo;
+        this.issues = issues;
+        this.labels = labels;
+        this.milestones = milestones;
+        this.users = users;
+    }
+
+    /**
+     * Creates a snapshot of {@code models}, concatenating their contents in iteration order.
+     */
+    public static MultiModelSnapshot of(long version, Map<String, Model> models, String defaultRepo) {
+        Collection<Model> values = models.values();
+        List<TurboIssue> issues = new ArrayList<>();
+        List<TurboLabel> labels = new ArrayList<>();
+        List<TurboMilestone> milestones = new ArrayList<>();
+        List<TurboUser> users = new ArrayList<>();
+        values.forEach(m -> {
+            issues.addAll(m.getIssues());
+            labels.addAll(m.getLabels());
+            milestones.addAll(m.getMilestones());
+            users.addAll(m.getUsers());
+        });
+        return new MultiModelSnapshot(version, Collections.unmodifiableMap(new HashMap<>(models)), defaultRepo,
+                                      Collections.unmodifiableList(issues),
+                                      Collections.unmodifiableList(labels),
+                                      Collections.unmodifiableList(milestones),
+                                      Collections.unmodifiableList(users));
+    }
+
+    /**
+     * @return a snapshot sharing the contents of this one, for changes which did not replace any model
+     */
+    public MultiModelSnapshot withVersion(long version, String defaultRepo) {
+        return new MultiModelSnapshot(version, models, defaultRepo, issues, labels, milestones, users);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public String getDefaultRepo() {
+        return defaultRepo;
+    }
+
+    public Optional<Model> getModelById(String repoId) {
+        return Optional.ofNullable(models.get(repoId));
+    }
+
+    public Collection<Model> getModels() {
+        return models.values();
+    }
+
+    public List<TurboIssue> getIssues() {
+        return issues;
+    }
+
+    public List<TurboLabel> getLabels() {
+        return labels;
+    }
+
+    public List<TurboMilestone> getMilestones() {
+        return milestones;
+    }
+
+    public List<TurboUser> getUsers() {
+        return users;
+    }
+}
@@ -0,0 +1,235 @@
+package backend.resource;
+
+import util.Utility;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * An inverted index of the titles and descriptions of the issues of a model, which narrows case-insensitive
+ * substring searches down to the issues containing every trigram of the query.
+ * <p>
+ * Each version of an issue's text is indexed as a document, and the documents containing each trigram are
+ * kept in ascending order. The index is brought up to date lazily, when it is next queried: issues whose
+ * text did not change keep their document, and changed issues are indexed as new documents, superseding
+ * their previous ones. Superseded documents are dropped by rebuilding the index once they outnumber the
+ * current ones.
+ * <p>
+ * Successive versions of a model share their index, so that only the issues changed by an update are
+ * indexed again. Issues of older versions whose text changed since are matched by scanning their text, as
+ * are queries shorter than a trigram.
+ * <p>
+ * Thread-safe.
+ */
+public class TextIndex {
+
+    // Long enough for most queries to rule out most issues, short enough to keep the number of distinct keys low
+    public static final int GRAM_LENGTH = 3;
+
+    // Rebuilding smaller indexes is not worth it, as superseded documents take up little space
+    private static final int MIN_DOCUMENTS_TO_COMPACT = 256;
+
+    /**
+     * The indexed text fields of an issue.
+     */
+    public enum Field {
+        TITLE, DESCRIPTION;
+
+        private String of(TurboIssue issue) {
+            return this == TITLE ? issue.getTitle() : issue.getDescription();
+        }
+    }
+
+    /**
+     * The document of the current version of an issue's text.
+     */
+    private static final class Document {
+        private final int number;
+        private final String title;
+        private final String description;
+
+        private Document(int number, String title, String description) {
+            this.number = number;
+            this.title = title;
+            this.description = description;
+        }
+
+        private String of(Field field) {
+            return field == Field.TITLE ? title : description;
+        }
+    }
+
+    /**
+     * The numbers of the documents containing a trigram, in ascending order.
+     */
+    private static final class Postings {
+        private int[] documents = new int[4];
+        private int size = 0;
+
+        private void add(int document) {
+            if (size > 0 && documents[size - 1] == document) return;
+            if (size == documents.length) {
+                documents = Arrays.copyOf(documents, size * 2);
+            }
+            documents[size++] = document;
+        }
+
+        private BitSet toBitSet() {
+            BitSet result = new BitSet();
+            for (int i = 0; i < size; i++) {
+                result.set(documents[i]);
+            }
+            return result;
+        }
+    }
+
+    // Guarded by this
+    private List<TurboIssue> pendingIssues = Collections.emptyList();
+    // Replaced rather than modified, so that matchers can keep the version they were created with
+    private Map<Integer, Document> documentsById = Collections.emptyMap();
+    private final Map<Long, Postings> titleGrams = new HashMap<>();
+    private final Map<Long, Postings> descriptionGrams = new HashMap<>();
+    private int documentCount = 0;
+
+    /**
+     * Sets the issues to be indexed, which replace those indexed previously.
+     * They are only indexed when the index is next queried.
+     */
+    public synchronized void update(List<TurboIssue> issues) {
+        pendingIssues = issues;
+    }
+
+    /**
+     * Returns a predicate testing whether an issue's text in {@code field} contains {@code lowerCaseQuery},
+     * ignoring case in the same way as {@link Utility#containsLowerCaseQuery}. The issues of the index are
+     * looked up once, here, so that testing an issue which does not contain the query is a constant-time
+     * lookup rather than a scan of its text.
+     */
+    public synchronized Predicate<TurboIssue> matcher(Field field, String lowerCaseQuery) {
+        Predicate<TurboIssue> scan = issue -> Utility.containsLowerCaseQuery(field.of(issue), lowerCaseQuery);
+        if (lowerCaseQuery.length() < GRAM_LENGTH) {
+            return scan;
+        }
+
+        indexPendingIssues();
+        BitSet candidates = lookUp(field == Field.TITLE ? titleGrams : descriptionGrams, lowerCaseQuery);
+        Map<Integer, Document> documents = documentsById;
+        return issue -> {
+            Document document = documents.get(issue.getId());
+            String text = field.of(issue);
+            // Compared by reference: any other string, even an equal one, may not be the text indexed
+            if (document == null || document.of(field) != text) {
+                return scan.test(issue);
+            }
+            return candidates.get(document.number) && Utility.containsLowerCaseQuery(text, lowerCaseQuery);
+        };
+    }
+
+    /**
+     * @return the number of documents indexed since the index was last rebuilt, superseded ones included
+     */
+    public synchronized int getDocumentCount() {
+        indexPendingIssues();
+        return documentCount;
+    }
+
+    public synchronized String summarise() {
+        return String.format("%d issue(s) in %d document(s), %d title and %d description trigram(s)",
+                             documentsById.size(), documentCount, titleGrams.size(), descriptionGrams.size());
+    }
+
+    private void indexPendingIssues() {
+        if (pendingIssues == null) return;
+
+        Map<Integer, Document> updated = index(pendingIssues);
+        if (documentCount - updated.size() > Math.max(updated.size(), MIN_DOCUMENTS_TO_COMPACT)) {
+            titleGrams.clear();
+            descriptionGrams.clear();
+            documentsById = Collections.emptyMap();
+            documentCount = 0;
+            updated = index(pendingIssues);
+        }
+        documentsById = Collections.unmodifiableMap(updated);
+        pendingIssues = null;
+    }
+
+    /**
+     * Indexes the issues whose text changed, keeping the documents of the others.
+     * When several issues share an id, the first one is indexed, as Model does.
+     */
+    private Map<Integer, Document> index(List<TurboIssue> issues) {
+        Map<Integer, Document> result = new HashMap<>();
+        for (TurboIssue issue : issues) {
+            if (result.containsKey(issue.getId())) continue;
+
+            String title = issue.getTitle() == null ? "" : issue.getTitle();
+            String description = issue.getDescription() == null ? "" : issue.getDescription();
+            Document previous = documentsById.get(issue.getId());
+            if (previous != null && previous.title.equals(title) && previous.description.equals(description)) {
+                result.put(issue.getId(), new Document(previous.number, issue.getTitle(), issue.getDescription()));
+            } else {
+                int number = documentCount++;
+                addGrams(titleGrams, title, number);
+                addGrams(descriptionGrams, description, number);
+                result.put(issue.getId(), new Document(number, issue.getTitle(), issue.getDescription()));
+            }
+        }
+        return result;
+    }
+
+    private static void addGrams(Map<Long, Postings> grams, String text, int document) {
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            Postings postings = grams.get(gramAt(text, i));
+            if (postings == null) {
+                postings = new Postings();
+                grams.put(gramAt(text, i), postings);
+            }
+            postings.add(document);
+        }
+    }
+
+    /**
+     * @return the documents containing every trigram of the query
+     */
+    private static BitSet lookUp(Map<Long, Postings> grams, String query) {
+        Set<Long> queryGrams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= query.length(); i++) {
+            queryGrams.add(gramAt(query, i));
+        }
+
+        List<Postings> matching = new ArrayList<>();
+        for (Long gram : queryGrams) {
+            Postings postings = grams.get(gram);
+            if (postings == null) return new BitSet();
+            matching.add(postings);
+        }
+        // Starting from the rarest trigram keeps the intermediate sets small
+        matching.sort(Comparator.comparingInt(postings -> postings.size));
+        BitSet result = matching.get(0).toBitSet();
+        for (int i = 1; i < matching.size() && !result.isEmpty(); i++) {
+            result.and(matching.get(i).toBitSet());
+        }
+        return result;
+    }
+
+    /**
+     * Packs the trigram starting at {@code index} into a key, folding each character the way
+     * {@link String#regionMatches(boolean, int, String, int, int)} compares them when ignoring case.
+     */
+    private static long gramAt(String text, int index) {
+        long gram = 0;
+        for (int i = index; i < index + GRAM_LENGTH; i++) {
+            gram = gram << Character.SIZE | Character.toLowerCase(Character.toUpperCase(text.charAt(i)));
+        }
+        return gram;
+    }
+}
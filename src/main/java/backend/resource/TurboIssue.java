@@ -2,6 +2,8 @@ package backend.resource;
 
 import backend.IssueMetadata;
 import backend.resource.serialization.SerializableIssue;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import org.apache.logging.log4j.Logger;
 import org.eclipse.egit.github.core.Issue;
 import org.eclipse.egit.github.core.Label;
@@ -11,9 +13,11 @@ import util.HTLog;
 import util.Utility;
 
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -28,6 +32,17 @@ public class TurboIssue {
     public static final String STATE_CLOSED = "closed";
     public static final String STATE_OPEN = "open";
 
+    /*
+     * Issues are kept compactly in memory, as there may be many of them loaded at once. Times are kept as
+     * nanoseconds since the epoch in UTC, which represents any time between 1677 and 2262 exactly, and absent
+     * values as sentinels rather than Optionals. Repo ids, logins and label names are interned, and issues with
+     * the same labels share the array of their names. The API still deals in LocalDateTimes and Optionals.
+     */
+    private static final Interner<String> STRINGS = Interners.newWeakInterner();
+    private static final long NO_TIME = Long.MIN_VALUE;
+    private static final int NO_MILESTONE = Integer.MIN_VALUE;
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
     /**
      * Serialized fields.
      * <p>
@@ -40,19 +55,19 @@ public class TurboIssue {
     // Immutable
     private final int id;
     private final String creator;
-    private final LocalDateTime createdAt;
+    private final long createdAt;
     private final boolean isPullRequest;
 
 
     // Mutable
     private String title;
     private String description;
-    private LocalDateTime updatedAt;
+    private long updatedAt;
     private int commentCount;
     private boolean isOpen;
-    private Optional<String> assignee;
-    private List<String> labels;
-    private Optional<Integer> milestone;
+    private String assignee; // null if none
+    private LabelList labels;
+    private int milestone;
 
     /**
      * Metadata associated with issues that is not serialized.
@@ -62,14 +77,14 @@ public class TurboIssue {
 
     private final String repoId;
     private IssueMetadata metadata;
-    private Optional<LocalDateTime> markedReadAt;
+    private long markedReadAt;
 
     /* This field records the most recently modified time of the issue's labels or state. Any method that updates
-       the labels must also update this field. If this is empty, updatedAt time is used instead */
-    private Optional<LocalDateTime> labelsLastModifiedAt = Optional.empty();
-    private Optional<LocalDateTime> milestoneLastModifiedAt = Optional.empty();
-    private Optional<LocalDateTime> stateLastModifiedAt = Optional.empty();
-    private Optional<LocalDateTime> assigneeLastModifiedAt = Optional.empty();
+       the labels must also update this field. If this is NO_TIME, updatedAt time is used instead */
+    private long labelsLastModifiedAt = NO_TIME;
+    private long milestoneLastModifiedAt = NO_TIME;
+    private long stateLastModifiedAt = NO_TIME;
+    private long assigneeLastModifiedAt = NO_TIME;
 
 
     @SuppressWarnings("unused")
@@ -81,13 +96,13 @@ public class TurboIssue {
     public TurboIssue(String repoId, int id, String title) {
         this.id = id;
         this.creator = "";
-        this.createdAt = LocalDateTime.now();
+        this.createdAt = toNanos(LocalDateTime.now());
         this.isPullRequest = false;
 
         mutableFieldDefaults();
 
         this.title = title;
-        this.repoId = repoId;
+        this.repoId = intern(repoId);
     }
 
     /**
@@ -96,14 +111,14 @@ public class TurboIssue {
     public TurboIssue(String repoId, int id, String title,
                       String creator, LocalDateTime createdAt, boolean isPullRequest) {
         this.id = id;
-        this.creator = creator;
-        this.createdAt = createdAt;
+        this.creator = intern(creator);
+        this.createdAt = toNanos(createdAt);
         this.isPullRequest = isPullRequest;
 
         mutableFieldDefaults();
 
         this.title = title;
-        this.repoId = repoId;
+        this.repoId = intern(repoId);
     }
 
     // Copy constructor
@@ -115,19 +130,19 @@ public class TurboIssue {
         this.isPullRequest = issue.isPullRequest;
 
         this.description = issue.description;
-        this.updatedAt = replaceNull(issue.updatedAt, this.createdAt);
+        this.updatedAt = issue.updatedAt == NO_TIME ? this.createdAt : issue.updatedAt;
         this.commentCount = issue.commentCount;
         this.isOpen = issue.isOpen;
         this.assignee = issue.assignee;
-        this.labels = new ArrayList<>(issue.labels);
+        this.labels = LabelList.of(issue.labels);
         this.milestone = issue.milestone;
 
         this.metadata = issue.metadata;
         this.repoId = issue.repoId;
         this.markedReadAt = issue.markedReadAt;
-        this.labelsLastModifiedAt = Optional.of(issue.getLabelsLastModifiedAt());
-        this.stateLastModifiedAt = Optional.of(issue.getStateLastModifiedAt());
-        this.milestoneLastModifiedAt = Optional.of(issue.getMilestoneLastModifiedAt());
+        this.labelsLastModifiedAt = issue.orUpdatedAt(issue.labelsLastModifiedAt);
+        this.stateLastModifiedAt = issue.orUpdatedAt(issue.stateLastModifiedAt);
+        this.milestoneLastModifiedAt = issue.orUpdatedAt(issue.milestoneLastModifiedAt);
     }
 
     public TurboIssue(String repoId, Issue issue) {
@@ -135,50 +150,75 @@ public class TurboIssue {
         this.title = issue.getTitle() == null
                 ? ""
                 : issue.getTitle();
-        this.creator = issue.getUser().getLogin();
-        this.createdAt = Utility.dateToLocalDateTime(issue.getCreatedAt());
+        this.creator = intern(issue.getUser().getLogin());
+        this.createdAt = toNanos(Utility.dateToLocalDateTime(issue.getCreatedAt()));
         this.isPullRequest = isPullRequest(issue);
 
         this.description = issue.getBody() == null
                 ? ""
                 : issue.getBody();
         this.updatedAt = issue.getUpdatedAt() != null ?
-                Utility.dateToLocalDateTime(issue.getUpdatedAt()) : this.createdAt;
+                toNanos(Utility.dateToLocalDateTime(issue.getUpdatedAt())) : this.createdAt;
         this.commentCount = issue.getComments();
         this.isOpen = issue.getState().equals(STATE_OPEN);
         this.assignee = issue.getAssignee() == null
-                ? Optional.empty()
-                : Optional.of(issue.getAssignee().getLogin());
-        this.labels = issue.getLabels().stream()
+                ? null
+                : intern(issue.getAssignee().getLogin());
+        this.labels = LabelList.of(issue.getLabels().stream()
                 .map(Label::getName)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
         this.milestone = issue.getMilestone() == null
-                ? Optional.empty()
-                : Optional.of(issue.getMilestone().getNumber());
+                ? NO_MILESTONE
+                : issue.getMilestone().getNumber();
 
         this.metadata = IssueMetadata.empty();
-        this.repoId = repoId;
-        this.markedReadAt = Optional.empty();
+        this.repoId = intern(repoId);
+        this.markedReadAt = NO_TIME;
     }
 
     public TurboIssue(String repoId, SerializableIssue issue) {
         this.id = issue.getId();
-        this.creator = issue.getCreator();
-        this.createdAt = issue.getCreatedAt();
+        this.creator = intern(issue.getCreator());
+        this.createdAt = toNanos(issue.getCreatedAt());
         this.isPullRequest = issue.isPullRequest();
 
         this.title = issue.getTitle();
         this.description = issue.getDescription();
-        this.updatedAt = replaceNull(issue.getUpdatedAt(), this.createdAt);
+        this.updatedAt = toNanos(replaceNull(issue.getUpdatedAt(), issue.getCreatedAt()));
         this.commentCount = issue.getCommentCount();
         this.isOpen = issue.isOpen();
-        this.assignee = issue.getAssignee();
-        this.labels = issue.getLabels();
-        this.milestone = issue.getMilestone();
+        this.assignee = intern(replaceNull(issue.getAssignee(), Optional.<String>empty()).orElse(null));
+        this.labels = LabelList.of(issue.getLabels());
+        this.milestone = replaceNull(issue.getMilestone(), Optional.<Integer>empty()).orElse(NO_MILESTONE);
 
         this.metadata = IssueMetadata.empty();
-        this.repoId = repoId;
-        this.markedReadAt = Optional.empty();
+        this.repoId = intern(repoId);
+        this.markedReadAt = NO_TIME;
+    }
+
+    /**
+     * Constructor for issues restored from a store, taking all stored fields.
+     */
+    public TurboIssue(String repoId, int id, String title, String creator, LocalDateTime createdAt,
+                      boolean isPullRequest, String description, LocalDateTime updatedAt, int commentCount,
+                      boolean isOpen, Optional<String> assignee, List<String> labels, Optional<Integer> milestone) {
+        this.id = id;
+        this.creator = intern(creator);
+        this.createdAt = toNanos(createdAt);
+        this.isPullRequest = isPullRequest;
+
+        this.title = title;
+        this.description = description;
+        this.updatedAt = toNanos(replaceNull(updatedAt, createdAt));
+        this.commentCount = commentCount;
+        this.isOpen = isOpen;
+        this.assignee = intern(assignee.orElse(null));
+        this.labels = LabelList.of(labels);
+        this.milestone = milestone.orElse(NO_MILESTONE);
+
+        this.metadata = IssueMetadata.empty();
+        this.repoId = intern(repoId);
+        this.markedReadAt = NO_TIME;
     }
 
     @SuppressWarnings("unused")
@@ -191,15 +231,45 @@ public class TurboIssue {
     private void mutableFieldDefaults() {
         this.title = "";
         this.description = "";
-        this.updatedAt = replaceNull(this.createdAt, LocalDateTime.now());
+        this.updatedAt = this.createdAt == NO_TIME ? toNanos(LocalDateTime.now()) : this.createdAt;
         this.commentCount = 0;
         this.isOpen = true;
-        this.assignee = Optional.empty();
-        this.labels = new ArrayList<>();
-        this.milestone = Optional.empty();
+        this.assignee = null;
+        this.labels = LabelList.of(null);
+        this.milestone = NO_MILESTONE;
 
         this.metadata = IssueMetadata.empty();
-        this.markedReadAt = Optional.empty();
+        this.markedReadAt = NO_TIME;
+    }
+
+    /**
+     * @return the canonical instance equal to {@code value}, or null if {@code value} is null
+     */
+    static String intern(String value) {
+        return value == null ? null : STRINGS.intern(value);
+    }
+
+    /**
+     * @return the number of nanoseconds since the epoch of {@code time} in UTC, or NO_TIME if it is null
+     * @throws ArithmeticException if {@code time} is not between 1677 and 2262
+     */
+    private static long toNanos(LocalDateTime time) {
+        if (time == null) return NO_TIME;
+        return Math.addExact(Math.multiplyExact(time.toEpochSecond(ZoneOffset.UTC), NANOS_PER_SECOND),
+                             time.getNano());
+    }
+
+    /**
+     * @return the time {@code nanos} nanoseconds after the epoch in UTC, or null if it is NO_TIME
+     */
+    private static LocalDateTime fromNanos(long nanos) {
+        if (nanos == NO_TIME) return null;
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(nanos, NANOS_PER_SECOND),
+                                           (int) Math.floorMod(nanos, NANOS_PER_SECOND), ZoneOffset.UTC);
+    }
+
+    private long orUpdatedAt(long time) {
+        return time == NO_TIME ? updatedAt : time;
     }
 
     /**
@@ -238,8 +308,8 @@ public class TurboIssue {
         if (thisIssueLabelsModifiedAt.isBefore(otherIssueLabelsModifiedAt)) {
             logger.info(String.format("Issue %s's labels %s are stale, replacing with %s",
                                       this, this.getLabels(), otherIssue.getLabels()));
-            this.labels = otherIssue.getLabels();
-            this.labelsLastModifiedAt = Optional.of(otherIssue.getLabelsLastModifiedAt());
+            this.labels = LabelList.of(otherIssue.labels);
+            this.labelsLastModifiedAt = otherIssue.orUpdatedAt(otherIssue.labelsLastModifiedAt);
         }
     }
 
@@ -253,8 +323,8 @@ public class TurboIssue {
         if (thisIssueAssigneeModifiedAt.isBefore(otherIssueAssigneeModifiedAt)) {
             logger.info(String.format("Issue %s's assignee %s is stale, replacing with %s",
                         this, this.getAssignee(), otherIssue.getAssignee()));
-            this.assignee = otherIssue.getAssignee();
-            this.assigneeLastModifiedAt = Optional.of(otherIssueAssigneeModifiedAt);
+            this.assignee = otherIssue.assignee;
+            this.assigneeLastModifiedAt = otherIssue.orUpdatedAt(otherIssue.assigneeLastModifiedAt);
         }
 
     }
@@ -407,7 +477,7 @@ public class TurboIssue {
     }
 
     public LocalDateTime getCreatedAt() {
-        return createdAt;
+        return fromNanos(createdAt);
     }
 
     public boolean isPullRequest() {
@@ -431,11 +501,11 @@ public class TurboIssue {
     }
 
     public LocalDateTime getUpdatedAt() {
-        return updatedAt;
+        return fromNanos(updatedAt);
     }
 
     public void setUpdatedAt(LocalDateTime updatedAt) {
-        this.updatedAt = replaceNull(updatedAt, this.createdAt);
+        this.updatedAt = updatedAt == null ? this.createdAt : toNanos(updatedAt);
     }
 
     public int getCommentCount() {
@@ -452,79 +522,90 @@ public class TurboIssue {
 
     public void setOpen(boolean isOpen) {
         this.isOpen = isOpen;
-        stateLastModifiedAt = Optional.of(LocalDateTime.now());
+        stateLastModifiedAt = toNanos(LocalDateTime.now());
     }
 
     public Optional<String> getAssignee() {
-        return assignee;
+        return Optional.ofNullable(assignee);
     }
 
     public void setAssignee(TurboUser assignee) {
         setAssignee(assignee.getLoginName());
-        this.assigneeLastModifiedAt = Optional.of(LocalDateTime.now());
+        this.assigneeLastModifiedAt = toNanos(LocalDateTime.now());
     }
 
     public void setAssignee(String assignee) {
-        this.assignee = Optional.ofNullable(assignee);
-        this.assigneeLastModifiedAt = Optional.of(LocalDateTime.now()); 
+        this.assignee = intern(assignee);
+        this.assigneeLastModifiedAt = toNanos(LocalDateTime.now());
     }
 
     public void removeAssignee() {
-        this.assignee = Optional.empty();
-        this.assigneeLastModifiedAt = Optional.of(LocalDateTime.now());
+        this.assignee = null;
+        this.assigneeLastModifiedAt = toNanos(LocalDateTime.now());
     }
 
+    /**
+     * @return the names of the issue's labels, which may be modified to change them
+     */
     public List<String> getLabels() {
         return labels;
     }
 
+    /**
+     * @return the shared array of the names of the issue's labels, which is replaced whenever they change
+     * and must not be modified
+     */
+    String[] getLabelNames() {
+        return labels.getNames();
+    }
+
     public void setLabels(List<String> labels) {
-        this.labels = labels;
-        this.labelsLastModifiedAt = Optional.of(LocalDateTime.now());
+        this.labels = LabelList.of(labels);
+        this.labelsLastModifiedAt = toNanos(LocalDateTime.now());
     }
 
     public LocalDateTime getLabelsLastModifiedAt() {
-        return this.labelsLastModifiedAt.orElse(getUpdatedAt());
+        return fromNanos(orUpdatedAt(labelsLastModifiedAt));
     }
 
     public LocalDateTime getMilestoneLastModifiedAt() {
-        return this.milestoneLastModifiedAt.orElse(getUpdatedAt());
+        return fromNanos(orUpdatedAt(milestoneLastModifiedAt));
     }
 
     public LocalDateTime getStateLastModifiedAt() {
-        return stateLastModifiedAt.orElse(getUpdatedAt());
+        return fromNanos(orUpdatedAt(stateLastModifiedAt));
     }
 
     public LocalDateTime getAssigneeLastModifiedAt() {
-        return this.assigneeLastModifiedAt.orElse(getUpdatedAt());
+        return fromNanos(orUpdatedAt(assigneeLastModifiedAt));
     }
 
     public void addLabel(String label) {
         this.labels.add(label);
-        this.labelsLastModifiedAt = Optional.of(LocalDateTime.now());
+        this.labelsLastModifiedAt = toNanos(LocalDateTime.now());
     }
 
     public void addLabel(TurboLabel label) {
         addLabel(label.getFullName());
-        this.labelsLastModifiedAt = Optional.of(LocalDateTime.now());
+        this.labelsLastModifiedAt = toNanos(LocalDateTime.now());
     }
 
     public Optional<Integer> getMilestone() {
-        return milestone;
+        return milestone == NO_MILESTONE ? Optional.empty() : Optional.of(milestone);
     }
 
     public void setMilestoneById(Integer milestone) {
-        this.milestone = Optional.of(milestone);
-        this.milestoneLastModifiedAt = Optional.of(LocalDateTime.now());
+        this.milestone = milestone;
+        this.milestoneLastModifiedAt = toNanos(LocalDateTime.now());
     }
 
     public void setMilestone(TurboMilestone milestone) {
         setMilestoneById(milestone.getId());
-        this.milestoneLastModifiedAt = Optional.of(LocalDateTime.now());
+        this.milestoneLastModifiedAt = toNanos(LocalDateTime.now());
     }
 
     public void removeMilestone() {
-        this.milestone = Optional.empty();
+        this.milestone = NO_MILESTONE;
     }
 
     public IssueMetadata getMetadata() {
@@ -536,19 +617,15 @@ public class TurboIssue {
     }
 
     public Optional<LocalDateTime> getMarkedReadAt() {
-        return markedReadAt;
+        return Optional.ofNullable(fromNanos(markedReadAt));
     }
 
     public void setMarkedReadAt(Optional<LocalDateTime> markedReadAt) {
-        this.markedReadAt = markedReadAt;
+        this.markedReadAt = markedReadAt == null ? NO_TIME : toNanos(markedReadAt.orElse(null));
     }
 
     public boolean isCurrentlyRead() {
-        if (!getMarkedReadAt().isPresent()) {
-            return false;
-        }
-
-        return getMarkedReadAt().get().isAfter(getUpdatedAt());
+        return markedReadAt != NO_TIME && markedReadAt > updatedAt;
     }
 
     public void markAsRead(Preferences prefs) {
@@ -574,32 +651,30 @@ public class TurboIssue {
         return commentCount == issue.commentCount &&
                 id == issue.id && isOpen == issue.isOpen &&
                 isPullRequest == issue.isPullRequest &&
-                !(assignee != null ? !assignee.equals(issue.assignee) : issue.assignee != null) &&
-                !(createdAt != null ? !createdAt.equals(issue.createdAt) : issue.createdAt != null) &&
-                !(creator != null ? !creator.equals(issue.creator) : issue.creator != null) &&
-                !(description != null ? !description.equals(issue.description) : issue.description != null) &&
-                !(labels != null ? !labels.equals(issue.labels) : issue.labels != null) &&
-                !(milestone != null ? !milestone.equals(issue.milestone) : issue.milestone != null) &&
-                !(title != null ? !title.equals(issue.title) : issue.title != null) &&
-                !(updatedAt != null ? !updatedAt.equals(issue.updatedAt) : issue.updatedAt != null) &&
-                !(markedReadAt != null ? !markedReadAt.equals(issue.markedReadAt) : issue.markedReadAt != null);
+                createdAt == issue.createdAt && updatedAt == issue.updatedAt &&
+                markedReadAt == issue.markedReadAt && milestone == issue.milestone &&
+                Objects.equals(assignee, issue.assignee) &&
+                Objects.equals(creator, issue.creator) &&
+                Objects.equals(description, issue.description) &&
+                labels.equals(issue.labels) &&
+                Objects.equals(title, issue.title);
     }
 
     @Override
     public int hashCode() {
         int result = id;
         result = 31 * result + (creator != null ? creator.hashCode() : 0);
-        result = 31 * result + (createdAt != null ? createdAt.hashCode() : 0);
+        result = 31 * result + Long.hashCode(createdAt);
         result = 31 * result + (isPullRequest ? 1 : 0);
         result = 31 * result + (title != null ? title.hashCode() : 0);
         result = 31 * result + (description != null ? description.hashCode() : 0);
-        result = 31 * result + (updatedAt != null ? updatedAt.hashCode() : 0);
-        result = 31 * result + (markedReadAt != null ? markedReadAt.hashCode() : 0);
+        result = 31 * result + Long.hashCode(updatedAt);
+        result = 31 * result + Long.hashCode(markedReadAt);
         result = 31 * result + commentCount;
         result = 31 * result + (isOpen ? 1 : 0);
         result = 31 * result + (assignee != null ? assignee.hashCode() : 0);
-        result = 31 * result + (labels != null ? labels.hashCode() : 0);
-        result = 31 * result + (milestone != null ? milestone.hashCode() : 0);
+        result = 31 * result + labels.hashCode();
+        result = 31 * result + milestone;
         return result;
     }
 }
@@ -46,9 +46,13 @@ public class TurboUser {
     }
 
     public TurboUser(String repoId, String loginName, String realName) {
+        this(repoId, loginName, realName, "");
+    }
+
+    public TurboUser(String repoId, String loginName, String realName, String avatarURL) {
         this.loginName = replaceNull(loginName, "");
         this.realName = replaceNull(realName, "");
-        this.avatarURL = "";
+        this.avatarURL = replaceNull(avatarURL, "");
         this.avatar = getAvatarImageFromAvatarUrl();
         this.repoId = replaceNull(repoId, "");
     }
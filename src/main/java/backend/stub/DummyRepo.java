@@ -1,5 +1,6 @@
 package backend.stub;
 
+import backend.IssueEdit;
 import backend.UserCredentials;
 import backend.interfaces.Repo;
 import backend.resource.TurboIssue;
@@ -21,6 +22,7 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 public class DummyRepo implements Repo {
 
@@ -135,6 +137,11 @@ public class DummyRepo implements Repo {
         return getRepoState(repoId).getIssues();
     }
 
+    @Override
+    public List<TurboIssue> getIssues(String repoId, Executor executor) {
+        return getIssues(repoId);
+    }
+
     @Override
     public List<TurboLabel> getLabels(String repoId) {
         return getRepoState(repoId).getLabels();
@@ -151,7 +158,7 @@ public class DummyRepo implements Repo {
     }
 
     @Override
-    public ImmutablePair<List<TurboIssueEvent>, String>
+    public synchronized ImmutablePair<List<TurboIssueEvent>, String>
             getUpdatedEvents(String repoId, int issueId, String currentETag) {
 
         ImmutablePair<List<TurboIssueEvent>, String> result = getRepoState(repoId).getEvents(issueId, currentETag);
@@ -162,7 +169,7 @@ public class DummyRepo implements Repo {
     }
 
     @Override
-    public List<Comment> getComments(String repoId, int issueId) {
+    public synchronized List<Comment> getComments(String repoId, int issueId) {
         apiQuota--;
         return getRepoState(repoId).getComments(issueId);
     }
@@ -174,6 +181,17 @@ public class DummyRepo implements Repo {
         return result;
     }
 
+    @Override
+    public synchronized ImmutablePair<List<Comment>, String> getUpdatedComments(String repoId, TurboIssue issue,
+                                                                                String currentETag) {
+        ImmutablePair<List<Comment>, String> result =
+                getRepoState(repoId).getUpdatedComments(issue.getId(), currentETag);
+
+        if (!result.getRight().equals(currentETag) || currentETag.length() == 0) apiQuota--;
+
+        return result;
+    }
+
     @Override
     public List<ReviewComment> getReviewComments(String repoId, int pullRequestId) {
         return new ArrayList<>();
@@ -196,6 +214,26 @@ public class DummyRepo implements Repo {
         return getRepoState(repoId).editIssueState(issueId, isOpen);
     }
 
+    @Override
+    public boolean editIssue(String repoId, int issueId, String issueTitle, IssueEdit edit) throws IOException {
+        boolean isEdited = true;
+        if (edit.getLabels().isPresent()) {
+            setLabels(repoId, issueId, edit.getLabels().get());
+        }
+        if (edit.getMilestone().isPresent()) {
+            isEdited = edit.getMilestone().get().equals(
+                    setMilestone(repoId, issueId, issueTitle, edit.getMilestone().get()));
+        }
+        if (edit.getAssignee().isPresent()) {
+            isEdited &= edit.getAssignee().get().equals(
+                    setAssignee(repoId, issueId, issueTitle, edit.getAssignee().get()));
+        }
+        if (edit.isOpen().isPresent()) {
+            isEdited &= editIssueState(repoId, issueId, edit.isOpen().get());
+        }
+        return isEdited;
+    }
+
     @Override
     public Optional<String> setAssignee(String repoId, int issueId, String issueTitle,
                                         Optional<String> issueAssigneeLoginName) {
@@ -216,7 +254,7 @@ public class DummyRepo implements Repo {
      * @return Remaining calls, reset time ~45 minutes (27000000 milliseconds) from call.
      */
     @Override
-    public ImmutablePair<Integer, Long> getRateLimitResetTime() {
+    public synchronized ImmutablePair<Integer, Long> getRateLimitResetTime() {
         return new ImmutablePair<>(apiQuota, new Date().getTime() + 2700000);
     }
 
@@ -275,8 +275,17 @@ public class DummyRepoState {
         return new ImmutablePair<>(new ArrayList<>(), currentETag);
     }
 
+    protected ImmutablePair<List<Comment>, String> getUpdatedComments(int issueId, String currentETag) {
+        if (currentETag.isEmpty() || updatedComments.contains(issueId)) {
+            // Remove issue from updatedComments so that the same ETag is returned next time,
+            // unless more comments will have been added.
+            updatedComments.remove(issueId);
+            return new ImmutablePair<>(getComments(issueId), UUID.randomUUID().toString());
+        }
+        return new ImmutablePair<>(new ArrayList<>(), currentETag);
+    }
+
     protected List<Comment> getComments(int issueId) {
-        // TODO after implementing support for comments ETags on GitHubClientExtended, change logic to getEvents'.
         IssueMetadata metadataOfIssue = issueMetadata.get(issueId);
         if (metadataOfIssue != null) {
             return new ArrayList<>(metadataOfIssue.getComments());
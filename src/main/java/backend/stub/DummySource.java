@@ -1,5 +1,6 @@
 package backend.stub;
 
+import backend.IssueEdit;
 import backend.IssueMetadata;
 import backend.UserCredentials;
 import backend.github.*;
@@ -15,6 +16,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 public class DummySource extends RepoSource {
 
@@ -43,9 +45,9 @@ public class DummySource extends RepoSource {
     }
 
     @Override
-    public CompletableFuture<Map<Integer, IssueMetadata>> downloadMetadata(String repoId,
-                                                                           List<TurboIssue> issues) {
-        return addTask(new DownloadMetadataTaskStub(this, dummy, repoId, issues)).response;
+    public CompletableFuture<Map<Integer, IssueMetadata>> downloadMetadata(
+            String repoId, List<TurboIssue> issues, Consumer<Map<Integer, IssueMetadata>> batchHandler) {
+        return addTask(new DownloadMetadataTaskStub(this, dummy, repoId, issues, batchHandler)).response;
     }
 
     @Override
@@ -63,6 +65,12 @@ public class DummySource extends RepoSource {
         return addTask(new EditIssueStateTask(this, dummy, issue.getRepoId(), issue.getId(), isOpen)).response;
     }
 
+    @Override
+    public CompletableFuture<Boolean> editIssue(TurboIssue issue, IssueEdit edit) {
+        return addTask(new EditIssueTask(this, dummy, issue.getRepoId(), issue.getId(), issue.getTitle(),
+                                         edit)).response;
+    }
+
     @Override
     public CompletableFuture<Boolean> replaceIssueAssignee(TurboIssue issue, Optional<String> assigneeLoginName) {
         return addTask(new ReplaceIssueAssigneeTask(this, dummy, issue.getRepoId(),
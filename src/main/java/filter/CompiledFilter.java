@@ -0,0 +1,52 @@
+package filter;
+
+import backend.interfaces.IModel;
+import backend.resource.TurboIssue;
+import filter.expression.Conjunction;
+import filter.expression.FilterExpression;
+import filter.expression.Qualifier;
+import filter.expression.QualifierType;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * A filter expression prepared for testing many issues against it, e.g. all issues shown in a panel.
+ * <p>
+ * Compilation does the work which Qualifier.process would otherwise repeat for every issue: meta-qualifiers
+ * are stripped and interpreted, the default repo qualifier is added, and every qualifier is turned into a
+ * predicate with its content normalised and its labels, milestones and users resolved against the model.
+ * <p>
+ * A compiled filter reflects the labels, milestones, users and default repo of the model at the time of
+ * compilation, so it should be compiled again whenever those may have changed.
+ */
+public final class CompiledFilter implements Predicate<TurboIssue> {
+
+    private final Predicate<TurboIssue> predicate;
+
+    private CompiledFilter(Predicate<TurboIssue> predicate) {
+        this.predicate = predicate;
+    }
+
+    public static CompiledFilter compile(IModel model, FilterExpression expr) {
+        FilterExpression exprWithNormalQualifiers = expr.filter(Qualifier::shouldNotBeStripped);
+        List<Qualifier> metaQualifiers = expr.find(Qualifier::isMetaQualifier);
+
+        // Preprocessing for repo qualifier
+        boolean containsRepoQualifier = metaQualifiers.stream()
+                .anyMatch(q -> q.getType() == QualifierType.REPO);
+
+        if (!containsRepoQualifier) {
+            exprWithNormalQualifiers = new Conjunction(
+                    new Qualifier(QualifierType.REPO, model.getDefaultRepo()),
+                    exprWithNormalQualifiers);
+        }
+
+        return new CompiledFilter(exprWithNormalQualifiers.compile(model, new MetaQualifierInfo(metaQualifiers)));
+    }
+
+    @Override
+    public boolean test(TurboIssue issue) {
+        return predicate.test(issue);
+    }
+}
@@ -0,0 +1,246 @@
+package filter;
+
+import backend.resource.TurboIssue;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+
+/**
+ * A comparator of issues which compares compact sort keys instead of the issues themselves.
+ * <p>
+ * The key of an issue is a tuple of longs, interned strings and sorted label names, extracted once per issue
+ * through {@link #extractKey(TurboIssue)}. Extracting a key may look up milestones or labels in the model, which
+ * comparing keys never does. Callers sorting many issues can decorate each issue with its key, sort by
+ * {@link #compareKeys(Key, Key)} and undecorate, reusing keys of unchanged issues across sorts.
+ * When used as a plain comparator, keys are extracted on first use and remembered per issue instance,
+ * so such a comparator should not outlive the state of the issues it compares.
+ * <p>
+ * Comparators with the same signature extract equal keys from the same issue given the same model contents.
+ */
+public final class SortKeyComparator implements Comparator<TurboIssue> {
+
+    private final String signature;
+    private final List<Component> components;
+    private final int numberCount;
+    private final int textCount;
+    private final int labelGroupCount;
+
+    private final Map<TurboIssue, Key> keys = Collections.synchronizedMap(new IdentityHashMap<>());
+
+    private SortKeyComparator(String signature, List<Component> components) {
+        this.signature = signature;
+        this.components = components;
+
+        int numbers = 0;
+        int texts = 0;
+        int labelGroups = 0;
+        for (Component component : components) {
+            switch (component.kind) {
+            case NUMBER:
+                component.slot = numbers++;
+                break;
+            case TEXT:
+                component.slot = texts++;
+                break;
+            default:
+                component.slot = labelGroups++;
+                break;
+            }
+        }
+        this.numberCount = numbers;
+        this.textCount = texts;
+        this.labelGroupCount = labelGroups;
+    }
+
+    /**
+     * Combines comparators so that later ones are only consulted when earlier ones consider issues equal.
+     *
+     * @param comparators
+     * @return
+     */
+    public static SortKeyComparator compound(List<SortKeyComparator> comparators) {
+        String signature = comparators.stream()
+                .map(SortKeyComparator::getSignature)
+                .collect(Collectors.joining(","));
+        Builder builder = new Builder();
+        comparators.forEach(comparator -> comparator.components.forEach(c -> builder.components.add(c.copy())));
+        return builder.build(signature);
+    }
+
+    /**
+     * @return A description of the sort order, identical for comparators which sort in the same way
+     */
+    public String getSignature() {
+        return signature;
+    }
+
+    public Key extractKey(TurboIssue issue) {
+        Key key = new Key(numberCount, textCount, labelGroupCount);
+        for (Component component : components) {
+            component.extract(issue, key);
+        }
+        return key;
+    }
+
+    public int compareKeys(Key a, Key b) {
+        for (Component component : components) {
+            int result = component.compare(a, b);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public int compare(TurboIssue a, TurboIssue b) {
+        return compareKeys(keys.computeIfAbsent(a, this::extractKey), keys.computeIfAbsent(b, this::extractKey));
+    }
+
+    /**
+     * The sort key of an issue. Only meaningful to the comparator which extracted it, or one with the same
+     * signature.
+     */
+    public static final class Key {
+        private final long[] numbers;
+        private final String[] texts;
+        private final String[][] labelGroups;
+
+        private Key(int numberCount, int textCount, int labelGroupCount) {
+            this.numbers = new long[numberCount];
+            this.texts = new String[textCount];
+            this.labelGroups = new String[labelGroupCount][];
+        }
+    }
+
+    /**
+     * Builds a comparator out of components, each consulted only when the previous ones consider issues equal.
+     */
+    public static final class Builder {
+        private final List<Component> components = new ArrayList<>();
+
+        /**
+         * Orders issues by a number extracted from them, in ascending order unless inverted.
+         */
+        public Builder number(ToLongFunction<TurboIssue> extractor, boolean inverted) {
+            components.add(new Component(Kind.NUMBER, inverted, extractor, null, null));
+            return this;
+        }
+
+        /**
+         * Orders issues by a date-time extracted from them, in ascending order unless inverted.
+         */
+        public Builder dateTime(Function<TurboIssue, LocalDateTime> extractor, boolean inverted) {
+            number(issue -> extractor.apply(issue).toEpochSecond(ZoneOffset.UTC), inverted);
+            number(issue -> extractor.apply(issue).getNano(), inverted);
+            return this;
+        }
+
+        /**
+         * Orders issues by a string extracted from them, in ascending order unless inverted.
+         */
+        public Builder text(Function<TurboIssue, String> extractor, boolean inverted) {
+            components.add(new Component(Kind.TEXT, inverted, null, extractor, null));
+            return this;
+        }
+
+        /**
+         * Orders issues by the names of their labels in a group, extracted in sorted order. Issues without such
+         * labels come last. Otherwise issues with fewer labels come first, then labels are compared
+         * lexicographically. Inverting reverses the last two orders only.
+         */
+        public Builder labelGroup(Function<TurboIssue, List<String>> extractor, boolean inverted) {
+            components.add(new Component(Kind.LABEL_GROUP, inverted, null, null, extractor));
+            return this;
+        }
+
+        public SortKeyComparator build(String signature) {
+            return new SortKeyComparator(signature, new ArrayList<>(components));
+        }
+    }
+
+    private enum Kind {
+        NUMBER, TEXT, LABEL_GROUP
+    }
+
+    private static final class Component {
+        private final Kind kind;
+        private final boolean inverted;
+        private final ToLongFunction<TurboIssue> numberExtractor;
+        private final Function<TurboIssue, String> textExtractor;
+        private final Function<TurboIssue, List<String>> labelGroupExtractor;
+
+        // Index into the array of the key corresponding to the kind of this component
+        private int slot;
+
+        private Component(Kind kind, boolean inverted,
+                          ToLongFunction<TurboIssue> numberExtractor,
+                          Function<TurboIssue, String> textExtractor,
+                          Function<TurboIssue, List<String>> labelGroupExtractor) {
+            this.kind = kind;
+            this.inverted = inverted;
+            this.numberExtractor = numberExtractor;
+            this.textExtractor = textExtractor;
+            this.labelGroupExtractor = labelGroupExtractor;
+        }
+
+        private Component copy() {
+            return new Component(kind, inverted, numberExtractor, textExtractor, labelGroupExtractor);
+        }
+
+        private void extract(TurboIssue issue, Key key) {
+            switch (kind) {
+            case NUMBER:
+                key.numbers[slot] = numberExtractor.applyAsLong(issue);
+                break;
+            case TEXT:
+                key.texts[slot] = textExtractor.apply(issue).intern();
+                break;
+            default:
+                key.labelGroups[slot] = labelGroupExtractor.apply(issue).stream()
+                        .map(String::intern)
+                        .toArray(String[]::new);
+                break;
+            }
+        }
+
+        private int compare(Key a, Key b) {
+            switch (kind) {
+            case NUMBER:
+                int numberResult = Long.compare(a.numbers[slot], b.numbers[slot]);
+                return inverted ? -numberResult : numberResult;
+            case TEXT:
+                int textResult = a.texts[slot].compareTo(b.texts[slot]);
+                return inverted ? -textResult : textResult;
+            default:
+                return compareLabelGroups(a.labelGroups[slot], b.labelGroups[slot]);
+            }
+        }
+
+        private int compareLabelGroups(String[] aLabels, String[] bLabels) {
+            // Put empty groups at the back
+            if (aLabels.length == 0 && bLabels.length == 0) {
+                return 0;
+            } else if (aLabels.length == 0) {
+                return 1;
+            } else if (bLabels.length == 0) {
+                return -1;
+            }
+
+            int result = Integer.compare(aLabels.length, bLabels.length);
+            for (int i = 0; result == 0 && i < aLabels.length; i++) {
+                result = aLabels[i].compareTo(bLabels[i]);
+            }
+            return inverted ? -result : result;
+        }
+    }
+}
@@ -55,6 +55,11 @@ public class Conjunction implements FilterExpression {
         return left.isSatisfiedBy(model, issue, info) && right.isSatisfiedBy(model, issue, info);
     }
 
+    @Override
+    public Predicate<TurboIssue> compile(IModel model, MetaQualifierInfo info) {
+        return left.compile(model, info).and(right.compile(model, info));
+    }
+
     private boolean containsDuplicateQualifierTypes() {
         List<QualifierType> nonLabelQualifierTypes = getQualifierTypes().stream()
                 .filter(pn -> !pn.equals(QualifierType.LABEL))
@@ -52,6 +52,11 @@ public class Disjunction implements FilterExpression {
         return left.isSatisfiedBy(model, issue, info) || right.isSatisfiedBy(model, issue, info);
     }
 
+    @Override
+    public Predicate<TurboIssue> compile(IModel model, MetaQualifierInfo info) {
+        return left.compile(model, info).or(right.compile(model, info));
+    }
+
     @Override
     public boolean canBeAppliedToIssue() {
         return false;
@@ -16,6 +16,12 @@ public interface FilterExpression {
 
     boolean isSatisfiedBy(IModel model, TurboIssue issue, MetaQualifierInfo info);
 
+    // Prepares this filter expression for evaluation against many issues of the given model.
+    // The resulting predicate gives the same result as isSatisfiedBy, as long as the labels,
+    // milestones and users of the model do not change.
+
+    Predicate<TurboIssue> compile(IModel model, MetaQualifierInfo info);
+
     // Filter expressions may only be applied if they contain no ambiguity
     // => they must contain only qualifiers or conjunctions thereof. Disjunctions
     // and negations can't be interpreted in order to be applied.
@@ -45,6 +45,11 @@ public class Negation implements FilterExpression {
         return !expr.isSatisfiedBy(model, issue, info);
     }
 
+    @Override
+    public Predicate<TurboIssue> compile(IModel model, MetaQualifierInfo info) {
+        return expr.compile(model, info).negate();
+    }
+
     @Override
     public boolean canBeAppliedToIssue() {
         return false;
@@ -4,6 +4,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.regex.Matcher;
@@ -169,27 +170,16 @@ public class Qualifier implements FilterExpression {
     }
 
     /**
-     * Helper function for testing a filter expression against an issue.
+     * Helper function for testing a filter expression against an issue, for one-off checks.
      * Ensures that meta-qualifiers are taken care of.
      * Should always be used over isSatisfiedBy.
+     * <p>
+     * Each call compiles the whole expression, including the label selections and the sets of users and
+     * milestones it matches against, which costs far more than testing the issue. To test many issues against
+     * the same filter expression, compile it once with {@link CompiledFilter#compile} and reuse it instead.
      */
     public static boolean process(IModel model, FilterExpression expr, TurboIssue issue) {
-        FilterExpression exprWithNormalQualifiers = expr.filter(Qualifier::shouldNotBeStripped);
-        List<Qualifier> metaQualifiers = expr.find(Qualifier::isMetaQualifier);
-
-        // Preprocessing for repo qualifier
-        boolean containsRepoQualifier = metaQualifiers.stream()
-                .map(Qualifier::getType)
-                .collect(Collectors.toList())
-                .contains(QualifierType.REPO);
-
-        if (!containsRepoQualifier) {
-            exprWithNormalQualifiers = new Conjunction(
-                    new Qualifier(QualifierType.REPO, model.getDefaultRepo()),
-                    exprWithNormalQualifiers);
-        }
-
-        return exprWithNormalQualifiers.isSatisfiedBy(model, issue, new MetaQualifierInfo(metaQualifiers));
+        return CompiledFilter.compile(model, expr).test(issue);
     }
 
     /**
@@ -379,6 +369,61 @@ public class Qualifier implements FilterExpression {
         }
     }
 
+    /**
+     * Compiles this qualifier into a predicate equivalent to {@link #isSatisfiedBy}. Everything which only
+     * depends on the qualifier and the model (case-folded content, aliases, matching labels, milestones
+     * and users) is resolved here, so that evaluating the predicate against an issue neither allocates
+     * nor case-folds the qualifier content. Invalid qualifiers compile to predicates which throw the
+     * same exception as isSatisfiedBy does when evaluated.
+     */
+    @Override
+    public Predicate<TurboIssue> compile(IModel model, MetaQualifierInfo info) {
+        assert type != null;
+
+        if (isEmpty()) return issue -> true;
+        if (isFalse()) return issue -> false;
+
+        switch (type) {
+        case ID:
+            return compileId();
+        case KEYWORD:
+            return compileKeyword(model, info);
+        case TITLE:
+            return compileTitle(model);
+        case DESCRIPTION:
+            return compileBody(model);
+        case MILESTONE:
+            return compileMilestone(model);
+        case LABEL:
+            return compileLabels(model);
+        case AUTHOR:
+            return compileAuthor();
+        case ASSIGNEE:
+            return compileAssignee(model);
+        case INVOLVES:
+            return compileAuthor().or(compileAssignee(model));
+        case TYPE:
+            return compileType();
+        case STATE:
+            return compileState();
+        case HAS:
+            return compileHasConditions();
+        case NO:
+            return content.isPresent() ? compileHasConditions().negate() : issue -> false;
+        case IS:
+            return compileIsConditions();
+        case CREATED:
+            return compileCreationDate();
+        case UPDATED:
+            return compileUpdatedHours();
+        case REPO:
+            return compileRepo();
+        default:
+            assert false : "Missing case for " + type;
+            return issue -> false;
+        }
+    }
+
     @Override
     public void applyTo(TurboIssue issue, IModel model) throws QualifierApplicationException {
         assert type != null && content != null;
@@ -556,7 +601,7 @@ public class Qualifier implements FilterExpression {
                 type.equals(other.type);
     }
 
-    private static boolean shouldNotBeStripped(Qualifier q) {
+    public static boolean shouldNotBeStripped(Qualifier q) {
         return !shouldBeStripped(q);
     }
 
@@ -605,160 +650,110 @@ public class Qualifier implements FilterExpression {
         return !expr.find(Qualifier::isUpdatedQualifier).isEmpty();
     }
 
-    public Comparator<TurboIssue> getCompoundSortComparator(IModel model, boolean isSortableByNonSelfUpdates) {
-        if (sortKeys.isEmpty()) {
-            return (a, b) -> 0;
-        }
-        return (a, b) -> {
-            for (SortKey key : sortKeys) {
-                Comparator<TurboIssue> comparator =
-                        getSortComparator(model, key.key, key.inverted, isSortableByNonSelfUpdates);
-                int result = comparator.compare(a, b);
-                if (result != 0) {
-                    return result;
-                }
-            }
-            return 0;
-        };
+    public SortKeyComparator getCompoundSortComparator(IModel model, boolean isSortableByNonSelfUpdates) {
+        return SortKeyComparator.compound(sortKeys.stream()
+                .map(key -> getSortComparator(model, key.key, key.inverted, isSortableByNonSelfUpdates))
+                .collect(Collectors.toList()));
     }
 
-    public static Comparator<TurboIssue> getSortComparator(IModel model,
-                                                           String key,
-                                                           boolean inverted,
-                                                           boolean isSortableByNonSelfUpdates) {
-        Comparator<TurboIssue> comparator = (a, b) -> 0;
-
-        boolean isLabelGroup = false;
+    /**
+     * Produces a comparator for a single sort key. Milestones and labels of issues are resolved through
+     * {@code model} once per issue when its sort key is extracted, never during comparisons.
+     */
+    public static SortKeyComparator getSortComparator(IModel model,
+                                                      String key,
+                                                      boolean inverted,
+                                                      boolean isSortableByNonSelfUpdates) {
+        SortKeyComparator.Builder builder = new SortKeyComparator.Builder();
+        String signature;
 
         switch (expandKeywordAliases(key)) {
         case "comments":
-            comparator = (a, b) -> a.getCommentCount() - b.getCommentCount();
+            builder.number(TurboIssue::getCommentCount, inverted);
+            signature = "comments";
             break;
         case "repo":
-            comparator = (a, b) -> a.getRepoId().compareTo(b.getRepoId());
+            builder.text(TurboIssue::getRepoId, inverted);
+            signature = "repo";
             break;
         case "updated":
         case "date":
-            comparator = (a, b) -> a.getUpdatedAt().compareTo(b.getUpdatedAt());
+            builder.dateTime(TurboIssue::getUpdatedAt, inverted);
+            signature = "updated";
             break;
         case "nonSelfUpdate":
             if (isSortableByNonSelfUpdates) {
-                comparator = (a, b) ->
-                        a.getMetadata().getNonSelfUpdatedAt().compareTo(b.getMetadata().getNonSelfUpdatedAt());
+                builder.dateTime(issue -> issue.getMetadata().getNonSelfUpdatedAt(), inverted);
+                signature = "nonSelfUpdate";
             } else {
-                comparator = (a, b) -> a.getUpdatedAt().compareTo(b.getUpdatedAt());
+                builder.dateTime(TurboIssue::getUpdatedAt, inverted);
+                signature = "updated";
             }
             break;
         case "assignee":
         case "as":
-            comparator = (a, b) -> {
-                Optional<String> aAssignee = a.getAssignee();
-                Optional<String> bAssignee = b.getAssignee();
-
-                if (!aAssignee.isPresent() && !bAssignee.isPresent()) {
-                    return 0;
-                } else if (!aAssignee.isPresent()) {
-                    return 1;
-                } else if (!bAssignee.isPresent()) {
-                    return -1;
-                } else {
-                    return aAssignee.get().compareTo(bAssignee.get());
-                }
-            };
+            // Issues without assignee come last
+            builder.number(issue -> issue.getAssignee().isPresent() ? 0 : 1, inverted)
+                    .text(issue -> issue.getAssignee().orElse(""), inverted);
+            signature = "assignee";
             break;
         case "milestone":
         case "m":
-            comparator = (a, b) -> {
-                Optional<TurboMilestone> aMilestone = model.getMilestoneOfIssue(a);
-                Optional<TurboMilestone> bMilestone = model.getMilestoneOfIssue(b);
-
-                if (!aMilestone.isPresent() && !bMilestone.isPresent()) {
-                    return 0;
-                } else if (!aMilestone.isPresent()) {
-                    return 1;
-                } else if (!bMilestone.isPresent()) {
-                    return -1;
-                } else {
-                    return -(TurboMilestone.getDueDateComparator().compare(aMilestone.get(), bMilestone.get()));
-                }
-            };
+            // Issues without milestone come last, the others are sorted by descending due date
+            builder.number(issue -> model.getMilestoneOfIssue(issue).isPresent() ? 0 : 1, inverted)
+                    .number(issue -> model.getMilestoneOfIssue(issue)
+                            .map(milestone -> -getDueDateForSorting(milestone).toEpochDay())
+                            .orElse(0L), inverted);
+            signature = "milestone";
             break;
         case "id":
-            comparator = (a, b) -> a.getId() - b.getId();
+            builder.number(TurboIssue::getId, inverted);
+            signature = "id";
             break;
         case "state":
         case "status":
         case "s":
-            comparator = (a, b) -> Boolean.compare(b.isOpen(), a.isOpen());
+            // Open issues come first
+            builder.number(issue -> issue.isOpen() ? 0 : 1, inverted);
+            signature = "state";
             break;
         default:
-            // Doesn't match anything; assume it's a label group
-            isLabelGroup = true;
-            break;
-        }
-
-        if (isLabelGroup) {
-            // Has a different notion of inversion
+            // Doesn't match anything; assume it's a label group, which has a different notion of inversion
             return getLabelGroupComparator(model, key, inverted);
-        } else {
-            // Use default behaviour for inverting
-            if (!inverted) {
-                return comparator;
-            } else {
-                final Comparator<TurboIssue> finalComparator = comparator;
-                return (a, b) -> -finalComparator.compare(a, b);
-            }
         }
+
+        return builder.build((inverted ? "~" : "") + signature);
     }
 
-    public static Comparator<TurboIssue> getLabelGroupComparator(IModel model, String key, boolean inverted) {
+    public static SortKeyComparator getLabelGroupComparator(IModel model, String key, boolean inverted) {
         // Strip trailing ., if any
         final String group = key.replaceAll("\\.$", "");
-        return (a, b) -> {
-
-            // Matches labels belong to the given group
-            Predicate<TurboLabel> sameGroup = l ->
-                    l.isInGroup() && l.getGroupName().equals(group);
-
-            Comparator<TurboLabel> labelComparator = (x, y) -> x.compareTo(y);
-
-            List<TurboLabel> aLabels = model.getLabelsOfIssue(a, sameGroup);
-            List<TurboLabel> bLabels = model.getLabelsOfIssue(b, sameGroup);
-            Collections.sort(aLabels, labelComparator);
-            Collections.sort(bLabels, labelComparator);
-
-            // Put empty lists at the back
-            if (aLabels.isEmpty() && bLabels.isEmpty()) {
-                return 0;
-            } else if (aLabels.isEmpty()) {
-                // a is larger
-                return 1;
-            } else if (bLabels.isEmpty()) {
-                // b is larger
-                return -1;
-            }
 
-            // Compare lengths
-            int result = !inverted
-                    ? aLabels.size() - bLabels.size()
-                    : bLabels.size() - aLabels.size();
+        // Matches labels belong to the given group
+        Predicate<TurboLabel> sameGroup = l ->
+                l.isInGroup() && l.getGroupName().equals(group);
+
+        // The names of an issue's labels in the group, sorted, are those of its label ids in the group's
+        Function<String, Function<TurboIssue, List<String>>> extractors = resolvePerRepo(model, repo -> {
+            LabelDictionary labels = repo.getLabelDictionary();
+            BitSet groupLabels = labels.select(sameGroup);
+            return issue -> {
+                BitSet issueLabels = (BitSet) labels.getLabelsOf(issue).clone();
+                issueLabels.and(groupLabels);
+                return labels.getNames(issueLabels);
+            };
+        }, issue -> Collections.emptyList());
 
-            if (result != 0) {
-                return result;
-            }
+        return new SortKeyComparator.Builder()
+                .labelGroup(issue -> extractors.apply(issue.getRepoId()).apply(issue), inverted)
+                .build((inverted ? "~" : "") + "labelGroup:" + group);
+    }
 
-            // Lexicographic label comparison
-            assert aLabels.size() == bLabels.size();
-            for (int i = 0; i < aLabels.size(); i++) {
-                result = !inverted
-                        ? labelComparator.compare(aLabels.get(i), bLabels.get(i))
-                        : labelComparator.compare(bLabels.get(i), aLabels.get(i));
-                if (result != 0) {
-                    return result;
-                }
-            }
-            return 0;
-        };
+    /**
+     * The due date by which TurboMilestone.getDueDateComparator orders milestones.
+     */
+    private static LocalDate getDueDateForSorting(TurboMilestone milestone) {
+        return milestone.getDueDate().orElse(milestone.isOpen() ? LocalDate.MAX : LocalDate.MIN);
     }
 
     private boolean idSatisfies(TurboIssue issue) {
@@ -885,11 +880,21 @@ public class Qualifier implements FilterExpression {
     }
 
     public static boolean labelMatches(String input, String candidate) {
+        return labelMatches(parseLabelInput(input), new TurboLabel("", candidate.toLowerCase()));
+    }
 
-        // Make use of TurboLabel constructor to parse the input, avoiding duplication
-        TurboLabel inputLabel = new TurboLabel("", input.toLowerCase());
-        TurboLabel candidateLabel = new TurboLabel("", candidate.toLowerCase());
+    /**
+     * Makes use of TurboLabel constructor to parse the input, avoiding duplication
+     */
+    private static TurboLabel parseLabelInput(String input) {
+        return new TurboLabel("", input.toLowerCase());
+    }
 
+    /**
+     * @param inputLabel     The parsed input, see {@link #parseLabelInput}
+     * @param candidateLabel The candidate label, with its name lower-cased
+     */
+    private static boolean labelMatches(TurboLabel inputLabel, TurboLabel candidateLabel) {
         String group = "";
         if (inputLabel.isInGroup()) {
             group = inputLabel.getGroupName();
@@ -963,12 +968,12 @@ public class Qualifier implements FilterExpression {
 
     private boolean bodySatisfies(TurboIssue issue) {
         if (!content.isPresent()) return false;
-        return issue.getDescription().toLowerCase().contains(content.get().toLowerCase());
+        return Utility.containsLowerCaseQuery(issue.getDescription(), content.get().toLowerCase());
     }
 
     private boolean titleSatisfies(TurboIssue issue) {
         if (!content.isPresent()) return false;
-        return issue.getTitle().toLowerCase().contains(content.get().toLowerCase());
+        return Utility.containsLowerCaseQuery(issue.getTitle(), content.get().toLowerCase());
     }
 
     private boolean typeSatisfies(TurboIssue issue) {
@@ -984,6 +989,244 @@ public class Qualifier implements FilterExpression {
         }
     }
 
+    private static Predicate<TurboIssue> semanticError(QualifierType type) {
+        return issue -> {
+            throw new SemanticException(type);
+        };
+    }
+
+    private Predicate<TurboIssue> compileId() {
+        if (number.isPresent()) {
+            int id = number.get();
+            return issue -> issue.getId() == id;
+        } else if (numberRange.isPresent()) {
+            NumberRange range = numberRange.get();
+            return issue -> range.encloses(issue.getId());
+        }
+        return semanticError(type);
+    }
+
+    private Predicate<TurboIssue> compileUpdatedHours() {
+        NumberRange updatedRange;
+
+        if (numberRange.isPresent()) {
+            updatedRange = numberRange.get();
+        } else if (number.isPresent()) {
+            updatedRange = new NumberRange(null, number.get(), true);
+        } else {
+            return semanticError(type);
+        }
+
+        LocalDateTime now = getCurrentTime();
+        return issue -> updatedRange.encloses(
+                Utility.safeLongToInt(issue.getUpdatedAt().until(now, ChronoUnit.HOURS)));
+    }
+
+    private Predicate<TurboIssue> compileRepo() {
+        if (!content.isPresent()) return semanticError(type);
+
+        String repoId = content.get();
+        return issue -> issue.getRepoId().equalsIgnoreCase(repoId);
+    }
+
+    private Predicate<TurboIssue> compileCreationDate() {
+        if (date.isPresent()) {
+            LocalDate creationDate = date.get();
+            return issue -> issue.getCreatedAt().toLocalDate().isEqual(creationDate);
+        } else if (dateRange.isPresent()) {
+            DateRange range = dateRange.get();
+            return issue -> range.encloses(issue.getCreatedAt().toLocalDate());
+        }
+        return semanticError(type);
+    }
+
+    private Predicate<TurboIssue> compileHasConditions() {
+        if (!content.isPresent()) return semanticError(type);
+
+        switch (expandKeywordAliases(content.get())) {
+        case "label":
+            return issue -> !issue.getLabels().isEmpty();
+        case "milestone":
+            return issue -> issue.getMilestone().isPresent();
+        case "assignee":
+            return issue -> issue.getAssignee().isPresent();
+        default:
+            return semanticError(type);
+        }
+    }
+
+    private Predicate<TurboIssue> compileIsConditions() {
+        if (!content.isPresent()) return semanticError(type);
+
+        switch (expandKeywordAliases(content.get())) {
+        case "open":
+        case "closed":
+            return compileState();
+        case "pr":
+        case "issue":
+            return compileType();
+        case "merged":
+            return issue -> issue.isPullRequest() && !issue.isOpen();
+        case "unmerged":
+            return issue -> issue.isPullRequest() && issue.isOpen();
+        case "read":
+            return TurboIssue::isCurrentlyRead;
+        case "unread":
+            return issue -> !issue.isCurrentlyRead();
+        default:
+            return semanticError(type);
+        }
+    }
+
+    private Predicate<TurboIssue> compileState() {
+        if (!content.isPresent()) return semanticError(type);
+
+        String content = expandKeywordAliases(this.content.get().toLowerCase());
+        if (content.contains("open")) {
+            return TurboIssue::isOpen;
+        } else if (content.contains("closed")) {
+            return issue -> !issue.isOpen();
+        }
+        return semanticError(type);
+    }
+
+    private Predicate<TurboIssue> compileType() {
+        if (!content.isPresent()) return semanticError(type);
+
+        switch (expandKeywordAliases(content.get().toLowerCase())) {
+        case "issue":
+            return issue -> !issue.isPullRequest();
+        case "pr":
+            return TurboIssue::isPullRequest;
+        default:
+            return semanticError(type);
+        }
+    }
+
+    private Predicate<TurboIssue> compileAuthor() {
+        if (!content.isPresent()) return issue -> false;
+
+        String author = content.get().toLowerCase();
+        return issue -> Utility.containsLowerCaseQuery(issue.getCreator(), author);
+    }
+
+    /**
+     * Returns a function from repo ids to the result of {@code resolve} on the model of the repo,
+     * which is computed at most once for each repo. Repos without a model resolve to an empty set.
+     */
+    private static <T> Function<String, Set<T>> resolvePerRepo(IModel model, Function<Model, Set<T>> resolve) {
+        return resolvePerRepo(model, resolve, Collections.emptySet());
+    }
+
+    /**
+     * As above, with repos without a model resolving to {@code absent}.
+     */
+    private static <T> Function<String, T> resolvePerRepo(IModel model, Function<Model, T> resolve, T absent) {
+        Map<String, T> resolved = new ConcurrentHashMap<>();
+        return repoId -> {
+            T result = resolved.get(repoId);
+            if (result == null) {
+                result = model.getModelById(repoId).map(resolve).orElse(absent);
+                resolved.putIfAbsent(repoId, result);
+            }
+            return result;
+        };
+    }
+
+    /**
+     * Resolves the users whose login or name contain the qualifier content beforehand, so that
+     * only the assignee's login has to be looked up for each issue.
+     */
+    private Predicate<TurboIssue> compileAssignee(IModel model) {
+        if (!content.isPresent()) return issue -> false;
+
+        String content = this.content.get().toLowerCase();
+        Function<String, Set<String>> matchingLogins = resolvePerRepo(model, repo -> repo.getUsers().stream()
+                .filter(user -> user.getLoginName() != null)
+                .filter(user -> user.getLoginName().toLowerCase().contains(content)
+                        || user.getRealName() != null && user.getRealName().toLowerCase().contains(content))
+                .map(TurboUser::getLoginName)
+                .collect(Collectors.toSet()));
+
+        return issue -> issue.getAssignee().isPresent()
+                && matchingLogins.apply(issue.getRepoId()).contains(issue.getAssignee().get());
+    }
+
+    /**
+     * Resolves the labels matching the qualifier content beforehand, so that only the labels of the issue,
+     * kept as a bitset by the label dictionary of its repo, have to be intersected with them for each issue.
+     */
+    private Predicate<TurboIssue> compileLabels(IModel model) {
+        if (!content.isPresent()) return issue -> false;
+
+        TurboLabel inputLabel = parseLabelInput(content.get());
+        Function<String, Predicate<TurboIssue>> matchers = resolvePerRepo(model, repo -> {
+            LabelDictionary labels = repo.getLabelDictionary();
+            BitSet matching = labels.selectFolded(label -> labelMatches(inputLabel, label));
+            return matching.isEmpty() ? issue -> false : issue -> labels.getLabelsOf(issue).intersects(matching);
+        }, issue -> false);
+
+        return issue -> !issue.getLabels().isEmpty() && matchers.apply(issue.getRepoId()).test(issue);
+    }
+
+    /**
+     * Resolves the milestones whose title contain the qualifier content beforehand, so that
+     * only the issue's milestone id has to be looked up for each issue.
+     */
+    private Predicate<TurboIssue> compileMilestone(IModel model) {
+        if (!content.isPresent()) return issue -> false;
+
+        String contents = content.get().toLowerCase();
+        Function<String, Set<Integer>> matchingMilestones = resolvePerRepo(model, repo -> repo.getMilestones()
+                .stream()
+                .filter(milestone -> milestone.getTitle().toLowerCase().contains(contents))
+                .map(TurboMilestone::getId)
+                .collect(Collectors.toSet()));
+
+        return issue -> issue.getMilestone().isPresent()
+                && matchingMilestones.apply(issue.getRepoId()).contains(issue.getMilestone().get());
+    }
+
+    private Predicate<TurboIssue> compileKeyword(IModel model, MetaQualifierInfo info) {
+        if (info.getIn().isPresent()) {
+            switch (expandKeywordAliases(info.getIn().get())) {
+            case "title":
+                return compileTitle(model);
+            case "description":
+                return compileBody(model);
+            default:
+                return semanticError(QualifierType.IN);
+            }
+        } else {
+            return compileTitle(model).or(compileBody(model));
+        }
+    }
+
+    private Predicate<TurboIssue> compileBody(IModel model) {
+        return compileText(model, TextIndex.Field.DESCRIPTION);
+    }
+
+    private Predicate<TurboIssue> compileTitle(IModel model) {
+        return compileText(model, TextIndex.Field.TITLE);
+    }
+
+    /**
+     * Looks the qualifier content up in the text index of each repo, so that only the issues containing
+     * all its trigrams have their text scanned.
+     */
+    private Predicate<TurboIssue> compileText(IModel model, TextIndex.Field field) {
+        if (!content.isPresent()) return issue -> false;
+
+        String query = content.get().toLowerCase();
+        Predicate<TurboIssue> scan = field == TextIndex.Field.TITLE
+                ? issue -> Utility.containsLowerCaseQuery(issue.getTitle(), query)
+                : issue -> Utility.containsLowerCaseQuery(issue.getDescription(), query);
+        Function<String, Predicate<TurboIssue>> matchers =
+                resolvePerRepo(model, repo -> repo.getTextIndex().matcher(field, query), scan);
+
+        return issue -> matchers.apply(issue.getRepoId()).test(issue);
+    }
+
     private void applyMilestone(TurboIssue issue, IModel model) throws QualifierApplicationException {
         if (!content.isPresent()) {
             throw new QualifierApplicationException("Name of milestone to apply required");
@@ -0,0 +1,61 @@
+package github;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Sends requests with HttpURLConnection, asking for gzip-compressed responses.
+ * <p>
+ * HttpURLConnection keeps connections alive and reuses them for later requests to the same host once their
+ * responses have been fully read and closed. The number of idle connections kept per host is raised to
+ * {@link #MAX_IDLE_CONNECTIONS}, so that concurrent downloads do not each need a new TLS handshake, unless
+ * http.maxConnections is set explicitly. It only takes effect if set before the first connection is opened.
+ */
+public class DefaultHttpTransport implements HttpTransport {
+
+    // Enough for the concurrent downloads of pages and of metadata
+    public static final int MAX_IDLE_CONNECTIONS = 8;
+
+    private static final String HEADER_ACCEPT_ENCODING = "Accept-Encoding";
+    private static final String ENCODING_GZIP = "gzip";
+
+    static {
+        if (System.getProperty("http.maxConnections") == null) {
+            System.setProperty("http.maxConnections", Integer.toString(MAX_IDLE_CONNECTIONS));
+        }
+    }
+
+    @Override
+    public HttpURLConnection open(URL url) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestProperty(HEADER_ACCEPT_ENCODING, ENCODING_GZIP);
+        return connection;
+    }
+
+    /**
+     * Decompresses gzip-encoded bodies. Bodies labelled as gzip-encoded but without the gzip header, as replayed
+     * by some proxies and test servers, are returned as they are.
+     */
+    @Override
+    public InputStream decode(HttpURLConnection connection, InputStream stream) throws IOException {
+        if (stream == null || !ENCODING_GZIP.equalsIgnoreCase(connection.getContentEncoding())) {
+            return stream;
+        }
+        PushbackInputStream pushbackStream = new PushbackInputStream(stream, 2);
+        int first = pushbackStream.read();
+        int second = first < 0 ? -1 : pushbackStream.read();
+        if (second >= 0) {
+            pushbackStream.unread(second);
+        }
+        if (first >= 0) {
+            pushbackStream.unread(first);
+        }
+        boolean isGzip = first == (GZIPInputStream.GZIP_MAGIC & 0xff)
+                && second == (GZIPInputStream.GZIP_MAGIC >> 8 & 0xff);
+        return isGzip ? new GZIPInputStream(pushbackStream) : pushbackStream;
+    }
+}
@@ -0,0 +1,421 @@
+package github;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.logging.log4j.Logger;
+import util.HTLog;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+/**
+ * An on-disk cache of the bodies of GET responses, validated with their ETags.
+ * <p>
+ * Entries are keyed by the URL of a request together with the user and the accepted content type, and hold
+ * the ETag, the Link header and the body of the last response with an ETag. Requests with an entry send its
+ * ETag in an If-None-Match header, and a 304 response to them is answered with the cached body, so unchanged
+ * resources cost neither API quota nor a transfer of their body.
+ * <p>
+ * Entries are written as they are read from the response, to a temporary file which replaces the previous
+ * entry once the response has been fully read. Errors are logged and treated as misses, so the cache never
+ * fails a request.
+ * <p>
+ * The entries are kept within a limit of bytes on disk. Whenever an entry takes them over it, the least
+ * recently used entries are evicted, judged by the modification times of their files, which hits update.
+ * <p>
+ * Thread-safe.
+ */
+public class DiskResponseCache {
+
+    private static final Logger logger = HTLog.get(DiskResponseCache.class);
+
+    public static final String DEFAULT_DIRECTORY = "cache" + File.separator + "http";
+    public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    // "HTHC"
+    private static final int MAGIC = 0x48544843;
+    private static final String ENTRY_EXTENSION = ".entry";
+    private static final String TEMP_EXTENSION = ".tmp";
+
+    private final Path directory;
+    private final long maxBytes;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong bytesSaved = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    // The bytes taken by entries on disk, measured when the first entry is written and then kept up to date
+    // by the entries written and evicted. Guarded by this.
+    private long size = -1;
+
+    public DiskResponseCache(Path directory) {
+        this(directory, DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * @param maxBytes The bytes entries may take on disk before the least recently used ones are evicted
+     */
+    public DiskResponseCache(Path directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * A cached response.
+     */
+    public static final class Entry {
+        public final String eTag;
+        public final Optional<String> link;
+
+        private final Path path;
+        private final long bodyOffset;
+        private final long bodyLength;
+
+        private Entry(String eTag, Optional<String> link, Path path, long bodyOffset, long bodyLength) {
+            this.eTag = eTag;
+            this.link = link;
+            this.path = path;
+            this.bodyOffset = bodyOffset;
+            this.bodyLength = bodyLength;
+        }
+
+        /**
+         * @return the cached body, to be closed by the caller
+         */
+        public InputStream openBody() throws IOException {
+            InputStream stream = new BufferedInputStream(Files.newInputStream(path));
+            long skipped = 0;
+            while (skipped < bodyOffset) {
+                long count = stream.skip(bodyOffset - skipped);
+                if (count <= 0) {
+                    stream.close();
+                    throw new IOException("Truncated cache entry " + path);
+                }
+                skipped += count;
+            }
+            return stream;
+        }
+
+        public long getBodyLength() {
+            return bodyLength;
+        }
+    }
+
+    /**
+     * Looks up the entry of a request, without counting a hit or miss.
+     *
+     * @param key Identifies the request
+     * @return the entry, or an empty Optional if there is none or it cannot be read
+     */
+    public Optional<Entry> get(String key) {
+        Path path = getPath(key);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC || !key.equals(in.readUTF())) {
+                return Optional.empty();
+            }
+            String eTag = in.readUTF();
+            Optional<String> link = in.readBoolean() ? Optional.of(in.readUTF()) : Optional.empty();
+            long bodyOffset = in.readLong();
+            long bodyLength = Files.size(path) - bodyOffset;
+            return bodyLength < 0
+                    ? Optional.empty()
+                    : Optional.of(new Entry(eTag, link, path, bodyOffset, bodyLength));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            HTLog.error(logger, e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Caches a response while it is read. The entry replaces the previous one for {@code key} when the returned
+     * stream is closed, after reading whatever part of the body was left unread.
+     *
+     * @param key  Identifies the request
+     * @param eTag The ETag of the response
+     * @param link The Link header of the response, if any
+     * @param body The body of the response
+     * @return a stream of the body, which must be closed for the entry to be written
+     */
+    public InputStream put(String key, String eTag, Optional<String> link, InputStream body) {
+        Path tempPath = getPath(key).resolveSibling(getFileName(key) + "." + Thread.currentThread().getId()
+                                                            + TEMP_EXTENSION);
+        try {
+            Files.createDirectories(directory);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempPath)));
+            out.writeInt(MAGIC);
+            out.writeUTF(key);
+            out.writeUTF(eTag);
+            out.writeBoolean(link.isPresent());
+            if (link.isPresent()) {
+                out.writeUTF(link.get());
+            }
+            // The offset of the body, which follows it
+            out.writeLong(out.size() + Long.BYTES);
+            return new CachingInputStream(body, out, tempPath, getPath(key), this::onEntryWritten);
+        } catch (IOException e) {
+            HTLog.error(logger, e);
+            return body;
+        }
+    }
+
+    public void recordHit(Entry entry) {
+        hitCount.incrementAndGet();
+        bytesSaved.addAndGet(entry.getBodyLength());
+        try {
+            // Marks the entry as recently used
+            Files.setLastModifiedTime(entry.path, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (NoSuchFileException e) {
+            // Evicted in the meantime
+        } catch (IOException e) {
+            HTLog.error(logger, e);
+        }
+    }
+
+    public void recordMiss() {
+        missCount.incrementAndGet();
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * @return the number of bytes of response bodies served from the cache instead of being transferred
+     */
+    public long getBytesSaved() {
+        return bytesSaved.get();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    public String summarise() {
+        return String.format("%d hit(s), %d miss(es), %d byte(s) saved, %d eviction(s)",
+                             getHitCount(), getMissCount(), getBytesSaved(), getEvictionCount());
+    }
+
+    /**
+     * Accounts for an entry which has been written, evicting the least recently used entries if the entries
+     * take more than the limit.
+     *
+     * @param addedBytes The size of the entry less that of the entry it replaced, if any
+     */
+    private synchronized void onEntryWritten(long addedBytes) {
+        if (size < 0) {
+            size = listEntries().stream().mapToLong(entry -> entry.getRight()).sum();
+        } else {
+            size += addedBytes;
+        }
+        if (size > maxBytes) {
+            evict();
+        }
+    }
+
+    /**
+     * Deletes the least recently used entries until the rest are within the limit.
+     */
+    private void evict() {
+        List<ImmutablePair<Path, Long>> entries = listEntries();
+        size = entries.stream().mapToLong(entry -> entry.getRight()).sum();
+        entries.sort(Comparator.comparing(entry -> getLastModifiedTime(entry.getLeft())));
+        for (ImmutablePair<Path, Long> entry : entries) {
+            if (size <= maxBytes) {
+                break;
+            }
+            try {
+                Files.deleteIfExists(entry.getLeft());
+                size -= entry.getRight();
+                evictionCount.incrementAndGet();
+            } catch (IOException e) {
+                HTLog.error(logger, e);
+            }
+        }
+    }
+
+    /**
+     * @return the paths and sizes of the entries on disk, without those which cannot be read
+     */
+    private List<ImmutablePair<Path, Long>> listEntries() {
+        List<ImmutablePair<Path, Long>> entries = new ArrayList<>();
+        try (DirectoryStream<Path> paths = Files.newDirectoryStream(directory, "*" + ENTRY_EXTENSION)) {
+            for (Path path : paths) {
+                try {
+                    entries.add(new ImmutablePair<>(path, Files.size(path)));
+                } catch (IOException e) {
+                    // Deleted in the meantime
+                }
+            }
+        } catch (IOException e) {
+            HTLog.error(logger, e);
+        }
+        return entries;
+    }
+
+    private static FileTime getLastModifiedTime(Path path) {
+        try {
+            return Files.getLastModifiedTime(path);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private Path getPath(String key) {
+        return directory.resolve(getFileName(key) + ENTRY_EXTENSION);
+    }
+
+    private static String getFileName(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(key.getBytes(StandardCharsets.UTF_8));
+            StringBuilder name = new StringBuilder();
+            for (byte b : digest) {
+                name.append(String.format("%02x", b));
+            }
+            return name.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform supports SHA-1
+            throw new AssertionError(e);
+        }
+    }
+
+    /**
+     * Copies the body to the temporary file of an entry as it is read, and moves the file in place of the entry
+     * once the body has been read to its end.
+     */
+    private static final class CachingInputStream extends FilterInputStream {
+        private final OutputStream out;
+        private final Path tempPath;
+        private final Path path;
+        private final LongConsumer onWritten;
+        private boolean isWriting = true;
+        private boolean isClosed = false;
+
+        private CachingInputStream(InputStream body, OutputStream out, Path tempPath, Path path,
+                                   LongConsumer onWritten) {
+            super(body);
+            this.out = out;
+            this.tempPath = tempPath;
+            this.path = path;
+            this.onWritten = onWritten;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int count = super.read(buffer, offset, length);
+            if (count > 0) {
+                write(buffer, offset, count);
+            }
+            return count;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            // Skipped bytes would be missing from the entry
+            byte[] buffer = new byte[(int) Math.min(n, 8192)];
+            int count = read(buffer, 0, buffer.length);
+            return Math.max(count, 0);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (isClosed) {
+                return;
+            }
+            isClosed = true;
+            try {
+                // Reading the rest of the body completes the entry, and lets the connection be reused
+                byte[] buffer = new byte[8192];
+                while (read(buffer, 0, buffer.length) >= 0) {
+                    // Only written to the entry
+                }
+            } catch (IOException e) {
+                discard();
+                super.close();
+                throw e;
+            }
+            commit();
+            super.close();
+        }
+
+        private void write(byte[] buffer, int offset, int length) {
+            if (!isWriting) {
+                return;
+            }
+            try {
+                out.write(buffer, offset, length);
+            } catch (IOException e) {
+                HTLog.error(logger, e);
+                discard();
+            }
+        }
+
+        private void commit() {
+            if (!isWriting) {
+                return;
+            }
+            try {
+                out.close();
+                long replacedBytes = Files.exists(path) ? Files.size(path) : 0;
+                long addedBytes = Files.size(tempPath) - replacedBytes;
+                Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                isWriting = false;
+                onWritten.accept(addedBytes);
+            } catch (IOException e) {
+                HTLog.error(logger, e);
+                discard();
+            }
+        }
+
+        private void discard() {
+            isWriting = false;
+            try {
+                out.close();
+                Files.deleteIfExists(tempPath);
+            } catch (IOException e) {
+                HTLog.error(logger, e);
+            }
+        }
+    }
+}
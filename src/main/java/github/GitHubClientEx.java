@@ -1,6 +1,8 @@
 package github;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
 import com.google.gson.reflect.TypeToken;
 import org.apache.commons.io.input.NullInputStream;
 import org.apache.commons.lang3.tuple.ImmutablePair;
@@ -8,26 +10,50 @@ import org.apache.logging.log4j.Logger;
 import org.eclipse.egit.github.core.client.GitHubClient;
 import org.eclipse.egit.github.core.client.GitHubRequest;
 import org.eclipse.egit.github.core.client.GitHubResponse;
+import org.eclipse.egit.github.core.client.NoSuchPageException;
+import org.eclipse.egit.github.core.client.PageIterator;
+import org.eclipse.egit.github.core.client.PagedRequest;
 import util.HTLog;
 import util.IOUtilities;
 import util.Utility;
 
+import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.lang.reflect.Type;
 import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+import static org.eclipse.egit.github.core.client.IGitHubConstants.HEADER_LINK;
 
 public class GitHubClientEx extends GitHubClient {
     private static final Logger logger = HTLog.get(GitHubClientEx.class);
 
     protected static final int CONNECTION_TIMEOUT = 30000;
 
+    // The most requests to have in flight at once for a single task, such as downloading the pages of a resource
+    // or the metadata of a repository. Kept low as GitHub discourages concurrent requests from the same user.
+    public static final int MAX_CONCURRENT_REQUESTS = 4;
+
     // Request method for HEAD API call
     protected static final String METHOD_HEAD = "HEAD";
 
+    private static final String HEADER_ETAG = "ETag";
+    private static final String HEADER_IF_NONE_MATCH = "If-None-Match";
+
+    private HttpTransport transport = new DefaultHttpTransport();
+    private Optional<DiskResponseCache> responseCache = Optional.empty();
+
     public GitHubClientEx() {
         super();
     }
@@ -36,17 +62,44 @@ public class GitHubClientEx extends GitHubClient {
         super(hostname, port, scheme);
     }
 
+    public GitHubClientEx setTransport(HttpTransport transport) {
+        this.transport = transport;
+        return this;
+    }
+
+    /**
+     * Sets the cache which GET requests made through {@link #get(GitHubRequest)} and
+     * {@link #getStreamed(GitHubRequest, Class, Function)} are answered from when their responses are unchanged.
+     */
+    public GitHubClientEx setResponseCache(DiskResponseCache responseCache) {
+        this.responseCache = Optional.of(responseCache);
+        return this;
+    }
+
+    public Optional<DiskResponseCache> getResponseCache() {
+        return responseCache;
+    }
+
     /**
-     * Extends superclass method with connection timeout parameters.
+     * Extends superclass method to open connections through the transport, with connection timeout parameters.
      */
     @Override
     protected HttpURLConnection createConnection(String uri) throws IOException {
-        HttpURLConnection connection = super.createConnection(uri);
+        HttpURLConnection connection = transport.open(new URL(createUri(uri)));
         connection.setConnectTimeout(CONNECTION_TIMEOUT);
         connection.setReadTimeout(CONNECTION_TIMEOUT);
         return connection;
     }
 
+    /**
+     * Extends superclass method to answer requests from the response cache, if any, when their responses are
+     * unchanged.
+     */
+    @Override
+    public GitHubResponse get(GitHubRequest request) throws IOException {
+        return getCached(request, stream -> getBody(request, stream));
+    }
+
     /**
      * Creates a HEAD request connection to the URI
      *
@@ -133,6 +186,221 @@ public class GitHubClientEx extends GitHubClient {
         }
     }
 
+    /**
+     * Serves the same purpose as GitHubClient::get, sending {@code currentETag} in an If-None-Match header if
+     * it is not empty, so that the request is answered with 304 Not Modified, without counting towards the API
+     * limit, if the resource is unchanged.
+     *
+     * @param request
+     * @param currentETag The ETag of the resource when it was last retrieved, or an empty string
+     * @return a pair of the HTTP connection and the response, which has no body if the resource is unchanged
+     * @throws IOException
+     */
+    public ImmutablePair<HttpURLConnection, GitHubResponse> getIfNoneMatch(GitHubRequest request,
+                                                                           String currentETag) throws IOException {
+        HttpURLConnection httpRequest = createGet(request.generateUri());
+        if (!currentETag.isEmpty()) {
+            httpRequest.setRequestProperty("If-None-Match", "\"" + currentETag + "\"");
+        }
+        String accept = request.getResponseContentType();
+        if (accept != null) {
+            httpRequest.setRequestProperty(HEADER_ACCEPT, accept);
+        }
+        final int code = httpRequest.getResponseCode();
+        updateRateLimits(httpRequest);
+
+        if (isOk(code)) {
+            return new ImmutablePair<>(httpRequest,
+                                       new GitHubResponse(httpRequest, getBody(request, getStream(httpRequest))));
+        } else if (isNotModified(code) || isEmpty(code)) {
+            return new ImmutablePair<>(httpRequest, new GitHubResponse(httpRequest, null));
+        }
+        throw createException(getStream(httpRequest), code, httpRequest.getResponseMessage());
+    }
+
+    /**
+     * Serves the same purpose as GitHubClient::get for requests of JSON arrays, but reads the array from the
+     * response one element at a time and converts each element as soon as it is parsed, so that elements are
+     * never all held in their parsed form at once.
+     *
+     * @param request
+     * @param elementType The type each element of the array is parsed as
+     * @param converter   Converts each parsed element
+     * @return the response, whose body is the list of converted elements
+     * @throws IOException
+     */
+    public <E, V> GitHubResponse getStreamed(GitHubRequest request, Class<E> elementType,
+                                             Function<E, V> converter) throws IOException {
+        return getCached(request, stream -> readArray(stream, elementType, converter));
+    }
+
+    /**
+     * Reads the body of a response into the body of a GitHubResponse.
+     */
+    @FunctionalInterface
+    private interface BodyReader {
+        Object read(InputStream stream) throws IOException;
+    }
+
+    /**
+     * Serves the same purpose as GitHubClient::get, sending the ETag of the cached response to the request,
+     * if any, so that the cached response is used if the request is answered with 304 Not Modified.
+     */
+    private GitHubResponse getCached(GitHubRequest request, BodyReader bodyReader) throws IOException {
+        return getCached(request, bodyReader, true);
+    }
+
+    /**
+     * @param isConditional false if the request is to be sent without the ETag of the cached response, as when
+     *                      the cached body could not be read
+     */
+    private GitHubResponse getCached(GitHubRequest request, BodyReader bodyReader, boolean isConditional)
+            throws IOException {
+        HttpURLConnection httpRequest = createGet(request.generateUri());
+        String accept = request.getResponseContentType();
+        if (accept != null) {
+            httpRequest.setRequestProperty(HEADER_ACCEPT, accept);
+        }
+        // Responses depend on the user, as repositories may be private, and on the accepted content type
+        String cacheKey = String.join(" ", String.valueOf(getUser()), httpRequest.getURL().toString(),
+                                      String.valueOf(accept));
+        Optional<DiskResponseCache.Entry> cached = isConditional
+                ? responseCache.flatMap(cache -> cache.get(cacheKey))
+                : Optional.empty();
+        if (cached.isPresent()) {
+            httpRequest.setRequestProperty(HEADER_IF_NONE_MATCH, cached.get().eTag);
+        }
+        final int code = httpRequest.getResponseCode();
+        updateRateLimits(httpRequest);
+
+        if (isOk(code)) {
+            InputStream stream = getStream(httpRequest);
+            String eTag = httpRequest.getHeaderField(HEADER_ETAG);
+            if (responseCache.isPresent()) {
+                responseCache.get().recordMiss();
+                if (eTag != null) {
+                    stream = responseCache.get().put(cacheKey, eTag,
+                                                     Optional.ofNullable(httpRequest.getHeaderField(HEADER_LINK)),
+                                                     stream);
+                }
+            }
+            return new GitHubResponse(httpRequest, bodyReader.read(stream));
+        } else if (isNotModified(code) && cached.isPresent()) {
+            InputStream body;
+            try {
+                body = cached.get().openBody();
+            } catch (IOException e) {
+                // The entry was evicted or damaged after it was looked up, so the body has to be downloaded
+                HTLog.error(logger, e);
+                return getCached(request, bodyReader, false);
+            }
+            responseCache.get().recordHit(cached.get());
+            return new CachedGitHubResponse(httpRequest, bodyReader.read(body), cached.get());
+        } else if (isEmpty(code)) {
+            return new GitHubResponse(httpRequest, null);
+        }
+        throw createException(getStream(httpRequest), code, httpRequest.getResponseMessage());
+    }
+
+    /**
+     * A response answered from the cache, whose Link header is the cached one if the 304 response has none.
+     */
+    private static class CachedGitHubResponse extends GitHubResponse {
+        private final DiskResponseCache.Entry entry;
+
+        CachedGitHubResponse(HttpURLConnection response, Object body, DiskResponseCache.Entry entry) {
+            super(response, body);
+            this.entry = entry;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            String header = super.getHeader(name);
+            if (header == null && HEADER_LINK.equals(name)) {
+                return entry.link.orElse(null);
+            }
+            return header;
+        }
+    }
+
+    private <E, V> List<V> readArray(InputStream stream, Class<E> elementType, Function<E, V> converter)
+            throws IOException {
+        List<V> elements = new ArrayList<>();
+        try (JsonReader reader = new JsonReader(new BufferedReader(
+                new InputStreamReader(stream, StandardCharsets.UTF_8)))) {
+            reader.beginArray();
+            while (reader.hasNext()) {
+                E element = gson.fromJson(reader, elementType);
+                elements.add(converter.apply(element));
+            }
+            reader.endArray();
+        } catch (JsonParseException | IllegalStateException e) {
+            throw new IOException("Parse exception converting JSON to object", e);
+        }
+        return elements;
+    }
+
+    /**
+     * Gets all pages of a paged request, sending the ETag of the first page in an If-None-Match header so that
+     * the request is answered with 304 Not Modified, without counting towards the API limit, if the first page
+     * is unchanged.
+     * <p>
+     * Only elements which fit in a single page can be cached against an ETag: later pages may change without
+     * changing the first, so no ETag is returned if there are several pages.
+     *
+     * @param request     The request for the first page
+     * @param currentETag The ETag returned by the previous call for the same request, or an empty string
+     * @return All elements together with the new ETag if the first page changed, or an empty list together with
+     * {@code currentETag} if it did not
+     * @throws IOException
+     */
+    @SuppressWarnings("unchecked")
+    public <V> ImmutablePair<List<V>, String> getAllIfModified(PagedRequest<V> request, String currentETag)
+            throws IOException {
+        ImmutablePair<HttpURLConnection, GitHubResponse> firstPage = getIfNoneMatch(request, currentETag);
+        int code = firstPage.getLeft().getResponseCode();
+        if (isNotModified(code)) {
+            return new ImmutablePair<>(new ArrayList<>(), currentETag);
+        } else if (isEmpty(code)) {
+            return new ImmutablePair<>(new ArrayList<>(), "");
+        }
+
+        String updatedETag = Utility.stripQuotes(firstPage.getRight().getHeader("ETag"));
+        List<V> elements = new ArrayList<>();
+        if (firstPage.getRight().getBody() != null) {
+            elements.addAll((Collection<V>) firstPage.getRight().getBody());
+        }
+        if (firstPage.getRight().getNext() == null) {
+            return new ImmutablePair<>(elements, updatedETag == null ? "" : updatedETag);
+        }
+
+        try {
+            for (Collection<V> page : new PageIterator<>(copyForPage(request, request.getPage() + 1), this)) {
+                elements.addAll(page);
+            }
+        } catch (NoSuchPageException e) {
+            throw e.getCause();
+        }
+        return new ImmutablePair<>(elements, "");
+    }
+
+    /**
+     * Creates a copy of a paged request which requests another page.
+     *
+     * @param request
+     * @param page    The 1-based index of the page to request
+     * @return the request for the page
+     */
+    public static <V> PagedRequest<V> copyForPage(PagedRequest<V> request, int page) {
+        PagedRequest<V> copy = new PagedRequest<>(page, request.getPageSize());
+        copy.setUri(request.getUri());
+        copy.setParams(request.getParams());
+        copy.setType(request.getType());
+        copy.setArrayType(request.getArrayType());
+        copy.setResponseContentType(request.getResponseContentType());
+        return copy;
+    }
+
     /**
      * Accesses the Rate Limit API endpoint to retrieve the number of remaining requests for the hour,
      * as well as the next reset time. Calling this function itself does not count towards the API limit.
@@ -209,12 +477,12 @@ public class GitHubClientEx extends GitHubClient {
     }
 
     /**
-     * Overridden to make public.
+     * Overridden to make public, and to decode responses through the transport.
      */
     @Override
     @SuppressWarnings("PMD")
     public InputStream getStream(HttpURLConnection request) throws IOException {
-        return super.getStream(request);
+        return transport.decode(request, super.getStream(request));
     }
 
     /**
@@ -0,0 +1,32 @@
+package github;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+/**
+ * Opens the connections used by {@link GitHubClientEx} and decodes their responses, so that how requests are
+ * sent over the network can be changed without changing how they are made.
+ */
+public interface HttpTransport {
+
+    /**
+     * Opens a connection to {@code url}, without connecting yet.
+     *
+     * @param url
+     * @return the connection, on which the request method and headers may still be set
+     * @throws IOException
+     */
+    HttpURLConnection open(URL url) throws IOException;
+
+    /**
+     * Decodes the body of a response, as read from the connection it was received on.
+     *
+     * @param connection The connection the response was received on
+     * @param stream     The body as received, or null if there is none
+     * @return the decoded body, or null if there is none
+     * @throws IOException
+     */
+    InputStream decode(HttpURLConnection connection, InputStream stream) throws IOException;
+}
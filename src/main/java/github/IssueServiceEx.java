@@ -5,11 +5,17 @@ import static org.eclipse.egit.github.core.client.IGitHubConstants.*;
 import java.io.IOException;
 import java.net.HttpURLConnection;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
+import com.google.gson.reflect.TypeToken;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.eclipse.egit.github.core.Comment;
 import org.eclipse.egit.github.core.IRepositoryIdProvider;
 import org.eclipse.egit.github.core.Issue;
 import org.eclipse.egit.github.core.IssueEvent;
 import org.eclipse.egit.github.core.client.GitHubRequest;
+import org.eclipse.egit.github.core.client.PagedRequest;
 import org.eclipse.egit.github.core.service.IssueService;
 
 public class IssueServiceEx extends IssueService {
@@ -49,6 +55,20 @@ public class IssueServiceEx extends IssueService {
         return ghClient.sendJson(connection, data, Issue.class);
     }
 
+    /**
+     * Changes the given fields of an issue in one request, leaving the others unchanged.
+     *
+     * @param repository The repository of the issue
+     * @param issueId    The numeric ID of the issue
+     * @param fields     The new values of the fields to change, by field name
+     * @return the issue as changed
+     * @throws IOException
+     */
+    public Issue editIssueFields(IRepositoryIdProvider repository, int issueId, Map<String, Object> fields)
+            throws IOException {
+        return ghClient.sendJson(createIssuePostConnection(repository, issueId), fields, Issue.class);
+    }
+
     /**
      * Retrieves a list of issue events together with the new ETag if the events are updated,
      * and an empty list with the current ETag if there are no new events.
@@ -70,4 +90,42 @@ public class IssueServiceEx extends IssueService {
         request.setType(IssueEvent[].class);
         return ghClient.getEvent(request, eTag);
     }
+
+    /**
+     * Retrieves all comments of an issue together with the new ETag if the comments are updated,
+     * and an empty list with the current ETag if they are not.
+     * See {@link GitHubClientEx#getAllIfModified(PagedRequest, String)}.
+     *
+     * @param repository The repository from which to retrieve the issue
+     * @param issueId    The numeric ID of the issue
+     * @param eTag       The ETag returned when the comments were last retrieved, or an empty string
+     * @return list of comments and the new ETag
+     * @throws IOException
+     */
+    public ImmutablePair<List<Comment>, String> getComments(IRepositoryIdProvider repository, int issueId,
+                                                           String eTag) throws IOException {
+        PagedRequest<Comment> request = createPagedRequest();
+        StringBuilder uri = new StringBuilder(SEGMENT_REPOS);
+        uri.append('/').append(repository.generateId())
+                .append(SEGMENT_ISSUES).append('/').append(issueId)
+                .append(SEGMENT_COMMENTS);
+        request.setUri(uri);
+        request.setType(new TypeToken<List<Comment>>() {
+        }.getType());
+        return ghClient.getAllIfModified(request, eTag);
+    }
+
+    /**
+     * Creates the request for the first page of issues of a repository, to be downloaded with
+     * {@link ParallelPageDownloader}.
+     *
+     * @param repository The repository from which to retrieve the issues
+     * @param filterData The filters to apply, as for {@link #pageIssues(IRepositoryIdProvider, Map)}
+     * @return the request for the first page
+     */
+    public PagedRequest<Issue> createIssuesRequest(IRepositoryIdProvider repository,
+                                                   Map<String, String> filterData) {
+        return createIssuesRequest(repository.generateId(), filterData, PagedRequest.PAGE_FIRST,
+                                   PagedRequest.PAGE_SIZE);
+    }
 }
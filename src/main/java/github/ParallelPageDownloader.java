@@ -0,0 +1,326 @@
+package github;
+
+import org.apache.logging.log4j.Logger;
+import org.eclipse.egit.github.core.client.GitHubRequest;
+import org.eclipse.egit.github.core.client.GitHubResponse;
+import org.eclipse.egit.github.core.client.PagedRequest;
+import org.eclipse.egit.github.core.client.RequestException;
+import util.HTLog;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Downloads all pages of a paged resource, fetching up to a window of pages concurrently.
+ * <p>
+ * Pages are JSON arrays, whose elements are converted as they are read from each response, so that only the
+ * converted elements are kept. See {@link GitHubClientEx#getStreamed(GitHubRequest, Class, Function)}.
+ * <p>
+ * The first page is fetched alone, as the link to the last page in its response determines the pages left.
+ * The remaining pages are then fetched by up to {@code window} workers, one of them on the calling thread,
+ * and reassembled in order. Resources whose responses do not link to their last page are fetched
+ * sequentially by following the links to the next page.
+ * <p>
+ * Requests rejected by GitHub's secondary rate limits, which guard against too many concurrent requests,
+ * halve the window and are retried after backing off.
+ */
+public class ParallelPageDownloader<E, V> {
+
+    private static final Logger logger = HTLog.get(ParallelPageDownloader.class);
+
+    public static final int DEFAULT_WINDOW = GitHubClientEx.MAX_CONCURRENT_REQUESTS;
+    public static final int MAX_RETRIES = 3;
+    public static final long INITIAL_BACKOFF_MILLIS = 1000;
+
+    private static final int STATUS_FORBIDDEN = 403;
+    private static final int STATUS_TOO_MANY_REQUESTS = 429;
+    private static final Pattern PAGE_PARAM = Pattern.compile("([?&]page=)(\\d+)");
+
+    private final GitHubClientEx client;
+    private final Executor executor;
+    private final Class<E> elementType;
+    private final Function<E, V> converter;
+    private final long initialBackoffMillis;
+
+    // The number of workers allowed to fetch pages, lowered on secondary rate limits
+    private int window;
+
+    public ParallelPageDownloader(GitHubClientEx client, Executor executor, Class<E> elementType,
+                                  Function<E, V> converter) {
+        this(client, executor, elementType, converter, DEFAULT_WINDOW, INITIAL_BACKOFF_MILLIS);
+    }
+
+    /**
+     * @param client
+     * @param executor             Runs the workers other than the one on the calling thread
+     * @param elementType          The type each element of a page is parsed as
+     * @param converter            Converts each parsed element
+     * @param window               The maximum number of pages fetched concurrently
+     * @param initialBackoffMillis The time waited before retrying a request rejected by secondary rate limits,
+     *                             doubled on each retry
+     */
+    public ParallelPageDownloader(GitHubClientEx client, Executor executor, Class<E> elementType,
+                                  Function<E, V> converter, int window, long initialBackoffMillis) {
+        assert window >= 1;
+        this.client = client;
+        this.executor = executor;
+        this.elementType = elementType;
+        this.converter = converter;
+        this.window = window;
+        this.initialBackoffMillis = initialBackoffMillis;
+    }
+
+    /**
+     * Downloads all pages of the resource requested by {@code request}, starting from its page.
+     *
+     * @param request
+     * @param progressHandler Called with the fraction of pages downloaded each time a page is downloaded
+     * @return the converted elements of all pages in order, or of the pages before the first one which could
+     * not be downloaded
+     */
+    public List<V> getAll(PagedRequest<?> request, Consumer<Float> progressHandler) {
+        GitHubResponse firstResponse;
+        try {
+            firstResponse = getWithBackoff(request);
+        } catch (IOException e) {
+            HTLog.error(logger, e);
+            return new ArrayList<>();
+        }
+
+        List<V> result = new ArrayList<>(getItems(firstResponse));
+        int lastPage = firstResponse.getLast() == null ? -1 : getPage(firstResponse.getLast());
+        if (lastPage > request.getPage()) {
+            new Download(request, firstResponse.getLast(), lastPage, progressHandler).run()
+                    .forEach(result::addAll);
+        } else if (firstResponse.getNext() != null) {
+            progressHandler.accept(0f);
+            getRemainingPages(request, firstResponse).forEach(result::addAll);
+        }
+        progressHandler.accept(1f);
+        return result;
+    }
+
+    /**
+     * Fetches the pages after the one in {@code response} one at a time, following the links to the next page.
+     */
+    private List<Collection<V>> getRemainingPages(PagedRequest<?> request, GitHubResponse response) {
+        List<Collection<V>> pages = new ArrayList<>();
+        try {
+            for (int page = request.getPage() + 1; response.getNext() != null; page++) {
+                response = getWithBackoff(createPageRequest(request, response.getNext(), page));
+                pages.add(getItems(response));
+            }
+        } catch (IOException e) {
+            HTLog.error(logger, e);
+        }
+        return pages;
+    }
+
+    /**
+     * The download of the pages after the first one, up to a known last page.
+     */
+    private class Download {
+        private final PagedRequest<?> request;
+        private final String lastPageUri;
+        private final Consumer<Float> progressHandler;
+
+        private final int firstPage;
+        private final int pageCount;
+        // Pages not yet claimed by a worker
+        private final Queue<Integer> pending = new ArrayDeque<>();
+        // Downloaded pages by their offset from the first page, null until downloaded
+        private final List<Collection<V>> pages;
+        private int inFlightCount = 0;
+        private int downloadedCount = 0;
+        private boolean hasFailed = false;
+
+        private Download(PagedRequest<?> request, String lastPageUri, int lastPage,
+                         Consumer<Float> progressHandler) {
+            this.request = request;
+            this.lastPageUri = lastPageUri;
+            this.progressHandler = progressHandler;
+            firstPage = request.getPage() + 1;
+            pageCount = lastPage - request.getPage();
+            pages = new ArrayList<>(Collections.nCopies(pageCount, null));
+            for (int page = firstPage; page <= lastPage; page++) {
+                pending.add(page);
+            }
+        }
+
+        /**
+         * @return the downloaded pages in order, up to the first one which could not be downloaded
+         */
+        private List<Collection<V>> run() {
+            progressHandler.accept(1f / (pageCount + 1));
+            int workerCount = Math.min(getWindow(), pageCount);
+            for (int i = 1; i < workerCount; i++) {
+                int workerIndex = i;
+                executor.execute(() -> runWorker(workerIndex));
+            }
+            runWorker(0);
+
+            // Workers which have not started yet are not waited for, as the queue is already drained
+            synchronized (this) {
+                while (inFlightCount > 0) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        hasFailed = true;
+                        break;
+                    }
+                }
+                List<Collection<V>> result = new ArrayList<>();
+                for (Collection<V> page : pages) {
+                    if (page == null) {
+                        break;
+                    }
+                    result.add(page);
+                }
+                return result;
+            }
+        }
+
+        private void runWorker(int workerIndex) {
+            Integer page;
+            while ((page = claim(workerIndex)) != null) {
+                Collection<V> items = null;
+                try {
+                    items = getItems(getWithBackoff(createPageRequest(request, lastPageUri, page)));
+                } catch (IOException | RuntimeException e) {
+                    HTLog.error(logger, e);
+                }
+                complete(page, items);
+            }
+        }
+
+        /**
+         * @return the next page for the worker to download, or null if the worker should stop
+         */
+        private synchronized Integer claim(int workerIndex) {
+            // The first worker keeps going even when the window shrinks, so that every page is downloaded
+            if (hasFailed || pending.isEmpty() || workerIndex >= getWindow()) {
+                return null;
+            }
+            inFlightCount++;
+            return pending.poll();
+        }
+
+        /**
+         * Records a downloaded page, or a failure if {@code items} is null. Progress is reported while holding
+         * the lock, so that it never goes backwards.
+         */
+        private synchronized void complete(int page, Collection<V> items) {
+            inFlightCount--;
+            notifyAll();
+            if (items == null) {
+                hasFailed = true;
+                return;
+            }
+            pages.set(page - firstPage, items);
+            downloadedCount++;
+            // The first page counts as downloaded
+            progressHandler.accept((float) (downloadedCount + 1) / (pageCount + 1));
+        }
+    }
+
+    private synchronized int getWindow() {
+        return window;
+    }
+
+    private synchronized void shrinkWindow() {
+        window = Math.max(1, window / 2);
+    }
+
+    /**
+     * Requests a page, retrying with exponential backoff if the request is rejected by secondary rate limits.
+     */
+    private GitHubResponse getWithBackoff(PagedRequest<?> request) throws IOException {
+        long backoffMillis = initialBackoffMillis;
+        for (int attempt = 0; ; attempt++) {
+            try {
+                return client.getStreamed(request, elementType, converter);
+            } catch (RequestException e) {
+                if (attempt >= MAX_RETRIES || !isSecondaryRateLimit(e)) {
+                    throw e;
+                }
+                shrinkWindow();
+                logger.warn(String.format("Secondary rate limit hit for %s, retrying in %d ms with up to %d "
+                                                  + "concurrent request(s)",
+                                          request.generateUri(), backoffMillis, getWindow()));
+                try {
+                    Thread.sleep(backoffMillis);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+                backoffMillis *= 2;
+            }
+        }
+    }
+
+    /**
+     * Secondary rate limits are reported as 403 responses explaining the limit, unlike primary rate limits
+     * and missing permissions, or as 429 responses.
+     */
+    private static boolean isSecondaryRateLimit(RequestException e) {
+        if (e.getStatus() == STATUS_TOO_MANY_REQUESTS) {
+            return true;
+        }
+        String message = e.getError() == null ? null : e.getError().getMessage();
+        return e.getStatus() == STATUS_FORBIDDEN && message != null
+                && (message.toLowerCase().contains("secondary rate limit") || message.toLowerCase().contains("abuse"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Collection<V> getItems(GitHubResponse response) {
+        return response.getBody() == null ? new ArrayList<>() : (Collection<V>) response.getBody();
+    }
+
+    /**
+     * Creates a request for a page of the same resource as {@code request}, from the link to another page
+     * of the resource.
+     *
+     * @param request
+     * @param pageLink The absolute URL of another page, as found in Link headers
+     * @param page     The 1-based index of the page to request
+     */
+    private static <T> PagedRequest<T> createPageRequest(PagedRequest<T> request, String pageLink, int page)
+            throws IOException {
+        PagedRequest<T> pageRequest = new PagedRequest<>(page, request.getPageSize());
+        Matcher matcher = PAGE_PARAM.matcher(getFile(pageLink));
+        pageRequest.setUri(matcher.replaceFirst("$1" + page));
+        pageRequest.setType(request.getType());
+        pageRequest.setArrayType(request.getArrayType());
+        pageRequest.setResponseContentType(request.getResponseContentType());
+        return pageRequest;
+    }
+
+    /**
+     * @return the page in a link to a page, or -1 if it has none
+     */
+    private static int getPage(String pageLink) {
+        Matcher matcher = PAGE_PARAM.matcher(pageLink);
+        return matcher.find() ? Integer.parseInt(matcher.group(2)) : -1;
+    }
+
+    private static String getFile(String pageLink) throws IOException {
+        try {
+            return new URL(pageLink).getFile();
+        } catch (MalformedURLException e) {
+            throw new IOException("Invalid page link " + pageLink, e);
+        }
+    }
+}
@@ -5,7 +5,7 @@ import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.eclipse.egit.github.core.IRepositoryIdProvider;
-import org.eclipse.egit.github.core.client.GitHubRequest;
+import org.eclipse.egit.github.core.client.GitHubResponse;
 import org.eclipse.egit.github.core.client.NoSuchPageException;
 import org.eclipse.egit.github.core.client.PageIterator;
 import org.eclipse.egit.github.core.client.PagedRequest;
@@ -14,12 +14,16 @@ import util.Utility;
 
 import java.io.IOException;
 import java.net.HttpURLConnection;
+import java.net.URL;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
 import static org.eclipse.egit.github.core.client.IGitHubConstants.CONTENT_TYPE_JSON;
+import static org.eclipse.egit.github.core.client.IGitHubConstants.HEADER_LINK;
 import static org.eclipse.egit.github.core.client.IGitHubConstants.SEGMENT_REPOS;
 
 /**
@@ -76,11 +80,17 @@ public class UpdateService<T> extends GitHubService {
     }
 
     /**
-     * Retrieves the requested items from GitHub
+     * Retrieves the requested items from GitHub.
+     * <p>
+     * Pages are requested with the ETags they had at the last update in an If-None-Match header, so that
+     * unchanged pages are answered with 304 Not Modified, costing neither their bodies nor API quota. If all
+     * pages are unchanged, there are no updated items. Otherwise all items are returned, and only the bodies of
+     * pages which were not modified are requested again.
      *
      * @param repoId the repository to get the items from
      * @return a list of requested items
      */
+    @SuppressWarnings("unchecked")
     public ArrayList<T> getUpdatedItems(IRepositoryIdProvider repoId) {
         // Return cached results if available
         if (updatedItems != null) {
@@ -92,20 +102,61 @@ public class UpdateService<T> extends GitHubService {
 
         logger.info(String.format("Updating %s with ETag %s", resourceDesc, lastETags));
         try {
-            PagedRequest<T> headerRequest = createUpdatedRequest(repoId);
-            Optional<ImmutablePair<List<String>, HttpURLConnection>> etags = getPagedEtags(headerRequest, client);
+            List<String> lastPageETags = splitETags(lastETags);
+            List<String> pageETags = new ArrayList<>();
+            // Requests for each page, and their bodies, empty for pages which were not modified
+            List<PagedRequest<T>> pageRequests = new ArrayList<>();
+            List<Optional<Collection<T>>> pages = new ArrayList<>();
+            boolean isChanged = false;
 
-            if (!etags.isPresent()) {
-                /* Respond as if we succeeded and there were no updates.
-                   The assumption is that updates are cheap and we can do them as frequently as needed. */
-                logger.warn(String.format("%s: error getting updated items", getClass().getSimpleName()));
+            Optional<PagedRequest<T>> pageRequest = Optional.of(createUpdatedRequest(repoId));
+            for (int index = 0; pageRequest.isPresent(); index++) {
+                String lastPageETag = index < lastPageETags.size() ? lastPageETags.get(index) : "";
+                ImmutablePair<HttpURLConnection, GitHubResponse> page =
+                        client.getIfNoneMatch(pageRequest.get(), lastPageETag);
+                if (index == 0) {
+                    updateCheckTime(page.getLeft());
+                }
+                pageRequests.add(pageRequest.get());
+
+                if (client.isNotModified(page.getLeft().getResponseCode())) {
+                    pageETags.add(lastPageETag);
+                    pages.add(Optional.empty());
+                    // Responses without bodies may leave out links to further pages
+                    boolean hasNext = page.getRight().getHeader(HEADER_LINK) == null
+                            ? index + 1 < lastPageETags.size()
+                            : page.getRight().getNext() != null;
+                    pageRequest = hasNext
+                            ? Optional.of(createNextRequest(pageRequest.get(), page.getRight()))
+                            : Optional.empty();
+                } else {
+                    String pageETag = Optional.ofNullable(Utility.stripQuotes(page.getRight().getHeader("ETag")))
+                            .orElse("");
+                    isChanged = isChanged || pageETag.isEmpty() || !pageETag.equals(lastPageETag);
+                    pageETags.add(pageETag);
+                    pages.add(Optional.of(page.getRight().getBody() == null
+                                                  ? new ArrayList<>()
+                                                  : (Collection<T>) page.getRight().getBody()));
+                    pageRequest = page.getRight().getNext() == null
+                            ? Optional.empty()
+                            : Optional.of(createNextRequest(pageRequest.get(), page.getRight()));
+                }
+            }
+            // Pages which disappeared count as changes too
+            isChanged = isChanged || pages.size() != lastPageETags.size();
+
+            updatedETags = combineETags(pageETags);
+            if (isChanged) {
+                result = downloadUpdatedItems(resourceDesc, pageRequests, pages);
+                logger.info(String.format("New ETag for %s: %s", resourceDesc, updatedETags.get()));
             } else {
-                updatedETags = combineETags(etags.get().getLeft());
-                result = downloadUpdatedItems(repoId, resourceDesc, updatedETags);
-                updateCheckTime(etags.get().getRight());
+                logger.info("Nothing to update");
             }
         } catch (IOException e) {
+            /* Respond as if we succeeded and there were no updates.
+               The assumption is that updates are cheap and we can do them as frequently as needed. */
             logger.error(e.getLocalizedMessage(), e);
+            updatedETags = Optional.empty();
             return result;
         }
 
@@ -113,19 +164,37 @@ public class UpdateService<T> extends GitHubService {
         return result;
     }
 
-    private ArrayList<T> downloadUpdatedItems(IRepositoryIdProvider repoId,
-                                              String resourceDesc,
-                                              Optional<String> updatedETags) throws IOException {
-        ArrayList<T> result = new ArrayList<>();
-
-        if (!updatedETags.isPresent() || updatedETags.get().equals(lastETags)) {
-            logger.info("Nothing to update");
-        } else {
-            PagedRequest<T> request = createUpdatedRequest(repoId);
-            result = new ArrayList<>(getPagedItems(resourceDesc, new PageIterator<>(request, client)));
-            logger.info(String.format("New ETag for %s: %s", resourceDesc, updatedETags));
+    /**
+     * Creates the request for the page after the one requested by {@code request}, following the link to the
+     * next page in its response if there is one, as PageIterator does.
+     */
+    private PagedRequest<T> createNextRequest(PagedRequest<T> request, GitHubResponse response) throws IOException {
+        PagedRequest<T> next = GitHubClientEx.copyForPage(request, request.getPage() + 1);
+        if (response.getNext() != null) {
+            next.setUri(new URL(response.getNext()).getFile());
         }
+        return next;
+    }
 
+    /**
+     * Combines the bodies of pages into the list of updated items, requesting again the pages which were
+     * not modified.
+     */
+    @SuppressWarnings("unchecked")
+    private ArrayList<T> downloadUpdatedItems(String resourceDesc, List<PagedRequest<T>> pageRequests,
+                                              List<Optional<Collection<T>>> pages) throws IOException {
+        ArrayList<T> result = new ArrayList<>();
+        for (int index = 0; index < pages.size(); index++) {
+            Collection<T> items;
+            if (pages.get(index).isPresent()) {
+                items = pages.get(index).get();
+            } else {
+                Object body = client.get(pageRequests.get(index)).getBody();
+                items = body == null ? new ArrayList<>() : (Collection<T>) body;
+            }
+            result.addAll(items);
+            logger.info(resourceDesc + " | page " + index + ": " + items.size() + " items");
+        }
         return result;
     }
 
@@ -140,35 +209,16 @@ public class UpdateService<T> extends GitHubService {
     }
 
     /**
-     * Gets a list of ETags for all pages returned from an API request and
-     * also return the connection used to get the ETags so that their last check time
-     * can be recorded elsewhere
+     * Splits ETags combined by {@link #combineETags(List)} into the ETags of each page
      *
-     * @param request
-     * @param client
-     * @return a Optional list of ETags for all pages returned from an API request and
-     * corresponding HTTP connection or an empty Optional if an error occurs
+     * @param etags
+     * @return list of ETags, empty if there are none
      */
-    private Optional<ImmutablePair<List<String>, HttpURLConnection>> getPagedEtags(
-            GitHubRequest request, GitHubClientEx client) {
-
-        PageHeaderIterator iter = new PageHeaderIterator(request, client, "ETag");
-        List<String> etags = new ArrayList<>();
-        HttpURLConnection connection = null;
-
-        while (iter.hasNext()) {
-            try {
-                etags.add(Utility.stripQuotes(iter.next()));
-                if (connection == null) {
-                    connection = iter.getLastConnection();
-                }
-            } catch (NoSuchPageException e) {
-                logger.error("No such page exception at " + iter.getRequest().generateUri());
-                return Optional.empty();
-            }
+    private static List<String> splitETags(String etags) {
+        if (etags == null || etags.isEmpty()) {
+            return new ArrayList<>();
         }
-
-        return Optional.of(new ImmutablePair<>(etags, connection));
+        return Arrays.asList(etags.split("#", -1));
     }
 
     /**
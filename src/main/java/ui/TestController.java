@@ -2,7 +2,6 @@ package ui;
 
 import backend.RepoIO;
 import backend.interfaces.RepoStore;
-import backend.json.JSONStore;
 import backend.json.JSONStoreStub;
 import backend.stub.DummySource;
 import javafx.application.Application;
@@ -154,11 +153,11 @@ public final class TestController {
 
     /**
      * Creates a partially stubbed RepoIO used for testing.
-     * @param jsonStoreToBeUsed store to be used with RepoIO,
-     *                          defaults to a new instance of JSONStore if this value is empty
+     * @param repoStoreToBeUsed store to be used with RepoIO,
+     *                          defaults to a new instance of JournaledStore if this value is empty
      */
-    public static RepoIO createTestingRepoIO(Optional<JSONStore> jsonStoreToBeUsed) {
-        return new RepoIO(Optional.of(new DummySource()), jsonStoreToBeUsed,
+    public static RepoIO createTestingRepoIO(Optional<RepoStore> repoStoreToBeUsed) {
+        return new RepoIO(Optional.of(new DummySource()), repoStoreToBeUsed,
                           Optional.of(RepoStore.TEST_DIRECTORY));
     }
 
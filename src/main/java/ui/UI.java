@@ -48,7 +48,6 @@ import javax.swing.*;
 import java.awt.Rectangle;
 import java.lang.reflect.Method;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
 
 import static ui.components.KeyboardShortcuts.SHOW_ISSUE_PICKER;
 import static ui.components.KeyboardShortcuts.SHOW_REPO_PICKER;
@@ -63,8 +62,6 @@ public class UI extends Application implements EventDispatcher {
     private static HWND mainWindowHandle;
     private final GlobalHotkey globalHotkey = new GlobalHotkey(this);
 
-    private static final int REFRESH_PERIOD = 60;
-
     /**
      * Minimum Java Version Required by HT.
      *
@@ -96,7 +93,6 @@ public class UI extends Application implements EventDispatcher {
     public static StatusUI status;
     public static EventDispatcher events;
     public EventBus eventBus;
-    private TickingTimer refreshTimer;
     public GUIController guiController;
     private NotificationController notificationController;
     public UndoController undoController;
@@ -247,9 +243,7 @@ public class UI extends Application implements EventDispatcher {
         // we can pass them in the form of an array.
         logic = new Logic(uiManager, prefs, Optional.empty(), Optional.empty());
         // TODO clear cache if necessary
-        refreshTimer = new TickingTimer("Refresh Timer", REFRESH_PERIOD,
-                                        status::updateTimeToRefresh, logic::refresh, TimeUnit.SECONDS);
-        refreshTimer.start();
+        logic.getSyncScheduler().start(status::updateTimeToRefresh);
         undoController = new UndoController(notificationController);
     }
 
@@ -355,7 +349,6 @@ public class UI extends Application implements EventDispatcher {
                     if (shouldRefresh) {
                         logger.info("Browser view has changed; refreshing");
                         logic.refresh();
-                        refreshTimer.restart();
                     }
                 }
             });
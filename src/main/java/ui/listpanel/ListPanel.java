@@ -3,12 +3,19 @@ package ui.listpanel;
 import static ui.components.KeyboardShortcuts.*;
 import util.GithubPageElements.PrTab;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import filter.expression.QualifierType;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 import javafx.scene.control.ButtonType;
 import javafx.scene.control.ContextMenu;
 import javafx.scene.control.MenuItem;
@@ -34,6 +41,7 @@ import undo.actions.EditIssueStateAction;
 import util.GithubPageElements;
 import util.HTLog;
 import util.KeyPress;
+import util.ListDiff;
 import util.events.*;
 import backend.resource.TurboIssue;
 import filter.expression.Qualifier;
@@ -54,6 +62,18 @@ public class ListPanel extends FilterPanel {
     private final IssueListView listView;
     private final HashMap<Integer, Integer> issueCommentCounts = new HashMap<>();
     private final HashMap<Integer, Integer> issueNonSelfCommentCounts = new HashMap<>();
+    private HashSet<Integer> issuesWithNewComments = new HashSet<>();
+
+    // The items of the list view, which are brought up to date with the elements list rather than replaced,
+    // so that cells are only updated for issues which changed
+    private final ObservableList<GuiElement> shownElements = FXCollections.observableArrayList();
+    // Cards built for the items shown, which cells reuse as long as they are up to date
+    private final Map<GuiElement, ListPanelCard> cards = new IdentityHashMap<>();
+    private final ListPanelCardModels cardModels = new ListPanelCardModels();
+    private final Set<CompletableFuture<ListPanelCardModel>> awaitedCardModels =
+            Collections.newSetFromMap(new IdentityHashMap<>());
+    private int eventHours = ListPanelCardModel.NO_EVENTS;
+    private boolean hasTranslucentCells = false;
 
     Text openIssueText;
     Text closedIssueText;
@@ -168,28 +188,88 @@ public class ListPanel extends FilterPanel {
     /**
      * Refreshes the list of issue cards shown to the user depending on the currently active filter expression
      * in the panel.
+     * <p>
+     * Only the issues which were added, removed, moved or changed since the last refresh are updated in the
+     * list view. Issues which are the same and would be shown the same keep their cards.
      */
     @Override
     public final void refreshItems() {
-        final HashSet<Integer> issuesWithNewComments
-                = updateIssueCommentCounts(Qualifier.hasUpdatedQualifier(getCurrentFilterExpression()));
+        issuesWithNewComments = updateIssueCommentCounts(Qualifier.hasUpdatedQualifier(getCurrentFilterExpression()));
 
-        // Set the cell factory every time - this forces the list view to update
-        listView.setCellFactory(list -> new ListPanelCell(this, panelIndex, issuesWithNewComments));
+        if (hasTranslucentCells) {
+            listView.setCellFactory(list -> new ListPanelCell(this, panelIndex));
+            hasTranslucentCells = false;
+        }
         listView.saveSelection();
 
-        // Supposedly this also causes the list view to update - not sure
-        // if it actually does on platforms other than Linux...
-        listView.setItems(null);
-        listView.setItems(getElementsList());
+        // Cards of cells shown after the refresh are built from models prepared in the meantime
+        eventHours = ListPanelCardModel.getEventHours(getCurrentFilterExpression());
+        cardModels.prepare(getElementsList(), eventHours);
+
+        // Items are kept only if they hold the same issue, which may be modified in place, e.g. when it is
+        // marked as read, and so must be the one the model has
+        ListDiff diff = ListDiff.apply(shownElements, getElementsList(), ListPanel::getIssueKey,
+                                       (shown, updated) -> shown.getIssue() == updated.getIssue()
+                                               && cards.containsKey(shown)
+                                               && cards.get(shown).isUpToDate(
+                                                       updated, issuesWithNewComments,
+                                                       cardModels.getIfReady(updated, eventHours)));
+        Set<GuiElement> shown = Collections.newSetFromMap(new IdentityHashMap<>());
+        shown.addAll(shownElements);
+        cards.keySet().retainAll(shown);
+        logger.debug(String.format("Panel %d refreshed: %s", panelIndex, diff.summarise()));
+
         issuesCount = getElementsList().size();
         closedIssuesCount = getClosedIssuesCount();
         openIssuesCount = issuesCount - closedIssuesCount;
         listView.restoreSelection();
         this.setId(IdGenerator.getPanelId(panelIndex));
         updateFooter();
+    }
+
+    private static String getIssueKey(GuiElement element) {
+        return element.getIssue().getRepoId() + "#" + element.getIssue().getId();
+    }
+
+    /**
+     * @return the card to show {@code guiElement} in, which is the one built for it before if still up to date.
+     * If the model of the card is not ready, the card shows none until it is, and the item is then updated so
+     * that its card is built again.
+     */
+    ListPanelCard getCard(GuiElement guiElement) {
+        CompletableFuture<ListPanelCardModel> future = cardModels.get(guiElement, eventHours);
+        ListPanelCardModel model = future.getNow(ListPanelCardModel.PENDING);
+        if (!future.isDone() && awaitedCardModels.add(future)) {
+            future.whenCompleteAsync((ready, e) -> {
+                awaitedCardModels.remove(future);
+                if (e == null) {
+                    onCardModelReady(guiElement);
+                }
+            }, Platform::runLater);
+        }
 
+        ListPanelCard card = cards.get(guiElement);
+        if (card == null || !card.isUpToDate(guiElement, issuesWithNewComments, Optional.of(model))) {
+            card = new ListPanelCard(guiElement, model, issuesWithNewComments);
+            cards.put(guiElement, card);
+        }
+        return card;
+    }
 
+    /**
+     * Updates the item of {@code guiElement}, if it is still shown, so that its cell gets the card built from
+     * the model which has just been computed.
+     */
+    private void onCardModelReady(GuiElement guiElement) {
+        if (!cards.containsKey(guiElement)) {
+            return;
+        }
+        for (int i = 0; i < shownElements.size(); i++) {
+            if (shownElements.get(i) == guiElement) {
+                shownElements.set(i, guiElement);
+                return;
+            }
+        }
     }
 
     private int getClosedIssuesCount() {
@@ -229,6 +309,8 @@ public class ListPanel extends FilterPanel {
         setupKeyboardShortcuts();
         setupContextMenu();
 
+        listView.setCellFactory(list -> new ListPanelCell(this, panelIndex));
+        listView.setItems(shownElements);
         listView.setOnItemSelected((index, rightKey) -> {
             updateContextMenu(contextMenu);
 
@@ -666,13 +748,13 @@ public class ListPanel extends FilterPanel {
 
     private void setTranslucentCellFactory() {
         if (getElementsList() == null) return;
-        final HashSet<Integer> issuesWithNewComments
-                = updateIssueCommentCounts(Qualifier.hasUpdatedQualifier(getCurrentFilterExpression()));
+        issuesWithNewComments = updateIssueCommentCounts(Qualifier.hasUpdatedQualifier(getCurrentFilterExpression()));
         listView.setCellFactory(list -> {
-            ListPanelCell cell = new ListPanelCell(this, panelIndex, issuesWithNewComments);
+            ListPanelCell cell = new ListPanelCell(this, panelIndex);
             cell.setStyle(cell.getStyle() + "-fx-opacity: 40%;");
             return cell;
         });
+        hasTranslucentCells = true;
     }
 
     private boolean hasReposInFilter() {
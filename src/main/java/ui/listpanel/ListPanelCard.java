@@ -1,11 +1,9 @@
 package ui.listpanel;
 
-import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
@@ -17,16 +15,10 @@ import javafx.scene.layout.FlowPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 
-import org.eclipse.egit.github.core.Comment;
-
 import ui.GuiElement;
-import ui.issuepanel.FilterPanel;
-import util.Utility;
 import backend.resource.TurboIssue;
 import backend.resource.TurboMilestone;
 import backend.resource.TurboUser;
-import filter.expression.FilterExpression;
-import filter.expression.Qualifier;
 import github.TurboIssueEvent;
 
 public class ListPanelCard extends VBox {
@@ -43,26 +35,54 @@ public class ListPanelCard extends VBox {
 
     private final GuiElement guiElement;
     private final FlowPane issueDetails;
-    private final FilterPanel parentPanel;
     private final HashSet<Integer> issuesWithNewComments;
+    private final ListPanelCardModel model;
+    private final List<Object> displayedState;
 
     /**
-     * The constructor is the only method called from ListPanelCard. The rest of the methods in this class
-     * are auxiliary methods called from the constructor so that the code is easier to understand.
+     * The constructor and isUpToDate are the only methods called from outside. The rest of the methods in this
+     * class are auxiliary methods called from the constructor so that the code is easier to understand.
      *
      * @param guiElement
-     * @param parentPanel
+     * @param model What to show of the events and comments of the issue
      * @param issuesWithNewComments
      */
-    public ListPanelCard(GuiElement guiElement, FilterPanel parentPanel,
+    public ListPanelCard(GuiElement guiElement, ListPanelCardModel model,
                          HashSet<Integer> issuesWithNewComments) {
         this.guiElement = guiElement;
-        this.parentPanel = parentPanel;
+        this.model = model;
         this.issueDetails = createDetailsPane();
         this.issuesWithNewComments = issuesWithNewComments;
+        this.displayedState = getDisplayedState(guiElement, issuesWithNewComments);
         setup();
     }
 
+    /**
+     * Tests whether this card still shows what a card for {@code guiElement} would, so that it can be reused
+     * instead.
+     *
+     * @param model The current model of the issue, if it is ready
+     */
+    boolean isUpToDate(GuiElement guiElement, HashSet<Integer> issuesWithNewComments,
+                       Optional<ListPanelCardModel> model) {
+        return model.isPresent() && model.get() == this.model
+                && displayedState.equals(getDisplayedState(guiElement, issuesWithNewComments));
+    }
+
+    /**
+     * @return everything about the issue that a card shows, other than its events and comments
+     */
+    private static List<Object> getDisplayedState(GuiElement guiElement, HashSet<Integer> issuesWithNewComments) {
+        TurboIssue issue = guiElement.getIssue();
+        return Arrays.asList(issue.getId(), issue.getTitle(), issue.isCurrentlyRead(), issue.isOpen(),
+                             issue.isPullRequest(), issue.getCommentCount(),
+                             issuesWithNewComments.contains(issue.getId()),
+                             issue.getMilestone(), guiElement.getMilestone(),
+                             issue.getCreator(), guiElement.getAuthor(),
+                             issue.getAssignee(), guiElement.getAssignee(),
+                             guiElement.getLabels());
+    }
+
     private void setup() {
         TurboIssue issue = guiElement.getIssue();
         Label issueTitle = new Label("#" + issue.getId() + " " + issue.getTitle());
@@ -85,50 +105,19 @@ public class ListPanelCard extends VBox {
 
         getChildren().addAll(issueTitle, issueDetails);
 
-        if (Qualifier.hasUpdatedQualifier(parentPanel.getCurrentFilterExpression())) {
-            getChildren().add(getEventDisplay(issue,
-                                              getUpdateFilterHours(parentPanel.getCurrentFilterExpression())));
+        if (model.showsEvents()) {
+            getChildren().add(layoutEvents(guiElement, model));
         }
     }
 
     /**
-     * Creates a JavaFX node containing a graphical display of this issue's events.
+     * Given the events and comments to show, returns a JavaFX node laying them out properly.
      *
-     * @param withinHours the number of hours to bound the returned events by
-     * @return the node
-     */
-    private Node getEventDisplay(TurboIssue issue, final int withinHours) {
-        final LocalDateTime now = LocalDateTime.now();
-
-        List<TurboIssueEvent> eventsWithinDuration = issue.getMetadata().getEvents().stream()
-                .filter(event -> {
-                    LocalDateTime eventTime = Utility.longToLocalDateTime
-                            (event.getDate().getTime());
-                    int hours = Utility.safeLongToInt(eventTime.until(now, ChronoUnit.HOURS));
-                    return hours < withinHours;
-                })
-                .collect(Collectors.toList());
-
-        List<Comment> commentsWithinDuration = issue.getMetadata().getComments().stream()
-                .filter(comment -> {
-                    LocalDateTime created = Utility.longToLocalDateTime(comment.getCreatedAt().getTime());
-                    int hours = Utility.safeLongToInt(created.until(now, ChronoUnit.HOURS));
-                    return hours < withinHours;
-                })
-                .collect(Collectors.toList());
-
-        return layoutEvents(guiElement, eventsWithinDuration, commentsWithinDuration);
-    }
-
-    /**
-     * Given a list of issue events, returns a JavaFX node laying them out properly.
-     *
-     * @param events
-     * @param comments
+     * @param guiElement
+     * @param model
      * @return
      */
-    private static Node layoutEvents(GuiElement guiElement,
-                                     List<TurboIssueEvent> events, List<Comment> comments) {
+    private static Node layoutEvents(GuiElement guiElement, ListPanelCardModel model) {
         TurboIssue issue = guiElement.getIssue();
 
         VBox result = new VBox();
@@ -136,31 +125,21 @@ public class ListPanelCard extends VBox {
         VBox.setMargin(result, new Insets(3, 0, 0, 0));
 
         // Label update events
-        List<TurboIssueEvent> labelUpdateEvents =
-                events.stream()
-                        .filter(TurboIssueEvent::isLabelUpdateEvent)
-                        .collect(Collectors.toList());
         List<Node> labelUpdateEventNodes =
-                TurboIssueEvent.createLabelUpdateEventNodes(guiElement, labelUpdateEvents);
+                TurboIssueEvent.createLabelUpdateEventNodes(guiElement, model.getLabelUpdateEvents());
         labelUpdateEventNodes.forEach(node -> result.getChildren().add(node));
 
         // Other events beside label updates
-        events.stream()
-                .filter(e -> !e.isLabelUpdateEvent())
+        model.getOtherEvents().stream()
                 .map(e -> e.display(guiElement, issue))
                 .forEach(e -> result.getChildren().add(e));
 
         // Comments
-        if (!comments.isEmpty()) {
-            String names = comments.stream()
-                    .map(comment -> comment.getUser().getLogin())
-                    .distinct()
-                    .collect(Collectors.joining(", "));
+        if (model.getCommentSummary().isPresent()) {
             HBox commentDisplay = new HBox();
             commentDisplay.getChildren().addAll(
                     TurboIssueEvent.octicon(TurboIssueEvent.OCTICON_QUOTE),
-                    new javafx.scene.control.Label(
-                            String.format("%d comments since, involving %s.", comments.size(), names))
+                    new javafx.scene.control.Label(model.getCommentSummary().get())
             );
             result.getChildren().add(commentDisplay);
         }
@@ -168,29 +147,6 @@ public class ListPanelCard extends VBox {
         return result;
     }
 
-    private int getUpdateFilterHours(FilterExpression currentFilterExpression) {
-        List<Qualifier> filters = currentFilterExpression.find(Qualifier::isUpdatedQualifier);
-        assert !filters.isEmpty() : "Problem with isUpdateFilter";
-
-        // Return the first of the updated qualifiers, if there are multiple
-        Qualifier qualifier = filters.get(0);
-
-        if (qualifier.getNumber().isPresent()) {
-            return qualifier.getNumber().get();
-        } else {
-            // TODO support ranges properly. getEventDisplay only supports <
-            assert qualifier.getNumberRange().isPresent();
-            if (qualifier.getNumberRange().get().getStart() != null) {
-                // TODO semantics are not exactly right
-                return qualifier.getNumberRange().get().getStart();
-            } else {
-                assert qualifier.getNumberRange().get().getEnd() != null;
-                // TODO semantics are not exactly right
-                return qualifier.getNumberRange().get().getEnd();
-            }
-        }
-    }
-
     private FlowPane createDetailsPane() {
         FlowPane detailsPane = new FlowPane();
         detailsPane.setMaxWidth(CARD_WIDTH);
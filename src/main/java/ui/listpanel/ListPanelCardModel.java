@@ -0,0 +1,172 @@
+package ui.listpanel;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.eclipse.egit.github.core.Comment;
+
+import backend.IssueMetadata;
+import filter.expression.FilterExpression;
+import filter.expression.Qualifier;
+import github.TurboIssueEvent;
+import util.Utility;
+
+/**
+ * What a card shows of the events and comments of an issue, worked out from its metadata ahead of building
+ * the card, so that this can be done off the JavaFX application thread.
+ * <p>
+ * Events are only shown in panels filtering on updated:, and only those within the number of hours
+ * filtered on. As those hours are counted back from the time the model is computed, a model showing events
+ * stops being valid once the earliest of them is too old to be shown.
+ * <p>
+ * Immutable.
+ */
+public final class ListPanelCardModel {
+
+    /**
+     * The number of event hours of panels which show no events
+     */
+    public static final int NO_EVENTS = -1;
+
+    private static final ListPanelCardModel WITHOUT_EVENTS = new ListPanelCardModel(
+            false, Collections.emptyList(), Collections.emptyList(), Optional.empty(), LocalDateTime.MAX);
+
+    /**
+     * Shown by cards while their model is computed, which shows no events either. It is never valid, so that it
+     * is not mistaken for a computed model.
+     */
+    public static final ListPanelCardModel PENDING = new ListPanelCardModel(
+            false, Collections.emptyList(), Collections.emptyList(), Optional.empty(), LocalDateTime.MIN);
+
+    private final boolean showsEvents;
+    private final List<TurboIssueEvent> labelUpdateEvents;
+    private final List<TurboIssueEvent> otherEvents;
+    private final Optional<String> commentSummary;
+    private final LocalDateTime validUntil;
+
+    private ListPanelCardModel(boolean showsEvents, List<TurboIssueEvent> labelUpdateEvents,
+                               List<TurboIssueEvent> otherEvents, Optional<String> commentSummary,
+                               LocalDateTime validUntil) {
+        this.showsEvents = showsEvents;
+        this.labelUpdateEvents = labelUpdateEvents;
+        this.otherEvents = otherEvents;
+        this.commentSummary = commentSummary;
+        this.validUntil = validUntil;
+    }
+
+    /**
+     * @param eventHours The number of hours of events to show, or {@link #NO_EVENTS}
+     * @param now        The time the hours are counted back from
+     */
+    public static ListPanelCardModel compute(IssueMetadata metadata, int eventHours, LocalDateTime now) {
+        if (eventHours == NO_EVENTS) {
+            return WITHOUT_EVENTS;
+        }
+
+        LocalDateTime validUntil = LocalDateTime.MAX;
+        List<TurboIssueEvent> events = metadata.getEvents().stream()
+                .filter(event -> isWithinHours(event.getDate(), eventHours, now))
+                .collect(Collectors.toList());
+        for (TurboIssueEvent event : events) {
+            validUntil = earliest(validUntil, getShownUntil(event.getDate(), eventHours));
+        }
+
+        List<Comment> comments = metadata.getComments().stream()
+                .filter(comment -> isWithinHours(comment.getCreatedAt(), eventHours, now))
+                .collect(Collectors.toList());
+        for (Comment comment : comments) {
+            validUntil = earliest(validUntil, getShownUntil(comment.getCreatedAt(), eventHours));
+        }
+
+        Optional<String> commentSummary = Optional.empty();
+        if (!comments.isEmpty()) {
+            String names = comments.stream()
+                    .map(comment -> comment.getUser().getLogin())
+                    .distinct()
+                    .collect(Collectors.joining(", "));
+            commentSummary = Optional.of(
+                    String.format("%d comments since, involving %s.", comments.size(), names));
+        }
+
+        return new ListPanelCardModel(true,
+                                      Collections.unmodifiableList(events.stream()
+                                              .filter(TurboIssueEvent::isLabelUpdateEvent)
+                                              .collect(Collectors.toList())),
+                                      Collections.unmodifiableList(events.stream()
+                                              .filter(event -> !event.isLabelUpdateEvent())
+                                              .collect(Collectors.toList())),
+                                      commentSummary, validUntil);
+    }
+
+    private static boolean isWithinHours(Date date, int hours, LocalDateTime now) {
+        LocalDateTime time = Utility.longToLocalDateTime(date.getTime());
+        return Utility.safeLongToInt(time.until(now, ChronoUnit.HOURS)) < hours;
+    }
+
+    private static LocalDateTime getShownUntil(Date date, int hours) {
+        return Utility.longToLocalDateTime(date.getTime()).plusHours(hours);
+    }
+
+    private static LocalDateTime earliest(LocalDateTime time, LocalDateTime other) {
+        return time.isBefore(other) ? time : other;
+    }
+
+    /**
+     * @return the number of hours of events shown in a panel filtering on {@code filterExpression},
+     * or {@link #NO_EVENTS}
+     */
+    public static int getEventHours(FilterExpression filterExpression) {
+        if (!Qualifier.hasUpdatedQualifier(filterExpression)) {
+            return NO_EVENTS;
+        }
+
+        List<Qualifier> filters = filterExpression.find(Qualifier::isUpdatedQualifier);
+        assert !filters.isEmpty() : "Problem with isUpdateFilter";
+
+        // Return the first of the updated qualifiers, if there are multiple
+        Qualifier qualifier = filters.get(0);
+
+        if (qualifier.getNumber().isPresent()) {
+            return qualifier.getNumber().get();
+        } else {
+            // TODO support ranges properly. Events are only shown for <
+            assert qualifier.getNumberRange().isPresent();
+            if (qualifier.getNumberRange().get().getStart() != null) {
+                // TODO semantics are not exactly right
+                return qualifier.getNumberRange().get().getStart();
+            } else {
+                assert qualifier.getNumberRange().get().getEnd() != null;
+                // TODO semantics are not exactly right
+                return qualifier.getNumberRange().get().getEnd();
+            }
+        }
+    }
+
+    public boolean showsEvents() {
+        return showsEvents;
+    }
+
+    public List<TurboIssueEvent> getLabelUpdateEvents() {
+        return labelUpdateEvents;
+    }
+
+    public List<TurboIssueEvent> getOtherEvents() {
+        return otherEvents;
+    }
+
+    public Optional<String> getCommentSummary() {
+        return commentSummary;
+    }
+
+    /**
+     * @return true if the events and comments shown are still those that would be at {@code time}
+     */
+    public boolean isValidAt(LocalDateTime time) {
+        return time.isBefore(validUntil);
+    }
+}
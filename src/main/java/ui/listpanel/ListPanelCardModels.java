@@ -0,0 +1,157 @@
+package ui.listpanel;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import backend.IssueMetadata;
+import backend.resource.TurboIssue;
+import ui.GuiElement;
+
+/**
+ * The card models of the issues in a panel, which are computed in the background as soon as the panel is
+ * refreshed, so that by the time cells are shown, their cards only have to be built from them.
+ * <p>
+ * A model is kept for as long as the issue has the same update time and metadata, the panel shows the same
+ * hours of events and the model is valid. Models are never computed on the calling thread: cards whose model
+ * is not ready are built from {@link ListPanelCardModel#PENDING} and built again once it is.
+ * <p>
+ * Only to be used on the JavaFX application thread.
+ */
+public class ListPanelCardModels {
+
+    // Shared by all panels, so models are computed one at a time across panels: those of panels refreshed in the
+    // same pulse are computed in the order the panels were refreshed
+    private static final ExecutorService sharedPool = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "card-models");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Executor pool;
+
+    /**
+     * Identifies what a model is computed from.
+     */
+    private static final class Key {
+        private final String repoId;
+        private final int issueId;
+        private final LocalDateTime updatedAt;
+        private final IssueMetadata metadata;
+        private final int eventHours;
+
+        private Key(TurboIssue issue, int eventHours) {
+            this.repoId = issue.getRepoId();
+            this.issueId = issue.getId();
+            this.updatedAt = issue.getUpdatedAt();
+            this.metadata = issue.getMetadata();
+            this.eventHours = eventHours;
+        }
+
+        /**
+         * Metadata is compared by identity, as it is replaced rather than modified whenever it changes.
+         */
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return issueId == key.issueId && eventHours == key.eventHours && metadata == key.metadata
+                    && repoId.equals(key.repoId) && updatedAt.equals(key.updatedAt);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = repoId.hashCode();
+            result = 31 * result + issueId;
+            result = 31 * result + updatedAt.hashCode();
+            result = 31 * result + System.identityHashCode(metadata);
+            result = 31 * result + eventHours;
+            return result;
+        }
+    }
+
+    private Map<Key, CompletableFuture<ListPanelCardModel>> models = new HashMap<>();
+
+    public ListPanelCardModels() {
+        this(sharedPool);
+    }
+
+    /**
+     * @param pool Computes the models
+     */
+    public ListPanelCardModels(Executor pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Starts computing the models of {@code elements} which are not known yet, in the order given, and
+     * discards those of issues no longer in the panel.
+     */
+    public void prepare(List<GuiElement> elements, int eventHours) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<Key, CompletableFuture<ListPanelCardModel>> prepared = new HashMap<>();
+        for (GuiElement element : elements) {
+            Key key = new Key(element.getIssue(), eventHours);
+            CompletableFuture<ListPanelCardModel> model = models.remove(key);
+            if (model == null || model.isDone() && !model.join().isValidAt(now)) {
+                model = submit(key);
+            }
+            prepared.put(key, model);
+        }
+
+        // Models no longer needed are not computed if they have not been already
+        models.values().forEach(model -> model.cancel(false));
+        models = prepared;
+    }
+
+    private CompletableFuture<ListPanelCardModel> submit(Key key) {
+        if (key.eventHours == ListPanelCardModel.NO_EVENTS) {
+            return CompletableFuture.completedFuture(compute(key));
+        }
+
+        CompletableFuture<ListPanelCardModel> model = new CompletableFuture<>();
+        pool.execute(() -> {
+            if (!model.isDone()) {
+                model.complete(compute(key));
+            }
+        });
+        return model;
+    }
+
+    private static ListPanelCardModel compute(Key key) {
+        return ListPanelCardModel.compute(key.metadata, key.eventHours, LocalDateTime.now());
+    }
+
+    /**
+     * @return the model of {@code element} if it has been computed and is still valid
+     */
+    public Optional<ListPanelCardModel> getIfReady(GuiElement element, int eventHours) {
+        CompletableFuture<ListPanelCardModel> model = models.get(new Key(element.getIssue(), eventHours));
+        if (model == null || !model.isDone() || model.isCancelled()) {
+            return Optional.empty();
+        }
+        return Optional.of(model.join()).filter(ready -> ready.isValidAt(LocalDateTime.now()));
+    }
+
+    /**
+     * @return the model of {@code element}, which starts being computed in the background if it has not been
+     * prepared or is no longer valid. Cards are built from {@code getNow(ListPanelCardModel.PENDING)}.
+     */
+    public CompletableFuture<ListPanelCardModel> get(GuiElement element, int eventHours) {
+        Key key = new Key(element.getIssue(), eventHours);
+        CompletableFuture<ListPanelCardModel> model = models.get(key);
+        if (model == null || model.isCancelled()
+                || model.isDone() && !model.join().isValidAt(LocalDateTime.now())) {
+            model = submit(key);
+            models.put(key, model);
+        }
+        return model;
+    }
+}
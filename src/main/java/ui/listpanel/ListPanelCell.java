@@ -8,22 +8,18 @@ import ui.GuiElement;
 import ui.IdGenerator;
 import util.HTLog;
 
-import java.util.HashSet;
 import java.util.List;
 
 public class ListPanelCell extends ListCell<GuiElement> {
 
     private final int parentPanelIndex;
     private final ListPanel parent;
-    private final HashSet<Integer> issuesWithNewComments;
     private GuiElement guiElement;
 
-    public ListPanelCell(ListPanel parent,
-                         int parentPanelIndex, HashSet<Integer> issuesWithNewComments) {
+    public ListPanelCell(ListPanel parent, int parentPanelIndex) {
         super();
         this.parent = parent;
         this.parentPanelIndex = parentPanelIndex;
-        this.issuesWithNewComments = issuesWithNewComments;
         setAlignment(Pos.CENTER);
     }
 
@@ -31,14 +27,18 @@ public class ListPanelCell extends ListCell<GuiElement> {
     public void updateItem(GuiElement guiElement, boolean empty) {
         super.updateItem(guiElement, empty);
         if (guiElement == null) {
+            // Cells are reused across refreshes, so one left without an item must let go of its card
+            setGraphic(null);
             return;
         }
         this.guiElement = guiElement;
         TurboIssue issue = guiElement.getIssue();
-        getStyleClass().add("bottom-borders");
+        if (!getStyleClass().contains("bottom-borders")) {
+            getStyleClass().add("bottom-borders");
+        }
         updateStyleToMatchStatus(issue);
 
-        setGraphic(new ListPanelCard(guiElement, parent, issuesWithNewComments));
+        setGraphic(parent.getCard(guiElement));
         this.setId(IdGenerator.getPanelCellId(parentPanelIndex, issue.getId()));
     }
 
@@ -0,0 +1,180 @@
+package util;
+
+import org.apache.logging.log4j.Logger;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A fixed-size thread pool which keeps statistics about the tasks it runs, grouped by task type.
+ * <p>
+ * Tasks beyond the pool size wait in an unbounded queue, so the number of threads stays bounded however
+ * many tasks are submitted. Tasks must therefore not block waiting for other tasks of the same pool which
+ * may not have started yet. Idle threads are let go after {@link #KEEP_ALIVE_SECONDS}, and are daemons, so
+ * an idle pool holds no threads and never keeps the application from exiting.
+ * <p>
+ * The type of a task is the simple name of its class, or of the class it was written in for lambdas, so
+ * that e.g. the workers of a task are counted together with it.
+ * <p>
+ * Thread-safe.
+ */
+public class InstrumentedExecutor implements Executor {
+
+    private static final Logger logger = HTLog.get(InstrumentedExecutor.class);
+
+    public static final int KEEP_ALIVE_SECONDS = 60;
+
+    private final String name;
+    private final ThreadPoolExecutor pool;
+    private final Map<String, TaskStats> stats = new ConcurrentHashMap<>();
+
+    /**
+     * Statistics about the tasks of one type.
+     */
+    public static final class TaskStats {
+        private final AtomicInteger queuedCount = new AtomicInteger();
+        private final AtomicInteger runningCount = new AtomicInteger();
+        private final AtomicLong completedCount = new AtomicLong();
+        private final AtomicLong failedCount = new AtomicLong();
+        private final AtomicLong totalWaitNanos = new AtomicLong();
+        private final AtomicLong totalRunNanos = new AtomicLong();
+
+        /**
+         * @return the number of tasks submitted but not yet started
+         */
+        public int getQueuedCount() {
+            return queuedCount.get();
+        }
+
+        public int getRunningCount() {
+            return runningCount.get();
+        }
+
+        /**
+         * @return the number of tasks which have finished running, including those which failed
+         */
+        public long getCompletedCount() {
+            return completedCount.get();
+        }
+
+        /**
+         * @return the number of tasks which threw an exception
+         */
+        public long getFailedCount() {
+            return failedCount.get();
+        }
+
+        /**
+         * @return the average time finished tasks spent in the queue, in milliseconds
+         */
+        public double getAverageWaitMillis() {
+            return average(totalWaitNanos.get());
+        }
+
+        /**
+         * @return the average time finished tasks spent running, in milliseconds
+         */
+        public double getAverageRunMillis() {
+            return average(totalRunNanos.get());
+        }
+
+        private double average(long totalNanos) {
+            long count = completedCount.get();
+            return count == 0 ? 0 : totalNanos / 1e6 / count;
+        }
+
+        private String summarise() {
+            return String.format("%d queued, %d running, %d completed (%d failed), avg wait %.1fms, avg run %.1fms",
+                                 getQueuedCount(), getRunningCount(), getCompletedCount(), getFailedCount(),
+                                 getAverageWaitMillis(), getAverageRunMillis());
+        }
+    }
+
+    /**
+     * @param name     Names the threads of the pool
+     * @param poolSize The maximum number of threads
+     */
+    public InstrumentedExecutor(String name, int poolSize) {
+        this.name = name;
+        AtomicInteger threadCount = new AtomicInteger();
+        pool = new ThreadPoolExecutor(poolSize, poolSize, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                                      new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        pool.allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        TaskStats taskStats = stats.computeIfAbsent(getTaskType(task), type -> new TaskStats());
+        long submitTime = System.nanoTime();
+        taskStats.queuedCount.incrementAndGet();
+        pool.execute(() -> {
+            long startTime = System.nanoTime();
+            taskStats.queuedCount.decrementAndGet();
+            taskStats.runningCount.incrementAndGet();
+            try {
+                task.run();
+            } catch (RuntimeException | Error e) {
+                taskStats.failedCount.incrementAndGet();
+                logger.error(name + ": task " + getTaskType(task) + " failed", e);
+                throw e;
+            } finally {
+                taskStats.runningCount.decrementAndGet();
+                taskStats.totalWaitNanos.addAndGet(startTime - submitTime);
+                taskStats.totalRunNanos.addAndGet(System.nanoTime() - startTime);
+                taskStats.completedCount.incrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * @return the number of tasks waiting for a thread
+     */
+    public int getQueueDepth() {
+        return pool.getQueue().size();
+    }
+
+    /**
+     * @return the approximate number of threads running tasks
+     */
+    public int getActiveThreadCount() {
+        return pool.getActiveCount();
+    }
+
+    public int getPoolSize() {
+        return pool.getMaximumPoolSize();
+    }
+
+    /**
+     * @return the statistics of every type of task submitted so far, by task type
+     */
+    public Map<String, TaskStats> getStats() {
+        return new TreeMap<>(stats);
+    }
+
+    public String summarise() {
+        StringBuilder summary = new StringBuilder(String.format("%s: %d/%d thread(s) active, %d task(s) queued",
+                                                                name, getActiveThreadCount(), getPoolSize(),
+                                                                getQueueDepth()));
+        getStats().forEach((type, taskStats) -> summary.append("; ").append(type).append(": ")
+                .append(taskStats.summarise()));
+        return summary.toString();
+    }
+
+    private static String getTaskType(Runnable task) {
+        String className = task.getClass().getName();
+        String simpleName = className.substring(className.lastIndexOf('.') + 1);
+        int lambdaIndex = simpleName.indexOf("$$Lambda");
+        return lambdaIndex < 0 ? simpleName : simpleName.substring(0, lambdaIndex);
+    }
+}
@@ -0,0 +1,204 @@
+package util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+/**
+ * Brings a list up to date with another through as few mutations as possible, so that observers of the list,
+ * such as a ListView showing it, only see the items which were actually inserted, removed, moved or changed.
+ * <p>
+ * Items are matched up by key. Matched items which keep their relative order stay where they are, and of
+ * those, only the ones which changed are replaced. The rest are moved, which takes the fewest moves possible.
+ * Consecutive insertions and removals are applied as single mutations.
+ */
+public final class ListDiff {
+
+    private final int inserted;
+    private final int removed;
+    private final int moved;
+    private final int changed;
+
+    private ListDiff(int inserted, int removed, int moved, int changed) {
+        this.inserted = inserted;
+        this.removed = removed;
+        this.moved = moved;
+        this.changed = changed;
+    }
+
+    /**
+     * Mutates {@code target} until it is equal to {@code source}, except for items judged unchanged, which are
+     * left in {@code target} as they were.
+     * <p>
+     * If keys are not unique within either list, {@code target} is replaced wholesale.
+     *
+     * @param key         Identifies items across the two lists
+     * @param isUnchanged Tests whether an item of {@code target} may stay in place of the item of {@code source}
+     *                    with the same key
+     * @return the mutations made
+     */
+    public static <T, K> ListDiff apply(List<T> target, List<T> source,
+                                        Function<T, K> key, BiPredicate<T, T> isUnchanged) {
+        Map<K, Integer> sourceIndices = new HashMap<>();
+        for (int i = 0; i < source.size(); i++) {
+            if (sourceIndices.put(key.apply(source.get(i)), i) != null) {
+                return replace(target, source);
+            }
+        }
+        Set<K> targetKeys = new HashSet<>();
+        for (T item : target) {
+            if (!targetKeys.add(key.apply(item))) {
+                return replace(target, source);
+            }
+        }
+
+        // Remove items which are gone
+        boolean[] isGone = new boolean[target.size()];
+        for (int i = 0; i < target.size(); i++) {
+            isGone[i] = !sourceIndices.containsKey(key.apply(target.get(i)));
+        }
+        int removed = removeAll(target, isGone);
+
+        // Take out items which are out of order, to be inserted again where they belong
+        int[] positions = new int[target.size()];
+        for (int i = 0; i < target.size(); i++) {
+            positions[i] = sourceIndices.get(key.apply(target.get(i)));
+        }
+        boolean[] isOutOfOrder = outsideLongestIncreasingRun(positions);
+        int moved = removeAll(target, isOutOfOrder);
+
+        // What is left is a subsequence of source: insert the rest and replace what changed
+        int inserted = 0;
+        int changed = 0;
+        int position = 0;
+        int i = 0;
+        while (i < source.size()) {
+            if (position < target.size() && matches(key, target.get(position), source.get(i))) {
+                if (!isUnchanged.test(target.get(position), source.get(i))) {
+                    target.set(position, source.get(i));
+                    changed++;
+                }
+                position++;
+                i++;
+            } else {
+                int end = i + 1;
+                while (end < source.size()
+                        && (position >= target.size() || !matches(key, target.get(position), source.get(end)))) {
+                    end++;
+                }
+                target.addAll(position, new ArrayList<>(source.subList(i, end)));
+                position += end - i;
+                inserted += end - i;
+                i = end;
+            }
+        }
+        return new ListDiff(inserted - moved, removed, moved, changed);
+    }
+
+    private static <T, K> boolean matches(Function<T, K> key, T item, T other) {
+        return key.apply(item).equals(key.apply(other));
+    }
+
+    private static <T> ListDiff replace(List<T> target, List<T> source) {
+        int removed = target.size();
+        target.clear();
+        target.addAll(source);
+        return new ListDiff(source.size(), removed, 0, 0);
+    }
+
+    /**
+     * Removes the items flagged, a run of consecutive items at a time.
+     *
+     * @return the number of items removed
+     */
+    private static <T> int removeAll(List<T> list, boolean[] isFlagged) {
+        int count = 0;
+        int end = isFlagged.length;
+        while (end > 0) {
+            if (!isFlagged[end - 1]) {
+                end--;
+                continue;
+            }
+            int start = end - 1;
+            while (start > 0 && isFlagged[start - 1]) {
+                start--;
+            }
+            list.subList(start, end).clear();
+            count += end - start;
+            end = start;
+        }
+        return count;
+    }
+
+    /**
+     * Finds a longest increasing subsequence of {@code values}, which are distinct, in O(n log n).
+     *
+     * @return flags for the values which are not part of it
+     */
+    private static boolean[] outsideLongestIncreasingRun(int[] values) {
+        // tails[k] is the index of the smallest value ending an increasing subsequence of length k + 1
+        int[] tails = new int[values.length];
+        int[] previous = new int[values.length];
+        int length = 0;
+        for (int i = 0; i < values.length; i++) {
+            int low = 0;
+            int high = length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (values[tails[middle]] < values[i]) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            previous[i] = low > 0 ? tails[low - 1] : -1;
+            tails[low] = i;
+            if (low == length) {
+                length++;
+            }
+        }
+
+        boolean[] isOutside = new boolean[values.length];
+        Arrays.fill(isOutside, true);
+        for (int i = length > 0 ? tails[length - 1] : -1; i >= 0; i = previous[i]) {
+            isOutside[i] = false;
+        }
+        return isOutside;
+    }
+
+    /**
+     * @return the number of items inserted, not counting those moved
+     */
+    public int getInserted() {
+        return inserted;
+    }
+
+    /**
+     * @return the number of items removed, not counting those moved
+     */
+    public int getRemoved() {
+        return removed;
+    }
+
+    public int getMoved() {
+        return moved;
+    }
+
+    public int getChanged() {
+        return changed;
+    }
+
+    public boolean isEmpty() {
+        return inserted == 0 && removed == 0 && moved == 0 && changed == 0;
+    }
+
+    public String summarise() {
+        return String.format("%d inserted, %d removed, %d moved, %d changed", inserted, removed, moved, changed);
+    }
+}
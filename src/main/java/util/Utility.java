@@ -245,6 +245,24 @@ public final class Utility {
         return source.toLowerCase().contains(query.toLowerCase());
     }
 
+    /**
+     * Equivalent to {@code containsIgnoreCase(source, lowerCaseQuery)}, but does not case-fold or copy
+     * {@code source}. Meant for queries which are evaluated against many sources.
+     *
+     * @param source
+     * @param lowerCaseQuery query which has already been converted to lower case
+     * @return true if source contains the query, ignoring case
+     */
+    public static boolean containsLowerCaseQuery(String source, String lowerCaseQuery) {
+        int queryLength = lowerCaseQuery.length();
+        for (int i = 0; i + queryLength <= source.length(); i++) {
+            if (source.regionMatches(true, i, lowerCaseQuery, 0, queryLength)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Checks that the source contains all words in queries
      *
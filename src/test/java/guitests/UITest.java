@@ -35,6 +35,8 @@ import org.testfx.api.FxToolkit;
 
 import com.google.common.util.concurrent.SettableFuture;
 
+import backend.binary.BinaryStore;
+import backend.binary.JournaledStore;
 import backend.interfaces.RepoStore;
 import javafx.application.Platform;
 import javafx.event.ActionEvent;
@@ -139,7 +141,10 @@ public class UITest extends FxRobot {
                 .filter(Files::isRegularFile)
                 .filter(p ->
                     getFileExtension(String.valueOf(p.getFileName())).equalsIgnoreCase("json") ||
-                        getFileExtension(String.valueOf(p.getFileName())).equalsIgnoreCase("json-err")
+                        getFileExtension(String.valueOf(p.getFileName())).equalsIgnoreCase("json-err") ||
+                        getFileExtension(String.valueOf(p.getFileName())).equalsIgnoreCase(BinaryStore.FILE_EXTENSION) ||
+                        getFileExtension(String.valueOf(p.getFileName())).equalsIgnoreCase(
+                                JournaledStore.JOURNAL_EXTENSION)
                 )
                 .forEach(p -> new File(p.toAbsolutePath().toString()).delete());
         } catch (IOException e) {
@@ -0,0 +1,189 @@
+package tests;
+
+import com.google.gson.reflect.TypeToken;
+import github.DefaultHttpTransport;
+import github.DiskResponseCache;
+import github.GitHubClientEx;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.eclipse.egit.github.core.Comment;
+import org.eclipse.egit.github.core.client.GitHubResponse;
+import org.eclipse.egit.github.core.client.PagedRequest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockserver.integration.ClientAndServer;
+import org.mockserver.verify.VerificationTimes;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
+
+import static org.eclipse.egit.github.core.client.IGitHubConstants.SEGMENT_REPOS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockserver.model.HttpRequest.request;
+import static org.mockserver.model.HttpResponse.response;
+
+public class DiskResponseCacheTests {
+
+    private static final String PATH = "/test/test/issues/1/comments";
+    private static final String BODY = "[{\"body\": \"first\"}, {\"body\": \"second\"}]";
+    private static final String LINK = "<https://api.github.com/repos" + PATH + "?page=2>; rel=\"next\"";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ClientAndServer mockServer;
+
+    @Before
+    public void setUp() {
+        mockServer = ClientAndServer.startClientAndServer(8888);
+    }
+
+    @After
+    public void tearDown() {
+        mockServer.stop();
+    }
+
+    /**
+     * Tests that a response with an ETag is cached, that the next request for it is answered from the cache
+     * with its Link header when the server responds with 304 Not Modified, and that hits, misses and bytes
+     * saved are counted
+     */
+    @Test
+    public void testNotModifiedFromCache() throws IOException {
+        mockServer.when(request().withPath(TestUtils.API_PREFIX + SEGMENT_REPOS + PATH)
+                                .withHeader("If-None-Match", "\"a\""))
+                .respond(response().withStatusCode(304));
+        mockServer.when(request().withPath(TestUtils.API_PREFIX + SEGMENT_REPOS + PATH))
+                .respond(response().withHeader("ETag", "\"a\"").withHeader("Link", LINK).withBody(BODY));
+        DiskResponseCache cache = new DiskResponseCache(folder.getRoot().toPath());
+        GitHubClientEx client = new GitHubClientEx("localhost", 8888, "http").setResponseCache(cache);
+
+        GitHubResponse modified = client.get(createCommentsRequest());
+        GitHubResponse notModified = client.get(createCommentsRequest());
+
+        assertEquals(2, getComments(modified).size());
+        assertEquals("second", getComments(notModified).get(1).getBody());
+        assertEquals(modified.getNext(), notModified.getNext());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(BODY.getBytes(StandardCharsets.UTF_8).length, cache.getBytesSaved());
+        mockServer.verify(request().withHeader("If-None-Match", "\"a\""), VerificationTimes.exactly(1));
+    }
+
+    /**
+     * Tests that a request whose cache entry is evicted after being looked up, and before the 304 Not Modified
+     * response arrives, is sent again unconditionally instead of failing
+     */
+    @Test
+    public void testEvictedBeforeNotModified() throws IOException {
+        mockServer.when(request().withPath(TestUtils.API_PREFIX + SEGMENT_REPOS + PATH)
+                                .withHeader("If-None-Match", "\"a\""))
+                .respond(response().withStatusCode(304));
+        mockServer.when(request().withPath(TestUtils.API_PREFIX + SEGMENT_REPOS + PATH))
+                .respond(response().withHeader("ETag", "\"a\"").withBody(BODY));
+        DiskResponseCache cache = new DiskResponseCache(folder.getRoot().toPath()) {
+            @Override
+            public Optional<Entry> get(String key) {
+                Optional<Entry> entry = super.get(key);
+                // As if evicted by another request
+                for (File file : folder.getRoot().listFiles()) {
+                    file.delete();
+                }
+                return entry;
+            }
+        };
+        GitHubClientEx client = new GitHubClientEx("localhost", 8888, "http").setResponseCache(cache);
+
+        client.get(createCommentsRequest());
+        GitHubResponse evicted = client.get(createCommentsRequest());
+
+        assertEquals("second", getComments(evicted).get(1).getBody());
+        assertEquals(0, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+        mockServer.verify(request().withHeader("If-None-Match", "\"a\""), VerificationTimes.exactly(1));
+        mockServer.verify(request().withPath(TestUtils.API_PREFIX + SEGMENT_REPOS + PATH),
+                          VerificationTimes.exactly(3));
+    }
+
+    /**
+     * Tests that entries taking the cache over its limit evict the least recently used ones, and that hits
+     * count as uses
+     */
+    @Test
+    public void testEvictionOfLeastRecentlyUsed() throws IOException {
+        String body = StringUtils.repeat('x', 1000);
+        DiskResponseCache cache = new DiskResponseCache(folder.getRoot().toPath(), 2500);
+        putEntry(cache, "first", body);
+        putEntry(cache, "second", body);
+        for (File file : folder.getRoot().listFiles()) {
+            Files.setLastModifiedTime(file.toPath(), FileTime.fromMillis(System.currentTimeMillis() - 3000));
+        }
+        cache.recordHit(cache.get("first").get());
+
+        putEntry(cache, "third", body);
+
+        assertTrue(cache.get("first").isPresent());
+        assertFalse(cache.get("second").isPresent());
+        assertTrue(cache.get("third").isPresent());
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals(2, folder.getRoot().listFiles().length);
+    }
+
+    /**
+     * Tests that gzip-encoded responses are decompressed, and that responses only labelled as such are
+     * left as they are
+     */
+    @Test
+    public void testGzipDecoding() throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(BODY.getBytes(StandardCharsets.UTF_8));
+        }
+        HttpURLConnection connection = mock(HttpURLConnection.class);
+        when(connection.getContentEncoding()).thenReturn("gzip");
+        DefaultHttpTransport transport = new DefaultHttpTransport();
+
+        InputStream decoded = transport.decode(connection, new ByteArrayInputStream(compressed.toByteArray()));
+        InputStream unchanged = transport.decode(
+                connection, new ByteArrayInputStream(BODY.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(BODY, IOUtils.toString(decoded, StandardCharsets.UTF_8));
+        assertEquals(BODY, IOUtils.toString(unchanged, StandardCharsets.UTF_8));
+    }
+
+    private static void putEntry(DiskResponseCache cache, String key, String body) throws IOException {
+        InputStream stream = cache.put(key, "\"" + key + "\"", Optional.empty(),
+                                       new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+        stream.close();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Comment> getComments(GitHubResponse response) {
+        return (List<Comment>) response.getBody();
+    }
+
+    private static PagedRequest<Comment> createCommentsRequest() {
+        PagedRequest<Comment> request = new PagedRequest<>();
+        request.setUri(SEGMENT_REPOS + PATH);
+        request.setType(new TypeToken<List<Comment>>() {
+        }.getType());
+        return request;
+    }
+}
@@ -0,0 +1,149 @@
+package tests;
+
+import backend.IssueMetadata;
+import backend.github.DownloadMetadataTask;
+import backend.interfaces.Repo;
+import backend.interfaces.RepoTask;
+import backend.interfaces.TaskRunner;
+import backend.resource.TurboIssue;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class DownloadMetadataTaskTests {
+
+    private static final String REPO = "test/test";
+
+    private ExecutorService pool;
+    private TaskRunner taskRunner;
+    private Repo repo;
+
+    @Before
+    public void setup() throws IOException {
+        pool = Executors.newCachedThreadPool();
+        taskRunner = new TaskRunner() {
+            @Override
+            public <R> RepoTask<R> addTask(RepoTask<R> task) {
+                execute(task);
+                return task;
+            }
+
+            @Override
+            public void execute(Runnable r) {
+                pool.execute(r);
+            }
+        };
+
+        repo = mock(Repo.class);
+        when(repo.getUpdatedEvents(anyString(), anyInt(), anyString()))
+                .thenAnswer(invocation -> new ImmutablePair<>(new ArrayList<>(), "etag"));
+        when(repo.getUpdatedComments(anyString(), any(TurboIssue.class), anyString()))
+                .thenAnswer(invocation -> new ImmutablePair<>(new ArrayList<>(), "etag"));
+        when(repo.getRateLimitResetTime()).thenReturn(new ImmutablePair<>(5000, 0L));
+    }
+
+    @After
+    public void teardown() throws InterruptedException {
+        pool.shutdown();
+        pool.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Tests that the metadata of all issues is handed over in batches before the response completes
+     */
+    @Test
+    public void downloadMetadata_manyIssues_handledInBatches() throws Exception {
+        int issueCount = DownloadMetadataTask.BATCH_SIZE * 2 + 5;
+        List<Map<Integer, IssueMetadata>> batches = Collections.synchronizedList(new ArrayList<>());
+
+        Map<Integer, IssueMetadata> result = taskRunner.addTask(
+                new DownloadMetadataTask(taskRunner, repo, REPO, createIssues(issueCount), batches::add))
+                .response.get(5, TimeUnit.SECONDS);
+
+        assertEquals(issueCount, result.size());
+        assertEquals(3, batches.size());
+        Set<Integer> batchedIds = new HashSet<>();
+        batches.forEach(batch -> {
+            assertTrue(batch.size() <= DownloadMetadataTask.BATCH_SIZE);
+            batchedIds.addAll(batch.keySet());
+        });
+        assertEquals(result.keySet(), batchedIds);
+    }
+
+    /**
+     * Tests that only the most recently updated issues are fetched when the API quota runs low
+     */
+    @Test
+    public void downloadMetadata_lowQuota_fetchesMostRecentlyUpdated() throws Exception {
+        // Enough for 10 issues at 2 requests each
+        when(repo.getRateLimitResetTime())
+                .thenReturn(new ImmutablePair<>(DownloadMetadataTask.RATE_LIMIT_RESERVE + 20, 0L));
+
+        Map<Integer, IssueMetadata> result = taskRunner.addTask(
+                new DownloadMetadataTask(taskRunner, repo, REPO, createIssues(30)))
+                .response.get(5, TimeUnit.SECONDS);
+
+        // Issues with higher ids are more recently updated
+        assertEquals(IntStream.rangeClosed(21, 30).boxed().collect(Collectors.toSet()), result.keySet());
+    }
+
+    /**
+     * Tests that all issues are fetched if the API quota cannot be determined
+     */
+    @Test
+    public void downloadMetadata_quotaUnavailable_fetchesAll() throws Exception {
+        when(repo.getRateLimitResetTime()).thenThrow(new IOException());
+
+        Map<Integer, IssueMetadata> result = taskRunner.addTask(
+                new DownloadMetadataTask(taskRunner, repo, REPO, createIssues(30)))
+                .response.get(5, TimeUnit.SECONDS);
+
+        assertEquals(30, result.size());
+    }
+
+    /**
+     * Tests that the response completes for an empty list of issues
+     */
+    @Test
+    public void downloadMetadata_noIssues_completesEmpty() throws Exception {
+        Map<Integer, IssueMetadata> result = taskRunner.addTask(
+                new DownloadMetadataTask(taskRunner, repo, REPO, new ArrayList<>()))
+                .response.get(5, TimeUnit.SECONDS);
+
+        assertTrue(result.isEmpty());
+    }
+
+    private static List<TurboIssue> createIssues(int count) {
+        LocalDateTime now = LocalDateTime.now();
+        List<TurboIssue> issues = new ArrayList<>();
+        for (int id = 1; id <= count; id++) {
+            TurboIssue issue = new TurboIssue(REPO, id, "Issue " + id);
+            issue.setUpdatedAt(now.minusMinutes(count - id));
+            issues.add(issue);
+        }
+        return issues;
+    }
+}
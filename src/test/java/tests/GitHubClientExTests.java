@@ -1,25 +1,32 @@
 package tests;
 
+import com.google.gson.reflect.TypeToken;
 import github.GitHubClientEx;
 import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.eclipse.egit.github.core.Comment;
 import org.eclipse.egit.github.core.Milestone;
 import org.eclipse.egit.github.core.client.GitHubResponse;
 import org.eclipse.egit.github.core.client.PagedRequest;
 import org.junit.Test;
 import org.mockserver.client.server.MockServerClient;
 import org.mockserver.integration.ClientAndServer;
+import org.mockserver.matchers.Times;
 import org.mockserver.model.HttpRequest;
 import org.mockserver.model.Parameter;
 import org.mockserver.verify.VerificationTimes;
 
 import java.io.IOException;
 import java.net.HttpURLConnection;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.eclipse.egit.github.core.client.IGitHubConstants.CONTENT_TYPE_JSON;
 import static org.eclipse.egit.github.core.client.IGitHubConstants.SEGMENT_REPOS;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockserver.model.HttpRequest.request;
 import static org.mockserver.model.HttpResponse.response;
 
@@ -85,4 +92,73 @@ public class GitHubClientExTests {
 
         mockServer.stop();
     }
+
+    /**
+     * Tests that getAllIfModified sends the current ETag, returns the comments and their new ETag when
+     * they changed, and an empty list with the current ETag when they did not
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testGetAllIfModified() throws IOException {
+        MockServerClient mockServer = ClientAndServer.startClientAndServer(8888);
+        String path = TestUtils.API_PREFIX + "/repos/test/test/issues/1/comments";
+
+        mockServer.when(request().withPath(path).withHeader("If-None-Match", "\"old\""))
+                .respond(response().withHeader("ETag", "\"new\"")
+                                 .withBody("[{\"body\": \"first\"}, {\"body\": \"second\"}]"));
+        mockServer.when(request().withPath(path).withHeader("If-None-Match", "\"new\""))
+                .respond(response().withStatusCode(HttpURLConnection.HTTP_NOT_MODIFIED));
+
+        GitHubClientEx client = new GitHubClientEx("localhost", 8888, "http");
+
+        ImmutablePair<List<Comment>, String> modified = client.getAllIfModified(createCommentsRequest(), "old");
+        assertEquals(2, modified.getLeft().size());
+        assertEquals("first", modified.getLeft().get(0).getBody());
+        assertEquals("new", modified.getRight());
+
+        ImmutablePair<List<Comment>, String> notModified = client.getAllIfModified(createCommentsRequest(), "new");
+        assertTrue(notModified.getLeft().isEmpty());
+        assertEquals("new", notModified.getRight());
+
+        mockServer.stop();
+    }
+
+    /**
+     * Tests that getStreamed converts each element of the returned array in order, and fails with an
+     * IOException if the response is not an array
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testGetStreamed() throws IOException {
+        MockServerClient mockServer = ClientAndServer.startClientAndServer(8888);
+        String path = TestUtils.API_PREFIX + "/repos/test/test/issues/1/comments";
+        mockServer.when(request().withPath(path), Times.once())
+                .respond(response().withBody("[{\"body\": \"first\"}, {\"body\": \"second\"}]"));
+        mockServer.when(request().withPath(path))
+                .respond(response().withBody("{\"body\": \"first\"}"));
+
+        GitHubClientEx client = new GitHubClientEx("localhost", 8888, "http");
+
+        GitHubResponse response = client.getStreamed(createCommentsRequest(), Comment.class, Comment::getBody);
+        assertEquals(Arrays.asList("first", "second"), response.getBody());
+
+        try {
+            client.getStreamed(createCommentsRequest(), Comment.class, Comment::getBody);
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage().startsWith("Parse exception"));
+        } finally {
+            mockServer.stop();
+        }
+    }
+
+    private static PagedRequest<Comment> createCommentsRequest() {
+        PagedRequest<Comment> request = new PagedRequest<>();
+        request.setUri(SEGMENT_REPOS + "/test/test/issues/1/comments");
+        request.setType(new TypeToken<List<Comment>>() {
+        }.getType());
+        return request;
+    }
 }
@@ -2,12 +2,20 @@ package tests;
 
 import backend.github.GitHubRepo;
 import backend.resource.TurboIssue;
+import github.GitHubClientEx;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.eclipse.egit.github.core.Comment;
 import org.junit.Test;
+import org.mockserver.client.server.MockServerClient;
+import org.mockserver.integration.ClientAndServer;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.mockserver.model.HttpRequest.request;
+import static org.mockserver.model.HttpResponse.response;
 
 public class GitHubRepoTests {
     /**
@@ -31,4 +39,39 @@ public class GitHubRepoTests {
         assertEquals(new ArrayList<>(), repo.getAllComments("owner/nonexistentrepo", issue));
         assertEquals(new ArrayList<>(), repo.getAllComments("owner/nonexistentrepo", pullRequest));
     }
+
+    /**
+     * GitHubRepo.getUpdatedComments should return an empty ETag for a pull request whose comments span several
+     * pages, so that they are downloaded again next time instead of being taken as unchanged
+     */
+    @Test
+    public void testGetUpdatedCommentsForMultiPageComments() {
+        MockServerClient mockServer = ClientAndServer.startClientAndServer(8888);
+        String commentsPath = TestUtils.API_PREFIX + "/repos/test/test/issues/1/comments";
+        String reviewCommentsPath = TestUtils.API_PREFIX + "/repos/test/test/pulls/1/comments";
+        mockServer.when(request().withPath(commentsPath).withQueryStringParameter("page", "1"))
+                .respond(response().withHeader("ETag", "\"comments\"")
+                                 .withHeader("Link", "<http://localhost:8888" + commentsPath
+                                         + "?page=2&per_page=100>; rel=\"next\"")
+                                 .withBody("[{\"body\": \"first\"}]"));
+        mockServer.when(request().withPath(commentsPath).withQueryStringParameter("page", "2"))
+                .respond(response().withBody("[{\"body\": \"second\"}]"));
+        mockServer.when(request().withPath(reviewCommentsPath))
+                .respond(response().withHeader("ETag", "\"reviewComments\"")
+                                 .withBody("[{\"body\": \"review\"}]"));
+
+        GitHubRepo repo = new GitHubRepo(new GitHubClientEx("localhost", 8888, "http"));
+        TurboIssue pullRequest = new TurboIssue("test/test", 1, "title", "owner", LocalDateTime.now(), true);
+
+        ImmutablePair<List<Comment>, String> comments = repo.getUpdatedComments("test/test", pullRequest, "");
+        assertEquals(3, comments.getLeft().size());
+        assertEquals("", comments.getRight());
+
+        ImmutablePair<List<Comment>, String> commentsAgain =
+                repo.getUpdatedComments("test/test", pullRequest, comments.getRight());
+        assertEquals(3, commentsAgain.getLeft().size());
+        assertEquals("", commentsAgain.getRight());
+
+        mockServer.stop();
+    }
 }
@@ -0,0 +1,200 @@
+package tests;
+
+import backend.IncrementalFilterEngine;
+import backend.resource.Model;
+import backend.resource.MultiModel;
+import backend.resource.TurboIssue;
+import backend.resource.TurboLabel;
+import filter.Parser;
+import filter.SortKeyComparator;
+import filter.expression.FilterExpression;
+import filter.expression.Qualifier;
+import org.junit.Before;
+import org.junit.Test;
+import ui.TestController;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class IncrementalFilterEngineTests {
+
+    private static final String REPO = "test/test";
+    private MultiModel models;
+    private SortKeyComparator byId;
+    private IncrementalFilterEngine engine;
+
+    @Before
+    public void setup() {
+        List<TurboIssue> issues = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            issues.add(new TurboIssue(REPO, i, "issue " + i));
+        }
+        issues.get(0).setLabels(new ArrayList<>(Arrays.asList("bug")));
+        issues.get(2).setLabels(new ArrayList<>(Arrays.asList("bug")));
+
+        models = new MultiModel(TestController.createTestPreferences());
+        models.queuePendingRepository(REPO);
+        models.addPending(new Model(REPO, issues,
+                                    new ArrayList<>(Arrays.asList(new TurboLabel(REPO, "bug"),
+                                                                  new TurboLabel(REPO, "feature"))),
+                                    new ArrayList<>(), new ArrayList<>()));
+        models.setDefaultRepo(REPO);
+        engine = new IncrementalFilterEngine();
+        byId = Qualifier.getSortComparator(models, "id", false, false);
+    }
+
+    @Test
+    public void process_unchangedModel_reusesResult() {
+        assertEquals(Arrays.asList(1, 3), process("label:bug"));
+        assertEquals(Arrays.asList(1, 3), process("label:bug"));
+
+        assertEquals(1, engine.getFullEvaluationCount());
+        assertEquals(0, engine.getIncrementalEvaluationCount());
+    }
+
+    @Test
+    public void process_changedIssues_onlyEvaluatesChanges() {
+        assertEquals(Arrays.asList(1, 3), process("label:bug"));
+
+        models.replaceIssueLabels(REPO, 2, new ArrayList<>(Arrays.asList("bug")));
+        models.replaceIssueLabels(REPO, 3, new ArrayList<>(Arrays.asList("feature")));
+        assertEquals(Arrays.asList(1, 2), process("label:bug"));
+
+        models.editIssueState(REPO, 1, false);
+        assertEquals(Arrays.asList(2), process("label:bug is:open"));
+        assertEquals(Arrays.asList(1, 2), process("label:bug"));
+
+        assertEquals(2, engine.getFullEvaluationCount());
+        assertEquals(2, engine.getIncrementalEvaluationCount());
+    }
+
+    @Test
+    public void process_replacedModel_onlyEvaluatesReplacedIssues() {
+        assertEquals(Arrays.asList(1, 3), process("label:bug"));
+
+        Model oldModel = models.getModelById(REPO).get();
+        List<TurboIssue> changed = new ArrayList<>();
+        TurboIssue newIssue = new TurboIssue(REPO, 6, "issue 6");
+        newIssue.setLabels(new ArrayList<>(Arrays.asList("bug")));
+        changed.add(newIssue);
+        models.replace(new Model(REPO, TurboIssue.reconcile(oldModel.getIssues(), changed),
+                                 oldModel.getLabels(), oldModel.getMilestones(), oldModel.getUsers()));
+
+        assertEquals(Arrays.asList(1, 3, 6), process("label:bug"));
+        assertEquals(1, engine.getFullEvaluationCount());
+        assertEquals(1, engine.getIncrementalEvaluationCount());
+    }
+
+    @Test
+    public void process_issuesRemoved_warningsDropped() {
+        String otherRepo = "test/other";
+        models.queuePendingRepository(otherRepo);
+        models.addPending(new Model(otherRepo, new ArrayList<>(Arrays.asList(new TurboIssue(otherRepo, 1, "other"))),
+                                    new ArrayList<>(), new ArrayList<>(), new ArrayList<>()));
+        assertEquals(2, warnings("assignee:nobody").size());
+
+        Model otherModel = models.getModelById(otherRepo).get();
+        models.replace(new Model(otherRepo, new ArrayList<>(), otherModel.getLabels(),
+                                 otherModel.getMilestones(), otherModel.getUsers()));
+
+        List<String> warnings = warnings("assignee:nobody");
+        assertEquals(1, warnings.size());
+        assertTrue(warnings.get(0).contains(REPO));
+        assertEquals(1, engine.getIncrementalEvaluationCount());
+    }
+
+    @Test
+    public void process_structuralChange_evaluatesFully() {
+        assertEquals(Arrays.asList(1, 3), process("label:bug"));
+
+        Model oldModel = models.getModelById(REPO).get();
+        models.replace(new Model(REPO, oldModel.getIssues(), new ArrayList<>(),
+                                 oldModel.getMilestones(), oldModel.getUsers()));
+
+        assertEquals(new ArrayList<>(), process("label:bug"));
+        assertEquals(2, engine.getFullEvaluationCount());
+    }
+
+    @Test
+    public void process_readStateQualifier_evaluatesFully() {
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5), process("is:unread"));
+
+        models.getModelById(REPO).get().getIssueById(4).get().markAsRead(TestController.createTestPreferences());
+
+        assertEquals(Arrays.asList(1, 2, 3, 5), process("is:unread"));
+        assertEquals(2, engine.getFullEvaluationCount());
+    }
+
+    @Test
+    public void process_largeIssueSet_sameResultAsSequential() {
+        String repo = "test/large";
+        List<TurboIssue> issues = new ArrayList<>();
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 1; i <= 5000; i++) {
+            TurboIssue issue = new TurboIssue(repo, i, "issue " + i);
+            if (i % 3 == 0) {
+                issue.setLabels(new ArrayList<>(Arrays.asList("bug")));
+                expected.add(i);
+            }
+            issues.add(issue);
+        }
+        models.queuePendingRepository(repo);
+        models.addPending(new Model(repo, issues,
+                                    new ArrayList<>(Arrays.asList(new TurboLabel(repo, "bug"))),
+                                    new ArrayList<>(), new ArrayList<>()));
+
+        assertEquals(expected, process("repo:" + repo + " label:bug"));
+        assertEquals(expected.subList(0, 10), process("repo:" + repo + " label:bug count:10"));
+    }
+
+    @Test
+    public void process_countQualifier_selectsSmallestInStableOrder() {
+        SortKeyComparator byState = Qualifier.getSortComparator(models, "state", false, false);
+        assertEquals(Arrays.asList(5, 4), process("count:2", Qualifier.getSortComparator(models, "id", true, false)));
+        // Results are cached per filter expression, whose comparator never changes outside of tests
+        engine = new IncrementalFilterEngine();
+        assertEquals(Arrays.asList(1, 2, 3), process("count:3", byState));
+        models.editIssueState(REPO, 2, false);
+        models.editIssueState(REPO, 4, false);
+        models.editIssueState(REPO, 5, false);
+        assertEquals(Arrays.asList(1, 3, 2), process("count:3", byState));
+        assertEquals(new ArrayList<>(), process("count:0"));
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5), process("count:10"));
+    }
+
+    @Test
+    public void process_sortKeyComparator_keysOfChangedIssuesExtractedAgain() {
+        SortKeyComparator byState = Qualifier.getSortComparator(models, "state", false, false);
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5), process("", byState));
+
+        models.editIssueState(REPO, 1, false);
+        models.editIssueState(REPO, 4, false);
+        assertEquals(Arrays.asList(2, 3, 5, 1, 4), process("", byState));
+
+        models.editIssueState(REPO, 1, true);
+        assertEquals(Arrays.asList(1, 2, 3, 5, 4), process("count:5", byState));
+    }
+
+    private List<String> warnings(String filterText) {
+        FilterExpression filterExpr = Parser.parse(filterText);
+        return engine.process(models, models.getVersion(), models.getIssues(), filterExpr, filterExpr, byId)
+                .getWarnings();
+    }
+
+    private List<Integer> process(String filterText) {
+        return process(filterText, byId);
+    }
+
+    private List<Integer> process(String filterText, SortKeyComparator comparator) {
+        FilterExpression filterExpr = Parser.parse(filterText);
+        return engine.process(models, models.getVersion(), models.getIssues(), filterExpr, filterExpr, comparator)
+                .getProcessedIssues().stream()
+                .map(TurboIssue::getId)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,69 @@
+package tests;
+
+import org.junit.Test;
+import util.InstrumentedExecutor;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class InstrumentedExecutorTests {
+
+    private static class BlockingTask implements Runnable {
+        private final CountDownLatch started;
+        private final CountDownLatch release;
+
+        BlockingTask(CountDownLatch started, CountDownLatch release) {
+            this.started = started;
+            this.release = release;
+        }
+
+        @Override
+        public void run() {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Tests that tasks beyond the pool size are queued rather than given threads of their own, and that
+     * statistics are kept by task type, with lambdas counted under the class they were written in
+     */
+    @Test
+    public void execute_beyondPoolSize_tasksQueued() throws InterruptedException {
+        InstrumentedExecutor executor = new InstrumentedExecutor("Test", 2);
+        CountDownLatch started = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(5);
+
+        for (int i = 0; i < 4; i++) {
+            executor.execute(new BlockingTask(started, release));
+        }
+        executor.execute(finished::countDown);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        assertEquals(2, executor.getActiveThreadCount());
+        assertEquals(3, executor.getQueueDepth());
+        assertEquals(2, executor.getStats().get("InstrumentedExecutorTests$BlockingTask").getRunningCount());
+        assertEquals(2, executor.getStats().get("InstrumentedExecutorTests$BlockingTask").getQueuedCount());
+        assertEquals(1, executor.getStats().get("InstrumentedExecutorTests").getQueuedCount());
+
+        release.countDown();
+        for (int i = 0; i < 4; i++) {
+            executor.execute(finished::countDown);
+        }
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+        // Statistics are updated after the task itself returns
+        Thread.sleep(100);
+
+        assertEquals(4, executor.getStats().get("InstrumentedExecutorTests$BlockingTask").getCompletedCount());
+        assertEquals(5, executor.getStats().get("InstrumentedExecutorTests").getCompletedCount());
+        assertEquals(0, executor.getQueueDepth());
+    }
+}
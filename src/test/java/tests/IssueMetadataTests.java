@@ -127,6 +127,42 @@ public class IssueMetadataTests {
         assertEquals("comments", updated.getCommentsETag());
     }
 
+    @Test
+    public void reconcileWithExisting() {
+        IssueMetadata existing = IssueMetadata.intermediate(stubEvents(), stubComments(), "events", "comments")
+                .full("test");
+
+        // Nothing downloaded again as ETags are unchanged
+        IssueMetadata unchanged = IssueMetadata.intermediate(new ArrayList<>(), new ArrayList<>(),
+                                                             "events", "comments").reconcile(existing);
+        assertEquals(3, unchanged.getEvents().size());
+        assertEquals(3, unchanged.getComments().size());
+        assertEquals(false, unchanged.isLatest());
+
+        // Only comments changed
+        List<Comment> newComments = stubComments().subList(0, 1);
+        IssueMetadata commented = IssueMetadata.intermediate(new ArrayList<>(), newComments,
+                                                             "events", "comments2").reconcile(existing);
+        assertEquals(3, commented.getEvents().size());
+        assertEquals(newComments, commented.getComments());
+        assertEquals("comments2", commented.getCommentsETag());
+
+        // Comments without an ETag are never taken from existing metadata
+        IssueMetadata noETag = IssueMetadata.intermediate(new ArrayList<>(), new ArrayList<>(), "", "")
+                .reconcile(IssueMetadata.intermediate(stubEvents(), stubComments(), "", ""));
+        assertEquals(3, noETag.getEvents().size());
+        assertEquals(0, noETag.getComments().size());
+
+        // Properties are computed from the reconciled events and comments
+        IssueMetadata full = unchanged.full("test");
+        assertEquals(Utility.dateToLocalDateTime(now), full.getNonSelfUpdatedAt());
+        assertEquals(2, full.getNonSelfCommentCount());
+
+        LocalDateTime rightNow = LocalDateTime.now();
+        assertEquals(rightNow, full.withNonSelfUpdatedAt(rightNow).getNonSelfUpdatedAt());
+        assertEquals(2, full.withNonSelfUpdatedAt(rightNow).getNonSelfCommentCount());
+    }
+
     private static List<TurboIssueEvent> stubEvents() {
         List<TurboIssueEvent> events = new ArrayList<>();
         events.add(new TurboIssueEvent(new User().setLogin("test"), IssueEventType.Closed, now));
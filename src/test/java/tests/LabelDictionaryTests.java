@@ -0,0 +1,60 @@
+package tests;
+
+import backend.resource.LabelDictionary;
+import backend.resource.TurboIssue;
+import backend.resource.TurboLabel;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class LabelDictionaryTests {
+
+    private static final String REPO = "test/test";
+
+    private final LabelDictionary dictionary = new LabelDictionary(Arrays.asList(
+            new TurboLabel(REPO, "type.bug"), new TurboLabel(REPO, "Priority.high"),
+            new TurboLabel(REPO, "urgent"), new TurboLabel(REPO, "Priority.low"), new TurboLabel(REPO, "urgent")));
+
+    /**
+     * Tests that labels are selected in the order of their names, with duplicates ignored, and that folded
+     * labels are lower-cased and split into group and short name
+     */
+    @Test
+    public void select_labels_orderedByName() {
+        assertEquals(4, dictionary.size());
+
+        BitSet all = dictionary.select(label -> true);
+        assertEquals(Arrays.asList("Priority.high", "Priority.low", "type.bug", "urgent"), dictionary.getNames(all));
+
+        BitSet priority = dictionary.selectFolded(label -> label.isInGroup()
+                && label.getGroupName().equals("priority"));
+        assertEquals(Arrays.asList("Priority.high", "Priority.low"), dictionary.getNames(priority));
+    }
+
+    /**
+     * Tests that the labels of an issue are cached until they are replaced or added to, and that labels
+     * unknown to the repo are ignored
+     */
+    @Test
+    public void getLabelsOf_labelsChanged_resolvedAgain() {
+        TurboIssue issue = new TurboIssue(REPO, 1, "Issue");
+        issue.setLabels(new ArrayList<>(Arrays.asList("urgent", "unknown")));
+
+        BitSet labels = dictionary.getLabelsOf(issue);
+        assertEquals(Arrays.asList("urgent"), dictionary.getNames(labels));
+        assertSame(labels, dictionary.getLabelsOf(issue));
+
+        issue.addLabel("type.bug");
+        assertEquals(Arrays.asList("type.bug", "urgent"), dictionary.getNames(dictionary.getLabelsOf(issue)));
+
+        issue.setLabels(Arrays.asList("Priority.low"));
+        assertEquals(Arrays.asList("Priority.low"), dictionary.getNames(dictionary.getLabelsOf(issue)));
+        assertTrue(dictionary.getLabelsOf(new TurboIssue(REPO, 2, "Unlabelled")).isEmpty());
+    }
+}
@@ -0,0 +1,86 @@
+package tests;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import org.junit.Test;
+import util.ListDiff;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ListDiffTest {
+
+    private static final Function<String, Character> KEY = item -> item.charAt(0);
+
+    /**
+     * Tests that only the items which differ are touched, and that items judged unchanged stay as they were
+     */
+    @Test
+    public void apply_mixedChanges_minimalMutations() {
+        String unchanged = "a1";
+        ObservableList<String> target = FXCollections.observableArrayList(unchanged, "b1", "c1", "d1", "e1");
+        List<ListChangeListener.Change<? extends String>> changes = new ArrayList<>();
+        target.addListener((ListChangeListener<String>) change -> changes.add(change));
+
+        ListDiff diff = ListDiff.apply(target, Arrays.asList("a2", "e1", "c2", "d1", "f1", "g1"), KEY,
+                                       (shown, updated) -> shown.charAt(0) == 'a' || shown.equals(updated));
+
+        assertEquals(Arrays.asList("a1", "e1", "c2", "d1", "f1", "g1"), target);
+        assertSame(unchanged, target.get(0));
+        assertEquals(2, diff.getInserted());
+        assertEquals(1, diff.getRemoved());
+        assertEquals(1, diff.getMoved());
+        assertEquals(1, diff.getChanged());
+        // Removing b, moving e (out and in again), changing c and inserting f and g in one go
+        assertEquals(5, changes.size());
+    }
+
+    /**
+     * Tests that the target always ends up matching the source, and that nothing happens when they are equal
+     */
+    @Test
+    public void apply_randomLists_targetMatchesSource() {
+        Random random = new Random(0);
+        for (int round = 0; round < 200; round++) {
+            List<String> target = randomList(random);
+            List<String> source = randomList(random);
+
+            ListDiff.apply(target, source, KEY, String::equals);
+            assertEquals(source, target);
+            assertTrue(ListDiff.apply(target, new ArrayList<>(source), KEY, String::equals).isEmpty());
+        }
+    }
+
+    /**
+     * Tests that a target is replaced when keys are not unique
+     */
+    @Test
+    public void apply_duplicateKeys_replaced() {
+        List<String> target = new ArrayList<>(Arrays.asList("a1", "b1"));
+        ListDiff diff = ListDiff.apply(target, Arrays.asList("b1", "b2"), KEY, String::equals);
+
+        assertEquals(Arrays.asList("b1", "b2"), target);
+        assertEquals(2, diff.getRemoved());
+        assertEquals(2, diff.getInserted());
+    }
+
+    private static List<String> randomList(Random random) {
+        List<String> result = new ArrayList<>();
+        for (char key = 'a'; key <= 'p'; key++) {
+            if (random.nextBoolean()) {
+                result.add(key + String.valueOf(random.nextInt(2)));
+            }
+        }
+        Collections.shuffle(result, random);
+        return result;
+    }
+}
@@ -0,0 +1,114 @@
+package tests;
+
+import backend.IssueMetadata;
+import backend.resource.TurboIssue;
+import github.IssueEventType;
+import github.TurboIssueEvent;
+import org.eclipse.egit.github.core.Comment;
+import org.eclipse.egit.github.core.User;
+import org.junit.Test;
+import ui.GuiElement;
+import ui.listpanel.ListPanelCardModel;
+import ui.listpanel.ListPanelCardModels;
+import util.Utility;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ListPanelCardModelTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2016, 1, 1, 12, 0);
+
+    /**
+     * Tests that only events and comments within the hours given are shown, and that the model stops being
+     * valid once the earliest of them is too old
+     */
+    @Test
+    public void compute_eventHours_recentEventsShown() {
+        TurboIssueEvent labeled = event(IssueEventType.Labeled, NOW.minusHours(1));
+        TurboIssueEvent closed = event(IssueEventType.Closed, NOW.minusMinutes(30));
+        IssueMetadata metadata = IssueMetadata.intermediate(
+                Arrays.asList(event(IssueEventType.Closed, NOW.minusHours(5)), labeled, closed),
+                Arrays.asList(comment("alice", NOW.minusHours(2)), comment("bob", NOW.minusHours(1)),
+                              comment("alice", NOW.minusMinutes(1)), comment("carol", NOW.minusHours(3))),
+                "", "");
+
+        ListPanelCardModel model = ListPanelCardModel.compute(metadata, 3, NOW);
+
+        assertTrue(model.showsEvents());
+        assertEquals(Arrays.asList(labeled), model.getLabelUpdateEvents());
+        assertEquals(Arrays.asList(closed), model.getOtherEvents());
+        assertEquals(Optional.of("3 comments since, involving alice, bob."), model.getCommentSummary());
+        assertTrue(model.isValidAt(NOW.plusMinutes(59)));
+        assertFalse(model.isValidAt(NOW.plusHours(1)));
+    }
+
+    /**
+     * Tests that panels not filtering on updated: show no events, whatever the metadata
+     */
+    @Test
+    public void compute_noEvents_alwaysValid() {
+        IssueMetadata metadata = IssueMetadata.intermediate(
+                Arrays.asList(event(IssueEventType.Closed, NOW)), Arrays.asList(comment("alice", NOW)), "", "");
+
+        ListPanelCardModel model = ListPanelCardModel.compute(metadata, ListPanelCardModel.NO_EVENTS, NOW);
+
+        assertFalse(model.showsEvents());
+        assertTrue(model.getOtherEvents().isEmpty());
+        assertFalse(model.getCommentSummary().isPresent());
+        assertTrue(model.isValidAt(NOW.plusYears(1)));
+    }
+
+    /**
+     * Tests that the model of a card is computed in the background, so that the card is built from
+     * PENDING until the model completes, and that the completed model is then kept
+     */
+    @Test
+    public void get_modelNotReady_pendingUntilComputed() {
+        Queue<Runnable> tasks = new LinkedList<>();
+        ListPanelCardModels cardModels = new ListPanelCardModels(tasks::add);
+        TurboIssue issue = new TurboIssue("test/test", 1, "issue");
+        issue.setMetadata(IssueMetadata.intermediate(
+                new ArrayList<>(), Arrays.asList(comment("alice", LocalDateTime.now().minusMinutes(1))), "", ""));
+        GuiElement element = new GuiElement(issue, new ArrayList<>(), Optional.empty(), Optional.empty(),
+                                            Optional.empty());
+
+        cardModels.prepare(Arrays.asList(element), 2);
+        CompletableFuture<ListPanelCardModel> model = cardModels.get(element, 2);
+
+        assertSame(ListPanelCardModel.PENDING, model.getNow(ListPanelCardModel.PENDING));
+        assertFalse(cardModels.getIfReady(element, 2).isPresent());
+
+        while (!tasks.isEmpty()) {
+            tasks.poll().run();
+        }
+
+        assertTrue(model.isDone());
+        assertEquals(Optional.of("1 comments since, involving alice."),
+                     model.getNow(ListPanelCardModel.PENDING).getCommentSummary());
+        assertSame(model.join(), cardModels.getIfReady(element, 2).get());
+        assertSame(model, cardModels.get(element, 2));
+        assertFalse(ListPanelCardModel.PENDING.isValidAt(LocalDateTime.now()));
+    }
+
+    private static TurboIssueEvent event(IssueEventType type, LocalDateTime time) {
+        return new TurboIssueEvent(new User().setLogin("alice"), type, Utility.localDateTimeToDate(time));
+    }
+
+    private static Comment comment(String user, LocalDateTime time) {
+        Comment comment = new Comment();
+        comment.setUser(new User().setLogin(user));
+        comment.setCreatedAt(Utility.localDateTimeToDate(time));
+        return comment;
+    }
+}
@@ -29,6 +29,9 @@ import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.*;
 
 public class LogicTests {
+    // Long enough for any refresh left over from the previous test to finish
+    private static final long IDLE_TIMEOUT_MILLIS = 10000;
+
     private final Logic logic;
     private final RepoIO mockedRepoIO;
     private final MultiModel mockedMultiModel;
@@ -46,7 +49,13 @@ public class LogicTests {
     }
 
     @Before
-    public void resetMockedObjects() {
+    public void resetMockedObjects() throws InterruptedException {
+        // Refreshes requested by the previous test use the mocks, which must not be in use while stubbed
+        long deadline = System.currentTimeMillis() + IDLE_TIMEOUT_MILLIS;
+        while (!logic.getRefreshScheduler().isIdle()) {
+            assertTrue("Refresh scheduler did not become idle", System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
         reset(mockedRepoIO);
         reset(mockedMultiModel);
     }
@@ -11,6 +11,7 @@ import org.mockserver.client.server.MockServerClient;
 import org.mockserver.junit.MockServerRule;
 import org.mockserver.model.Header;
 import org.mockserver.model.HttpRequest;
+import org.mockserver.verify.VerificationTimes;
 import util.Utility;
 
 import java.io.IOException;
@@ -100,6 +101,35 @@ public class MilestoneUpdateServiceTests {
                      service.getUpdatedCheckTime());
     }
 
+    /**
+     * Tests that getUpdatedItems only sends conditional GET requests carrying the ETag of each page, and
+     * returns empty result without further requests if every page is reported as not modified
+     */
+    @Test
+    public void testGetUpdatedMilestonesNotModified() {
+        String page1ETag = "4c0ad3c08dc706b76d8277a88a4c037e";
+        String page2ETag = "4b56f029e953e9983344b9e0b60d9a71";
+        mockServer.reset();
+        mockServer
+                .when(createMockServerRequest("GET", 1).withHeader("If-None-Match", "\"" + page1ETag + "\""))
+                .respond(response().withStatusCode(304).withHeaders(TestUtils.parseHeaderRecord(page1Header)));
+        mockServer
+                .when(createMockServerRequest("GET", 2).withHeader("If-None-Match", "\"" + page2ETag + "\""))
+                .respond(response().withStatusCode(304));
+
+        GitHubClientEx client = new GitHubClientEx("localhost", 8888, "http");
+        String previousETags = page1ETag + "#" + page2ETag;
+        MilestoneUpdateService service = new MilestoneUpdateService(client, previousETags);
+
+        List<Milestone> milestones = service.getUpdatedItems(RepositoryId.createFromId("teammates/repo"));
+
+        assertTrue(milestones.isEmpty());
+        assertEquals(previousETags, service.getUpdatedETags());
+        mockServer.verify(createMockServerRequest("GET", 1), VerificationTimes.exactly(1));
+        mockServer.verify(createMockServerRequest("GET", 2), VerificationTimes.exactly(1));
+        mockServer.verify(HttpRequest.request().withMethod("HEAD"), VerificationTimes.exactly(0));
+    }
+
     private static HttpRequest createMockServerRequest(String method, int page) {
         return TestUtils.createMockServerRequest(method, page, "teammates/repo", "19369035", "/milestones");
     }
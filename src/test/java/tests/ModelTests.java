@@ -11,6 +11,7 @@ import org.junit.Test;
 import java.util.*;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertTrue;
 
@@ -208,6 +209,27 @@ public class ModelTests {
         }
     }
 
+    @Test
+    public void lookups_duplicateKeys_returnFirstMatch() {
+        TurboIssue first = new TurboIssue(REPO, 1, "first");
+        TurboLabel label = new TurboLabel(REPO, "bug");
+        TurboUser user = new TurboUser(REPO, "alice");
+        Model model = new Model(REPO,
+                                new ArrayList<>(Arrays.asList(first, new TurboIssue(REPO, 1, "second"))),
+                                new ArrayList<>(Arrays.asList(label, new TurboLabel(REPO, "bug"))),
+                                new ArrayList<>(),
+                                new ArrayList<>(Arrays.asList(user, new TurboUser(REPO, "alice"))));
+
+        assertTrue(first == model.getIssueById(1).get());
+        assertTrue(label == model.getLabelByActualName("bug").get());
+        assertTrue(user == model.getUserByLogin("alice").get());
+        assertFalse(model.getIssueById(2).isPresent());
+        assertFalse(model.getMilestoneById(1).isPresent());
+
+        first.setLabels(new ArrayList<>(Arrays.asList("bug", "feature")));
+        assertEquals(Arrays.asList(label), model.getLabelsOfIssue(first));
+    }
+
     @Test
     public void operations() {
 
@@ -4,6 +4,8 @@ import backend.RepoIO;
 import backend.json.JSONStoreStub;
 import backend.resource.Model;
 import backend.resource.MultiModel;
+import backend.resource.MultiModelSnapshot;
+import backend.resource.TurboIssue;
 import backend.resource.TurboUser;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -240,4 +242,40 @@ public class MultiModelTest {
         models.replaceIssueAssignee(repoId, issueId, assignee);
         verify(mockedModel).replaceIssueAssignee(issueId, assignee);
     }
+
+    @Test
+    public void getSnapshot_publishedAfterEachChange() {
+        MultiModel models = new MultiModel(mock(Preferences.class));
+        MultiModelSnapshot empty = models.getSnapshot();
+        assertTrue(empty.getIssues().isEmpty());
+
+        models.queuePendingRepository(REPO);
+        models.addPending(new Model(REPO, new ArrayList<>(Arrays.asList(new TurboIssue(REPO, 1, "issue"))),
+                                    new ArrayList<>(), new ArrayList<>(), new ArrayList<>()));
+        MultiModelSnapshot added = models.getSnapshot();
+        assertEquals(1, added.getIssues().size());
+        assertTrue(added.getModelById(REPO).isPresent());
+        assertTrue(added.getVersion() > empty.getVersion());
+        assertTrue(empty.getIssues().isEmpty());
+
+        // Unchanged models are read without copying
+        assertSame(added.getIssues(), models.getIssues());
+
+        models.editIssueState(REPO, 1, false);
+        MultiModelSnapshot edited = models.getSnapshot();
+        assertTrue(edited.getVersion() > added.getVersion());
+        assertSame(added.getIssues(), edited.getIssues());
+
+        models.setDefaultRepo(REPO);
+        assertEquals(REPO, models.getSnapshot().getDefaultRepo());
+
+        models.removeRepoModelById(REPO);
+        assertTrue(models.getIssues().isEmpty());
+        assertEquals(1, edited.getIssues().size());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void getIssues_unmodifiable() {
+        multiModel.getIssues().add(new TurboIssue(REPO, 1, "issue"));
+    }
 }
@@ -0,0 +1,113 @@
+package tests;
+
+import com.google.gson.reflect.TypeToken;
+import github.GitHubClientEx;
+import github.ParallelPageDownloader;
+import org.eclipse.egit.github.core.Comment;
+import org.eclipse.egit.github.core.client.PagedRequest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockserver.integration.ClientAndServer;
+import org.mockserver.matchers.Times;
+import org.mockserver.model.HttpRequest;
+import org.mockserver.verify.VerificationTimes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.eclipse.egit.github.core.client.IGitHubConstants.SEGMENT_REPOS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockserver.model.HttpRequest.request;
+import static org.mockserver.model.HttpResponse.response;
+
+public class ParallelPageDownloaderTests {
+
+    private static final String PATH = "/test/test/issues/1/comments";
+    private static final int PAGE_COUNT = 4;
+
+    private ClientAndServer mockServer;
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        mockServer = ClientAndServer.startClientAndServer(8888);
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+        mockServer.stop();
+    }
+
+    /**
+     * Tests that all pages are downloaded and reassembled in order, and that progress is reported
+     * without going backwards up to completion
+     */
+    @Test
+    public void testGetAll() {
+        respondWithPages();
+        ParallelPageDownloader<Comment, String> downloader = new ParallelPageDownloader<>(
+                new GitHubClientEx("localhost", 8888, "http"), executor, Comment.class, Comment::getBody, 3, 1);
+
+        List<Float> progress = new ArrayList<>();
+        List<String> comments = downloader.getAll(createCommentsRequest(), progress::add);
+
+        assertEquals("1 2 3 4", String.join(" ", comments));
+        for (int i = 1; i < progress.size(); i++) {
+            assertTrue(progress.get(i) >= progress.get(i - 1));
+        }
+        assertEquals(1f, progress.get(progress.size() - 1), 0);
+        for (int page = 1; page <= PAGE_COUNT; page++) {
+            mockServer.verify(createPageRequest(page), VerificationTimes.exactly(1));
+        }
+    }
+
+    /**
+     * Tests that a page rejected by secondary rate limits is requested again, and that pages which cannot
+     * be downloaded end the result
+     */
+    @Test
+    public void testGetAllSecondaryRateLimit() {
+        mockServer.when(createPageRequest(3), Times.once())
+                .respond(response().withStatusCode(403)
+                                 .withBody("{\"message\": \"You have exceeded a secondary rate limit.\"}"));
+        mockServer.when(createPageRequest(4))
+                .respond(response().withStatusCode(500).withBody("{\"message\": \"Server Error\"}"));
+        respondWithPages();
+        ParallelPageDownloader<Comment, String> downloader = new ParallelPageDownloader<>(
+                new GitHubClientEx("localhost", 8888, "http"), executor, Comment.class, Comment::getBody, 3, 1);
+
+        List<String> comments = downloader.getAll(createCommentsRequest(), progress -> {});
+
+        assertEquals("1 2 3", String.join(" ", comments));
+        mockServer.verify(createPageRequest(3), VerificationTimes.exactly(2));
+    }
+
+    private void respondWithPages() {
+        String lastLink = "<https://api.github.com/repos" + PATH + "?per_page=100&page=" + PAGE_COUNT
+                + ">; rel=\"last\"";
+        for (int page = 1; page <= PAGE_COUNT; page++) {
+            mockServer.when(createPageRequest(page))
+                    .respond(response().withHeader("Link", lastLink)
+                                     .withBody("[{\"body\": \"" + page + "\"}]"));
+        }
+    }
+
+    private static HttpRequest createPageRequest(int page) {
+        return request().withPath(TestUtils.API_PREFIX + SEGMENT_REPOS + PATH)
+                .withQueryStringParameter("page", Integer.toString(page));
+    }
+
+    private static PagedRequest<Comment> createCommentsRequest() {
+        PagedRequest<Comment> request = new PagedRequest<>();
+        request.setUri(SEGMENT_REPOS + PATH);
+        request.setType(new TypeToken<List<Comment>>() {
+        }.getType());
+        return request;
+    }
+}
@@ -0,0 +1,147 @@
+package tests;
+
+import backend.RefreshScheduler;
+import org.junit.Before;
+import org.junit.Test;
+import ui.issuepanel.FilterPanel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class RefreshSchedulerTests {
+
+    private final FilterPanel panel1 = mock(FilterPanel.class);
+    private final FilterPanel panel2 = mock(FilterPanel.class);
+    private final FilterPanel panel3 = mock(FilterPanel.class);
+
+    private Queue<Runnable> tasks;
+    private List<List<FilterPanel>> refreshes;
+    private List<List<FilterPanel>> refilters;
+    private RefreshScheduler scheduler;
+
+    @Before
+    public void setup() {
+        tasks = new LinkedList<>();
+        refreshes = new ArrayList<>();
+        refilters = new ArrayList<>();
+        scheduler = new RefreshScheduler(() -> Arrays.asList(panel1, panel2, panel3), refreshes::add,
+                                         refilters::add, tasks::add);
+    }
+
+    @Test
+    public void requestRefresh_idle_executesOnce() {
+        scheduler.requestRefresh();
+        assertEquals(1, tasks.size());
+
+        runTasks();
+        assertEquals(Arrays.asList(Arrays.asList(panel1, panel2, panel3)), refreshes);
+        assertEquals(1, scheduler.getRequestedCount());
+        assertEquals(1, scheduler.getExecutedCount());
+    }
+
+    @Test
+    public void requestRefresh_burst_coalesced() {
+        for (int i = 0; i < 10; i++) {
+            scheduler.requestRefresh();
+        }
+        assertEquals(1, tasks.size());
+
+        runTasks();
+        assertEquals(1, refreshes.size());
+        assertEquals(10, scheduler.getRequestedCount());
+        assertEquals(1, scheduler.getExecutedCount());
+    }
+
+    @Test
+    public void requestRefresh_duringRefresh_onePendingRefresh() {
+        scheduler = new RefreshScheduler(() -> Arrays.asList(panel1, panel2, panel3), panels -> {
+            refreshes.add(panels);
+            if (refreshes.size() == 1) {
+                // Requests made while the first refresh is in flight
+                scheduler.requestRefresh(Arrays.asList(panel2));
+                scheduler.requestRefresh(Arrays.asList(panel3, panel2));
+                assertTrue(tasks.isEmpty());
+            }
+        }, refilters::add, tasks::add);
+
+        scheduler.requestRefresh(Arrays.asList(panel1));
+        runTasks();
+
+        assertEquals(Arrays.asList(Arrays.asList(panel1), Arrays.asList(panel2, panel3)), refreshes);
+        assertEquals(3, scheduler.getRequestedCount());
+        assertEquals(2, scheduler.getExecutedCount());
+    }
+
+    @Test
+    public void requestRefresh_allPanelsDirty_overridesPanels() {
+        scheduler.requestRefresh(Arrays.asList(panel1));
+        scheduler.requestRefresh();
+        scheduler.requestRefresh(Arrays.asList(panel2));
+        runTasks();
+
+        assertEquals(Arrays.asList(Arrays.asList(panel1, panel2, panel3)), refreshes);
+    }
+
+    @Test
+    public void requestRefresh_failingRefresh_laterRequestsStillExecuted() {
+        scheduler = new RefreshScheduler(() -> Arrays.asList(panel1), panels -> {
+            refreshes.add(panels);
+            throw new IllegalStateException();
+        }, refilters::add, tasks::add);
+
+        scheduler.requestRefresh();
+        runTasks();
+        scheduler.requestRefresh();
+        runTasks();
+
+        assertEquals(2, refreshes.size());
+        assertEquals(2, scheduler.getExecutedCount());
+    }
+
+    @Test
+    public void requestRefilter_burst_coalesced() {
+        for (int i = 0; i < 10; i++) {
+            scheduler.requestRefilter(Arrays.asList(panel1, panel2));
+        }
+        assertEquals(1, tasks.size());
+
+        runTasks();
+        assertEquals(Arrays.asList(Arrays.asList(panel1, panel2)), refilters);
+        assertTrue(refreshes.isEmpty());
+        assertEquals(0, scheduler.getExecutedCount());
+        assertTrue(scheduler.isIdle());
+    }
+
+    @Test
+    public void requestRefilter_refreshPending_servedByRefresh() {
+        scheduler.requestRefilter(Arrays.asList(panel1, panel2));
+        scheduler.requestRefresh(Arrays.asList(panel2));
+        runTasks();
+
+        assertEquals(Arrays.asList(Arrays.asList(panel2)), refreshes);
+        assertEquals(Arrays.asList(Arrays.asList(panel1)), refilters);
+
+        refreshes.clear();
+        refilters.clear();
+        scheduler.requestRefilter(Arrays.asList(panel1));
+        scheduler.requestRefresh();
+        scheduler.requestRefilter(Arrays.asList(panel2));
+        runTasks();
+
+        assertEquals(Arrays.asList(Arrays.asList(panel1, panel2, panel3)), refreshes);
+        assertTrue(refilters.isEmpty());
+    }
+
+    private void runTasks() {
+        while (!tasks.isEmpty()) {
+            tasks.poll().run();
+        }
+    }
+}
@@ -16,8 +16,10 @@ import util.Futures;
 
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Queue;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
@@ -28,6 +30,8 @@ import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyBoolean;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class RepoOpControlTest {
@@ -213,6 +217,31 @@ public class RepoOpControlTest {
         assertEquals(true, result);
     }
 
+    /**
+     * Tests that consecutive local model updates queued on the same repository are merged into one operation,
+     * which replaces the stored model once and completes the result of every update
+     */
+    @Test
+    public void updateLocalModel_consecutiveUpdates_merged() {
+        Queue<Runnable> tasks = new LinkedList<>();
+        MultiModel models = mock(MultiModel.class);
+        when(models.getModelById(REPO)).thenReturn(Optional.of(new Model(REPO)));
+        RepoOpControl control = new RepoOpControl(mock(RepoIO.class), models, tasks::add);
+
+        List<CompletableFuture<Model>> futures = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            futures.add(control.updateLocalModel(createEmptyModelUpdatesData(new Model(REPO)), true));
+        }
+        assertEquals(1, tasks.size());
+        while (!tasks.isEmpty()) {
+            tasks.poll().run();
+        }
+
+        assertTrue(futures.stream().allMatch(future -> future.isDone() && !future.isCompletedExceptionally()));
+        assertEquals(2, control.getMergedOpCount());
+        verify(models, times(1)).replace(any(Model.class));
+    }
+
     /**
      * Creates a stub RepoIO with artificial delay for various operations, and
      * which increments a value for purposes of verifying behaviour.
@@ -1,6 +1,8 @@
 package tests;
 
 import backend.RepoIO;
+import backend.binary.BinaryStore;
+import backend.binary.JournaledStore;
 import backend.interfaces.RepoStore;
 import org.junit.Before;
 import org.junit.BeforeClass;
@@ -31,7 +33,11 @@ public class RepositorySelectorPopulationTests {
         try {
             Files.walk(Paths.get(RepoStore.TEST_DIRECTORY), 1)
                     .filter(Files::isRegularFile)
-                    .filter(p -> getFileExtension(String.valueOf(p.getFileName())).equalsIgnoreCase("json"))
+                    .filter(p -> getFileExtension(String.valueOf(p.getFileName())).equalsIgnoreCase("json")
+                            || getFileExtension(String.valueOf(p.getFileName())).equalsIgnoreCase(
+                                    BinaryStore.FILE_EXTENSION)
+                            || getFileExtension(String.valueOf(p.getFileName())).equalsIgnoreCase(
+                                    JournaledStore.JOURNAL_EXTENSION))
                     .forEach(p -> new File(p.toAbsolutePath().toString()).delete());
         } catch (IOException e) {
             e.printStackTrace();
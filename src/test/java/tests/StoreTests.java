@@ -1,10 +1,19 @@
 package tests;
 
 import backend.RepoIO;
+import backend.UpdateSignature;
+import backend.binary.BinaryStore;
+import backend.binary.JournaledStore;
 import backend.interfaces.RepoStore;
 import backend.json.JSONStore;
 import backend.json.JSONStoreStub;
 import backend.resource.Model;
+import backend.resource.ModelDelta;
+import backend.resource.TurboIssue;
+import backend.resource.TurboLabel;
+import backend.resource.TurboMilestone;
+import backend.resource.TurboUser;
+import backend.resource.serialization.SerializableModel;
 import backend.stub.DummyRepoState;
 import guitests.UITest;
 
@@ -19,12 +28,22 @@ import util.events.EventDispatcherStub;
 import util.events.testevents.UpdateDummyRepoEvent;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
 import java.util.Optional;
 import java.util.concurrent.ExecutionException;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 public class StoreTests {
@@ -145,11 +164,193 @@ public class StoreTests {
         UI.events.triggerEvent(UpdateDummyRepoEvent.newIssue("dummy1/dummy1"));
         testIO.updateModel(dummy1, false).get();
 
-        assertEquals(true, Files.exists(Paths.get("store/test/dummy1-dummy1.json")));
+        assertEquals(true, Files.exists(Paths.get("store/test/dummy1-dummy1.bin")));
 
         testIO.removeRepository("dummy1/dummy1").get();
 
-        assertEquals(false, Files.exists(Paths.get("store/test/dummy1-dummy1.json")));
+        assertEquals(false, Files.exists(Paths.get("store/test/dummy1-dummy1.bin")));
+    }
+
+    @Test
+    public void testBinaryStoreRoundTrip() throws InterruptedException, ExecutionException {
+        Model model = createModel("testrepo/testrepo");
+
+        BinaryStore binaryStore = new BinaryStore();
+        assertFalse(binaryStore.saveRepository(model.getRepoId(), new SerializableModel(model)).get());
+        Model loaded = binaryStore.loadRepository(model.getRepoId()).get();
+
+        assertEquals(model, loaded);
+        assertEquals(model.getUpdateSignature().lastCheckTime, loaded.getUpdateSignature().lastCheckTime);
+        assertEquals(Arrays.asList("testrepo/testrepo"), binaryStore.getStoredRepos());
+    }
+
+    @Test
+    public void testBinaryStoreEmptySignature() throws InterruptedException, ExecutionException {
+        Model model = new Model("testrepo/testrepo");
+
+        BinaryStore binaryStore = new BinaryStore();
+        binaryStore.saveRepository(model.getRepoId(), new SerializableModel(model)).get();
+
+        assertTrue(binaryStore.loadRepository(model.getRepoId()).get().getUpdateSignature().isEmpty());
+    }
+
+    @Test
+    public void testBinaryStoreImportsJSON() throws InterruptedException, ExecutionException {
+        Model model = createModel("testrepo/testrepo");
+        JSONStore.exportRepository(model.getRepoId(), new SerializableModel(model));
+
+        BinaryStore binaryStore = new BinaryStore();
+        assertEquals(Arrays.asList("testrepo/testrepo"), binaryStore.getStoredRepos());
+        assertEquals(model.getIssues(), binaryStore.loadRepository(model.getRepoId()).get().getIssues());
+
+        // The repository is then stored in binary, and listed once
+        assertTrue(Files.exists(Paths.get("store/test/testrepo-testrepo.bin")));
+        assertEquals(Arrays.asList("testrepo/testrepo"), binaryStore.getStoredRepos());
+
+        binaryStore.removeStoredRepo(model.getRepoId()).get();
+        assertFalse(Files.exists(Paths.get("store/test/testrepo-testrepo.bin")));
+        assertFalse(Files.exists(Paths.get("store/test/testrepo-testrepo.json")));
+    }
+
+    @Test
+    public void testBinaryStoreExportsJSON() throws InterruptedException, ExecutionException {
+        Model model = createModel("testrepo/testrepo");
+
+        BinaryStore binaryStore = new BinaryStore();
+        binaryStore.saveRepository(model.getRepoId(), new SerializableModel(model)).get();
+        assertFalse(binaryStore.exportRepository(model.getRepoId()).get());
+
+        assertEquals(model.getIssues(), new JSONStore().loadRepository(model.getRepoId()).get().getIssues());
+    }
+
+    @Test(expected = ExecutionException.class)
+    public void testCorruptedBinary() throws InterruptedException, ExecutionException, IOException {
+        Files.createDirectories(Paths.get(RepoStore.TEST_DIRECTORY));
+        Files.write(Paths.get("store/test/testrepo-testrepo.bin"), "abcde".getBytes(StandardCharsets.UTF_8));
+
+        BinaryStore binaryStore = new BinaryStore();
+        assertEquals(0, binaryStore.getStoredRepos().size());
+        binaryStore.loadRepository("testrepo/testrepo").get();
+    }
+
+    @Test
+    public void testJournaledStoreAppendsChanges() throws InterruptedException, ExecutionException, IOException {
+        Model model = createModel("testrepo/testrepo");
+        JournaledStore journaledStore = new JournaledStore();
+        journaledStore.saveRepository(model.getRepoId(), new SerializableModel(model)).get();
+        long snapshotSize = Files.size(Paths.get("store/test/testrepo-testrepo.bin"));
+
+        Model newModel = modifyModel(model);
+        assertFalse(journaledStore.updateRepository(model, newModel).get());
+
+        assertEquals(snapshotSize, Files.size(Paths.get("store/test/testrepo-testrepo.bin")));
+        assertTrue(Files.exists(Paths.get("store/test/testrepo-testrepo.journal")));
+        Model loaded = new JournaledStore().loadRepository(model.getRepoId()).get();
+        assertEquals(newModel, loaded);
+        assertEquals(newModel.getUpdateSignature().lastCheckTime, loaded.getUpdateSignature().lastCheckTime);
+    }
+
+    @Test
+    public void testJournaledStoreSavesLocalChanges() throws InterruptedException, ExecutionException {
+        Model model = createModel("testrepo/testrepo");
+        JournaledStore journaledStore = new JournaledStore();
+        journaledStore.saveRepository(model.getRepoId(), new SerializableModel(model)).get();
+
+        TurboIssue issue = new TurboIssue(model.getIssues().get(1));
+        issue.setLabels(new ArrayList<>(Arrays.asList("b.c")));
+        journaledStore.saveRepositoryChanges(ModelDelta.ofIssues(model.getRepoId(), Arrays.asList(issue))).get();
+        issue.setOpen(false);
+        journaledStore.saveRepositoryChanges(ModelDelta.ofIssues(model.getRepoId(), Arrays.asList(issue))).get();
+
+        Model loaded = journaledStore.loadRepository(model.getRepoId()).get();
+        assertEquals(Arrays.asList("b.c"), loaded.getIssueById(2).get().getLabels());
+        assertFalse(loaded.getIssueById(2).get().isOpen());
+        assertEquals(model.getIssueById(1), loaded.getIssueById(1));
+    }
+
+    @Test
+    public void testJournaledStoreCompactsJournal() throws InterruptedException, ExecutionException {
+        Model model = createModel("testrepo/testrepo");
+        JournaledStore journaledStore = new JournaledStore(0);
+        journaledStore.saveRepository(model.getRepoId(), new SerializableModel(model)).get();
+
+        Model newModel = modifyModel(model);
+        journaledStore.updateRepository(model, newModel).get();
+        // Compaction happens on the store's thread, before later operations
+        Model loaded = journaledStore.loadRepository(model.getRepoId()).get();
+
+        assertFalse(Files.exists(Paths.get("store/test/testrepo-testrepo.journal")));
+        assertEquals(newModel, loaded);
+    }
+
+    @Test
+    public void testJournaledStoreIgnoresTruncatedRecord()
+            throws InterruptedException, ExecutionException, IOException {
+        Model model = createModel("testrepo/testrepo");
+        JournaledStore journaledStore = new JournaledStore();
+        journaledStore.saveRepository(model.getRepoId(), new SerializableModel(model)).get();
+
+        Model newModel = modifyModel(model);
+        journaledStore.updateRepository(model, newModel).get();
+        TurboIssue issue = new TurboIssue(newModel.getIssueById(1).get());
+        issue.setTitle("Not fully written");
+        journaledStore.saveRepositoryChanges(ModelDelta.ofIssues(model.getRepoId(), Arrays.asList(issue))).get();
+
+        // Cut the last record short, as a crash while appending would
+        Path journal = Paths.get("store/test/testrepo-testrepo.journal");
+        byte[] content = Files.readAllBytes(journal);
+        Files.write(journal, Arrays.copyOf(content, content.length - 5));
+
+        assertEquals(newModel, journaledStore.loadRepository(model.getRepoId()).get());
+        assertEquals(newModel, journaledStore.loadRepository(model.getRepoId()).get());
+        assertFalse(Files.exists(journal));
+    }
+
+    @Test
+    public void testJournaledStoreWithoutSnapshotSavesModel() throws InterruptedException, ExecutionException {
+        Model model = createModel("testrepo/testrepo");
+        Model newModel = modifyModel(model);
+        JournaledStore journaledStore = new JournaledStore();
+
+        journaledStore.updateRepository(model, newModel).get();
+
+        assertFalse(Files.exists(Paths.get("store/test/testrepo-testrepo.journal")));
+        assertEquals(newModel, journaledStore.loadRepository(model.getRepoId()).get());
+    }
+
+    /**
+     * Modifies an issue, adds another, and removes a label and a user of a model created by createModel.
+     */
+    private static Model modifyModel(Model model) {
+        String repoId = model.getRepoId();
+        TurboIssue modifiedIssue = new TurboIssue(model.getIssueById(1).get());
+        modifiedIssue.setLabels(new ArrayList<>(Arrays.asList("a")));
+        modifiedIssue.setCommentCount(4);
+        return new Model(repoId,
+                         Arrays.asList(modifiedIssue, model.getIssueById(2).get(), new TurboIssue(repoId, 3, "New")),
+                         Arrays.asList(model.getLabels().get(0)),
+                         model.getMilestones(),
+                         Arrays.asList(model.getUsers().get(0)),
+                         new UpdateSignature("issues2", null, "milestones", "collaborators", new Date(1234567891L)));
+    }
+
+    private static Model createModel(String repoId) {
+        TurboIssue issue = new TurboIssue(repoId, 1, "Issue \u00e9\u4e2d", "creator",
+                                          LocalDateTime.of(2015, 1, 2, 3, 4, 5, 6), true, "Description",
+                                          LocalDateTime.of(2015, 2, 3, 4, 5, 6, 7), 3, false,
+                                          Optional.of("assignee"), new ArrayList<>(Arrays.asList("a", "b.c")),
+                                          Optional.of(2));
+        TurboIssue otherIssue = new TurboIssue(repoId, 2, "Other issue");
+        otherIssue.setLabels(new ArrayList<>(Arrays.asList("a")));
+        TurboMilestone milestone = new TurboMilestone(repoId, 2, "Milestone");
+        milestone.setDueDate(Optional.of(LocalDate.of(2015, 3, 4)));
+        milestone.setOpenIssues(5);
+        TurboMilestone otherMilestone = new TurboMilestone(repoId, 3, "Other milestone");
+        return new Model(repoId, Arrays.asList(issue, otherIssue),
+                         Arrays.asList(new TurboLabel(repoId, "a"), new TurboLabel(repoId, "00ff00", "b.c")),
+                         Arrays.asList(milestone, otherMilestone),
+                         Arrays.asList(new TurboUser(repoId, "creator", "Creator"), new TurboUser(repoId, "assignee")),
+                         new UpdateSignature("issues", null, "milestones", "collaborators", new Date(1234567890L)));
     }
 
     @After
@@ -0,0 +1,129 @@
+package tests;
+
+import backend.SyncScheduler;
+import backend.github.DownloadMetadataTask;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SyncSchedulerTests {
+
+    private static final long SECOND = 1000;
+    private static final long BASE_INTERVAL = SyncScheduler.BASE_INTERVAL * SECOND;
+
+    private long now;
+    private Set<String> openRepos;
+    private Set<String> visibleRepos;
+    private List<String> polls;
+    private boolean isChanged;
+    private SyncScheduler scheduler;
+
+    @Before
+    public void setup() {
+        now = 0;
+        openRepos = new HashSet<>(Arrays.asList("test/visible", "test/hidden"));
+        visibleRepos = new HashSet<>(Arrays.asList("test/visible"));
+        polls = new ArrayList<>();
+        isChanged = false;
+        scheduler = new SyncScheduler(() -> openRepos, () -> visibleRepos, repoId -> {
+            polls.add(repoId);
+            return CompletableFuture.completedFuture(isChanged);
+        }, () -> now);
+    }
+
+    /**
+     * Tests that visible repositories are polled every base interval, and hidden ones less often
+     */
+    @Test
+    public void tick_visibleAndHidden_hiddenPolledLessOften() {
+        assertEquals(SyncScheduler.BASE_INTERVAL, scheduler.tick());
+        isChanged = true;
+
+        advanceTo(BASE_INTERVAL);
+        assertEquals(Arrays.asList("test/visible"), polls);
+
+        // Both are due then, and the hidden repository is polled on the tick after the visible one
+        advanceTo(SyncScheduler.HIDDEN_FACTOR * BASE_INTERVAL + SECOND);
+        assertEquals(SyncScheduler.HIDDEN_FACTOR, polls.stream().filter("test/visible"::equals).count());
+        assertEquals(1, polls.stream().filter("test/hidden"::equals).count());
+    }
+
+    /**
+     * Tests that repositories back off after polls finding no changes, and return to the base interval once
+     * a poll finds changes
+     */
+    @Test
+    public void tick_quietRepository_backsOff() {
+        openRepos.remove("test/hidden");
+        scheduler.tick();
+
+        advanceTo(BASE_INTERVAL);
+        assertEquals(1, polls.size());
+        assertEquals(Math.round(BASE_INTERVAL * SyncScheduler.QUIET_BACKOFF),
+                     (long) scheduler.getInterval("test/visible").get());
+
+        isChanged = true;
+        advanceTo(BASE_INTERVAL + Math.round(BASE_INTERVAL * SyncScheduler.QUIET_BACKOFF));
+        assertEquals(2, polls.size());
+        assertEquals(BASE_INTERVAL, (long) scheduler.getInterval("Test/Visible").get());
+        assertEquals(2, scheduler.getPollCount());
+        assertEquals(1, scheduler.getChangedPollCount());
+    }
+
+    /**
+     * Tests that repositories falling due together are polled on separate ticks, visible ones first
+     */
+    @Test
+    public void tick_dueTogether_pollsSpreadOut() {
+        visibleRepos.clear();
+        scheduler.tick();
+        visibleRepos.add("test/hidden");
+        now = SyncScheduler.HIDDEN_FACTOR * BASE_INTERVAL;
+
+        scheduler.tick();
+        assertEquals(Arrays.asList("test/hidden"), polls);
+        scheduler.tick();
+        assertEquals(Arrays.asList("test/hidden", "test/visible"), polls);
+    }
+
+    /**
+     * Tests that intervals are stretched when the remaining quota does not cover the planned polls, and that
+     * polls wait for the quota to reset when it is used up
+     */
+    @Test
+    public void tick_lowQuota_intervalsStretched() {
+        openRepos.remove("test/hidden");
+        scheduler.tick();
+        long resetTime = 3600 * SECOND;
+        // 60 polls planned until the reset, each of REQUESTS_PER_POLL requests
+        int plannedRequests = 60 * SyncScheduler.REQUESTS_PER_POLL;
+
+        scheduler.updateRateLimits(new ImmutablePair<>(
+                DownloadMetadataTask.RATE_LIMIT_RESERVE + 2 * plannedRequests, resetTime));
+        assertEquals(BASE_INTERVAL, (long) scheduler.getInterval("test/visible").get());
+
+        scheduler.updateRateLimits(new ImmutablePair<>(
+                DownloadMetadataTask.RATE_LIMIT_RESERVE + plannedRequests / 2, resetTime));
+        assertEquals(2 * BASE_INTERVAL, (long) scheduler.getInterval("test/visible").get());
+
+        scheduler.updateRateLimits(new ImmutablePair<>(DownloadMetadataTask.RATE_LIMIT_RESERVE, resetTime));
+        assertTrue(scheduler.getInterval("test/visible").get() >= resetTime);
+    }
+
+    private void advanceTo(long time) {
+        while (now < time) {
+            now += SECOND;
+            scheduler.tick();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package tests;
+
+import backend.UpdateSignature;
+import backend.resource.Model;
+import backend.resource.TextIndex;
+import backend.resource.TurboIssue;
+import org.junit.Test;
+import util.Utility;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TextIndexTests {
+
+    private static final String REPO = "test/test";
+
+    private static TurboIssue createIssue(int id, String title, String description) {
+        TurboIssue issue = new TurboIssue(REPO, id, title);
+        issue.setDescription(description);
+        return issue;
+    }
+
+    private static Model createModel(List<TurboIssue> issues) {
+        return new Model(REPO, issues, new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+    }
+
+    private static void assertMatchesLikeScan(Model model, List<TurboIssue> issues, String query) {
+        for (TextIndex.Field field : TextIndex.Field.values()) {
+            Predicate<TurboIssue> matcher = model.getTextIndex().matcher(field, query);
+            for (TurboIssue issue : issues) {
+                String text = field == TextIndex.Field.TITLE ? issue.getTitle() : issue.getDescription();
+                assertEquals(field + " of #" + issue.getId() + " against " + query,
+                             Utility.containsLowerCaseQuery(text, query), matcher.test(issue));
+            }
+        }
+    }
+
+    /**
+     * Tests that queries of any length match the same issues as scanning their text does
+     */
+    @Test
+    public void matcher_substringQueries_sameMatchesAsScan() {
+        List<TurboIssue> issues = Arrays.asList(
+                createIssue(1, "Fix NullPointerException in parser", "Happens when the PARSER sees an empty line"),
+                createIssue(2, "Parse dates", "See #1"),
+                createIssue(3, "", ""),
+                createIssue(4, "Straße", "ΣΊΣΥΦΟΣ"));
+        Model model = createModel(issues);
+
+        for (String query : Arrays.asList("", "p", "pa", "par", "parse", "parser", "pointer", "nullpointerexception",
+                                          "exception in", "empty line", "sees an empty", "#1", "see #1", "xyz",
+                                          "parsed", "straße", "σίσυφος", "ίσυ")) {
+            assertMatchesLikeScan(model, issues, query);
+        }
+    }
+
+    /**
+     * Tests that a later version of a model only indexes the issues whose text changed, and that the
+     * earlier version still matches its own issues correctly
+     */
+    @Test
+    public void matcher_laterModelVersion_onlyChangedIssuesIndexed() {
+        List<TurboIssue> issues = Arrays.asList(createIssue(1, "Old title", "Old description"),
+                                                createIssue(2, "Unchanged", "Unchanged description"));
+        Model model = createModel(issues);
+        assertTrue(model.getTextIndex().matcher(TextIndex.Field.TITLE, "old").test(issues.get(0)));
+        assertEquals(2, model.getTextIndex().getDocumentCount());
+
+        TurboIssue renamed = createIssue(1, "New title", "Old description");
+        TurboIssue added = createIssue(3, "Added", "Added description");
+        List<TurboIssue> updatedIssues = Arrays.asList(renamed, new TurboIssue(issues.get(1)), added);
+        Model updated = new Model(model, updatedIssues, new ArrayList<>(), new ArrayList<>(), new ArrayList<>(),
+                                  UpdateSignature.EMPTY);
+        assertMatchesLikeScan(updated, updatedIssues, "new title");
+        assertMatchesLikeScan(updated, updatedIssues, "old title");
+        assertMatchesLikeScan(updated, updatedIssues, "description");
+        assertEquals(4, updated.getTextIndex().getDocumentCount());
+
+        // The index now holds the text of the renamed issue, but the earlier version keeps its old title
+        assertTrue(model.getTextIndex().matcher(TextIndex.Field.TITLE, "old title").test(issues.get(0)));
+        assertFalse(model.getTextIndex().matcher(TextIndex.Field.TITLE, "new title").test(issues.get(0)));
+    }
+}
@@ -1,5 +1,7 @@
 package tests;
 
+import backend.resource.HeapFootprint;
+import backend.resource.Model;
 import backend.resource.TurboIssue;
 import backend.resource.TurboLabel;
 import org.eclipse.egit.github.core.Issue;
@@ -196,4 +198,70 @@ public class TurboIssueTests {
                                                             Arrays.asList(updatedIssue));
         assertEquals(originalLabels, updatedList.get(0).getLabels());
     }
+
+    /**
+     * Tests that times are kept exactly, and that absent values are still reported as such
+     */
+    @Test
+    public void compactFields_roundTrip() {
+        LocalDateTime createdAt = LocalDateTime.of(2015, 6, 1, 12, 30, 15, 123456789);
+        TurboIssue issue = new TurboIssue(REPO, 1, "", "bob", createdAt, false);
+        assertEquals(createdAt, issue.getCreatedAt());
+        assertEquals(createdAt, issue.getUpdatedAt());
+        assertFalse(issue.getMilestone().isPresent());
+        assertFalse(issue.getAssignee().isPresent());
+        assertFalse(issue.getMarkedReadAt().isPresent());
+        assertFalse(issue.isCurrentlyRead());
+
+        issue.setMarkedReadAt(Optional.of(createdAt.plusNanos(1)));
+        issue.setMilestoneById(1);
+        issue.setAssignee("alice");
+        assertEquals(Optional.of(createdAt.plusNanos(1)), issue.getMarkedReadAt());
+        assertTrue(issue.isCurrentlyRead());
+        assertEquals(Optional.of(1), issue.getMilestone());
+        assertEquals(Optional.of("alice"), issue.getAssignee());
+        assertNull(new TurboIssue(REPO, 2, "", "bob", null, false).getCreatedAt());
+    }
+
+    /**
+     * Tests that the logins and labels of issues are shared, and that labels may still be modified in place
+     */
+    @Test
+    public void compactFields_sharedBetweenIssues() {
+        TurboIssue first = new TurboIssue(REPO, 1, "", new String("bob"), null, false);
+        TurboIssue second = new TurboIssue(REPO, 2, "", new String("bob"), null, false);
+        first.setLabels(new ArrayList<>(Arrays.asList(new String("a"), "b")));
+        second.setLabels(Arrays.asList("a", new String("b")));
+
+        assertSame(first.getCreator(), second.getCreator());
+        assertSame(first.getLabels().get(0), second.getLabels().get(0));
+
+        first.getLabels().add("c");
+        assertEquals(Arrays.asList("a", "b", "c"), first.getLabels());
+        assertEquals(Arrays.asList("a", "b"), second.getLabels());
+        first.getLabels().remove("c");
+        assertEquals(first, new TurboIssue(first));
+        assertEquals(second.getLabels(), first.getLabels());
+    }
+
+    /**
+     * Tests that the heap footprint of a model counts shared strings and label sets once
+     */
+    @Test
+    public void heapFootprint_sharedObjects_countedOnce() {
+        List<TurboIssue> issues = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            TurboIssue issue = new TurboIssue(REPO, i, "Issue " + i, "bob", null, false);
+            issue.setLabels(Arrays.asList("type.bug", i % 2 == 0 ? "priority.high" : "priority.low"));
+            issues.add(issue);
+        }
+        Model model = new Model(REPO, issues, new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+
+        HeapFootprint footprint = HeapFootprint.of(model);
+        assertEquals(10, footprint.getIssueCount());
+        assertTrue(footprint.getEstimatedBytes() > 0);
+        assertTrue(footprint.summarise(), footprint.summarise().contains("5 shared string(s)"));
+        assertTrue(footprint.summarise(), footprint.summarise().contains("2 label set(s)"));
+        assertTrue(footprint.summarise(), footprint.summarise().contains("1 metadata"));
+    }
 }
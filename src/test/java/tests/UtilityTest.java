@@ -104,6 +104,16 @@ public class UtilityTest {
         assertTrue(Utility.startsWithIgnoreCase("1A2B3C", "1a2B"));
     }
 
+    @Test
+    public void containsLowerCaseQueryTest() {
+        assertTrue(Utility.containsLowerCaseQuery("HeLlO wOrLd", "llo"));
+        assertTrue(Utility.containsLowerCaseQuery("hello world", "o w"));
+        assertTrue(Utility.containsLowerCaseQuery("1A2B3C", "a2b3"));
+        assertTrue(Utility.containsLowerCaseQuery("abc", ""));
+        assertFalse(Utility.containsLowerCaseQuery("abc", "abcd"));
+        assertFalse(Utility.containsLowerCaseQuery("hello world", "wold"));
+    }
+
     @Test
     public void testReplaceNull() {
         assertEquals("123", replaceNull("123", ""));
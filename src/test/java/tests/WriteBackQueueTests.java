@@ -0,0 +1,94 @@
+package tests;
+
+import backend.IssueEdit;
+import backend.RepoIO;
+import backend.control.RepoOpControl;
+import backend.control.WriteBackQueue;
+import backend.resource.MultiModel;
+import backend.resource.TurboIssue;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class WriteBackQueueTests {
+
+    private static final String REPO = "test/test";
+    // Long enough for flushes to only happen when the tests call for them
+    private static final long FLUSH_WINDOW_MILLIS = 60 * 60 * 1000;
+
+    private final TurboIssue issue1 = new TurboIssue(REPO, 1, "Issue 1");
+    private final TurboIssue issue2 = new TurboIssue(REPO, 2, "Issue 2");
+
+    private RepoIO repoIO;
+    private WriteBackQueue queue;
+
+    @Before
+    public void setup() {
+        repoIO = mock(RepoIO.class);
+        when(repoIO.editIssue(any(TurboIssue.class), any(IssueEdit.class)))
+                .thenReturn(CompletableFuture.completedFuture(true));
+        when(repoIO.replaceIssueLabels(any(TurboIssue.class), anyListOf(String.class)))
+                .thenReturn(CompletableFuture.completedFuture(true));
+        RepoOpControl control = new RepoOpControl(repoIO, mock(MultiModel.class), Runnable::run);
+        queue = new WriteBackQueue(control, FLUSH_WINDOW_MILLIS);
+    }
+
+    /**
+     * Tests that edits of the same issue are merged into one request editing the issue, that an edit of a
+     * single field is written with the request specific to it, and that every edit completes with the result
+     * of its request
+     */
+    @Test
+    public void flush_editsOfSameIssue_mergedIntoOneRequest() {
+        CompletableFuture<Boolean> labelsResult = queue.submit(issue1, IssueEdit.labels(Arrays.asList("a")));
+        CompletableFuture<Boolean> milestoneResult = queue.submit(issue1, IssueEdit.milestone(Optional.of(1)));
+        CompletableFuture<Boolean> stateResult = queue.submit(issue1, IssueEdit.state(false));
+        CompletableFuture<Boolean> otherResult = queue.submit(issue2, IssueEdit.labels(Arrays.asList("b")));
+        assertFalse(labelsResult.isDone());
+
+        queue.flush().join();
+
+        IssueEdit merged = IssueEdit.labels(Arrays.asList("a"))
+                .mergeWith(IssueEdit.milestone(Optional.of(1)))
+                .mergeWith(IssueEdit.state(false));
+        verify(repoIO, times(1)).editIssue(issue1, merged);
+        verify(repoIO, times(1)).replaceIssueLabels(issue2, Arrays.asList("b"));
+        verify(repoIO, never()).replaceIssueMilestone(any(TurboIssue.class), any(Optional.class));
+        assertTrue(labelsResult.join() && milestoneResult.join() && stateResult.join() && otherResult.join());
+        assertEquals(4, queue.getEditCount());
+        assertEquals(2, queue.getRequestCount());
+        assertEquals(1, queue.getFlushCount());
+    }
+
+    /**
+     * Tests that later edits of a field replace earlier ones, and that all of them fail if their request fails
+     */
+    @Test
+    public void flush_failedRequest_allMergedEditsFail() {
+        when(repoIO.replaceIssueLabels(eq(issue1), anyListOf(String.class)))
+                .thenReturn(CompletableFuture.completedFuture(false));
+
+        CompletableFuture<Boolean> first = queue.submit(issue1, IssueEdit.labels(Arrays.asList("a")));
+        CompletableFuture<Boolean> second = queue.submit(issue1, IssueEdit.labels(Arrays.asList("b")));
+        queue.flush().join();
+
+        verify(repoIO, times(1)).replaceIssueLabels(issue1, Arrays.asList("b"));
+        assertFalse(first.join());
+        assertFalse(second.join());
+    }
+}